@@ -19,6 +19,7 @@
 package org.apache.tajo.catalog;
 
 import com.google.protobuf.ServiceException;
+import com.google.protobuf.TextFormat;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.annotation.Nullable;
@@ -54,6 +55,9 @@ public abstract class AbstractCatalogClient implements CatalogService {
   protected InetSocketAddress catalogServerAddr;
   protected TajoConf conf;
 
+  /** It is null if the metadata cache is disabled. */
+  private final CatalogMetadataCache metadataCache;
+
   abstract CatalogProtocolService.BlockingInterface getStub(NettyClientBase client);
 
   public AbstractCatalogClient(TajoConf conf, InetSocketAddress catalogServerAddr) {
@@ -61,6 +65,82 @@ public abstract class AbstractCatalogClient implements CatalogService {
     this.catalogServerAddr = catalogServerAddr;
     this.serviceTracker = ServiceTrackerFactory.get(conf);
     this.conf = conf;
+
+    if (conf.getBoolVar(TajoConf.ConfVars.CATALOG_CLIENT_CACHE_ENABLED)) {
+      // A local catalog is asked for its version whenever metadata are looked up, because it is just a method call.
+      long versionCheckInterval = catalogServerAddr == null ? 0 :
+          conf.getIntVar(TajoConf.ConfVars.CATALOG_CLIENT_CACHE_VERSION_CHECK_INTERVAL);
+      this.metadataCache = new CatalogMetadataCache(
+          conf.getIntVar(TajoConf.ConfVars.CATALOG_CLIENT_CACHE_MAX_ENTRIES), versionCheckInterval);
+    } else {
+      this.metadataCache = null;
+    }
+  }
+
+  /**
+   * @return The metadata cache of this client, or null if it is disabled.
+   */
+  @Nullable
+  public CatalogMetadataCache getMetadataCache() {
+    return metadataCache;
+  }
+
+  /**
+   * Checks the catalog version if necessary, and returns the version which loaded metadata should be cached with.
+   */
+  private long validateCache() {
+    if (metadataCache == null) {
+      return CatalogMetadataCache.UNKNOWN_VERSION;
+    }
+
+    if (metadataCache.needsVersionCheck()) {
+      try {
+        long version = new ServerCallable<Long>(manager, getCatalogServerAddr(), CatalogProtocol.class, false) {
+          public Long call(NettyClientBase client) throws ServiceException {
+            CatalogProtocolService.BlockingInterface stub = getStub(client);
+            return stub.getCatalogVersion(null, ProtoUtil.NULL_PROTO).getValue();
+          }
+        }.withRetries();
+        metadataCache.setVersion(version);
+      } catch (ServiceException e) {
+        LOG.warn("Cannot get the catalog version: " + e.getMessage());
+        metadataCache.invalidate();
+      }
+    }
+    return metadataCache.getVersion();
+  }
+
+  private <T> T getCached(String key) {
+    return metadataCache == null ? null : metadataCache.<T>get(key);
+  }
+
+  private void putCache(String key, Object value, long version) {
+    if (metadataCache != null) {
+      metadataCache.put(key, value, version);
+    }
+  }
+
+  private void invalidateCache() {
+    if (metadataCache != null) {
+      metadataCache.invalidate();
+    }
+  }
+
+  private static String cacheKey(String kind, Object... parts) {
+    StringBuilder sb = new StringBuilder(kind);
+    for (Object part : parts) {
+      sb.append('\0').append(part);
+    }
+    return sb.toString();
+  }
+
+  private static String functionCacheKey(String kind, String signature, FunctionType funcType,
+                                          DataType... paramTypes) {
+    StringBuilder sb = new StringBuilder(cacheKey(kind, signature, funcType));
+    for (DataType type : paramTypes) {
+      sb.append('\0').append(TextFormat.shortDebugString(type));
+    }
+    return sb.toString();
   }
 
   private InetSocketAddress getCatalogServerAddr() {
@@ -92,6 +172,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return Boolean.FALSE;
+    } finally {
+      invalidateCache();
     }
   }
 
@@ -107,6 +189,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return Boolean.FALSE;
+    } finally {
+      invalidateCache();
     }
   }
 
@@ -186,6 +270,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
+    } finally {
+      invalidateCache();
     }
   }
 
@@ -207,6 +293,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return Boolean.FALSE;
+    } finally {
+      invalidateCache();
     }
   }
 
@@ -222,6 +310,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return Boolean.FALSE;
+    } finally {
+      invalidateCache();
     }
   }
 
@@ -276,17 +366,28 @@ public abstract class AbstractCatalogClient implements CatalogService {
 
   @Override
   public final TableDesc getTableDesc(final String databaseName, final String tableName) {
+    // TableDesc is mutable, so its proto is cached and a new TableDesc is built for every call.
+    String cacheKey = cacheKey("table", databaseName, tableName);
+    long version = validateCache();
+    TableDescProto cached = getCached(cacheKey);
+    if (cached != null) {
+      return CatalogUtil.newTableDesc(cached);
+    }
+
     try {
-      return new ServerCallable<TableDesc>(this.manager, getCatalogServerAddr(), CatalogProtocol.class, false) {
-        public TableDesc call(NettyClientBase client) throws ServiceException {
+      TableDescProto proto = new ServerCallable<TableDescProto>(this.manager, getCatalogServerAddr(),
+          CatalogProtocol.class, false) {
+        public TableDescProto call(NettyClientBase client) throws ServiceException {
           TableIdentifierProto.Builder builder = TableIdentifierProto.newBuilder();
           builder.setDatabaseName(databaseName);
           builder.setTableName(tableName);
 
           CatalogProtocolService.BlockingInterface stub = getStub(client);
-          return CatalogUtil.newTableDesc(stub.getTableDesc(null, builder.build()));
+          return stub.getTableDesc(null, builder.build());
         }
       }.withRetries();
+      putCache(cacheKey, proto, version);
+      return CatalogUtil.newTableDesc(proto);
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return null;
@@ -373,18 +474,28 @@ public abstract class AbstractCatalogClient implements CatalogService {
 
   @Override
   public final PartitionMethodDesc getPartitionMethod(final String databaseName, final String tableName) {
+    String cacheKey = cacheKey("partitionMethod", databaseName, tableName);
+    long version = validateCache();
+    PartitionMethodProto cached = getCached(cacheKey);
+    if (cached != null) {
+      return CatalogUtil.newPartitionMethodDesc(cached);
+    }
+
     try {
-      return new ServerCallable<PartitionMethodDesc>(this.manager, getCatalogServerAddr(), CatalogProtocol.class, false) {
-        public PartitionMethodDesc call(NettyClientBase client) throws ServiceException {
+      PartitionMethodProto proto = new ServerCallable<PartitionMethodProto>(this.manager, getCatalogServerAddr(),
+          CatalogProtocol.class, false) {
+        public PartitionMethodProto call(NettyClientBase client) throws ServiceException {
 
           TableIdentifierProto.Builder builder = TableIdentifierProto.newBuilder();
           builder.setDatabaseName(databaseName);
           builder.setTableName(tableName);
 
           CatalogProtocolService.BlockingInterface stub = getStub(client);
-          return CatalogUtil.newPartitionMethodDesc(stub.getPartitionMethodByTableName(null,  builder.build()));
+          return stub.getPartitionMethodByTableName(null,  builder.build());
         }
       }.withRetries();
+      putCache(cacheKey, proto, version);
+      return CatalogUtil.newPartitionMethodDesc(proto);
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return null;
@@ -393,8 +504,15 @@ public abstract class AbstractCatalogClient implements CatalogService {
 
   @Override
   public final boolean existPartitionMethod(final String databaseName, final String tableName) {
+    String cacheKey = cacheKey("existPartitionMethod", databaseName, tableName);
+    long version = validateCache();
+    Boolean cached = getCached(cacheKey);
+    if (cached != null) {
+      return cached;
+    }
+
     try {
-      return new ServerCallable<Boolean>(this.manager, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      boolean exist = new ServerCallable<Boolean>(this.manager, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
 
           TableIdentifierProto.Builder builder = TableIdentifierProto.newBuilder();
@@ -405,6 +523,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
           return stub.existPartitionMethod(null, builder.build()).getValue();
         }
       }.withRetries();
+      putCache(cacheKey, exist, version);
+      return exist;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -414,8 +534,16 @@ public abstract class AbstractCatalogClient implements CatalogService {
   @Override
   public final PartitionDescProto getPartition(final String databaseName, final String tableName,
                                                final String partitionName) {
+    String cacheKey = cacheKey("partition", databaseName, tableName, partitionName);
+    long version = validateCache();
+    PartitionDescProto cached = getCached(cacheKey);
+    if (cached != null) {
+      return cached;
+    }
+
     try {
-      return new ServerCallable<PartitionDescProto>(this.manager, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      PartitionDescProto partition = new ServerCallable<PartitionDescProto>(this.manager, getCatalogServerAddr(),
+          CatalogProtocol.class, false) {
         public PartitionDescProto call(NettyClientBase client) throws ServiceException {
 
           PartitionIdentifierProto.Builder builder = PartitionIdentifierProto.newBuilder();
@@ -427,6 +555,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
           return stub.getPartitionByPartitionName(null, builder.build());
         }
       }.withRetries();
+      putCache(cacheKey, partition, version);
+      return partition;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return null;
@@ -435,9 +565,16 @@ public abstract class AbstractCatalogClient implements CatalogService {
 
   @Override
   public final List<PartitionDescProto> getPartitions(final String databaseName, final String tableName) {
+    String cacheKey = cacheKey("partitions", databaseName, tableName);
+    long version = validateCache();
+    List<PartitionDescProto> cached = getCached(cacheKey);
+    if (cached != null) {
+      return cached;
+    }
+
     try {
-      return new ServerCallable<List<PartitionDescProto>>(this.manager, getCatalogServerAddr(), CatalogProtocol.class,
-        false) {
+      List<PartitionDescProto> partitions = new ServerCallable<List<PartitionDescProto>>(this.manager,
+          getCatalogServerAddr(), CatalogProtocol.class, false) {
         public List<PartitionDescProto> call(NettyClientBase client) throws ServiceException {
 
           PartitionIdentifierProto.Builder builder = PartitionIdentifierProto.newBuilder();
@@ -449,6 +586,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
           return response.getPartitionList();
         }
       }.withRetries();
+      putCache(cacheKey, partitions, version);
+      return partitions;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return null;
@@ -527,6 +666,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
+    } finally {
+      invalidateCache();
     }
   }
 
@@ -551,6 +692,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
+    } finally {
+      invalidateCache();
     }
   }
 
@@ -560,8 +703,16 @@ public abstract class AbstractCatalogClient implements CatalogService {
       throw new IllegalArgumentException(
           "tableName cannot be composed of multiple parts, but it is \"" + tableName + "\"");
     }
+
+    String cacheKey = cacheKey("existsTable", databaseName, tableName);
+    long version = validateCache();
+    Boolean cached = getCached(cacheKey);
+    if (cached != null) {
+      return cached;
+    }
+
     try {
-      return new ServerCallable<Boolean>(this.manager, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      boolean exist = new ServerCallable<Boolean>(this.manager, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
 
           TableIdentifierProto.Builder builder = TableIdentifierProto.newBuilder();
@@ -572,6 +723,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
           return stub.existsTable(null, builder.build()).getValue();
         }
       }.withRetries();
+      putCache(cacheKey, exist, version);
+      return exist;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -595,6 +748,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
+    } finally {
+      invalidateCache();
     }
   }
 
@@ -697,6 +852,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
+    } finally {
+      invalidateCache();
     }
   }
   
@@ -730,6 +887,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
+    } finally {
+      invalidateCache();
     }
   }
 
@@ -748,6 +907,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
+    } finally {
+      invalidateCache();
     }
   }
 
@@ -767,7 +928,18 @@ public abstract class AbstractCatalogClient implements CatalogService {
       builder.addParameterTypes(type);
     }
 
-    FunctionDescProto descProto = null;
+    String cacheKey = functionCacheKey("function", signature, funcType, paramTypes);
+    long version = validateCache();
+    FunctionDescProto descProto = getCached(cacheKey);
+    if (descProto != null) {
+      try {
+        return new FunctionDesc(descProto);
+      } catch (ClassNotFoundException e) {
+        LOG.error(e, e);
+        throw new NoSuchFunctionException(signature, paramTypes);
+      }
+    }
+
     try {
       descProto = new ServerCallable<FunctionDescProto>(this.manager, getCatalogServerAddr(), CatalogProtocol.class, false) {
         public FunctionDescProto call(NettyClientBase client) throws ServiceException {
@@ -792,6 +964,7 @@ public abstract class AbstractCatalogClient implements CatalogService {
     if (descProto == null) {
       throw new NoSuchFunctionException(signature, paramTypes);
     }
+    putCache(cacheKey, descProto, version);
 
     try {
       return new FunctionDesc(descProto);
@@ -818,13 +991,23 @@ public abstract class AbstractCatalogClient implements CatalogService {
       builder.addParameterTypes(type);
     }
 
+    String cacheKey = functionCacheKey("containFunction", signature, funcType, paramTypes);
+    long version = validateCache();
+    Boolean cached = getCached(cacheKey);
+    if (cached != null) {
+      return cached;
+    }
+
     try {
-      return new ServerCallable<Boolean>(this.manager, getCatalogServerAddr(), CatalogProtocol.class, false) {
+      boolean contain = new ServerCallable<Boolean>(this.manager, getCatalogServerAddr(), CatalogProtocol.class,
+          false) {
         public Boolean call(NettyClientBase client) throws ServiceException {
           CatalogProtocolService.BlockingInterface stub = getStub(client);
           return stub.containFunction(null, builder.build()).getValue();
         }
       }.withRetries();
+      putCache(cacheKey, contain, version);
+      return contain;
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
@@ -843,6 +1026,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
+    } finally {
+      invalidateCache();
     }
   }
 
@@ -858,6 +1043,8 @@ public abstract class AbstractCatalogClient implements CatalogService {
     } catch (ServiceException e) {
       LOG.error(e.getMessage(), e);
       return false;
+    } finally {
+      invalidateCache();
     }
   }
 }
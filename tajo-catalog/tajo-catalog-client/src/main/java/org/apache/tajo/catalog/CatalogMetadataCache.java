@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.catalog;
+
+import org.apache.tajo.annotation.ThreadSafe;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded LRU cache of catalog metadata kept by a catalog client.
+ *
+ * Every entry belongs to a catalog version given by the catalog server. When the client finds out that the version
+ * of the server is changed, all entries are discarded. Only immutable values (e.g., protobuf messages) should be
+ * cached, because cached values are shared by all callers.
+ */
+@ThreadSafe
+public class CatalogMetadataCache {
+  /** The version which any value is not cached with */
+  public static final long UNKNOWN_VERSION = -1;
+
+  private final int maxEntries;
+  private final long versionCheckIntervalMs;
+  private final Map<String, Object> entries;
+
+  private long version = UNKNOWN_VERSION;
+  private long lastVersionCheckTime = 0;
+
+  private final AtomicLong hitNum = new AtomicLong();
+  private final AtomicLong missNum = new AtomicLong();
+
+  public CatalogMetadataCache(final int maxEntries, long versionCheckIntervalMs) {
+    this.maxEntries = maxEntries;
+    this.versionCheckIntervalMs = versionCheckIntervalMs;
+    this.entries = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * @return True if the version of the catalog server should be checked before the next lookup.
+   */
+  public synchronized boolean needsVersionCheck() {
+    return version == UNKNOWN_VERSION ||
+        System.currentTimeMillis() - lastVersionCheckTime >= versionCheckIntervalMs;
+  }
+
+  /**
+   * Sets the version of the catalog server. All entries are discarded if it is different from the previous one.
+   */
+  public synchronized void setVersion(long newVersion) {
+    if (newVersion != version) {
+      entries.clear();
+      version = newVersion;
+    }
+    lastVersionCheckTime = System.currentTimeMillis();
+  }
+
+  public synchronized long getVersion() {
+    return version;
+  }
+
+  /**
+   * Discards all entries, and forces the next lookup to check the version of the catalog server.
+   * It should be called when the client changes the catalog or fails to get the version.
+   */
+  public synchronized void invalidate() {
+    entries.clear();
+    version = UNKNOWN_VERSION;
+  }
+
+  @SuppressWarnings("unchecked")
+  public synchronized <T> T get(String key) {
+    Object value = entries.get(key);
+    if (value != null) {
+      hitNum.incrementAndGet();
+    } else {
+      missNum.incrementAndGet();
+    }
+    return (T) value;
+  }
+
+  /**
+   * Caches a value only if the catalog version has not been changed since the value was loaded.
+   *
+   * @param key The key
+   * @param value The value loaded from the catalog server
+   * @param loadedVersion The catalog version taken before the value was loaded
+   */
+  public synchronized void put(String key, Object value, long loadedVersion) {
+    if (value != null && loadedVersion != UNKNOWN_VERSION && loadedVersion == version) {
+      entries.put(key, value);
+    }
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public long getHitNum() {
+    return hitNum.get();
+  }
+
+  public long getMissNum() {
+    return missNum.get();
+  }
+}
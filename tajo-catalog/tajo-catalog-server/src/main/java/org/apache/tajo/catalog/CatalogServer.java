@@ -43,6 +43,7 @@ import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.rpc.BlockingRpcServer;
 import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos.BoolProto;
+import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos.LongProto;
 import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos.NullProto;
 import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos.StringProto;
 import org.apache.tajo.util.NetUtils;
@@ -55,6 +56,7 @@ import java.net.InetSocketAddress;
 import java.net.URI;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -101,6 +103,12 @@ public class CatalogServer extends AbstractService {
 
   private Collection<FunctionDesc> builtingFuncs;
 
+  /**
+   * It is increased whenever catalog metadata are changed, so that clients can invalidate their caches.
+   * It starts from the start time in order not to be confused with the version of a previous catalog server.
+   */
+  private final AtomicLong catalogVersion = new AtomicLong(System.currentTimeMillis());
+
   public CatalogServer() throws IOException {
     super(CatalogServer.class.getName());
     this.handler = new CatalogProtocolHandler();
@@ -115,6 +123,7 @@ public class CatalogServer extends AbstractService {
   public void reloadBuiltinFunctions(List<FunctionDesc> builtingFuncs) throws ServiceException {
     this.builtingFuncs = builtingFuncs;
     initBuiltinFunctions(builtingFuncs);
+    catalogVersion.incrementAndGet();
   }
 
   @Override
@@ -178,8 +187,11 @@ public class CatalogServer extends AbstractService {
     String serverAddr = conf.getVar(ConfVars.CATALOG_ADDRESS);
     InetSocketAddress initIsa = NetUtils.createSocketAddr(serverAddr);
     int workerNum = conf.getIntVar(ConfVars.CATALOG_RPC_SERVER_WORKER_THREAD_NUM);
+    int handlerNum = conf.getIntVar(ConfVars.CATALOG_RPC_SERVER_HANDLER_THREAD_NUM);
+    int handlerQueueSize = conf.getIntVar(ConfVars.RPC_SERVER_HANDLER_QUEUE_SIZE);
     try {
-      this.rpcServer = new BlockingRpcServer(CatalogProtocol.class, handler, initIsa, workerNum);
+      this.rpcServer = new BlockingRpcServer(CatalogProtocol.class, handler, initIsa, workerNum,
+          handlerNum, handlerQueueSize);
       this.rpcServer.start();
 
       this.bindAddress = NetUtils.getConnectAddress(this.rpcServer.getListenAddress());
@@ -220,8 +232,21 @@ public class CatalogServer extends AbstractService {
     return this.bindAddress;
   }
 
+  public BlockingRpcServer getRpcServer() {
+    return this.rpcServer;
+  }
+
+  public long getCatalogVersion() {
+    return catalogVersion.get();
+  }
+
   public class CatalogProtocolHandler implements CatalogProtocolService.BlockingInterface {
 
+    @Override
+    public LongProto getCatalogVersion(RpcController controller, NullProto request) throws ServiceException {
+      return LongProto.newBuilder().setValue(catalogVersion.get()).build();
+    }
+
     @Override
     public BoolProto createTablespace(RpcController controller, CreateTablespaceRequest request) throws ServiceException {
       final String tablespaceName = request.getTablespaceName();
@@ -235,6 +260,7 @@ public class CatalogServer extends AbstractService {
 
         store.createTablespace(tablespaceName, uri);
         LOG.info(String.format("tablespace \"%s\" (%s) is created", tablespaceName, uri));
+        catalogVersion.incrementAndGet();
         return ProtoUtil.TRUE;
 
       } catch (Exception e) {
@@ -260,6 +286,7 @@ public class CatalogServer extends AbstractService {
         }
 
         store.dropTablespace(tablespaceName);
+        catalogVersion.incrementAndGet();
         return ProtoUtil.TRUE;
 
       } catch (Exception e) {
@@ -350,6 +377,7 @@ public class CatalogServer extends AbstractService {
         }
 
         store.alterTablespace(request);
+        catalogVersion.incrementAndGet();
         return ProtoUtil.TRUE;
       } catch (Exception e) {
         LOG.error(e);
@@ -376,6 +404,7 @@ public class CatalogServer extends AbstractService {
 
         store.createDatabase(databaseName, tablespaceName);
         LOG.info(String.format("database \"%s\" is created", databaseName));
+        catalogVersion.incrementAndGet();
         return ProtoUtil.TRUE;
       } catch (Exception e) {
         LOG.error(e);
@@ -403,6 +432,7 @@ public class CatalogServer extends AbstractService {
         LOG.info("Table " + proto.getTableName() + " is updated in the catalog ("
           + bindAddressStr + ")");
       }
+      catalogVersion.incrementAndGet();
       return BOOL_TRUE;
     }
 
@@ -428,6 +458,7 @@ public class CatalogServer extends AbstractService {
         LOG.info("Table " + proto.getTableName() + " is altered in the catalog ("
             + bindAddressStr + ")");
       }
+      catalogVersion.incrementAndGet();
       return BOOL_TRUE;
     }
 
@@ -446,6 +477,7 @@ public class CatalogServer extends AbstractService {
         }
 
         store.dropDatabase(databaseName);
+        catalogVersion.incrementAndGet();
         return ProtoUtil.TRUE;
 
       } catch (Exception e) {
@@ -614,6 +646,7 @@ public class CatalogServer extends AbstractService {
         wlock.unlock();
       }
 
+      catalogVersion.incrementAndGet();
       return ProtoUtil.TRUE;
     }
 
@@ -649,6 +682,7 @@ public class CatalogServer extends AbstractService {
         wlock.unlock();
       }
 
+      catalogVersion.incrementAndGet();
       return BOOL_TRUE;
     }
 
@@ -938,6 +972,7 @@ public class CatalogServer extends AbstractService {
         rlock.unlock();
       }
 
+      catalogVersion.incrementAndGet();
       return BOOL_TRUE;
     }
 
@@ -1042,6 +1077,7 @@ public class CatalogServer extends AbstractService {
         wlock.unlock();
       }
 
+      catalogVersion.incrementAndGet();
       return BOOL_TRUE;
     }
     
@@ -1201,6 +1237,7 @@ public class CatalogServer extends AbstractService {
         LOG.info("Function " + signature + " is registered.");
       }
 
+      catalogVersion.incrementAndGet();
       return BOOL_TRUE;
     }
 
@@ -1215,6 +1252,7 @@ public class CatalogServer extends AbstractService {
       functions.remove(request.getSignature());
       LOG.info(request.getSignature() + " is dropped.");
 
+      catalogVersion.incrementAndGet();
       return BOOL_TRUE;
     }
 
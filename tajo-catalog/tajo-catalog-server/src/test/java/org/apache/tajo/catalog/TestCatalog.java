@@ -1163,4 +1163,32 @@ public class TestCatalog {
     assertEquals(retrieved.getFunctionName(), "testany");
     assertEquals(retrieved.getParamTypes()[0], CatalogUtil.newSimpleDataType(Type.ANY));
   }
+
+  @Test
+  public final void testMetadataCache() throws Exception {
+    // another client of the same catalog server, which should see changes made by the other client.
+    LocalCatalogWrapper client = new LocalCatalogWrapper(server);
+    CatalogMetadataCache cache = client.getMetadataCache();
+    assertNotNull(cache);
+
+    TableDesc table = createMockupTable(DEFAULT_DATABASE_NAME, "cached_table");
+    assertTrue(catalog.createTable(table));
+
+    long hitNum = cache.getHitNum();
+    TableDesc desc1 = client.getTableDesc(DEFAULT_DATABASE_NAME, "cached_table");
+    TableDesc desc2 = client.getTableDesc(DEFAULT_DATABASE_NAME, "cached_table");
+    assertEquals(hitNum + 1, cache.getHitNum());
+    assertEquals(desc1, desc2);
+
+    // a returned table desc must not change the cached one
+    desc1.getSchema().addColumn("f4", Type.INT4);
+    assertEquals(3, client.getTableDesc(DEFAULT_DATABASE_NAME, "cached_table").getSchema().size());
+    assertTrue(client.existsTable(DEFAULT_DATABASE_NAME, "cached_table"));
+
+    long version = server.getCatalogVersion();
+    assertTrue(catalog.dropTable(CatalogUtil.buildFQName(DEFAULT_DATABASE_NAME, "cached_table")));
+    assertTrue(server.getCatalogVersion() > version);
+    assertFalse(client.existsTable(DEFAULT_DATABASE_NAME, "cached_table"));
+    assertNull(client.getTableDesc(DEFAULT_DATABASE_NAME, "cached_table"));
+  }
 }
@@ -100,8 +100,9 @@ public class RowStoreUtil {
             break;
 
           case CHAR:
-            byte c = bb.get();
-            tuple.put(i, DatumFactory.createChar(c));
+            byte [] _char = new byte[bb.getInt()];
+            bb.get(_char);
+            tuple.put(i, DatumFactory.createChar(_char));
             break;
 
           case INT2:
@@ -197,7 +198,11 @@ public class RowStoreUtil {
           case NULL_TYPE: nullFlags.set(i); break;
           case BOOLEAN: bb.put(tuple.get(i).asByte()); break;
           case BIT: bb.put(tuple.get(i).asByte()); break;
-          case CHAR: bb.put(tuple.get(i).asByte()); break;
+          case CHAR:
+            byte [] _char = tuple.get(i).asByteArray();
+            bb.putInt(_char.length);
+            bb.put(_char);
+            break;
           case INT2: bb.putShort(tuple.get(i).asInt2()); break;
           case INT4: bb.putInt(tuple.get(i).asInt4()); break;
           case INT8: bb.putLong(tuple.get(i).asInt8()); break;
@@ -258,8 +263,7 @@ public class RowStoreUtil {
         col = schema.getColumn(i);
         switch (col.getDataType().getType()) {
           case BOOLEAN:
-          case BIT:
-          case CHAR: size += 1; break;
+          case BIT: size += 1; break;
           case INT2: size += 2; break;
           case DATE:
           case INT4:
@@ -269,6 +273,7 @@ public class RowStoreUtil {
           case INT8:
           case FLOAT8: size += 8; break;
           case INTERVAL: size += 12; break;
+          case CHAR:
           case TEXT:
           case BLOB: size += (4 + tuple.get(i).asByteArray().length); break;
           case INET4:
@@ -107,9 +107,20 @@ public enum SessionVars implements ConfigKey {
   GROUPBY_MULTI_LEVEL_ENABLED(ConfVars.$GROUPBY_MULTI_LEVEL_ENABLED, "Multiple level groupby enabled", DEFAULT,
       Boolean.class, Validators.bool()),
 
+  JOIN_SKEW_SPLIT_ENABLED(ConfVars.$DIST_QUERY_JOIN_SKEW_SPLIT_ENABLED,
+      "split skewed partitions of repartition join into multiple tasks", DEFAULT, Boolean.class, Validators.bool()),
+  JOIN_SKEW_FACTOR(ConfVars.$DIST_QUERY_JOIN_SKEW_FACTOR,
+      "the ratio of a skewed join partition volume to the median partition volume", DEFAULT,
+      Integer.class, Validators.min("1")),
+  RUNTIME_OPTIMIZATION_ENABLED(ConfVars.$DIST_QUERY_RUNTIME_OPTIMIZATION_ENABLED,
+      "re-optimize a join stage according to actual volumes of intermediate data", DEFAULT, Boolean.class,
+      Validators.bool()),
+
   // for physical Executors
   EXTSORT_BUFFER_SIZE(ConfVars.$EXECUTOR_EXTERNAL_SORT_BUFFER_SIZE, "sort buffer size for external sort (mb)", DEFAULT,
       Long.class, Validators.min("0")),
+  TOPN_SORT_MAX_ROWS(ConfVars.$EXECUTOR_TOPN_SORT_MAX_ROWS, "max limit of ORDER BY evaluated by top-n sort", DEFAULT,
+      Integer.class, Validators.min("0")),
   HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_HASH_JOIN_SIZE_THRESHOLD, "limited size for hash join (mb)", DEFAULT,
       Long.class, Validators.min("0")),
   INNER_HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_INNER_HASH_JOIN_SIZE_THRESHOLD,
@@ -118,6 +129,10 @@ public enum SessionVars implements ConfigKey {
       DEFAULT, Long.class, Validators.min("0")),
   HASH_GROUPBY_SIZE_LIMIT(ConfVars.$EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD, "limited size for hash groupby (mb)",
       DEFAULT, Long.class, Validators.min("0")),
+  DISTINCT_GROUPBY_BUFFER_SIZE(ConfVars.$EXECUTOR_DISTINCT_GROUPBY_BUFFER_SIZE,
+      "buffer size for distinct keys of multiple distinct aggregation (mb)", DEFAULT, Long.class, Validators.min("1")),
+  WINDOW_BUFFER_SIZE(ConfVars.$EXECUTOR_WINDOW_BUFFER_SIZE, "buffer size for rows of a window partition (mb)",
+      DEFAULT, Long.class, Validators.min("1")),
   MAX_OUTPUT_FILE_SIZE(ConfVars.$MAX_OUTPUT_FILE_SIZE, "Maximum per-output file size (mb). 0 means infinite.", DEFAULT,
       Long.class, Validators.min("0")),
   NULL_CHAR(ConfVars.$TEXT_NULL, "null char of text file output", DEFAULT),
@@ -130,6 +145,9 @@ public enum SessionVars implements ConfigKey {
   // ResultSet ----------------------------------------------------------------
   FETCH_ROWNUM(ConfVars.$RESULT_SET_FETCH_ROWNUM, "Sets the number of rows at a time from Master", DEFAULT,
       Integer.class, Validators.min("0")),
+  RESULT_CACHE_ENABLED(ConfVars.$RESULT_CACHE_ENABLED,
+      "If false, the results of queries are neither served from nor stored in the result cache of the master",
+      DEFAULT),
 
   //-------------------------------------------------------------------------------
   // Only for Unit Testing
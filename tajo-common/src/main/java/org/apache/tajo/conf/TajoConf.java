@@ -173,7 +173,16 @@ public class TajoConf extends Configuration {
     WORKER_RESOURCE_AVAILABLE_MEMORY_MB("tajo.worker.resource.memory-mb", 1024, Validators.min("64")),
     WORKER_RESOURCE_AVAILABLE_DISKS("tajo.worker.resource.disks", 1.0f),
     WORKER_EXECUTION_MAX_SLOTS("tajo.worker.parallel-execution.max-num", 2),
+    // the number of threads running task runners which are started with the worker. More threads are created for
+    // more task runners, up to the number of memory slots of the worker.
+    WORKER_TASK_EXECUTOR_THREAD_NUM("tajo.worker.task-executor.thread-num", Runtime.getRuntime().availableProcessors()),
     WORKER_RESOURCE_DFS_DIR_AWARE("tajo.worker.resource.dfs-dir-aware", false, Validators.bool()),
+    // the ratio of the heap shared by sort, join, aggregation, window and shuffle buffers of all running tasks
+    WORKER_EXECUTOR_MEMORY_RATIO("tajo.worker.executor.memory-ratio", 0.6f, Validators.range("0.0f", "1.0f")),
+    // the maximum size of broadcast tables shared by queries. 0 disables sharing them across queries.
+    WORKER_BROADCAST_CACHE_SIZE("tajo.worker.broadcast-cache.size-mb", 256, Validators.min("0")),
+    // the maximum size of fragments of tables with 'cache.in-memory'='true' kept in memory in the columnar layout
+    WORKER_TABLE_CACHE_SIZE("tajo.worker.table-cache.size-mb", 512, Validators.min("0")),
 
     // Tajo Worker Dedicated Resources
     WORKER_RESOURCE_DEDICATED("tajo.worker.resource.dedicated", false, Validators.bool()),
@@ -192,6 +201,12 @@ public class TajoConf extends Configuration {
 
     // Catalog
     CATALOG_ADDRESS("tajo.catalog.client-rpc.address", "localhost:26005", Validators.networkAddr()),
+    CATALOG_CLIENT_CACHE_ENABLED("tajo.catalog.client.cache.enabled", true, Validators.bool()),
+    CATALOG_CLIENT_CACHE_MAX_ENTRIES("tajo.catalog.client.cache.max-entries", 10000, Validators.min("1")),
+    // how often a remote catalog client checks the catalog version in milliseconds. With 0, it is checked on every
+    // lookup. A positive value saves RPCs, but cached metadata can be stale for that long after DDL.
+    CATALOG_CLIENT_CACHE_VERSION_CHECK_INTERVAL("tajo.catalog.client.cache.version-check-interval-ms", 0,
+        Validators.min("0")),
 
 
     // for Yarn Resource Manager ----------------------------------------------
@@ -204,6 +219,11 @@ public class TajoConf extends Configuration {
     // Query Configuration
     QUERY_SESSION_TIMEOUT("tajo.query.session.timeout-sec", 60, Validators.min("0")),
     QUERY_SESSION_QUERY_CACHE_SIZE("tajo.query.session.query-cache-size-kb", 1024, Validators.min("0")),
+    // the max number of optimized logical plans cached by the master. 0 disables the plan cache.
+    QUERY_PLAN_CACHE_SIZE("tajo.query.plan-cache.size", 256, Validators.min("0")),
+    // the total size of query results cached by the master. 0 disables the result cache.
+    QUERY_RESULT_CACHE_SIZE("tajo.query.result-cache.size-mb", 128, Validators.min("0")),
+    QUERY_RESULT_CACHE_TTL("tajo.query.result-cache.ttl-sec", 600, Validators.min("1")),
 
     // Shuffle Configuration --------------------------------------------------
     PULLSERVER_PORT("tajo.pullserver.port", 0, Validators.range("0", "65535")),
@@ -216,6 +236,8 @@ public class TajoConf extends Configuration {
     SHUFFLE_HASH_APPENDER_BUFFER_SIZE("tajo.shuffle.hash.appender.buffer.size", 10000),
     SHUFFLE_HASH_APPENDER_PAGE_VOLUME("tajo.shuffle.hash.appender.page.volumn-mb", 30),
     HASH_SHUFFLE_PARENT_DIRS("tajo.hash.shuffle.parent.dirs.count", 10),
+    // the number of counters to find heavy-hitter shuffle keys in each task. Zero disables it.
+    SHUFFLE_HASH_HOT_KEY_SKETCH_SIZE("tajo.shuffle.hash.hot-key.sketch-size", 64, Validators.min("0")),
 
     // Storage Configuration --------------------------------------------------
     ROWFILE_SYNC_INTERVAL("rowfile.sync.interval", 100),
@@ -225,6 +247,8 @@ public class TajoConf extends Configuration {
 
     // RPC --------------------------------------------------------------------
     RPC_POOL_MAX_IDLE("tajo.rpc.pool.idle.max", 10),
+    // use linux native epoll transport instead of NIO if it is available
+    RPC_NATIVE_EPOLL_ENABLED("tajo.rpc.native-epoll.enabled", false, Validators.bool()),
 
     //  Internal RPC Client
     INTERNAL_RPC_CLIENT_WORKER_THREAD_NUM("tajo.internal.rpc.client.worker-thread-num",
@@ -256,10 +280,26 @@ public class TajoConf extends Configuration {
     REST_SERVICE_RPC_SERVER_WORKER_THREAD_NUM("tajo.rest.service.rpc.server.worker-thread-num",
         Runtime.getRuntime().availableProcessors() * 1),
 
+    // Handler threads of blocking RPC servers, which call blocking methods instead of event loop threads
+    MASTER_SERVICE_RPC_SERVER_HANDLER_THREAD_NUM("tajo.master.service.rpc.server.handler-thread-num",
+        Runtime.getRuntime().availableProcessors() * 4),
+    WORKER_SERVICE_RPC_SERVER_HANDLER_THREAD_NUM("tajo.worker.service.rpc.server.handler-thread-num",
+        Runtime.getRuntime().availableProcessors() * 2),
+    CATALOG_RPC_SERVER_HANDLER_THREAD_NUM("tajo.catalog.rpc.server.handler-thread-num",
+        Runtime.getRuntime().availableProcessors() * 4),
+    REST_SERVICE_HANDLER_THREAD_NUM("tajo.rest.service.handler-thread-num",
+        Runtime.getRuntime().availableProcessors() * 2),
+    // A result stream holds a handler thread until it ends, so it should be less than the handler threads.
+    REST_SERVICE_MAX_CONCURRENT_STREAMS("tajo.rest.service.max-concurrent-streams",
+        Runtime.getRuntime().availableProcessors()),
+    RPC_SERVER_HANDLER_QUEUE_SIZE("tajo.rpc.server.handler.queue-size", 1024),
+
     // Task Configuration -----------------------------------------------------
     TASK_DEFAULT_MEMORY("tajo.task.memory-slot-mb.default", 512),
     TASK_DEFAULT_DISK("tajo.task.disk-slot.default", 0.5f),
     TASK_DEFAULT_SIZE("tajo.task.size-mb", 128),
+    // the maximum number of tasks which a task runner receives at once. If it is 1, a task is sent per request.
+    TASK_DISPATCH_BATCH_SIZE("tajo.task.dispatch.batch-size", 1, Validators.min("1")),
 
     // Query and Optimization -------------------------------------------------
     // This class provides a ordered list of logical plan rewrite rule classes.
@@ -269,6 +309,7 @@ public class TajoConf extends Configuration {
     GLOBAL_PLAN_REWRITE_RULE_PROVIDER_CLASS("tajo.plan.global.rewriter.provider",
         "org.apache.tajo.engine.planner.global.rewriter.BaseGlobalPlanRewriteRuleProvider"),
     EXECUTOR_EXTERNAL_SORT_THREAD_NUM("tajo.executor.external-sort.thread-num", 1),
+    // the minimum fanout. A larger fanout is used if the sort buffer can hold read-ahead blocks of more runs.
     EXECUTOR_EXTERNAL_SORT_FANOUT("tajo.executor.external-sort.fanout-num", 8),
 
     EXECUTOR_INNER_JOIN_INMEMORY_HASH_TABLE_SIZE("tajo.executor.join.inner.in-memory-table-num", (long)1000000),
@@ -296,6 +337,11 @@ public class TajoConf extends Configuration {
     // Python UDF
     PYTHON_CODE_DIR("tajo.function.python.code-dir", ""),
     PYTHON_CONTROLLER_LOG_DIR("tajo.function.python.controller.log-dir", ""),
+    // the number of rows which are sent to a python controller at once
+    PYTHON_BATCH_SIZE("tajo.function.python.batch-size", 1024, Validators.min("1")),
+    // the max number of idle controllers per python function, which are reused by tasks of a query
+    PYTHON_CONTROLLER_MAX_IDLE("tajo.function.python.controller.max-idle", 4, Validators.min("0")),
+    PYTHON_CONTROLLER_IDLE_TIMEOUT_SEC("tajo.function.python.controller.idle-timeout-sec", 300, Validators.min("0")),
 
     /////////////////////////////////////////////////////////////////////////////////
     // User Session Configuration
@@ -325,8 +371,16 @@ public class TajoConf extends Configuration {
 
     $GROUPBY_MULTI_LEVEL_ENABLED("tajo.dist-query.groupby.multi-level-aggr", true),
 
+    $DIST_QUERY_JOIN_SKEW_SPLIT_ENABLED("tajo.dist-query.join.skew-split.enabled", true),
+    // a partition larger than the median partition volume multiplied by this factor is regarded as a skewed one.
+    $DIST_QUERY_JOIN_SKEW_FACTOR("tajo.dist-query.join.skew-factor", 4, Validators.min("1")),
+    // adjusts the join strategy and the number of tasks according to actual volumes of intermediate data
+    $DIST_QUERY_RUNTIME_OPTIMIZATION_ENABLED("tajo.dist-query.runtime-optimization.enabled", true),
+
     // for physical Executors
     $EXECUTOR_EXTERNAL_SORT_BUFFER_SIZE("tajo.executor.external-sort.buffer-mb", 200L),
+    // ORDER BY with LIMIT up to this number of rows is evaluated by a bounded heap instead of a full sort
+    $EXECUTOR_TOPN_SORT_MAX_ROWS("tajo.executor.sort.top-n.max-rows", 100000),
     $EXECUTOR_HASH_JOIN_SIZE_THRESHOLD("tajo.executor.join.common.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
     $EXECUTOR_INNER_HASH_JOIN_SIZE_THRESHOLD("tajo.executor.join.inner.in-memory-hash-threshold-bytes",
@@ -335,6 +389,10 @@ public class TajoConf extends Configuration {
         (long)256 * 1048576),
     $EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD("tajo.executor.groupby.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
+    // memory for distinct keys of multiple distinct aggregation. Keys are spilled to local disks beyond it.
+    $EXECUTOR_DISTINCT_GROUPBY_BUFFER_SIZE("tajo.executor.groupby.distinct.buffer-mb", 128L),
+    // memory for rows of a window partition. Rows are spilled to local disks beyond it.
+    $EXECUTOR_WINDOW_BUFFER_SIZE("tajo.executor.window.buffer-mb", 128L),
     $MAX_OUTPUT_FILE_SIZE("tajo.query.max-outfile-size-mb", 0), // zero means infinite
     $CODEGEN("tajo.executor.codegen.enabled", false), // Runtime code generation (todo this is broken)
 
@@ -370,6 +428,7 @@ public class TajoConf extends Configuration {
 
     // ResultSet ---------------------------------------------------------
     $RESULT_SET_FETCH_ROWNUM("tajo.resultset.fetch.rownum", 200),
+    $RESULT_CACHE_ENABLED("tajo.resultset.cache.enabled", true),
     ;
 
     public final String varname;
@@ -369,7 +369,6 @@ public class DatumFactory {
     }
   }
 
-  @SuppressWarnings("unused")
   public static TimestampDatum createTimestamp(long julianTimestamp) {
     return new TimestampDatum(julianTimestamp);
   }
@@ -31,6 +31,12 @@ public class StorageConstants {
   public static final String COMPRESSION_CODEC = "compression.codec";
   public static final String COMPRESSION_TYPE = "compression.type";
 
+  /**
+   * If it is true, workers keep the fragments of the table in memory in the columnar layout after reading them.
+   * e.g., ALTER TABLE t SET PROPERTY 'cache.in-memory'='true'
+   */
+  public static final String IN_MEMORY_CACHE = "cache.in-memory";
+
   // Text file properties -------------------------------------------------
   @Deprecated
   public static final String CSVFILE_DELIMITER = "csvfile.delimiter";
@@ -55,6 +61,19 @@ public class StorageConstants {
    **/
   public static final String TEXT_ERROR_TOLERANCE_MAXNUM = "text.error-tolerance.max-num";
   public static final String DEFAULT_TEXT_ERROR_TOLERANCE_MAXNUM = "0";
+  /**
+   * The formats of date and timestamp fields, which are the patterns of to_timestamp() (e.g., 'YYYYMMDD').
+   * If not given, the fields are parsed in the same way as date and timestamp literals.
+   */
+  public static final String TEXT_DATE_FORMAT = "text.date.format";
+  public static final String TEXT_TIMESTAMP_FORMAT = "text.timestamp.format";
+
+  // Json file properties -------------------------------------------------
+  /**
+   * The prefix of a property which maps a column to a nested field. For example, the property
+   * 'json.field-path.user_id'='payload.user.id' reads the field 'id' of the object 'payload.user' into user_id.
+   */
+  public static final String JSON_FIELD_PATH_PREFIX = "json.field-path.";
 
   // Sequence file properties -------------------------------------------------
   @Deprecated
@@ -0,0 +1,259 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <code>HyperLogLog</code> estimates the number of distinct items of a stream (Flajolet et al., 2007) with the
+ * improvements of HyperLogLog++ (Heule et al., 2013): it uses 64-bit hashes, so it does not need the large range
+ * correction, and it keeps a sparse list of registers until the list grows to 1/8 of the size of the dense registers.
+ * The empirical bias correction of HyperLogLog++ is not applied, so cardinalities up to
+ * <code>2.5 * 2^precision</code> are estimated by linear counting, whose error is smaller than the bias of the raw
+ * estimate in that range.
+ *
+ * The standard error is about <code>1.04 / sqrt(2^precision)</code>, i.e., 0.81% for the default precision 14.
+ * Sketches having the same precision can be merged, so they can be used as partial aggregation results.
+ */
+public class HyperLogLog {
+  public static final int DEFAULT_PRECISION = 14;
+  public static final int MIN_PRECISION = 4;
+  public static final int MAX_PRECISION = 18;
+
+  private static final byte SPARSE = 0;
+  private static final byte DENSE = 1;
+
+  /** a register value needs 6 bits, because it is at most 65 - MIN_PRECISION */
+  private static final int VALUE_BITS = 6;
+  private static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+
+  private final int precision;
+  private final int numRegisters;
+
+  /** registers in the dense form. It is null while the sketch is sparse. */
+  private byte [] registers;
+  /** non-zero registers in the sparse form, sorted by register index. Each entry is (index << 6 | value). */
+  private int [] sparseEntries;
+  private int sparseSize;
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  public HyperLogLog(int precision) {
+    Preconditions.checkArgument(precision >= MIN_PRECISION && precision <= MAX_PRECISION,
+        "The precision must be between %s and %s: %s", MIN_PRECISION, MAX_PRECISION, precision);
+    this.precision = precision;
+    this.numRegisters = 1 << precision;
+    this.sparseEntries = new int[4];
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+
+  public boolean isSparse() {
+    return registers == null;
+  }
+
+  public boolean isEmpty() {
+    return registers == null && sparseSize == 0;
+  }
+
+  /**
+   * Adds an item given by its 64-bit hash value.
+   */
+  public void offerHash(long hash) {
+    int index = (int) (hash >>> (64 - precision));
+    // a guard bit bounds the number of leading zeros of the remaining bits
+    long remaining = (hash << precision) | (1L << (precision - 1));
+    update(index, Long.numberOfLeadingZeros(remaining) + 1);
+  }
+
+  private void update(int index, int value) {
+    if (registers != null) {
+      if (registers[index] < value) {
+        registers[index] = (byte) value;
+      }
+      return;
+    }
+
+    int pos = findSparse(index);
+    if (pos >= 0) {
+      if ((sparseEntries[pos] & VALUE_MASK) < value) {
+        sparseEntries[pos] = index << VALUE_BITS | value;
+      }
+      return;
+    }
+
+    // the sparse form is kept while it takes less than 1/8 of the memory of the dense form, because updates of
+    // sparse registers become slow as the list grows
+    if (sparseSize * 4 >= numRegisters / 8) {
+      toDense();
+      registers[index] = (byte) value;
+      return;
+    }
+
+    int insertion = -(pos + 1);
+    if (sparseSize == sparseEntries.length) {
+      sparseEntries = Arrays.copyOf(sparseEntries, sparseEntries.length * 2);
+    }
+    System.arraycopy(sparseEntries, insertion, sparseEntries, insertion + 1, sparseSize - insertion);
+    sparseEntries[insertion] = index << VALUE_BITS | value;
+    sparseSize++;
+  }
+
+  private int findSparse(int index) {
+    int low = 0;
+    int high = sparseSize - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midIndex = sparseEntries[mid] >>> VALUE_BITS;
+      if (midIndex < index) {
+        low = mid + 1;
+      } else if (midIndex > index) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private void toDense() {
+    registers = new byte[numRegisters];
+    for (int i = 0; i < sparseSize; i++) {
+      registers[sparseEntries[i] >>> VALUE_BITS] = (byte) (sparseEntries[i] & VALUE_MASK);
+    }
+    sparseEntries = null;
+    sparseSize = 0;
+  }
+
+  /**
+   * Merges other sketch into this sketch. Both sketches must have the same precision.
+   */
+  public void merge(HyperLogLog other) {
+    Preconditions.checkArgument(precision == other.precision,
+        "Cannot merge sketches of different precisions: %s and %s", precision, other.precision);
+
+    if (other.registers == null) {
+      for (int i = 0; i < other.sparseSize; i++) {
+        update(other.sparseEntries[i] >>> VALUE_BITS, other.sparseEntries[i] & VALUE_MASK);
+      }
+    } else {
+      if (registers == null) {
+        toDense();
+      }
+      for (int i = 0; i < numRegisters; i++) {
+        if (registers[i] < other.registers[i]) {
+          registers[i] = other.registers[i];
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the estimated number of distinct items
+   */
+  public long cardinality() {
+    int zeros;
+    double sum = 0;
+
+    if (registers == null) {
+      zeros = numRegisters - sparseSize;
+      sum = zeros;
+      for (int i = 0; i < sparseSize; i++) {
+        sum += 1.0 / (1L << (sparseEntries[i] & VALUE_MASK));
+      }
+    } else {
+      zeros = 0;
+      for (byte value : registers) {
+        if (value == 0) {
+          zeros++;
+        }
+        sum += 1.0 / (1L << value);
+      }
+    }
+
+    if (zeros > 0) {
+      double linearCounting = numRegisters * Math.log((double) numRegisters / zeros);
+      if (linearCounting <= 2.5 * numRegisters) {
+        return Math.round(linearCounting);
+      }
+    }
+    return Math.round(alpha() * numRegisters * numRegisters / sum);
+  }
+
+  private double alpha() {
+    switch (numRegisters) {
+    case 16:
+      return 0.673;
+    case 32:
+      return 0.697;
+    case 64:
+      return 0.709;
+    default:
+      return 0.7213 / (1 + 1.079 / numRegisters);
+    }
+  }
+
+  /**
+   * Serializes this sketch. A sparse sketch takes 4 bytes per non-zero register, and a dense sketch takes
+   * a byte per register.
+   */
+  public byte [] toBytes() {
+    ByteBuffer buffer;
+    if (registers == null) {
+      buffer = ByteBuffer.allocate(2 + 4 + sparseSize * 4);
+      buffer.put(SPARSE).put((byte) precision).putInt(sparseSize);
+      for (int i = 0; i < sparseSize; i++) {
+        buffer.putInt(sparseEntries[i]);
+      }
+    } else {
+      buffer = ByteBuffer.allocate(2 + numRegisters);
+      buffer.put(DENSE).put((byte) precision).put(registers);
+    }
+    return buffer.array();
+  }
+
+  public static HyperLogLog fromBytes(byte [] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    byte format = buffer.get();
+    HyperLogLog sketch = new HyperLogLog(buffer.get());
+
+    if (format == SPARSE) {
+      int size = buffer.getInt();
+      sketch.sparseEntries = new int[Math.max(4, size)];
+      for (int i = 0; i < size; i++) {
+        sketch.sparseEntries[i] = buffer.getInt();
+      }
+      sketch.sparseSize = size;
+    } else if (format == DENSE) {
+      sketch.registers = new byte[sketch.numRegisters];
+      buffer.get(sketch.registers);
+      sketch.sparseEntries = null;
+    } else {
+      throw new IllegalArgumentException("Unknown format of HyperLogLog: " + format);
+    }
+    return sketch;
+  }
+}
@@ -0,0 +1,217 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.*;
+
+/**
+ * <code>SpaceSavingSketch</code> finds the most frequent items (heavy hitters) of a stream
+ * by using the Space-Saving algorithm (Metwally et al., 2005).
+ *
+ * It keeps at most <code>capacity</code> counters. If a new item arrives when all counters are in use,
+ * the counter having the minimum count is taken over by the new item. So, the count of each item is
+ * overestimated by at most its error, and every item whose frequency is larger than <code>N / capacity</code>
+ * is guaranteed to be kept. Counters are maintained in a min-heap, so each update takes O(log capacity).
+ */
+public class SpaceSavingSketch<T> {
+  private final int capacity;
+  private final Map<T, Counter<T>> counters;
+  private final Counter<T> [] heap;
+  private int size = 0;
+  private long totalCount = 0;
+
+  @SuppressWarnings("unchecked")
+  public SpaceSavingSketch(int capacity) {
+    Preconditions.checkArgument(capacity > 0, "The capacity of sketch must be positive: %s", capacity);
+    this.capacity = capacity;
+    this.counters = new HashMap<T, Counter<T>>(capacity * 2);
+    this.heap = new Counter[capacity];
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the number of all offered items
+   */
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  public void offer(T item) {
+    offer(item, 1, 0);
+  }
+
+  public void offer(T item, long increment) {
+    offer(item, increment, 0);
+  }
+
+  /**
+   * Offers an item with the error of its count, e.g., when a counter of a serialized sketch is restored.
+   */
+  public void offer(T item, long increment, long error) {
+    totalCount += increment;
+
+    Counter<T> counter = counters.get(item);
+    if (counter != null) {
+      counter.count += increment;
+      counter.error += error;
+      siftDown(counter.index);
+    } else if (size < capacity) {
+      counter = new Counter<T>(item, increment, error);
+      counter.index = size;
+      heap[size++] = counter;
+      counters.put(item, counter);
+      siftUp(counter.index);
+    } else {
+      // take over the counter having the minimum count
+      counter = heap[0];
+      counters.remove(counter.item);
+      counter.item = item;
+      counter.error = counter.count + error;
+      counter.count += increment;
+      counters.put(item, counter);
+      siftDown(0);
+    }
+  }
+
+  /**
+   * Merges other sketch into this sketch. The errors of merged counters are accumulated.
+   */
+  public void merge(SpaceSavingSketch<T> other) {
+    for (int i = 0; i < other.size; i++) {
+      Counter<T> counter = other.heap[i];
+      offer(counter.item, counter.count, counter.error);
+    }
+  }
+
+  public Counter<T> get(T item) {
+    return counters.get(item);
+  }
+
+  /**
+   * @return up to k counters in a descending order of counts.
+   */
+  public List<Counter<T>> getTopK(int k) {
+    List<Counter<T>> sorted = new ArrayList<Counter<T>>(size);
+    for (int i = 0; i < size; i++) {
+      sorted.add(heap[i]);
+    }
+    Collections.sort(sorted, new Comparator<Counter<T>>() {
+      @Override
+      public int compare(Counter<T> o1, Counter<T> o2) {
+        return o1.count < o2.count ? 1 : (o1.count > o2.count ? -1 : 0);
+      }
+    });
+    return sorted.size() > k ? sorted.subList(0, k) : sorted;
+  }
+
+  public void clear() {
+    Arrays.fill(heap, null);
+    counters.clear();
+    size = 0;
+    totalCount = 0;
+  }
+
+  private void siftUp(int idx) {
+    Counter<T> counter = heap[idx];
+    while (idx > 0) {
+      int parent = (idx - 1) >>> 1;
+      if (heap[parent].count <= counter.count) {
+        break;
+      }
+      place(heap[parent], idx);
+      idx = parent;
+    }
+    place(counter, idx);
+  }
+
+  private void siftDown(int idx) {
+    Counter<T> counter = heap[idx];
+    int half = size >>> 1;
+    while (idx < half) {
+      int child = (idx << 1) + 1;
+      int right = child + 1;
+      if (right < size && heap[right].count < heap[child].count) {
+        child = right;
+      }
+      if (counter.count <= heap[child].count) {
+        break;
+      }
+      place(heap[child], idx);
+      idx = child;
+    }
+    place(counter, idx);
+  }
+
+  private void place(Counter<T> counter, int idx) {
+    heap[idx] = counter;
+    counter.index = idx;
+  }
+
+  public static class Counter<T> {
+    private T item;
+    private long count;
+    private long error;
+    private int index;
+
+    Counter(T item, long count, long error) {
+      this.item = item;
+      this.count = count;
+      this.error = error;
+    }
+
+    public T getItem() {
+      return item;
+    }
+
+    /**
+     * @return the estimated count, which is an upper bound of the real count
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * @return the maximum overestimation of the count
+     */
+    public long getError() {
+      return error;
+    }
+
+    /**
+     * @return a lower bound of the real count
+     */
+    public long getGuaranteedCount() {
+      return count - error;
+    }
+
+    @Override
+    public String toString() {
+      return item + "=" + count + "(err=" + error + ")";
+    }
+  }
+}
@@ -0,0 +1,291 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <code>TDigest</code> is a merging t-digest (Dunning and Ertl, 2019), which estimates quantiles of a stream of
+ * values. It keeps a sorted list of centroids, and the sizes of centroids are bounded by the arcsine scale function,
+ * so quantiles near 0 and 1 are estimated more accurately than the median.
+ *
+ * The number of centroids is at most about <code>compression</code>. Values are added to a buffer, and they are
+ * merged into centroids when the buffer becomes full or a quantile is requested. Digests can be merged, so they can
+ * be used as partial aggregation results.
+ */
+public class TDigest {
+  public static final double DEFAULT_COMPRESSION = 100;
+
+  private final double compression;
+
+  private double [] means;
+  private double [] weights;
+  private int numCentroids;
+
+  private double [] bufferMeans;
+  private double [] bufferWeights;
+  private int bufferSize;
+  private final int bufferCapacity;
+
+  private double totalWeight;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+
+  public TDigest() {
+    this(DEFAULT_COMPRESSION);
+  }
+
+  public TDigest(double compression) {
+    Preconditions.checkArgument(compression >= 10, "The compression must be at least 10: %s", compression);
+    this.compression = compression;
+    this.bufferCapacity = (int) (compression * 5);
+    // arrays start small, because most digests of a hash aggregation have a few values
+    this.means = new double[8];
+    this.weights = new double[8];
+    this.bufferMeans = new double[8];
+    this.bufferWeights = new double[8];
+  }
+
+  public double getCompression() {
+    return compression;
+  }
+
+  public void add(double value) {
+    add(value, 1);
+  }
+
+  public void add(double mean, double weight) {
+    Preconditions.checkArgument(!Double.isNaN(mean), "Cannot add NaN");
+    if (bufferSize == bufferMeans.length) {
+      if (bufferSize >= bufferCapacity) {
+        compress();
+      } else {
+        int newLength = Math.min(bufferMeans.length * 2, bufferCapacity);
+        bufferMeans = Arrays.copyOf(bufferMeans, newLength);
+        bufferWeights = Arrays.copyOf(bufferWeights, newLength);
+      }
+    }
+    bufferMeans[bufferSize] = mean;
+    bufferWeights[bufferSize] = weight;
+    bufferSize++;
+
+    totalWeight += weight;
+    min = Math.min(min, mean);
+    max = Math.max(max, mean);
+  }
+
+  /**
+   * Adds all centroids of other digest into this digest.
+   */
+  public void merge(TDigest other) {
+    other.compress();
+    for (int i = 0; i < other.numCentroids; i++) {
+      add(other.means[i], other.weights[i]);
+    }
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  /**
+   * Merges buffered values into centroids.
+   */
+  public void compress() {
+    if (bufferSize == 0) {
+      return;
+    }
+
+    sort(bufferMeans, bufferWeights, 0, bufferSize - 1);
+
+    // merges two sorted lists of centroids
+    int total = numCentroids + bufferSize;
+    double [] allMeans = new double[total];
+    double [] allWeights = new double[total];
+    int i = 0, j = 0;
+    for (int k = 0; k < total; k++) {
+      if (j >= bufferSize || (i < numCentroids && means[i] <= bufferMeans[j])) {
+        allMeans[k] = means[i];
+        allWeights[k] = weights[i++];
+      } else {
+        allMeans[k] = bufferMeans[j];
+        allWeights[k] = bufferWeights[j++];
+      }
+    }
+    bufferSize = 0;
+
+    if (means.length < total) {
+      means = new double[total];
+      weights = new double[total];
+    }
+
+    numCentroids = 0;
+    double mergedWeight = 0;
+    double weightLimit = totalWeight * inverseScale(scale(0) + 1);
+    double currentMean = allMeans[0];
+    double currentWeight = allWeights[0];
+
+    for (int k = 1; k < total; k++) {
+      if (mergedWeight + currentWeight + allWeights[k] <= weightLimit) {
+        currentWeight += allWeights[k];
+        currentMean += (allMeans[k] - currentMean) * allWeights[k] / currentWeight;
+      } else {
+        means[numCentroids] = currentMean;
+        weights[numCentroids] = currentWeight;
+        numCentroids++;
+        mergedWeight += currentWeight;
+        weightLimit = totalWeight * inverseScale(scale(mergedWeight / totalWeight) + 1);
+
+        currentMean = allMeans[k];
+        currentWeight = allWeights[k];
+      }
+    }
+    means[numCentroids] = currentMean;
+    weights[numCentroids] = currentWeight;
+    numCentroids++;
+  }
+
+  /** the arcsine scale function k1 */
+  private double scale(double q) {
+    return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+  }
+
+  private double inverseScale(double k) {
+    if (k >= compression / 4) {
+      return 1;
+    }
+    return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+  }
+
+  /**
+   * Estimates the value at the given quantile. The value is interpolated between the centers of adjacent centroids.
+   *
+   * @param q The quantile between 0 and 1
+   * @return The estimated value, or NaN if this digest is empty.
+   */
+  public double quantile(double q) {
+    Preconditions.checkArgument(q >= 0 && q <= 1, "The quantile must be between 0 and 1: %s", q);
+    compress();
+
+    if (numCentroids == 0) {
+      return Double.NaN;
+    } else if (numCentroids == 1) {
+      return means[0];
+    }
+
+    double index = q * totalWeight;
+    if (index <= weights[0] / 2) {
+      return min + (means[0] - min) * index / (weights[0] / 2);
+    }
+
+    double center = weights[0] / 2;
+    for (int i = 0; i < numCentroids - 1; i++) {
+      double nextCenter = center + (weights[i] + weights[i + 1]) / 2;
+      if (index <= nextCenter) {
+        return means[i] + (means[i + 1] - means[i]) * (index - center) / (nextCenter - center);
+      }
+      center = nextCenter;
+    }
+
+    double lastHalf = weights[numCentroids - 1] / 2;
+    double fraction = Math.min(1, (index - center) / lastHalf);
+    return means[numCentroids - 1] + (max - means[numCentroids - 1]) * fraction;
+  }
+
+  /**
+   * @return The total weight of added values
+   */
+  public double size() {
+    return totalWeight;
+  }
+
+  public int getCentroidNum() {
+    compress();
+    return numCentroids;
+  }
+
+  public byte [] toBytes() {
+    compress();
+    ByteBuffer buffer = ByteBuffer.allocate(8 * 3 + 4 + numCentroids * 16);
+    buffer.putDouble(compression).putDouble(min).putDouble(max).putInt(numCentroids);
+    for (int i = 0; i < numCentroids; i++) {
+      buffer.putDouble(means[i]).putDouble(weights[i]);
+    }
+    return buffer.array();
+  }
+
+  public static TDigest fromBytes(byte [] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    TDigest digest = new TDigest(buffer.getDouble());
+    digest.min = buffer.getDouble();
+    digest.max = buffer.getDouble();
+
+    int num = buffer.getInt();
+    digest.means = new double[Math.max(8, num)];
+    digest.weights = new double[Math.max(8, num)];
+    for (int i = 0; i < num; i++) {
+      digest.means[i] = buffer.getDouble();
+      digest.weights[i] = buffer.getDouble();
+      digest.totalWeight += digest.weights[i];
+    }
+    digest.numCentroids = num;
+    return digest;
+  }
+
+  /**
+   * Sorts parallel arrays of means and weights by means.
+   */
+  private static void sort(double [] keys, double [] values, int low, int high) {
+    while (high - low > 16) {
+      double pivot = keys[(low + high) >>> 1];
+      int i = low, j = high;
+      while (i <= j) {
+        while (keys[i] < pivot) i++;
+        while (keys[j] > pivot) j--;
+        if (i <= j) {
+          swap(keys, values, i++, j--);
+        }
+      }
+      // recurses into the smaller part to bound the stack depth
+      if (j - low < high - i) {
+        sort(keys, values, low, j);
+        low = i;
+      } else {
+        sort(keys, values, i, high);
+        high = j;
+      }
+    }
+
+    for (int i = low + 1; i <= high; i++) {
+      for (int j = i; j > low && keys[j - 1] > keys[j]; j--) {
+        swap(keys, values, j - 1, j);
+      }
+    }
+  }
+
+  private static void swap(double [] keys, double [] values, int i, int j) {
+    double key = keys[i];
+    keys[i] = keys[j];
+    keys[j] = key;
+    double value = values[i];
+    values[i] = values[j];
+    values[j] = value;
+  }
+}
@@ -0,0 +1,404 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util.datetime;
+
+import io.netty.buffer.ByteBuf;
+import org.apache.tajo.datum.IntervalDatum;
+
+import java.util.Arrays;
+
+/**
+ * It parses dates, times and intervals directly from text bytes without decoding them into a string.
+ *
+ * The static methods parse the common ISO-8601 forms, and an instance parses a fixed-width format given by a
+ * pattern of {@link DateTimeFormat}. All of them return false for an unusual text, and then the text should be
+ * parsed by {@link DateTimeUtil#decodeDateTime(String)} or {@link DateTimeFormat#parseDateTime(String, String)}.
+ * Likewise, {@link #parseInterval(ByteBuf)} returns null for an unusual interval, which should be parsed by
+ * {@link IntervalDatum#IntervalDatum(String)}.
+ */
+public class ByteDateTimeParser {
+  private static final int YEAR = 0;
+  private static final int MONTH = 1;
+  private static final int DAY = 2;
+  private static final int HOUR = 3;
+  private static final int MINUTE = 4;
+  private static final int SECOND = 5;
+  private static final int MILLIS = 6;
+  private static final int MICROS = 7;
+  private static final int LITERAL = 8;
+
+  // the units of intervals written by IntervalDatum.asChars(), in the written order
+  private static final String [][] INTERVAL_UNITS = {{"year", "years"}, {"month", "months"}, {"day", "days"}};
+
+  // the patterns of fields, and the widths of them
+  private static final String [] FIELD_PATTERNS = {"YYYY", "MM", "DD", "HH24", "MI", "SS", "MS", "US"};
+  private static final int [] FIELD_WIDTHS = {4, 2, 2, 2, 2, 2, 3, 6};
+
+  private final int [] fields;
+  private final byte [] literals;
+  private final int length;
+
+  private ByteDateTimeParser(int [] fields, byte [] literals) {
+    this.fields = fields;
+    this.literals = literals;
+    int sum = 0;
+    for (int field : fields) {
+      sum += field == LITERAL ? 1 : FIELD_WIDTHS[field];
+    }
+    this.length = sum;
+  }
+
+  /**
+   * Compiles a pattern of {@link DateTimeFormat} into a fixed-width format.
+   *
+   * @param pattern A pattern consisting of YYYY, MM, DD, HH24, MI, SS, MS, US, and non-letter literals.
+   *                It must have at least YYYY, MM, and DD.
+   * @return The compiled format, or null if the pattern is not supported.
+   */
+  public static ByteDateTimeParser compile(String pattern) {
+    String upper = pattern.toUpperCase();
+    int [] fields = new int[upper.length()];
+    byte [] literals = new byte[upper.length()];
+    int num = 0;
+    boolean [] found = new boolean[LITERAL];
+
+    int i = 0;
+    while (i < upper.length()) {
+      int field = -1;
+      for (int f = 0; f < FIELD_PATTERNS.length; f++) {
+        if (upper.startsWith(FIELD_PATTERNS[f], i)) {
+          field = f;
+          break;
+        }
+      }
+
+      if (field >= 0) {
+        if (found[field]) {
+          return null;
+        }
+        found[field] = true;
+        fields[num++] = field;
+        i += FIELD_PATTERNS[field].length();
+      } else {
+        char c = upper.charAt(i);
+        if (Character.isLetter(c) || c == '"' || c > 127) {
+          return null;
+        }
+        literals[num] = (byte) c;
+        fields[num++] = LITERAL;
+        i++;
+      }
+    }
+
+    if (!found[YEAR] || !found[MONTH] || !found[DAY] || (found[MILLIS] && found[MICROS])) {
+      return null;
+    }
+    return new ByteDateTimeParser(Arrays.copyOf(fields, num), Arrays.copyOf(literals, num));
+  }
+
+  /**
+   * Parses a text in this format.
+   *
+   * @return True if the text matches this format. Otherwise, false.
+   */
+  public boolean parse(ByteBuf buf, TimeMeta tm) {
+    if (buf.readableBytes() != length) {
+      return false;
+    }
+
+    clear(tm);
+    int index = buf.readerIndex();
+    for (int i = 0; i < fields.length; i++) {
+      int field = fields[i];
+      if (field == LITERAL) {
+        if (buf.getByte(index++) != literals[i]) {
+          return false;
+        }
+        continue;
+      }
+
+      int value = parseDigits(buf, index, FIELD_WIDTHS[field]);
+      if (value < 0) {
+        return false;
+      }
+      index += FIELD_WIDTHS[field];
+
+      switch (field) {
+      case YEAR: tm.years = value; break;
+      case MONTH: tm.monthOfYear = value; break;
+      case DAY: tm.dayOfMonth = value; break;
+      case HOUR: tm.hours = value; break;
+      case MINUTE: tm.minutes = value; break;
+      case SECOND: tm.secs = value; break;
+      case MILLIS: tm.fsecs = value * 1000; break;
+      default: tm.fsecs = value;
+      }
+    }
+    return isValid(tm);
+  }
+
+  /**
+   * Parses a date in the form of YYYY-MM-DD.
+   */
+  public static boolean parseIsoDate(ByteBuf buf, TimeMeta tm) {
+    clear(tm);
+    return buf.readableBytes() == 10 && parseDate(buf, buf.readerIndex(), tm) && isValid(tm);
+  }
+
+  /**
+   * Parses a timestamp in the form of YYYY-MM-DD[ HH:MI[:SS[.FFFFFF]]] without time zone.
+   * The fraction of seconds can have up to 6 digits.
+   */
+  public static boolean parseIsoTimestamp(ByteBuf buf, TimeMeta tm) {
+    clear(tm);
+    int start = buf.readerIndex();
+    int length = buf.readableBytes();
+    if (length < 10 || !parseDate(buf, start, tm)) {
+      return false;
+    }
+    if (length > 10) {
+      if (buf.getByte(start + 10) != ' ' || !parseTime(buf, start + 11, length - 11, tm)) {
+        return false;
+      }
+    }
+    return isValid(tm);
+  }
+
+  /**
+   * Parses a time in the form of HH:MI[:SS[.FFFFFF]] without time zone.
+   */
+  public static boolean parseIsoTime(ByteBuf buf, TimeMeta tm) {
+    clear(tm);
+    return parseTime(buf, buf.readerIndex(), buf.readableBytes(), tm) && isValidTime(tm);
+  }
+
+  private static boolean parseDate(ByteBuf buf, int index, TimeMeta tm) {
+    if (buf.getByte(index + 4) != '-' || buf.getByte(index + 7) != '-') {
+      return false;
+    }
+    tm.years = parseDigits(buf, index, 4);
+    tm.monthOfYear = parseDigits(buf, index + 5, 2);
+    tm.dayOfMonth = parseDigits(buf, index + 8, 2);
+    return tm.years >= 0 && tm.monthOfYear >= 0 && tm.dayOfMonth >= 0;
+  }
+
+  private static boolean parseTime(ByteBuf buf, int index, int length, TimeMeta tm) {
+    if (length != 5 && length != 8 && (length < 10 || length > 15)) {
+      return false;
+    }
+    if (buf.getByte(index + 2) != ':') {
+      return false;
+    }
+    tm.hours = parseDigits(buf, index, 2);
+    tm.minutes = parseDigits(buf, index + 3, 2);
+    if (tm.hours < 0 || tm.minutes < 0) {
+      return false;
+    }
+    if (length == 5) {
+      return true;
+    }
+
+    if (buf.getByte(index + 5) != ':') {
+      return false;
+    }
+    tm.secs = parseDigits(buf, index + 6, 2);
+    if (tm.secs < 0) {
+      return false;
+    }
+    if (length == 8) {
+      return true;
+    }
+
+    if (buf.getByte(index + 8) != '.') {
+      return false;
+    }
+    int fractionDigits = length - 9;
+    int fraction = parseDigits(buf, index + 9, fractionDigits);
+    if (fraction < 0) {
+      return false;
+    }
+    for (int i = fractionDigits; i < 6; i++) {
+      fraction *= 10;
+    }
+    tm.fsecs = fraction;
+    return true;
+  }
+
+  /**
+   * Parses an interval in the form of [Y year[s]] [M month[s]] [D day[s]] [HH:MI:SS[.MS]], which is written by
+   * {@link IntervalDatum#asChars()}. Each number is an integer with an optional minus sign, and it is computed in
+   * the same way as {@link IntervalDatum#IntervalDatum(String)}.
+   *
+   * @return The interval, or null if the text is in another form.
+   */
+  public static IntervalDatum parseInterval(ByteBuf buf) {
+    int index = buf.readerIndex();
+    int end = index + buf.readableBytes();
+    int [] units = new int[INTERVAL_UNITS.length];
+    int nextUnit = 0;
+    long time = 0;
+
+    while (index < end) {
+      if (index > buf.readerIndex() && buf.getByte(index++) != ' ') {
+        return null;
+      }
+      int numberEnd = scanInteger(buf, index, end);
+      if (numberEnd < 0) {
+        return null;
+      }
+      int value = parseInteger(buf, index, numberEnd);
+      index = numberEnd;
+      if (index == end) {
+        return null;
+      }
+
+      if (buf.getByte(index) == ':') {
+        // HH:MI:SS[.MS] is the last part
+        int [] fields = new int[4];
+        fields[0] = value;
+        int num = 1;
+        while (index < end && num < fields.length) {
+          byte separator = buf.getByte(index);
+          if (separator != (num < 3 ? ':' : '.')) {
+            return null;
+          }
+          numberEnd = scanInteger(buf, index + 1, end);
+          if (numberEnd < 0) {
+            return null;
+          }
+          fields[num++] = parseInteger(buf, index + 1, numberEnd);
+          index = numberEnd;
+        }
+        if (index != end || num < 3) {
+          return null;
+        }
+        time = fields[0] * IntervalDatum.HOUR_MILLIS + fields[1] * IntervalDatum.MINUTE_MILLIS +
+            fields[2] * 1000 + fields[3];
+        break;
+      }
+
+      if (buf.getByte(index++) != ' ') {
+        return null;
+      }
+      int wordEnd = index;
+      while (wordEnd < end && buf.getByte(wordEnd) != ' ') {
+        wordEnd++;
+      }
+      int unit = findIntervalUnit(buf, index, wordEnd - index, nextUnit);
+      if (unit < 0) {
+        return null;
+      }
+      units[unit] = value;
+      nextUnit = unit + 1;
+      index = wordEnd;
+    }
+
+    if (index == buf.readerIndex()) {
+      return null;
+    }
+    return new IntervalDatum(units[0] * 12 + units[1], time + units[2] * IntervalDatum.DAY_MILLIS);
+  }
+
+  /**
+   * @return The index of the unit which is not before the given unit, or -1 if the word is not a unit.
+   */
+  private static int findIntervalUnit(ByteBuf buf, int index, int length, int fromUnit) {
+    for (int unit = fromUnit; unit < INTERVAL_UNITS.length; unit++) {
+      for (String name : INTERVAL_UNITS[unit]) {
+        if (name.length() == length && matches(buf, index, name)) {
+          return unit;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static boolean matches(ByteBuf buf, int index, String text) {
+    for (int i = 0; i < text.length(); i++) {
+      if (buf.getByte(index + i) != text.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Scans an integer with an optional minus sign and up to 9 digits, so that it does not overflow.
+   *
+   * @return The end index of the integer, or -1 if there is no integer.
+   */
+  private static int scanInteger(ByteBuf buf, int index, int end) {
+    int start = index < end && buf.getByte(index) == '-' ? index + 1 : index;
+    int i = start;
+    while (i < end && i - start < 9) {
+      byte b = buf.getByte(i);
+      if (b < '0' || b > '9') {
+        break;
+      }
+      i++;
+    }
+    if (i == start || (i < end && buf.getByte(i) >= '0' && buf.getByte(i) <= '9')) {
+      return -1;
+    }
+    return i;
+  }
+
+  private static int parseInteger(ByteBuf buf, int index, int end) {
+    boolean negative = buf.getByte(index) == '-';
+    int start = negative ? index + 1 : index;
+    int value = parseDigits(buf, start, end - start);
+    return negative ? -value : value;
+  }
+
+  /**
+   * @return The value of the digits, or -1 if there is a non-digit byte.
+   */
+  private static int parseDigits(ByteBuf buf, int index, int num) {
+    int value = 0;
+    for (int i = 0; i < num; i++) {
+      int digit = buf.getByte(index + i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static void clear(TimeMeta tm) {
+    tm.years = 0;
+    tm.monthOfYear = 0;
+    tm.dayOfMonth = 0;
+    tm.dayOfYear = 0;
+    tm.hours = 0;
+    tm.minutes = 0;
+    tm.secs = 0;
+    tm.fsecs = 0;
+    tm.timeZone = Integer.MAX_VALUE;
+  }
+
+  private static boolean isValid(TimeMeta tm) {
+    return tm.years > 0 && tm.monthOfYear >= 1 && tm.monthOfYear <= 12 && tm.dayOfMonth >= 1 &&
+        tm.dayOfMonth <= DateTimeUtil.getDaysInYearMonth(tm.years, tm.monthOfYear) && isValidTime(tm);
+  }
+
+  private static boolean isValidTime(TimeMeta tm) {
+    return tm.hours < 24 && tm.minutes < 60 && tm.secs < 60;
+  }
+}
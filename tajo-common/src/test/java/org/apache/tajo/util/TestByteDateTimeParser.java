@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.tajo.datum.IntervalDatum;
+import org.apache.tajo.util.datetime.ByteDateTimeParser;
+import org.apache.tajo.util.datetime.DateTimeFormat;
+import org.apache.tajo.util.datetime.DateTimeUtil;
+import org.apache.tajo.util.datetime.TimeMeta;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestByteDateTimeParser {
+
+  private static ByteBuf toBuf(String text) {
+    // a slice which does not start at the beginning of the buffer
+    return Unpooled.wrappedBuffer(("|" + text + "|").getBytes()).slice(1, text.length());
+  }
+
+  private static void assertIsoTimestamp(String text) {
+    TimeMeta tm = new TimeMeta();
+    assertTrue(text, ByteDateTimeParser.parseIsoTimestamp(toBuf(text), tm));
+    assertEquals(text, DateTimeUtil.toJulianTimestamp(text), DateTimeUtil.toJulianTimestamp(tm));
+  }
+
+  @Test
+  public void testIsoTimestamp() {
+    assertIsoTimestamp("2014-04-18");
+    assertIsoTimestamp("2014-04-18 01:15");
+    assertIsoTimestamp("2014-04-18 01:15:25");
+    assertIsoTimestamp("2014-04-18 01:15:25.69148");
+    assertIsoTimestamp("2000-02-29 23:59:59.000001");
+    assertIsoTimestamp("0001-01-01 00:00:00");
+
+    TimeMeta tm = new TimeMeta();
+    assertFalse(ByteDateTimeParser.parseIsoTimestamp(toBuf("2014-4-18 01:15:25"), tm));
+    assertFalse(ByteDateTimeParser.parseIsoTimestamp(toBuf("2014-04-18 01:15:25+09"), tm));
+    assertFalse(ByteDateTimeParser.parseIsoTimestamp(toBuf("2014-04-18 01:15:25.1234567"), tm));
+    assertFalse(ByteDateTimeParser.parseIsoTimestamp(toBuf("2014-02-30 01:15:25"), tm));
+    assertFalse(ByteDateTimeParser.parseIsoTimestamp(toBuf("2014-04-18 24:00:00"), tm));
+  }
+
+  @Test
+  public void testIsoDateAndTime() {
+    TimeMeta tm = new TimeMeta();
+    assertTrue(ByteDateTimeParser.parseIsoDate(toBuf("2016-02-29"), tm));
+    assertEquals(DateTimeUtil.toJulianDate("2016-02-29"), DateTimeUtil.date2j(tm.years, tm.monthOfYear, tm.dayOfMonth));
+    assertFalse(ByteDateTimeParser.parseIsoDate(toBuf("2015-02-29"), tm));
+    assertFalse(ByteDateTimeParser.parseIsoDate(toBuf("20150228"), tm));
+
+    assertTrue(ByteDateTimeParser.parseIsoTime(toBuf("01:15:25.5"), tm));
+    assertEquals(DateTimeUtil.toJulianTime("01:15:25.5"), DateTimeUtil.toTime(tm));
+    assertFalse(ByteDateTimeParser.parseIsoTime(toBuf("1:15:25"), tm));
+  }
+
+  @Test
+  public void testFormat() {
+    String [][] cases = {
+        {"YYYYMMDD", "20140418"},
+        {"yyyy/mm/dd hh24:mi:ss", "2014/04/18 01:15:25"},
+        {"DD.MM.YYYY HH24:MI:SS.MS", "18.04.2014 01:15:25.691"},
+        {"YYYY-MM-DD HH24:MI:SS.US", "2014-04-18 01:15:25.691480"}
+    };
+
+    TimeMeta tm = new TimeMeta();
+    for (String [] c : cases) {
+      ByteDateTimeParser parser = ByteDateTimeParser.compile(c[0]);
+      assertNotNull(c[0], parser);
+      assertTrue(c[1], parser.parse(toBuf(c[1]), tm));
+      assertEquals(c[1], DateTimeUtil.toJulianTimestamp(DateTimeFormat.parseDateTime(c[1], c[0])),
+          DateTimeUtil.toJulianTimestamp(tm));
+    }
+
+    assertFalse(ByteDateTimeParser.compile("YYYYMMDD").parse(toBuf("2014418"), tm));
+    assertFalse(ByteDateTimeParser.compile("YYYYMMDD").parse(toBuf("2014O418"), tm));
+
+    // variable-width or textual fields are not supported
+    assertNull(ByteDateTimeParser.compile("YYYY-MM"));
+    assertNull(ByteDateTimeParser.compile("YYYY-MM-DD HH:MI"));
+    assertNull(ByteDateTimeParser.compile("Mon DD YYYY"));
+  }
+
+  @Test
+  public void testInterval() {
+    String [] texts = {"1 year", "2 years 3 months", "1 month 4 days", "-1 years -2 months -3 days",
+        "12:30:05", "1 day 01:02:03.004", "-2 days -01:02:03", "5 years 1 month 2 days 23:59:59.999"};
+    for (String text : texts) {
+      IntervalDatum parsed = ByteDateTimeParser.parseInterval(toBuf(text));
+      assertNotNull(text, parsed);
+      IntervalDatum expected = new IntervalDatum(text);
+      assertEquals(text, expected.getMonths(), parsed.getMonths());
+      assertEquals(text, expected.getMilliSeconds(), parsed.getMilliSeconds());
+    }
+
+    // other forms are left to IntervalDatum
+    String [] unusual = {"", "1 day ", " 1 day", "1  day", "1day", "1 day 1 year", "1 hour", "12:30",
+        "12:30:05 1 day", "1.5 days", "1234567890 days"};
+    for (String text : unusual) {
+      assertNull(text, ByteDateTimeParser.parseInterval(toBuf(text)));
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestHyperLogLog {
+
+  private static long hash(long value) {
+    return MurmurHash.hash64(Long.valueOf(value));
+  }
+
+  private static void assertEstimate(long expected, long estimate, double relativeError) {
+    assertTrue("expected " + expected + ", but " + estimate,
+        Math.abs(estimate - expected) <= expected * relativeError);
+  }
+
+  @Test
+  public void testSmallCardinality() {
+    HyperLogLog sketch = new HyperLogLog();
+    assertTrue(sketch.isEmpty());
+    assertEquals(0, sketch.cardinality());
+
+    for (int i = 0; i < 100; i++) {
+      sketch.offerHash(hash(i));
+      sketch.offerHash(hash(i));
+    }
+    assertTrue(sketch.isSparse());
+    assertEstimate(100, sketch.cardinality(), 0.02);
+  }
+
+  @Test
+  public void testLargeCardinality() {
+    HyperLogLog sketch = new HyperLogLog();
+    for (int i = 0; i < 1000000; i++) {
+      sketch.offerHash(hash(i));
+    }
+    assertFalse(sketch.isSparse());
+    assertEstimate(1000000, sketch.cardinality(), 0.03);
+  }
+
+  @Test
+  public void testMerge() {
+    HyperLogLog sketch1 = new HyperLogLog();
+    HyperLogLog sketch2 = new HyperLogLog();
+    HyperLogLog sketch3 = new HyperLogLog();
+    for (int i = 0; i < 50000; i++) {
+      sketch1.offerHash(hash(i));
+    }
+    for (int i = 25000; i < 100000; i++) {
+      sketch2.offerHash(hash(i));
+    }
+    for (int i = 0; i < 10; i++) {
+      sketch3.offerHash(hash(i));
+    }
+
+    sketch3.merge(sketch1);
+    sketch3.merge(sketch2);
+    assertEstimate(100000, sketch3.cardinality(), 0.03);
+  }
+
+  @Test
+  public void testSparseToDense() {
+    HyperLogLog sketch = new HyperLogLog(12);
+    // 4 bytes per sparse register, and 4096 bytes of dense registers
+    for (int i = 0; i < 128; i++) {
+      sketch.offerHash(((long) i << 52) | 1);
+    }
+    assertTrue(sketch.isSparse());
+    sketch.offerHash(((long) 128 << 52) | 1);
+    assertFalse(sketch.isSparse());
+    assertEstimate(129, sketch.cardinality(), 0.02);
+  }
+
+  @Test
+  public void testSerialization() {
+    HyperLogLog sparse = new HyperLogLog(12);
+    for (int i = 0; i < 10; i++) {
+      sparse.offerHash(hash(i));
+    }
+    HyperLogLog restored = HyperLogLog.fromBytes(sparse.toBytes());
+    assertTrue(restored.isSparse());
+    assertEquals(12, restored.getPrecision());
+    assertEquals(sparse.cardinality(), restored.cardinality());
+
+    HyperLogLog dense = new HyperLogLog(12);
+    for (int i = 0; i < 100000; i++) {
+      dense.offerHash(hash(i));
+    }
+    restored = HyperLogLog.fromBytes(dense.toBytes());
+    assertFalse(restored.isSparse());
+    assertEquals(dense.cardinality(), restored.cardinality());
+
+    restored.merge(HyperLogLog.fromBytes(sparse.toBytes()));
+    assertEquals(dense.cardinality(), restored.cardinality());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeDifferentPrecisions() {
+    new HyperLogLog(10).merge(new HyperLogLog(12));
+  }
+}
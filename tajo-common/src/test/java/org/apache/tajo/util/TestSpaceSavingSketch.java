@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestSpaceSavingSketch {
+
+  @Test
+  public void testExactCountsWithinCapacity() {
+    SpaceSavingSketch<String> sketch = new SpaceSavingSketch<String>(4);
+    for (int i = 0; i < 10; i++) {
+      sketch.offer("a");
+    }
+    for (int i = 0; i < 5; i++) {
+      sketch.offer("b");
+    }
+    sketch.offer("c");
+
+    assertEquals(3, sketch.size());
+    assertEquals(16, sketch.getTotalCount());
+    assertEquals(10, sketch.get("a").getCount());
+    assertEquals(0, sketch.get("a").getError());
+    assertEquals(5, sketch.get("b").getGuaranteedCount());
+
+    List<SpaceSavingSketch.Counter<String>> top = sketch.getTopK(2);
+    assertEquals(2, top.size());
+    assertEquals("a", top.get(0).getItem());
+    assertEquals("b", top.get(1).getItem());
+  }
+
+  @Test
+  public void testHeavyHitterInLongTail() {
+    SpaceSavingSketch<Integer> sketch = new SpaceSavingSketch<Integer>(16);
+    Random random = new Random(1234);
+
+    int hotKey = -1;
+    int numHotKey = 0;
+    for (int i = 0; i < 100000; i++) {
+      if (random.nextInt(10) < 3) {
+        sketch.offer(hotKey);
+        numHotKey++;
+      } else {
+        sketch.offer(random.nextInt(100000));
+      }
+    }
+
+    SpaceSavingSketch.Counter<Integer> top = sketch.getTopK(1).get(0);
+    assertEquals(hotKey, top.getItem().intValue());
+    assertTrue(top.getGuaranteedCount() <= numHotKey);
+    assertTrue(top.getCount() >= numHotKey);
+    assertEquals(100000, sketch.getTotalCount());
+    assertEquals(16, sketch.size());
+  }
+
+  @Test
+  public void testMerge() {
+    SpaceSavingSketch<String> sketch1 = new SpaceSavingSketch<String>(3);
+    SpaceSavingSketch<String> sketch2 = new SpaceSavingSketch<String>(3);
+
+    sketch1.offer("a", 100);
+    sketch1.offer("b", 10);
+    sketch2.offer("a", 50);
+    sketch2.offer("c", 20);
+    sketch2.offer("d", 1);
+
+    sketch1.merge(sketch2);
+    assertEquals(181, sketch1.getTotalCount());
+    assertEquals(150, sketch1.get("a").getCount());
+    assertEquals("a", sketch1.getTopK(1).get(0).getItem());
+    assertEquals(3, sketch1.size());
+  }
+}
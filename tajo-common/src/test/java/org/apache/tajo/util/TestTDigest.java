@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestTDigest {
+
+  private static double exactQuantile(double [] sorted, double q) {
+    return sorted[(int) Math.min(sorted.length - 1, Math.floor(q * sorted.length))];
+  }
+
+  @Test
+  public void testEmptyAndSingleValue() {
+    TDigest digest = new TDigest();
+    assertTrue(Double.isNaN(digest.quantile(0.5)));
+
+    digest.add(3.0);
+    assertEquals(3.0, digest.quantile(0), 0);
+    assertEquals(3.0, digest.quantile(0.5), 0);
+    assertEquals(3.0, digest.quantile(1), 0);
+  }
+
+  @Test
+  public void testUniformDistribution() {
+    TDigest digest = new TDigest();
+    Random random = new Random(1234);
+    double [] values = new double[100000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextDouble() * 1000;
+      digest.add(values[i]);
+    }
+    Arrays.sort(values);
+
+    assertEquals(values.length, digest.size(), 0);
+    assertTrue(digest.getCentroidNum() <= 2 * digest.getCompression());
+    assertEquals(values[0], digest.quantile(0), 0);
+    assertEquals(values[values.length - 1], digest.quantile(1), 0);
+    for (double q : new double[] {0.001, 0.01, 0.1, 0.5, 0.9, 0.99, 0.999}) {
+      assertEquals(exactQuantile(values, q), digest.quantile(q), 1000 * 0.01);
+    }
+  }
+
+  @Test
+  public void testMergeAndSerialization() {
+    Random random = new Random(1234);
+    TDigest merged = new TDigest();
+    double [] values = new double[50000];
+    for (int i = 0; i < 10; i++) {
+      TDigest part = new TDigest();
+      for (int j = 0; j < 5000; j++) {
+        double value = random.nextGaussian();
+        values[i * 5000 + j] = value;
+        part.add(value);
+      }
+      merged.merge(TDigest.fromBytes(part.toBytes()));
+    }
+    Arrays.sort(values);
+
+    assertEquals(values.length, merged.size(), 0);
+    for (double q : new double[] {0.01, 0.25, 0.5, 0.75, 0.99}) {
+      assertEquals(exactQuantile(values, q), merged.quantile(q), 0.05);
+    }
+
+    TDigest restored = TDigest.fromBytes(merged.toBytes());
+    assertEquals(merged.size(), restored.size(), 0);
+    assertEquals(merged.quantile(0.5), restored.quantile(0.5), 0);
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.function.builtin;
+
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.function.annotation.Description;
+import org.apache.tajo.engine.function.annotation.ParamTypes;
+import org.apache.tajo.plan.function.AggFunction;
+import org.apache.tajo.plan.function.FunctionContext;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.util.HyperLogLog;
+import org.apache.tajo.util.MurmurHash;
+
+/**
+ * approx_count_distinct(column) estimates the number of distinct non-null values by HyperLogLog.
+ * Its partial result is a serialized sketch, so it is aggregated in two phases like an ordinary
+ * aggregation function instead of the three-phase plan of count(distinct).
+ */
+@Description(
+  functionName = "approx_count_distinct",
+  description = "the approximate number of distinct non-NULL values. The standard error is about 0.81%.",
+  example = "> SELECT approx_count_distinct(expr);",
+  returnType = Type.INT8,
+  paramTypes = {@ParamTypes(paramTypes = {Type.ANY})}
+)
+public class ApproxCountDistinct extends AggFunction<Datum> {
+
+  public ApproxCountDistinct() {
+    super(new Column[] {
+        new Column("expr", Type.ANY)
+    });
+  }
+
+  @Override
+  public FunctionContext newContext() {
+    return new HyperLogLogContext();
+  }
+
+  @Override
+  public void eval(FunctionContext ctx, Tuple params) {
+    Datum datum = params.get(0);
+    if (datum.isNotNull()) {
+      byte [] bytes = datum.type() == Type.INTERVAL ? datum.asChars().getBytes() : datum.asByteArray();
+      ((HyperLogLogContext) ctx).sketch.offerHash(MurmurHash.hash64(bytes, bytes.length));
+    }
+  }
+
+  @Override
+  public void merge(FunctionContext ctx, Tuple part) {
+    Datum datum = part.get(0);
+    if (datum.isNotNull()) {
+      ((HyperLogLogContext) ctx).sketch.merge(HyperLogLog.fromBytes(datum.asByteArray()));
+    }
+  }
+
+  @Override
+  public Datum getPartialResult(FunctionContext ctx) {
+    HyperLogLog sketch = ((HyperLogLogContext) ctx).sketch;
+    if (sketch.isEmpty()) {
+      return NullDatum.get();
+    }
+    return DatumFactory.createBlob(sketch.toBytes());
+  }
+
+  @Override
+  public DataType getPartialResultType() {
+    return CatalogUtil.newSimpleDataType(Type.BLOB);
+  }
+
+  @Override
+  public Datum terminate(FunctionContext ctx) {
+    return DatumFactory.createInt8(((HyperLogLogContext) ctx).sketch.cardinality());
+  }
+
+  private static class HyperLogLogContext implements FunctionContext {
+    final HyperLogLog sketch = new HyperLogLog();
+  }
+}
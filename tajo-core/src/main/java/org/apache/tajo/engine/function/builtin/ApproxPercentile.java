@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.function.builtin;
+
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.function.annotation.Description;
+import org.apache.tajo.engine.function.annotation.ParamTypes;
+import org.apache.tajo.plan.function.AggFunction;
+import org.apache.tajo.plan.function.FunctionContext;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.util.TDigest;
+
+import java.nio.ByteBuffer;
+
+/**
+ * approx_percentile(column, percentile) estimates a percentile of non-null values by t-digest.
+ * The partial result keeps the percentile together with the serialized digest, because the second phase
+ * only receives partial results.
+ */
+@Description(
+  functionName = "approx_percentile",
+  description = "the approximate value at the given percentile between 0 and 1 of non-NULL values",
+  example = "> SELECT approx_percentile(expr, 0.9);",
+  returnType = Type.FLOAT8,
+  paramTypes = {@ParamTypes(paramTypes = {Type.FLOAT8, Type.FLOAT8})}
+)
+public class ApproxPercentile extends AggFunction<Datum> {
+
+  public ApproxPercentile() {
+    super(new Column[] {
+        new Column("expr", Type.FLOAT8),
+        new Column("percentile", Type.FLOAT8)
+    });
+  }
+
+  protected ApproxPercentile(Column[] definedArgs) {
+    super(definedArgs);
+  }
+
+  @Override
+  public FunctionContext newContext() {
+    return new PercentileContext();
+  }
+
+  protected double getPercentile(Tuple params) {
+    return params.get(1).asFloat8();
+  }
+
+  @Override
+  public void eval(FunctionContext ctx, Tuple params) {
+    PercentileContext percentileCtx = (PercentileContext) ctx;
+    if (Double.isNaN(percentileCtx.percentile)) {
+      double percentile = getPercentile(params);
+      if (percentile < 0 || percentile > 1) {
+        throw new IllegalArgumentException("The percentile must be between 0 and 1: " + percentile);
+      }
+      percentileCtx.percentile = percentile;
+    }
+
+    Datum datum = params.get(0);
+    if (datum.isNotNull()) {
+      percentileCtx.digest.add(datum.asFloat8());
+    }
+  }
+
+  @Override
+  public void merge(FunctionContext ctx, Tuple part) {
+    Datum datum = part.get(0);
+    if (datum.isNotNull()) {
+      PercentileContext percentileCtx = (PercentileContext) ctx;
+      ByteBuffer buffer = ByteBuffer.wrap(datum.asByteArray());
+      percentileCtx.percentile = buffer.getDouble();
+      byte [] digest = new byte[buffer.remaining()];
+      buffer.get(digest);
+      percentileCtx.digest.merge(TDigest.fromBytes(digest));
+    }
+  }
+
+  @Override
+  public Datum getPartialResult(FunctionContext ctx) {
+    PercentileContext percentileCtx = (PercentileContext) ctx;
+    if (percentileCtx.digest.size() == 0) {
+      return NullDatum.get();
+    }
+    byte [] digest = percentileCtx.digest.toBytes();
+    ByteBuffer buffer = ByteBuffer.allocate(8 + digest.length);
+    buffer.putDouble(percentileCtx.percentile).put(digest);
+    return DatumFactory.createBlob(buffer.array());
+  }
+
+  @Override
+  public DataType getPartialResultType() {
+    return CatalogUtil.newSimpleDataType(Type.BLOB);
+  }
+
+  @Override
+  public Datum terminate(FunctionContext ctx) {
+    PercentileContext percentileCtx = (PercentileContext) ctx;
+    if (percentileCtx.digest.size() == 0) {
+      return NullDatum.get();
+    }
+    return DatumFactory.createFloat8(percentileCtx.digest.quantile(percentileCtx.percentile));
+  }
+
+  private static class PercentileContext implements FunctionContext {
+    final TDigest digest = new TDigest();
+    double percentile = Double.NaN;
+  }
+}
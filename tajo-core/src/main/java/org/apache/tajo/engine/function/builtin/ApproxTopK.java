@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.function.builtin;
+
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.function.annotation.Description;
+import org.apache.tajo.engine.function.annotation.ParamTypes;
+import org.apache.tajo.plan.function.AggFunction;
+import org.apache.tajo.plan.function.FunctionContext;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.util.SpaceSavingSketch;
+import org.apache.tajo.util.SpaceSavingSketch.Counter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * approx_top_k(column, k) finds the k most frequent non-null values by the space-saving algorithm.
+ * The result is a JSON array of objects having the value and its estimated count, in a descending order of counts.
+ *
+ * The sketch keeps <code>max(10 * k, 100)</code> counters, so every value whose frequency is larger than
+ * the number of values divided by the capacity is guaranteed to be found.
+ */
+@Description(
+  functionName = "approx_top_k",
+  description = "the approximate k most frequent non-NULL values and their counts as a JSON array",
+  example = "> SELECT approx_top_k(expr, 10);",
+  returnType = Type.TEXT,
+  paramTypes = {@ParamTypes(paramTypes = {Type.ANY, Type.INT4})}
+)
+public class ApproxTopK extends AggFunction<Datum> {
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  public ApproxTopK() {
+    super(new Column[] {
+        new Column("expr", Type.ANY),
+        new Column("k", Type.INT4)
+    });
+  }
+
+  static int getCapacity(int k) {
+    return Math.max(k * 10, 100);
+  }
+
+  @Override
+  public FunctionContext newContext() {
+    return new TopKContext();
+  }
+
+  @Override
+  public void eval(FunctionContext ctx, Tuple params) {
+    TopKContext topKCtx = (TopKContext) ctx;
+    if (topKCtx.sketch == null) {
+      int k = params.get(1).asInt4();
+      if (k <= 0) {
+        throw new IllegalArgumentException("k must be positive: " + k);
+      }
+      topKCtx.init(k);
+    }
+
+    Datum datum = params.get(0);
+    if (datum.isNotNull()) {
+      topKCtx.sketch.offer(datum.asChars());
+    }
+  }
+
+  @Override
+  public void merge(FunctionContext ctx, Tuple part) {
+    Datum datum = part.get(0);
+    if (datum.isNull()) {
+      return;
+    }
+
+    TopKContext topKCtx = (TopKContext) ctx;
+    ByteBuffer buffer = ByteBuffer.wrap(datum.asByteArray());
+    int k = buffer.getInt();
+    if (topKCtx.sketch == null) {
+      topKCtx.init(k);
+    }
+
+    int num = buffer.getInt();
+    for (int i = 0; i < num; i++) {
+      byte [] item = new byte[buffer.getInt()];
+      buffer.get(item);
+      topKCtx.sketch.offer(new String(item, UTF8), buffer.getLong(), buffer.getLong());
+    }
+  }
+
+  @Override
+  public Datum getPartialResult(FunctionContext ctx) {
+    TopKContext topKCtx = (TopKContext) ctx;
+    if (topKCtx.sketch == null || topKCtx.sketch.size() == 0) {
+      return NullDatum.get();
+    }
+
+    List<Counter<String>> counters = topKCtx.sketch.getTopK(topKCtx.sketch.size());
+    byte [][] items = new byte[counters.size()][];
+    int length = 4 + 4;
+    for (int i = 0; i < items.length; i++) {
+      items[i] = counters.get(i).getItem().getBytes(UTF8);
+      length += 4 + items[i].length + 8 + 8;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    buffer.putInt(topKCtx.k).putInt(items.length);
+    for (int i = 0; i < items.length; i++) {
+      buffer.putInt(items[i].length).put(items[i]);
+      buffer.putLong(counters.get(i).getCount()).putLong(counters.get(i).getError());
+    }
+    return DatumFactory.createBlob(buffer.array());
+  }
+
+  @Override
+  public DataType getPartialResultType() {
+    return CatalogUtil.newSimpleDataType(Type.BLOB);
+  }
+
+  @Override
+  public Datum terminate(FunctionContext ctx) {
+    TopKContext topKCtx = (TopKContext) ctx;
+    if (topKCtx.sketch == null || topKCtx.sketch.size() == 0) {
+      return NullDatum.get();
+    }
+
+    JSONArray result = new JSONArray();
+    for (Counter<String> counter : topKCtx.sketch.getTopK(topKCtx.k)) {
+      JSONObject entry = new JSONObject();
+      entry.put("item", counter.getItem());
+      entry.put("count", counter.getCount());
+      result.add(entry);
+    }
+    return DatumFactory.createText(result.toJSONString());
+  }
+
+  private static class TopKContext implements FunctionContext {
+    int k;
+    SpaceSavingSketch<String> sketch;
+
+    void init(int k) {
+      this.k = k;
+      this.sketch = new SpaceSavingSketch<String>(getCapacity(k));
+    }
+  }
+}
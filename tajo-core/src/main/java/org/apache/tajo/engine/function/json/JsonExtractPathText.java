@@ -28,9 +28,12 @@ import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.engine.function.annotation.Description;
 import org.apache.tajo.engine.function.annotation.ParamTypes;
+import org.apache.tajo.plan.expr.EvalContext;
 import org.apache.tajo.plan.function.GeneralFunction;
 import org.apache.tajo.storage.Tuple;
 
+import java.util.List;
+
 /**
  * json_extract_path_text(string, string) -
  * Extracts JSON string from a JSON string based on json path specified,
@@ -57,12 +60,20 @@ public class JsonExtractPathText extends GeneralFunction {
   private JSONParser parser;
   private JsonPath jsonPath;
 
+  private EvalContext evalContext;
+  private JsonPathExtractor extractor;
+  private int pathId = -1;
+
   public JsonExtractPathText() {
     super(new Column[]{
         new Column("string", TajoDataTypes.Type.TEXT),
         new Column("string", TajoDataTypes.Type.TEXT),
     });
-    parser = new JSONParser(JSONParser.MODE_JSON_SIMPLE | JSONParser.IGNORE_CONTROL_CHAR);
+  }
+
+  @Override
+  public void bind(EvalContext evalContext) {
+    this.evalContext = evalContext;
   }
 
   @Override
@@ -74,16 +85,58 @@ public class JsonExtractPathText extends GeneralFunction {
       return NullDatum.get();
     }
 
+    if (pathId < 0 && jsonPath == null) {
+      compile(xPath.asChars());
+    }
+
+    if (extractor != null) {
+      byte [] value = extractor.extract(json.asTextBytes(), pathId);
+      return value == null ? NullDatum.get() : DatumFactory.createText(value);
+    }
+
     // default is JsonSmartMappingProvider
     try {
-
       JSONObject object = (JSONObject) parser.parse(json.asTextBytes());
-      if (jsonPath == null) {
-        jsonPath = JsonPath.compile(xPath.asChars());
-      }
       return DatumFactory.createText(jsonPath.read(object).toString());
     } catch (Exception e) {
       return NullDatum.get();
     }
   }
+
+  /**
+   * A path supported by {@link JsonPathExtractor} is evaluated by the extractor shared in the eval context,
+   * so paths over the same input of a row are extracted by a single scan. Otherwise, the path is evaluated
+   * over a parsed JSON object.
+   */
+  private void compile(String path) {
+    List<Object> steps = JsonPathExtractor.compile(path);
+    if (steps == null) {
+      parser = new JSONParser(JSONParser.MODE_JSON_SIMPLE | JSONParser.IGNORE_CONTROL_CHAR);
+      jsonPath = JsonPath.compile(path);
+      return;
+    }
+
+    if (evalContext != null) {
+      extractor = (JsonPathExtractor) evalContext.getFunctionCache(JsonPathExtractor.class.getName());
+      if (extractor == null) {
+        extractor = new JsonPathExtractor();
+        evalContext.addFunctionCache(JsonPathExtractor.class.getName(), extractor);
+      }
+    } else {
+      extractor = new JsonPathExtractor();
+    }
+    pathId = extractor.addPath(steps);
+  }
+
+  @Override
+  public Object clone() throws CloneNotSupportedException {
+    JsonExtractPathText func = (JsonExtractPathText) super.clone();
+    // a clone compiles the path again, because it can be evaluated in another context
+    func.evalContext = null;
+    func.extractor = null;
+    func.pathId = -1;
+    func.parser = null;
+    func.jsonPath = null;
+    return func;
+  }
 }
@@ -0,0 +1,608 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.function.json;
+
+import org.apache.tajo.util.TUtil;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <code>JsonPathExtractor</code> extracts the values of compiled JSON paths from a JSON text in a single pass.
+ * It descends only into the values on the paths, skips the others without decoding them, and stops scanning as soon
+ * as all paths are found.
+ *
+ * Paths are compiled into a tree, so many paths can be extracted by one scan. The values extracted from the last few
+ * inputs are kept, so functions evaluating different paths over the same input of a row share a single scan.
+ * An instance is not thread-safe.
+ */
+public class JsonPathExtractor {
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+  /** the number of inputs whose values are kept */
+  private static final int MAX_CACHED_INPUTS = 4;
+
+  private final PathNode root = new PathNode();
+  private int pathNum = 0;
+
+  private final Entry [] entries = new Entry[MAX_CACHED_INPUTS];
+  private int nextEntry = 0;
+
+  // the input being scanned
+  private byte [] bytes;
+  private int pos;
+  private int end;
+  private Entry current;
+  private int remaining;
+
+  // the last read string
+  private byte [] stringBytes;
+  private int stringOffset;
+  private int stringLength;
+  private byte [] stringBuffer = new byte[64];
+
+  public JsonPathExtractor() {
+    for (int i = 0; i < entries.length; i++) {
+      entries[i] = new Entry();
+    }
+  }
+
+  /**
+   * Compiles a JSON path. It supports the root '$', member names as '.name' or ['name'], and array indexes as
+   * [index]. Wildcards, deep scans, slices, and filters are not supported.
+   *
+   * @param path JSON path
+   * @return The list of steps, each of which is a member name or an array index. It returns null if the path is not
+   * supported.
+   */
+  public static List<Object> compile(String path) {
+    String trimmed = path.trim();
+    if (!trimmed.startsWith("$")) {
+      return null;
+    }
+
+    List<Object> steps = TUtil.newList();
+    int i = 1;
+    while (i < trimmed.length()) {
+      char c = trimmed.charAt(i);
+      if (c == '.') {
+        int start = ++i;
+        while (i < trimmed.length() && trimmed.charAt(i) != '.' && trimmed.charAt(i) != '[') {
+          i++;
+        }
+        String name = trimmed.substring(start, i);
+        if (name.isEmpty() || name.contains("*")) {
+          return null;
+        }
+        steps.add(name);
+
+      } else if (c == '[') {
+        int close = trimmed.indexOf(']', i);
+        if (close < 0) {
+          return null;
+        }
+        String subscript = trimmed.substring(i + 1, close).trim();
+        i = close + 1;
+
+        if (subscript.length() >= 2 && (subscript.charAt(0) == '\'' || subscript.charAt(0) == '"')
+            && subscript.charAt(subscript.length() - 1) == subscript.charAt(0)) {
+          String name = subscript.substring(1, subscript.length() - 1);
+          if (name.indexOf('\'') >= 0 || name.indexOf('"') >= 0) {
+            return null;
+          }
+          steps.add(name);
+        } else {
+          try {
+            int index = Integer.parseInt(subscript);
+            if (index < 0) {
+              return null;
+            }
+            steps.add(index);
+          } catch (NumberFormatException e) {
+            return null;
+          }
+        }
+
+      } else {
+        return null;
+      }
+    }
+    return steps;
+  }
+
+  /**
+   * Adds a compiled path.
+   *
+   * @return The id of the path, which is used to get its value
+   */
+  public int addPath(List<Object> steps) {
+    PathNode node = root;
+    for (Object step : steps) {
+      node = node.getOrAddChild(step);
+    }
+    int pathId = pathNum++;
+    node.addPathId(pathId);
+    return pathId;
+  }
+
+  /**
+   * Returns the value of a path in a JSON text. A string value is decoded, and the other values are given in their
+   * compact JSON texts.
+   *
+   * @param json JSON text
+   * @param pathId The id of a path given by {@link #addPath(java.util.List)}
+   * @return The value of the path, or null if the path is not found, its value is null, or the input is invalid.
+   */
+  public byte [] extract(byte [] json, int pathId) {
+    Entry entry = null;
+    for (Entry cached : entries) {
+      if (cached.input != null && cached.extractedPathNum > pathId && cached.inputEquals(json)) {
+        entry = cached;
+        break;
+      }
+    }
+
+    if (entry == null) {
+      entry = entries[nextEntry];
+      nextEntry = (nextEntry + 1) % entries.length;
+      scan(json, entry);
+    }
+    return entry.values[pathId];
+  }
+
+  private void scan(byte [] json, Entry entry) {
+    entry.reset(json, pathNum);
+    bytes = json;
+    pos = 0;
+    end = json.length;
+    current = entry;
+    remaining = pathNum;
+
+    try {
+      skipWhitespaces();
+      readValue(root);
+    } catch (IllegalStateException e) {
+      // an invalid JSON text
+      Arrays.fill(entry.values, null);
+    } finally {
+      bytes = null;
+      current = null;
+    }
+  }
+
+  /**
+   * Reads a value at the current position for a path node.
+   */
+  private void readValue(PathNode node) {
+    int start = pos;
+    byte c = peek();
+
+    if (c == '{' && node.hasMemberChildren()) {
+      readObject(node);
+    } else if (c == '[' && node.hasIndexChildren()) {
+      readArray(node);
+    } else if (node.hasPathIds() && c == '"') {
+      readString();
+      setValues(node, Arrays.copyOfRange(stringBytes, stringOffset, stringOffset + stringLength));
+      return;
+    } else {
+      skipValue();
+    }
+
+    if (node.hasPathIds() && remaining > 0) {
+      setValues(node, toCompactJson(start, pos));
+    }
+  }
+
+  private void readObject(PathNode node) {
+    pos++;
+    skipWhitespaces();
+    if (peek() == '}') {
+      pos++;
+      return;
+    }
+
+    while (true) {
+      if (peek() != '"') {
+        throw error();
+      }
+      readString();
+      PathNode child = node.findMember(stringBytes, stringOffset, stringLength);
+
+      skipWhitespaces();
+      expect(':');
+      skipWhitespaces();
+      if (child == null) {
+        skipValue();
+      } else {
+        readValue(child);
+        if (remaining == 0) {
+          return;
+        }
+      }
+
+      skipWhitespaces();
+      byte c = next();
+      if (c == '}') {
+        return;
+      } else if (c != ',') {
+        throw error();
+      }
+      skipWhitespaces();
+    }
+  }
+
+  private void readArray(PathNode node) {
+    pos++;
+    skipWhitespaces();
+    if (peek() == ']') {
+      pos++;
+      return;
+    }
+
+    for (int index = 0; ; index++) {
+      PathNode child = node.findIndex(index);
+      if (child == null) {
+        skipValue();
+      } else {
+        readValue(child);
+        if (remaining == 0) {
+          return;
+        }
+      }
+
+      skipWhitespaces();
+      byte c = next();
+      if (c == ']') {
+        return;
+      } else if (c != ',') {
+        throw error();
+      }
+      skipWhitespaces();
+    }
+  }
+
+  private void setValues(PathNode node, byte [] value) {
+    for (int i = 0; i < node.pathIdNum; i++) {
+      int pathId = node.pathIds[i];
+      if (!current.found[pathId]) {
+        current.found[pathId] = true;
+        current.values[pathId] = value;
+        remaining--;
+      }
+    }
+  }
+
+  /**
+   * @return The bytes of a literal or a nested value without whitespaces out of strings.
+   * It returns null for the literal null.
+   */
+  private byte [] toCompactJson(int start, int end) {
+    if (end - start == 4 && bytes[start] == 'n' && bytes[start + 1] == 'u' && bytes[start + 2] == 'l'
+        && bytes[start + 3] == 'l') {
+      return null;
+    }
+
+    byte [] compact = new byte[end - start];
+    int length = 0;
+    boolean inString = false;
+    for (int i = start; i < end; i++) {
+      byte c = bytes[i];
+      if (inString) {
+        if (c == '\\') {
+          compact[length++] = c;
+          c = bytes[++i];
+        } else if (c == '"') {
+          inString = false;
+        }
+      } else if (c == '"') {
+        inString = true;
+      } else if (isWhitespace(c)) {
+        continue;
+      }
+      compact[length++] = c;
+    }
+    return length == compact.length ? compact : Arrays.copyOf(compact, length);
+  }
+
+  /**
+   * Reads a string at the current position. If it has no escaped character, the string refers to the input.
+   * Otherwise, it is decoded into the string buffer.
+   */
+  private void readString() {
+    int start = ++pos;
+    while (true) {
+      byte c = next();
+      if (c == '"') {
+        stringBytes = bytes;
+        stringOffset = start;
+        stringLength = pos - 1 - start;
+        return;
+      } else if (c == '\\') {
+        pos--;
+        readEscapedString(start);
+        return;
+      }
+    }
+  }
+
+  private void readEscapedString(int start) {
+    int length = pos - start;
+    ensureStringBuffer(length);
+    System.arraycopy(bytes, start, stringBuffer, 0, length);
+
+    while (true) {
+      byte c = next();
+      if (c == '"') {
+        break;
+      }
+      ensureStringBuffer(length + 4);
+
+      if (c != '\\') {
+        stringBuffer[length++] = c;
+        continue;
+      }
+
+      c = next();
+      switch (c) {
+      case 'b': stringBuffer[length++] = '\b'; break;
+      case 'f': stringBuffer[length++] = '\f'; break;
+      case 'n': stringBuffer[length++] = '\n'; break;
+      case 'r': stringBuffer[length++] = '\r'; break;
+      case 't': stringBuffer[length++] = '\t'; break;
+      case 'u':
+        int codePoint = readHex4();
+        boolean pairEscaped = pos + 1 < end && bytes[pos] == '\\' && bytes[pos + 1] == 'u';
+        if (Character.isHighSurrogate((char) codePoint) && pairEscaped) {
+          pos += 2;
+          int low = readHex4();
+          if (Character.isLowSurrogate((char) low)) {
+            codePoint = Character.toCodePoint((char) codePoint, (char) low);
+          } else {
+            length = appendCodePoint('?', length);
+            codePoint = low;
+          }
+        }
+        if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+          // an unpaired surrogate
+          codePoint = '?';
+        }
+        length = appendCodePoint(codePoint, length);
+        break;
+      default:
+        stringBuffer[length++] = c;
+      }
+    }
+
+    stringBytes = stringBuffer;
+    stringOffset = 0;
+    stringLength = length;
+  }
+
+  private int readHex4() {
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      int digit = Character.digit(next(), 16);
+      if (digit < 0) {
+        throw error();
+      }
+      value = value << 4 | digit;
+    }
+    return value;
+  }
+
+  private int appendCodePoint(int codePoint, int offset) {
+    byte [] encoded = new String(Character.toChars(codePoint)).getBytes(UTF8);
+    ensureStringBuffer(offset + encoded.length);
+    System.arraycopy(encoded, 0, stringBuffer, offset, encoded.length);
+    return offset + encoded.length;
+  }
+
+  private void ensureStringBuffer(int length) {
+    if (stringBuffer.length < length) {
+      stringBuffer = Arrays.copyOf(stringBuffer, Math.max(length, stringBuffer.length * 2));
+    }
+  }
+
+  /**
+   * Skips a value without decoding it. Nested values are skipped by counting brackets out of strings.
+   */
+  private void skipValue() {
+    byte c = peek();
+    if (c == '"') {
+      skipString();
+    } else if (c == '{' || c == '[') {
+      int depth = 0;
+      do {
+        c = next();
+        if (c == '"') {
+          pos--;
+          skipString();
+        } else if (c == '{' || c == '[') {
+          depth++;
+        } else if (c == '}' || c == ']') {
+          depth--;
+        }
+      } while (depth > 0);
+    } else {
+      int start = pos;
+      while (pos < end && bytes[pos] != ',' && bytes[pos] != '}' && bytes[pos] != ']'
+          && !isWhitespace(bytes[pos])) {
+        pos++;
+      }
+      if (pos == start) {
+        throw error();
+      }
+    }
+  }
+
+  private void skipString() {
+    pos++;
+    while (true) {
+      byte c = next();
+      if (c == '"') {
+        return;
+      } else if (c == '\\') {
+        next();
+      }
+    }
+  }
+
+  private void expect(char expected) {
+    if (next() != expected) {
+      throw error();
+    }
+  }
+
+  private byte peek() {
+    if (pos >= end) {
+      throw error();
+    }
+    return bytes[pos];
+  }
+
+  private byte next() {
+    if (pos >= end) {
+      throw error();
+    }
+    return bytes[pos++];
+  }
+
+  private void skipWhitespaces() {
+    while (pos < end && isWhitespace(bytes[pos])) {
+      pos++;
+    }
+  }
+
+  private static boolean isWhitespace(byte c) {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+  }
+
+  private IllegalStateException error() {
+    return new IllegalStateException("Invalid JSON text at position " + pos);
+  }
+
+  /**
+   * The values of paths extracted from an input
+   */
+  private static class Entry {
+    private byte [] input;
+    private int extractedPathNum;
+    private byte [][] values = new byte[0][];
+    private boolean [] found = new boolean[0];
+
+    void reset(byte [] json, int pathNum) {
+      input = json;
+      extractedPathNum = pathNum;
+      if (values.length < pathNum) {
+        values = new byte[pathNum][];
+        found = new boolean[pathNum];
+      } else {
+        Arrays.fill(values, null);
+        Arrays.fill(found, false);
+      }
+    }
+
+    boolean inputEquals(byte [] json) {
+      return input == json || Arrays.equals(input, json);
+    }
+  }
+
+  /**
+   * A node of the tree of compiled paths. Its children are the member names and the array indexes following it.
+   */
+  private static class PathNode {
+    private byte [][] memberNames = new byte[0][];
+    private PathNode [] members = new PathNode[0];
+    private int [] indexes = new int[0];
+    private PathNode [] indexChildren = new PathNode[0];
+
+    private int [] pathIds = new int[0];
+    private int pathIdNum;
+
+    boolean hasMemberChildren() {
+      return members.length > 0;
+    }
+
+    boolean hasIndexChildren() {
+      return indexChildren.length > 0;
+    }
+
+    boolean hasPathIds() {
+      return pathIdNum > 0;
+    }
+
+    void addPathId(int pathId) {
+      pathIds = Arrays.copyOf(pathIds, pathIdNum + 1);
+      pathIds[pathIdNum++] = pathId;
+    }
+
+    PathNode getOrAddChild(Object step) {
+      if (step instanceof Integer) {
+        int index = (Integer) step;
+        PathNode child = findIndex(index);
+        if (child == null) {
+          child = new PathNode();
+          indexes = Arrays.copyOf(indexes, indexes.length + 1);
+          indexes[indexes.length - 1] = index;
+          indexChildren = Arrays.copyOf(indexChildren, indexChildren.length + 1);
+          indexChildren[indexChildren.length - 1] = child;
+        }
+        return child;
+      } else {
+        byte [] name = ((String) step).getBytes(UTF8);
+        PathNode child = findMember(name, 0, name.length);
+        if (child == null) {
+          child = new PathNode();
+          memberNames = Arrays.copyOf(memberNames, memberNames.length + 1);
+          memberNames[memberNames.length - 1] = name;
+          members = Arrays.copyOf(members, members.length + 1);
+          members[members.length - 1] = child;
+        }
+        return child;
+      }
+    }
+
+    PathNode findMember(byte [] name, int offset, int length) {
+      for (int i = 0; i < memberNames.length; i++) {
+        byte [] memberName = memberNames[i];
+        if (memberName.length != length) {
+          continue;
+        }
+        int j = 0;
+        while (j < length && memberName[j] == name[offset + j]) {
+          j++;
+        }
+        if (j == length) {
+          return members[i];
+        }
+      }
+      return null;
+    }
+
+    PathNode findIndex(int index) {
+      for (int i = 0; i < indexes.length; i++) {
+        if (indexes[i] == index) {
+          return indexChildren[i];
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -60,6 +60,7 @@ import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Stack;
 
@@ -229,7 +230,15 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       case LIMIT:
         LimitNode limitNode = (LimitNode) logicalNode;
         stack.push(limitNode);
-        leftExec = createPlanRecursive(ctx, limitNode.getChild(), stack);
+        if (limitNode.getChild().getType() == NodeType.SORT) {
+          SortNode childSortNode = limitNode.getChild();
+          stack.push(childSortNode);
+          leftExec = createPlanRecursive(ctx, childSortNode.getChild(), stack);
+          stack.pop();
+          leftExec = createTopNSortPlan(ctx, limitNode, childSortNode, leftExec);
+        } else {
+          leftExec = createPlanRecursive(ctx, limitNode.getChild(), stack);
+        }
         stack.pop();
         return new LimitExec(ctx, limitNode.getInSchema(),
             limitNode.getOutSchema(), leftExec, limitNode);
@@ -271,6 +280,7 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     } else {
       inMemoryInnerJoinFlag = volume <= context.getQueryContext().getLong(SessionVars.HASH_JOIN_SIZE_LIMIT);
     }
+    inMemoryInnerJoinFlag = inMemoryInnerJoinFlag && isReservable(context, volume);
 
     LOG.info(String.format("[%s] the volume of %s relations (%s) is %s and is %sfit to main maemory.",
         context.getTaskId().toString(),
@@ -281,6 +291,20 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     return inMemoryInnerJoinFlag;
   }
 
+  /**
+   * A hash table cannot spill, so a hash-based operator is chosen only if the worker can still give the memory
+   * to it. Otherwise, the task would fail when the reservation of the hash table is refused.
+   */
+  private static boolean isReservable(TaskAttemptContext context, long volume) {
+    long reservable = context.getMemoryManager().getReservableMemory();
+    if (volume > reservable) {
+      LOG.info("The volume (" + FileUtil.humanReadableByteCount(volume, false) + ") exceeds the reservable memory (" +
+          FileUtil.humanReadableByteCount(reservable, false) + "), so a hash-based operator is not chosen.");
+      return false;
+    }
+    return true;
+  }
+
   public PhysicalExec createJoinPlan(TaskAttemptContext context, JoinNode joinNode, PhysicalExec leftExec,
                                      PhysicalExec rightExec) throws IOException {
 
@@ -492,6 +516,7 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     } else {
       hashJoin = rightTableVolume <  queryContext.getLong(SessionVars.HASH_JOIN_SIZE_LIMIT);
     }
+    hashJoin = hashJoin && isReservable(context, rightTableVolume);
 
     if (hashJoin) {
       // we can implement left outer join using hash join, using the right operand as the build relation
@@ -520,6 +545,7 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     } else {
       hashJoin = leftTableVolume <  queryContext.getLong(SessionVars.HASH_JOIN_SIZE_LIMIT);
     }
+    hashJoin = hashJoin && isReservable(context, leftTableVolume);
 
     if (hashJoin){
       LOG.info("Right Outer Join (" + plan.getPID() +") chooses [Hash Join].");
@@ -1020,7 +1046,7 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     // if the relation size is less than the threshold,
     // the hash aggregation will be used.
     LOG.info("Aggregation:estimatedSize=" + estimatedSize + ", threshold=" + threshold);
-    if (estimatedSize <= threshold) {
+    if (estimatedSize <= threshold && isReservable(context, estimatedSize)) {
       LOG.info("The planner chooses [Hash Aggregation]");
       return createInMemoryHashAggregation(context, groupbyNode, subOp);
     } else {
@@ -1031,22 +1057,30 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
   public PhysicalExec createWindowAgg(TaskAttemptContext context,WindowAggNode windowAggNode, PhysicalExec subOp)
       throws IOException {
     PhysicalExec child = subOp;
+    List<SortSpec> sortSpecs = new ArrayList<SortSpec>();
     if (windowAggNode.hasPartitionKeys()) {
-      Column[] grpColumns = windowAggNode.getPartitionKeys();
-      SortSpec[] sortSpecs = new SortSpec[grpColumns.length];
-      for (int i = 0; i < grpColumns.length; i++) {
-        sortSpecs[i] = new SortSpec(grpColumns[i], true, false);
+      for (Column grpColumn : windowAggNode.getPartitionKeys()) {
+        sortSpecs.add(new SortSpec(grpColumn, true, false));
       }
+    }
+
+    // If all window functions have the same sort keys, the input is also sorted by them within each partition.
+    // Then, the window aggregation can be evaluated in streaming manner.
+    SortSpec[] commonSortSpecs = WindowAggExec.getCommonSortSpecs(windowAggNode);
+    if (commonSortSpecs != null) {
+      Collections.addAll(sortSpecs, commonSortSpecs);
+    }
 
+    if (!sortSpecs.isEmpty()) {
       SortNode sortNode = LogicalPlan.createNodeWithoutPID(SortNode.class);
-      sortNode.setSortSpecs(sortSpecs);
+      sortNode.setSortSpecs(sortSpecs.toArray(new SortSpec[sortSpecs.size()]));
       sortNode.setInSchema(subOp.getSchema());
       sortNode.setOutSchema(subOp.getSchema());
       child = new ExternalSortExec(context, sortNode, subOp);
-      LOG.info("The planner chooses [Sort Aggregation] in (" + TUtil.arrayToString(sortSpecs) + ")");
+      LOG.info("The planner chooses [Sort Aggregation] in (" + TUtil.collectionToString(sortSpecs, ", ") + ")");
     }
 
-    return new WindowAggExec(context, windowAggNode, child);
+    return new WindowAggExec(context, windowAggNode, child, commonSortSpecs != null);
   }
 
   public PhysicalExec createDistinctGroupByPlan(TaskAttemptContext context,
@@ -1171,6 +1205,24 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     return createBestSortPlan(context, sortNode, child);
   }
 
+  /**
+   * Creates a sort executor under a limit. The top-n sort is used unless the sort algorithm is enforced,
+   * the input is already sorted, or the limit is too large to keep rows in a heap.
+   */
+  public PhysicalExec createTopNSortPlan(TaskAttemptContext context, LimitNode limitNode, SortNode sortNode,
+                                         PhysicalExec child) throws IOException {
+    boolean sortedInput = child instanceof SortExec &&
+        TUtil.checkEquals(sortNode.getSortKeys(), ((SortExec) child).getSortSpecs());
+    boolean enforced = getAlgorithmEnforceProperty(context.getEnforcer(), sortNode) != null;
+    int maxRows = context.getQueryContext().getInt(SessionVars.TOPN_SORT_MAX_ROWS);
+
+    if (!sortedInput && !enforced && limitNode.getFetchFirstNum() <= maxRows) {
+      LOG.info("The planner chooses [Top-N Sort] with limit " + limitNode.getFetchFirstNum());
+      return new TopNSortExec(context, sortNode, child, limitNode.getFetchFirstNum());
+    }
+    return createSortPlan(context, sortNode, child);
+  }
+
   public SortExec createBestSortPlan(TaskAttemptContext context, SortNode sortNode,
                                      PhysicalExec child) throws IOException {
     return new ExternalSortExec(context, sortNode, child);
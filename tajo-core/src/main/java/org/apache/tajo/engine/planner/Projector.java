@@ -20,12 +20,17 @@ package org.apache.tajo.engine.planner;
 
 import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.plan.expr.GeneralFunctionEval;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.plan.Target;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.worker.TaskAttemptContext;
 
+import java.util.Arrays;
+
 public class Projector {
   private final TaskAttemptContext context;
   private final Schema inSchema;
@@ -35,6 +40,11 @@ public class Projector {
   private final int targetNum;
   private final EvalNode[] evals;
 
+  // functions at the roots of targets which are evaluated in batches, e.g., python functions
+  private final int batchSize;
+  private final int [] batchResultIds;
+  private Datum [][] batchResults;
+
   public Projector(TaskAttemptContext context, Schema inSchema, Schema outSchema, Target [] targets) {
     this.context = context;
     this.inSchema = inSchema;
@@ -58,6 +68,21 @@ public class Projector {
         evals[i] = this.targets[i].getEvalTree();
       }
     }
+
+    batchSize = context.getConf().getIntVar(ConfVars.PYTHON_BATCH_SIZE);
+    batchResultIds = new int[targetNum];
+    Arrays.fill(batchResultIds, -1);
+    int batchTargetNum = 0;
+    for (int i = 0; i < targetNum; i++) {
+      EvalNode eval = this.targets[i].getEvalTree();
+      if (eval instanceof GeneralFunctionEval && ((GeneralFunctionEval) eval).isBatchEvaluable()) {
+        evals[i] = eval;
+        batchResultIds[i] = batchTargetNum++;
+      }
+    }
+    if (batchTargetNum > 0) {
+      batchResults = new Datum[batchTargetNum][batchSize];
+    }
     init();
   }
 
@@ -72,4 +97,39 @@ public class Projector {
       out.put(i, evals[i].eval(in));
     }
   }
+
+  /**
+   * @return True if some targets should be evaluated in batches by {@link #prepareBatch}.
+   */
+  public boolean hasBatchTargets() {
+    return batchResults != null;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Evaluates the batch targets for the given rows. The rows must not be reused until they are projected.
+   */
+  public void prepareBatch(Tuple [] inputs, int num) {
+    for (int i = 0; i < evals.length; i++) {
+      if (batchResultIds[i] >= 0) {
+        ((GeneralFunctionEval) evals[i]).evalBatch(inputs, num, batchResults[batchResultIds[i]]);
+      }
+    }
+  }
+
+  /**
+   * Projects a row of the batch which was passed to {@link #prepareBatch}.
+   */
+  public void eval(Tuple in, int batchIdx, Tuple out) {
+    for (int i = 0; i < evals.length; i++) {
+      if (batchResultIds[i] >= 0) {
+        out.put(i, batchResults[batchResultIds[i]][batchIdx]);
+      } else {
+        out.put(i, evals[i].eval(in));
+      }
+    }
+  }
 }
@@ -42,6 +42,9 @@ public class ExecutionBlock {
 
   private Set<String> broadcasted = new HashSet<String>();
 
+  // Decisions made at runtime according to actual volumes of input data (e.g., the number of tasks)
+  private List<String> runtimeDecisions = Collections.synchronizedList(new ArrayList<String>());
+
   public ExecutionBlock(ExecutionBlockId executionBlockId) {
     this.executionBlockId = executionBlockId;
   }
@@ -138,6 +141,16 @@ public class ExecutionBlock {
     return broadcasted;
   }
 
+  public void addRuntimeDecision(String decision) {
+    runtimeDecisions.add(decision);
+  }
+
+  public List<String> getRuntimeDecisions() {
+    synchronized (runtimeDecisions) {
+      return new ArrayList<String>(runtimeDecisions);
+    }
+  }
+
   public String toString() {
     return executionBlockId.toString();
   }
@@ -1212,13 +1212,19 @@ public class GlobalPlanner {
         node.setChild(execBlock.getPlan());
         execBlock.setPlan(node);
 
-        ExecutionBlock childBlock = context.plan.getChild(execBlock, 0);
-        LimitNode childLimit = PlannerUtil.clone(context.plan.getLogicalPlan(), node);
-        childLimit.setChild(childBlock.getPlan());
-        childBlock.setPlan(childLimit);
+        // each child block sorting its input only needs to emit the first N rows.
+        // If the sort input is a union, every sub block sorts its own input.
+        for (ExecutionBlock childBlock : context.plan.getChilds(execBlock)) {
+          if (childBlock.getPlan() == null || childBlock.getPlan().getType() != NodeType.SORT) {
+            continue;
+          }
+          LimitNode childLimit = PlannerUtil.clone(context.plan.getLogicalPlan(), node);
+          childLimit.setChild(childBlock.getPlan());
+          childBlock.setPlan(childLimit);
 
-        DataChannel channel = context.plan.getChannel(childBlock, execBlock);
-        channel.setShuffleOutputNum(1);
+          DataChannel channel = context.plan.getChannel(childBlock, execBlock);
+          channel.setShuffleOutputNum(1);
+        }
         context.execBlockMap.put(node.getPID(), execBlock);
       } else {
         node.setChild(execBlock.getPlan());
@@ -278,6 +278,15 @@ public class MasterPlan {
         }
       }
 
+      List<String> runtimeDecisions = block.getRuntimeDecisions();
+      if (runtimeDecisions.size() > 0) {
+        sb.append("\n[Runtime Decisions]\n");
+        int i = 0;
+        for (String decision : runtimeDecisions) {
+          sb.append(" ").append(i++).append(": ").append(decision).append("\n");
+        }
+      }
+
       sb.append("\n").append(PlannerUtil.buildExplainString(block.getPlan()));
     }
 
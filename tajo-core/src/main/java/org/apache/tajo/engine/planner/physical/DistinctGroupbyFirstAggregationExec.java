@@ -20,19 +20,32 @@ package org.apache.tajo.engine.planner.physical;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.datum.Int2Datum;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.plan.expr.AggregationFunctionCallEval;
 import org.apache.tajo.plan.function.FunctionContext;
 import org.apache.tajo.plan.logical.DistinctGroupbyNode;
 import org.apache.tajo.plan.logical.GroupbyNode;
+import org.apache.tajo.storage.MemoryUtil;
+import org.apache.tajo.storage.RowStoreUtil;
+import org.apache.tajo.storage.RowStoreUtil.RowStoreDecoder;
+import org.apache.tajo.storage.RowStoreUtil.RowStoreEncoder;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.Map.Entry;
 
@@ -82,11 +95,21 @@ import java.util.Map.Entry;
  *  
  *  In addition, columns for NonDistinctGroupBy only can contains real value at first NodeSequence.
  *
+ *  Each distinct key is encoded with its node sequence and grouping key into bytes, and they are kept in a
+ *  {@link SpillableDistinctSet} which is bounded by the session variable DISTINCT_GROUPBY_BUFFER_SIZE. So, duplicated
+ *  keys are removed before shuffle even if they do not fit in the memory. Rows are returned in the order of
+ *  the node sequence and the grouping key. If a key has a type which {@link RowStoreUtil} cannot encode, distinct
+ *  keys are kept in hash sets instead, and the task fails if they do not fit in the memory.
  */
 
 public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
   private static Log LOG = LogFactory.getLog(DistinctGroupbyFirstAggregationExec.class);
 
+  /** a distinct row consists of node sequence (short), the length of grouping key (int), grouping key, distinct key */
+  private static final int ROW_HEADER_LENGTH = 2 + 4;
+  /** the estimated size of a hash entry or a function context, which is added to the size of a key */
+  private static final int OBJECT_BYTES = 32;
+
   private DistinctGroupbyNode plan;
   private boolean finished = false;
   private boolean preparedData = false;
@@ -98,6 +121,17 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
   private NonDistinctHashAggregator nonDistinctHashAggregator;
   private DistinctHashAggregator[] distinctAggregators;
 
+  private Schema groupingKeySchema;
+  private RowStoreEncoder groupingKeyEncoder;
+  private RowStoreDecoder groupingKeyDecoder;
+  /** It is null if distinct keys cannot be encoded */
+  private SpillableDistinctSet distinctSet;
+  /** grouping key -> distinct keys for each node sequence. It is used only if distinct keys cannot be encoded. */
+  private List<Map<Tuple, Set<Tuple>>> inMemoryDistinctKeys;
+  /** the hash tables which cannot spill, i.e., non-distinct aggregation and distinct keys which are not encoded */
+  private MemoryConsumer memoryConsumer;
+  private long memoryConsumption;
+
   private int resultTupleLength;
 
   public DistinctGroupbyFirstAggregationExec(TaskAttemptContext context, DistinctGroupbyNode plan, PhysicalExec subOp)
@@ -126,6 +160,11 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
     }
     resultTupleLength = groupingKeyIndexes.length + 1;  //1 is Sequence Datum which indicates sequence of DistinctNode.
 
+    groupingKeySchema = getKeySchema(inSchema, groupingKeyIndexes);
+    groupingKeyEncoder = RowStoreUtil.createEncoder(groupingKeySchema);
+    groupingKeyDecoder = RowStoreUtil.createDecoder(groupingKeySchema);
+    boolean encodable = RowStoreUtil.isSupported(groupingKeySchema);
+
     List<GroupbyNode> groupbyNodes = plan.getSubPlans();
 
     List<DistinctHashAggregator> distinctAggrList = new ArrayList<DistinctHashAggregator>();
@@ -135,6 +174,7 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
         DistinctHashAggregator aggregator = new DistinctHashAggregator(eachGroupby);
         aggregator.setNodeSequence(distinctSeq++);
         distinctAggrList.add(aggregator);
+        encodable &= RowStoreUtil.isSupported(aggregator.distinctKeySchema);
         resultTupleLength += aggregator.getTupleLength();
       } else {
         nonDistinctHashAggregator = new NonDistinctHashAggregator(eachGroupby);
@@ -142,9 +182,42 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
       }
     }
     distinctAggregators = distinctAggrList.toArray(new DistinctHashAggregator[]{});
+    memoryConsumer = context.newMemoryConsumer(getClass().getSimpleName(), false);
+
+    if (encodable) {
+      long bufferSize = context.getQueryContext().getLong(SessionVars.DISTINCT_GROUPBY_BUFFER_SIZE) * StorageUnit.MB;
+      LocalDirAllocator localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+      Path spillDir = localDirAllocator.getLocalPathForWrite(getExecutorTmpDir().toString(), context.getConf());
+      distinctSet = new SpillableDistinctSet(bufferSize, new File(spillDir.toUri().getPath()),
+          context.newMemoryConsumer(SpillableDistinctSet.class.getSimpleName(), true));
+    } else {
+      LOG.info("Distinct keys are kept in memory because some of their types cannot be encoded");
+      inMemoryDistinctKeys = new ArrayList<Map<Tuple, Set<Tuple>>>();
+      for (int i = 0; i < distinctAggregators.length; i++) {
+        inMemoryDistinctKeys.add(new HashMap<Tuple, Set<Tuple>>());
+      }
+    }
   }
 
-  private int currentAggregatorIndex = 0;
+  /**
+   * @return The schema of the given columns of the input schema
+   */
+  private static Schema getKeySchema(Schema inSchema, int[] keyIndexes) {
+    Schema schema = new Schema();
+    for (int keyIndex : keyIndexes) {
+      schema.addColumn(inSchema.getColumn(keyIndex));
+    }
+    return schema;
+  }
+
+  private int currentSequence = -1;
+  private byte[] currentGroupingKeyBytes;
+  private Tuple currentGroupingKey;
+
+  // the iterators of distinct keys which are not encoded
+  private Iterator<Entry<Tuple, Set<Tuple>>> groupingKeyIterator;
+  private Iterator<Tuple> distinctKeyIterator;
+  private boolean groupingKeyChanged;
 
   @Override
   public Tuple next() throws IOException {
@@ -152,22 +225,61 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
       prepareInputData();
     }
 
-    int prevIndex = currentAggregatorIndex;
-    while (!context.isStopped()) {
-      DistinctHashAggregator aggregator = distinctAggregators[currentAggregatorIndex];
-      Tuple result = aggregator.next();
-      if (result != null) {
-        return result;
-      }
-      currentAggregatorIndex++;
-      currentAggregatorIndex = currentAggregatorIndex % distinctAggregators.length;
-      if (currentAggregatorIndex == prevIndex) {
+    if (finished || context.isStopped()) {
+      return null;
+    }
+
+    if (distinctSet == null) {
+      return nextInMemory();
+    }
+
+    byte[] row = distinctSet.next();
+    if (row == null) {
+      finished = true;
+      return null;
+    }
+    fetchedRows++;
+
+    ByteBuffer buffer = ByteBuffer.wrap(row);
+    int nodeSequence = buffer.getShort();
+    int groupingKeyLength = buffer.getInt();
+    byte[] groupingKeyBytes = Arrays.copyOfRange(row, ROW_HEADER_LENGTH, ROW_HEADER_LENGTH + groupingKeyLength);
+    byte[] distinctKeyBytes = Arrays.copyOfRange(row, ROW_HEADER_LENGTH + groupingKeyLength, row.length);
+
+    // rows of the same node sequence and grouping key are returned consecutively
+    boolean groupingKeyChanged = nodeSequence != currentSequence ||
+        !Arrays.equals(groupingKeyBytes, currentGroupingKeyBytes);
+    if (groupingKeyChanged) {
+      currentSequence = nodeSequence;
+      currentGroupingKeyBytes = groupingKeyBytes;
+      currentGroupingKey = groupingKeyDecoder.toTuple(groupingKeyBytes);
+    }
+
+    DistinctHashAggregator aggregator = distinctAggregators[nodeSequence];
+    return aggregator.buildTuple(currentGroupingKey, aggregator.decode(distinctKeyBytes), groupingKeyChanged);
+  }
+
+  private Tuple nextInMemory() {
+    while (distinctKeyIterator == null || !distinctKeyIterator.hasNext()) {
+      if (groupingKeyIterator != null && groupingKeyIterator.hasNext()) {
+        Entry<Tuple, Set<Tuple>> entry = groupingKeyIterator.next();
+        currentGroupingKey = entry.getKey();
+        distinctKeyIterator = entry.getValue().iterator();
+        groupingKeyChanged = true;
+      } else if (currentSequence + 1 < distinctAggregators.length) {
+        currentSequence++;
+        groupingKeyIterator = inMemoryDistinctKeys.get(currentSequence).entrySet().iterator();
+      } else {
         finished = true;
         return null;
       }
     }
+    fetchedRows++;
 
-    return null;
+    Tuple tuple = distinctAggregators[currentSequence].buildTuple(currentGroupingKey, distinctKeyIterator.next(),
+        groupingKeyChanged);
+    groupingKeyChanged = false;
+    return tuple;
   }
 
   private void prepareInputData() throws IOException {
@@ -177,23 +289,61 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
       for (int i = 0; i < groupingKeyIndexes.length; i++) {
         groupingKey.put(i, tuple.get(groupingKeyIndexes[i]));
       }
-      for (int i = 0; i < distinctAggregators.length; i++) {
-        distinctAggregators[i].compute(groupingKey, tuple);
+      if (distinctSet != null) {
+        byte[] groupingKeyBytes = groupingKeyEncoder.toBytes(groupingKey);
+        for (int i = 0; i < distinctAggregators.length; i++) {
+          if (distinctSet.add(distinctAggregators[i].encode(groupingKeyBytes, tuple))) {
+            totalNumRows++;
+          }
+        }
+      } else {
+        for (int i = 0; i < distinctAggregators.length; i++) {
+          addInMemory(inMemoryDistinctKeys.get(i), groupingKey, distinctAggregators[i].getDistinctKey(tuple));
+        }
       }
       if (nonDistinctHashAggregator != null) {
         nonDistinctHashAggregator.compute(groupingKey, tuple);
       }
     }
-    for (int i = 0; i < distinctAggregators.length; i++) {
-      distinctAggregators[i].rescan();
+    if (distinctSet != null) {
+      distinctSet.finish();
+      if (distinctSet.getSpilledRunNum() > 0) {
+        LOG.info(distinctSet.getSpilledRunNum() + " runs of distinct keys are spilled");
+      }
     }
 
-    totalNumRows = distinctAggregators[0].distinctAggrDatas.size();
     preparedData = true;
   }
 
+  private void addInMemory(Map<Tuple, Set<Tuple>> distinctKeys, Tuple groupingKey, Tuple distinctKey)
+      throws IOException {
+    Set<Tuple> keys = distinctKeys.get(groupingKey);
+    if (keys == null) {
+      keys = new HashSet<Tuple>();
+      distinctKeys.put(groupingKey, keys);
+      reserveMemory(MemoryUtil.calculateMemorySize(groupingKey) + OBJECT_BYTES * 2);
+    }
+    if (keys.add(distinctKey)) {
+      totalNumRows++;
+      reserveMemory(MemoryUtil.calculateMemorySize(distinctKey) + OBJECT_BYTES);
+    }
+  }
+
+  private void reserveMemory(long bytes) throws IOException {
+    memoryConsumption += bytes;
+    memoryConsumer.reserveOrFail(memoryConsumption);
+  }
+
   @Override
   public void close() throws IOException {
+    if (distinctSet != null) {
+      distinctSet.close();
+      distinctSet = null;
+    }
+    inMemoryDistinctKeys = null;
+    if (memoryConsumer != null) {
+      memoryConsumer.release();
+    }
     child.close();
   }
 
@@ -212,7 +362,7 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
       return progress;
     } else {
       if (totalNumRows > 0) {
-        return progress + ((float)fetchedRows / (float)totalNumRows) * 0.5f;
+        return progress + Math.min(1.0f, (float)fetchedRows / (float)totalNumRows) * 0.5f;
       } else {
         return progress;
       }
@@ -220,11 +370,16 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
   }
 
   @Override
-  public void rescan() {
+  public void rescan() throws IOException {
     finished = false;
-    currentAggregatorIndex = 0;
-    for (int i = 0; i < distinctAggregators.length; i++) {
-      distinctAggregators[i].rescan();
+    fetchedRows = 0;
+    currentSequence = -1;
+    currentGroupingKeyBytes = null;
+    currentGroupingKey = null;
+    groupingKeyIterator = null;
+    distinctKeyIterator = null;
+    if (preparedData && distinctSet != null) {
+      distinctSet.rewind();
     }
   }
 
@@ -261,7 +416,7 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
       tupleLength = aggFunctionsNum;
     }
 
-    public void compute(Tuple groupingKeyTuple, Tuple tuple) {
+    public void compute(Tuple groupingKeyTuple, Tuple tuple) throws IOException {
       FunctionContext[] contexts = nonDistinctAggrDatas.get(groupingKeyTuple);
       if (contexts != null) {
         for (int i = 0; i < aggFunctions.length; i++) {
@@ -274,6 +429,7 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
           aggFunctions[i].merge(contexts[i], tuple);
         }
         nonDistinctAggrDatas.put(groupingKeyTuple, contexts);
+        reserveMemory(MemoryUtil.calculateMemorySize(groupingKeyTuple) + OBJECT_BYTES * (aggFunctionsNum + 1));
       }
     }
 
@@ -301,19 +457,17 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
   }
 
   class DistinctHashAggregator {
-
-    // GroupingKey -> DistinctKey
-    private Map<Tuple, Set<Tuple>> distinctAggrDatas;
-    private Iterator<Entry<Tuple, Set<Tuple>>> iterator = null;
-
     private int nodeSequence;
     private Int2Datum nodeSequenceDatum;
 
     private int[] distinctKeyIndexes;
+    private final Schema distinctKeySchema;
+    private RowStoreEncoder distinctKeyEncoder;
+    private RowStoreDecoder distinctKeyDecoder;
+    private Tuple distinctKeyTuple;
 
     private int tupleLength;
     private Tuple dummyTuple;
-    private boolean aggregatorFinished = false;
 
     public DistinctHashAggregator(GroupbyNode groupbyNode) throws IOException {
 
@@ -344,7 +498,10 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
         this.distinctKeyIndexes[index++] = eachId;
       }
 
-      this.distinctAggrDatas = new HashMap<Tuple, Set<Tuple>>();
+      this.distinctKeySchema = getKeySchema(inSchema, distinctKeyIndexes);
+      this.distinctKeyEncoder = RowStoreUtil.createEncoder(distinctKeySchema);
+      this.distinctKeyDecoder = RowStoreUtil.createDecoder(distinctKeySchema);
+      this.distinctKeyTuple = new VTuple(distinctKeyIndexes.length);
       this.tupleLength = distinctKeyIndexes.length;
     }
 
@@ -357,62 +514,36 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
       return tupleLength;
     }
 
-    public void compute(Tuple groupingKey, Tuple tuple) throws IOException {
-      Tuple distinctKeyTuple = new VTuple(distinctKeyIndexes.length);
+    public Tuple getDistinctKey(Tuple tuple) {
+      Tuple distinctKey = new VTuple(distinctKeyIndexes.length);
       for (int i = 0; i < distinctKeyIndexes.length; i++) {
-        distinctKeyTuple.put(i, tuple.get(distinctKeyIndexes[i]));
+        distinctKey.put(i, tuple.get(distinctKeyIndexes[i]));
       }
-
-      Set<Tuple> distinctEntry = distinctAggrDatas.get(groupingKey);
-      if (distinctEntry == null) {
-        distinctEntry = new HashSet<Tuple>();
-        distinctAggrDatas.put(groupingKey, distinctEntry);
-      }
-      distinctEntry.add(distinctKeyTuple);
+      return distinctKey;
     }
 
-    public void rescan() {
-      iterator = distinctAggrDatas.entrySet().iterator();
-      currentGroupingTuples = null;
-      groupingKeyChanged = false;
-      aggregatorFinished = false;
+    public Tuple decode(byte[] distinctKeyBytes) {
+      return distinctKeyDecoder.toTuple(distinctKeyBytes);
     }
 
-    public void close() throws IOException {
-      distinctAggrDatas.clear();
-      distinctAggrDatas = null;
-      currentGroupingTuples = null;
-      iterator = null;
+    /**
+     * Encodes the node sequence, the grouping key and the distinct key of the input tuple into a distinct row.
+     */
+    public byte[] encode(byte[] groupingKeyBytes, Tuple tuple) {
+      for (int i = 0; i < distinctKeyIndexes.length; i++) {
+        distinctKeyTuple.put(i, tuple.get(distinctKeyIndexes[i]));
+      }
+      byte[] distinctKeyBytes = distinctKeyEncoder.toBytes(distinctKeyTuple);
+
+      ByteBuffer buffer = ByteBuffer.allocate(ROW_HEADER_LENGTH + groupingKeyBytes.length + distinctKeyBytes.length);
+      buffer.putShort((short) nodeSequence);
+      buffer.putInt(groupingKeyBytes.length);
+      buffer.put(groupingKeyBytes);
+      buffer.put(distinctKeyBytes);
+      return buffer.array();
     }
 
-    Entry<Tuple, Set<Tuple>> currentGroupingTuples;
-    Iterator<Tuple> distinctKeyIterator;
-    boolean groupingKeyChanged = false;
-
-    public Tuple next() {
-      if (aggregatorFinished) {
-        return null;
-      }
-      if (currentGroupingTuples == null) {
-        // first
-        if (!iterator.hasNext()) {
-          // Empty case
-          aggregatorFinished = true;
-          return null;
-        }
-        currentGroupingTuples = iterator.next();
-        groupingKeyChanged = true;
-        distinctKeyIterator = currentGroupingTuples.getValue().iterator();
-      }
-      if (!distinctKeyIterator.hasNext()) {
-        if (!iterator.hasNext()) {
-          aggregatorFinished = true;
-          return null;
-        }
-        currentGroupingTuples = iterator.next();
-        groupingKeyChanged = true;
-        distinctKeyIterator = currentGroupingTuples.getValue().iterator();
-      }
+    public Tuple buildTuple(Tuple groupingKeyTuple, Tuple distinctKeyTuple, boolean groupingKeyChanged) {
       // node sequence, groupingKeys, 1'st distinctKeys, 2'st distinctKeys, ...
       // If n'st == this.nodeSequence set with real data, otherwise set with NullDatum
       Tuple tuple = new VTuple(resultTupleLength);
@@ -420,7 +551,6 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
       tuple.put(tupleIndex++, nodeSequenceDatum);
 
       // merge grouping key
-      Tuple groupingKeyTuple = currentGroupingTuples.getKey();
       int groupingKeyLength = groupingKeyTuple.size();
       for (int i = 0; i < groupingKeyLength; i++, tupleIndex++) {
         tuple.put(tupleIndex, groupingKeyTuple.get(i));
@@ -429,7 +559,6 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
       // merge distinctKey
       for (int i = 0; i < distinctAggregators.length; i++) {
         if (i == nodeSequence) {
-          Tuple distinctKeyTuple = distinctKeyIterator.next();
           int distinctKeyLength = distinctKeyTuple.size();
           for (int j = 0; j < distinctKeyLength; j++, tupleIndex++) {
             tuple.put(tupleIndex, distinctKeyTuple.get(j));
@@ -447,7 +576,6 @@ public class DistinctGroupbyFirstAggregationExec extends UnaryPhysicalExec {
       if (nonDistinctHashAggregator != null) {
         Tuple nonDistinctTuple;
         if (nodeSequence == 0 && groupingKeyChanged) {
-          groupingKeyChanged = false;
           nonDistinctTuple = nonDistinctHashAggregator.aggregate(groupingKeyTuple);
           if (nonDistinctTuple == null) {
             nonDistinctTuple = nonDistinctHashAggregator.getDummyTuple();
@@ -43,6 +43,7 @@ import org.apache.tajo.storage.fragment.FragmentConvertor;
 import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.FileUtil;
 import org.apache.tajo.util.TUtil;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.File;
@@ -69,17 +70,27 @@ public class ExternalSortExec extends SortExec {
   private static final Log LOG = LogFactory.getLog(ExternalSortExec.class);
   /** The prefix of fragment name for intermediate */
   private static final String INTERMEDIATE_FILE_PREFIX = "@interFile_";
+  /** the memory bytes of decoded tuples in a block read in advance from each run */
+  private static final int READ_AHEAD_BLOCK_BYTES = 256 * StorageUnit.KB;
+  /** the maximum fanout which limits the number of open files */
+  private static final int MAX_FANOUT = 1024;
 
   private SortNode plan;
   private final TableMeta meta;
-  /** the defaultFanout of external sort */
+  /** the minimum fanout of external sort */
   private final int defaultFanout;
+  /** the fanout determined by the sort buffer size */
+  private int fanout;
   /** It's the size of in-memory table. If memory consumption exceeds it, store the memory table into a disk. */
   private long sortBufferBytesNum;
+  /** the memory reserved from the worker. The memory table is also stored if the worker runs out of memory. */
+  private final MemoryConsumer memoryConsumer;
   /** the number of available cores */
   private final int allocatedCoreNum;
   /** If there are available multiple cores, it tries parallel merge. */
   private ExecutorService executorService;
+  /** It reads blocks of runs in advance. It has a thread for each temporal dir. */
+  private ExecutorService ioExecutorService;
   /** used for in-memory sort of each chunk. */
   private List<Tuple> inMemoryTable;
   /** temporal dir */
@@ -116,11 +127,15 @@ public class ExternalSortExec extends SortExec {
     if (defaultFanout < 2) {
       throw new PhysicalPlanningException(ConfVars.EXECUTOR_EXTERNAL_SORT_FANOUT.varname + " cannot be lower than 2");
     }
+    this.fanout = defaultFanout;
     // TODO - sort buffer and core num should be changed to use the allocated container resource.
     this.sortBufferBytesNum = context.getQueryContext().getLong(SessionVars.EXTSORT_BUFFER_SIZE) * StorageUnit.MB;
     this.allocatedCoreNum = context.getConf().getIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_THREAD_NUM);
     this.executorService = Executors.newFixedThreadPool(this.allocatedCoreNum);
+    int diskNum = Math.max(1, context.getConf().getTrimmedStrings(ConfVars.WORKER_TEMPORAL_DIR.varname).length);
+    this.ioExecutorService = Executors.newFixedThreadPool(diskNum);
     this.inMemoryTable = new ArrayList<Tuple>(100000);
+    this.memoryConsumer = context.newMemoryConsumer(getClass().getSimpleName(), true);
 
     this.sortTmpDir = getExecutorTmpDir();
     localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
@@ -207,17 +222,22 @@ public class ExternalSortExec extends SortExec {
       inMemoryTable.add(vtuple);
       memoryConsumption += MemoryUtil.calculateMemorySize(vtuple);
 
-      if (memoryConsumption > sortBufferBytesNum) {
+      if (memoryConsumption > sortBufferBytesNum || !memoryConsumer.reserve(memoryConsumption)) {
         long runEndTime = System.currentTimeMillis();
         info(LOG, chunkId + " run loading time: " + (runEndTime - runStartTime) + " msec");
         runStartTime = runEndTime;
 
-        info(LOG, "Memory consumption exceeds " + sortBufferBytesNum + " bytes");
+        if (memoryConsumption > sortBufferBytesNum) {
+          info(LOG, "Memory consumption exceeds " + sortBufferBytesNum + " bytes");
+        } else {
+          info(LOG, "Worker memory is not enough to keep " + memoryConsumption + " bytes");
+        }
         memoryResident = false;
 
         chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
 
         memoryConsumption = 0;
+        memoryConsumer.release();
         chunkId++;
 
         // When the volume of sorting data once exceed the size of sort buffer,
@@ -240,6 +260,7 @@ public class ExternalSortExec extends SortExec {
       long start = System.currentTimeMillis();
       int rowNum = inMemoryTable.size();
       chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
+      memoryConsumer.release();
       long end = System.currentTimeMillis();
       info(LOG, "Last Chunk #" + chunkId + " " + rowNum + " rows written (" + (end - start) + " msec)");
     }
@@ -310,7 +331,7 @@ public class ExternalSortExec extends SortExec {
   }
 
   private int calculateFanout(int remainInputChunks, int inputNum, int outputNum, int startIdx) {
-    int computedFanout = Math.min(remainInputChunks, defaultFanout);
+    int computedFanout = Math.min(remainInputChunks, fanout);
 
     // Why should we detect an opportunity for unbalanced merge?
     //
@@ -332,8 +353,20 @@ public class ExternalSortExec extends SortExec {
     return computedFanout;
   }
 
+  /**
+   * Each run being merged holds two read-ahead blocks, and as many mergers as allocated cores run in parallel.
+   * Blocks are bounded by the measured memory of their decoded tuples, not by the bytes read from the run.
+   * So, the fanout is determined by how many runs the sort buffer can serve at once.
+   */
+  @VisibleForTesting
+  static int calculateMergeFanout(long sortBufferBytesNum, int coreNum, int minFanout) {
+    long memoryFanout = sortBufferBytesNum / (2L * READ_AHEAD_BLOCK_BYTES * Math.max(1, coreNum));
+    return (int) Math.max(minFanout, Math.min(MAX_FANOUT, memoryFanout));
+  }
+
   private Scanner externalMergeAndSort(List<FileFragment> chunks)
       throws IOException, ExecutionException, InterruptedException {
+    fanout = calculateMergeFanout(sortBufferBytesNum, allocatedCoreNum, defaultFanout);
     int level = 0;
     final List<FileFragment> inputFiles = TUtil.newList(chunks);
     final List<FileFragment> outputFiles = TUtil.newList();
@@ -342,8 +375,8 @@ public class ExternalSortExec extends SortExec {
 
     long mergeStart = System.currentTimeMillis();
 
-    // continue until the remain runs are larger than defaultFanout
-    while (remainRun > defaultFanout) {
+    // continue until the remain runs are larger than fanout
+    while (remainRun > fanout) {
 
       // reset outChunkId
       int remainInputRuns = inputFiles.size();
@@ -370,7 +403,7 @@ public class ExternalSortExec extends SortExec {
         // If unbalanced merge is available, it finishes the merge phase earlier.
         if (checkIfCanBeUnbalancedMerged(remainInputRuns, outputFileNum)) {
           info(LOG, "Unbalanced merge possibility detected: number of remain input (" + remainInputRuns
-              + ") and output files (" + outputFileNum + ") <= " + defaultFanout);
+              + ") and output files (" + outputFileNum + ") <= " + fanout);
 
           List<FileFragment> switched = TUtil.newList();
           // switch the remain inputs to the next outputs
@@ -490,7 +523,7 @@ public class ExternalSortExec extends SortExec {
    * It checks if unbalanced merge is possible.
    */
   private boolean checkIfCanBeUnbalancedMerged(int remainInputNum, int outputNum) {
-    return (remainInputNum + outputNum) <= defaultFanout;
+    return (remainInputNum + outputNum) <= fanout;
   }
 
   /**
@@ -512,28 +545,16 @@ public class ExternalSortExec extends SortExec {
   private Scanner createKWayMerger(List<FileFragment> inputs, final int startChunkId, final int num) throws IOException {
     final Scanner [] sources = new Scanner[num];
     for (int i = 0; i < num; i++) {
-      sources[i] = getFileScanner(inputs.get(startChunkId + i));
+      sources[i] = new ReadAheadScanner(
+          new RawFileScanner(context.getConf(), plan.getInSchema(), meta, inputs.get(startChunkId + i)),
+          ioExecutorService, READ_AHEAD_BLOCK_BYTES);
     }
 
-    return createKWayMergerInternal(sources, 0, num);
-  }
-
-  private Scanner createKWayMergerInternal(final Scanner [] sources, final int startIdx, final int num)
-      throws IOException {
-    if (num > 1) {
-      final int mid = (int) Math.ceil((float)num / 2);
-      Scanner left = createKWayMergerInternal(sources, startIdx, mid);
-      Scanner right = createKWayMergerInternal(sources, startIdx + mid, num - mid);
-      if (ComparableVector.isVectorizable(sortSpecs)) {
-        return new VectorComparePairWiseMerger(inSchema, left, right, comparator);
-      }
-      return new PairWiseMerger(inSchema, left, right, comparator);
-    } else {
-      return sources[startIdx];
-    }
+    return new LoserTreeMerger(inSchema, sources, comparator);
   }
 
-  private static class MemTableScanner extends AbstractScanner {
+  @VisibleForTesting
+  static class MemTableScanner extends AbstractScanner {
     final Iterable<Tuple> iterable;
     final long sortAndStoredBytes;
     final int totalRecords;
@@ -607,55 +628,38 @@ public class ExternalSortExec extends SortExec {
     CLOSED
   }
 
-  private static class VectorComparePairWiseMerger extends PairWiseMerger {
-
-    private ComparableVector comparable;
-
-    public VectorComparePairWiseMerger(Schema schema, Scanner leftScanner, Scanner rightScanner,
-                                       BaseTupleComparator comparator) throws IOException {
-      super(schema, leftScanner, rightScanner, null);
-      comparable = new ComparableVector(2, comparator.getSortSpecs(), comparator.getSortKeyIds());
-    }
-
-    @Override
-    protected Tuple prepare(int index, Tuple tuple) {
-      if (tuple != null) {
-        comparable.set(index, tuple);
-      }
-      return tuple;
-    }
-
-    @Override
-    protected int compare() {
-      return comparable.compare(0, 1);
-    }
-  }
-
   /**
-   * Two-way merger scanner that reads two input sources and outputs one output tuples sorted in some order.
+   * K-way merger scanner based on a loser tree. Each internal node of the tree keeps the loser of the match
+   * between its subtrees, and the overall winner is kept in tree[0]. So, it needs only log(k) comparisons
+   * to output a tuple, and it does not need intermediate copies of tuples like a tree of two-way mergers.
    */
-  private static class PairWiseMerger extends AbstractScanner {
-
-    protected final Schema schema;
-    protected final Comparator<Tuple> comparator;
+  @VisibleForTesting
+  static class LoserTreeMerger extends AbstractScanner {
 
-    protected final Scanner leftScan;
-    protected final Scanner rightScan;
+    private final Schema schema;
+    private final Comparator<Tuple> comparator;
+    private final ComparableVector comparable;
 
-    private Tuple leftTuple;
-    private Tuple rightTuple;
+    private final Scanner [] sources;
+    private final Tuple [] heads;
+    private final int [] tree;
 
     private float mergerProgress;
     private TableStats mergerInputStats;
 
     private State state = State.NEW;
 
-    public PairWiseMerger(Schema schema, Scanner leftScanner, Scanner rightScanner, Comparator<Tuple> comparator)
-        throws IOException {
+    public LoserTreeMerger(Schema schema, Scanner [] sources, BaseTupleComparator comparator) {
       this.schema = schema;
-      this.leftScan = leftScanner;
-      this.rightScan = rightScanner;
+      this.sources = sources;
       this.comparator = comparator;
+      this.heads = new Tuple[sources.length];
+      this.tree = new int[sources.length];
+      if (ComparableVector.isVectorizable(comparator.getSortSpecs())) {
+        this.comparable = new ComparableVector(sources.length, comparator.getSortSpecs(), comparator.getSortKeyIds());
+      } else {
+        this.comparable = null;
+      }
     }
 
     private void setState(State state) {
@@ -665,8 +669,9 @@ public class ExternalSortExec extends SortExec {
     @Override
     public void init() throws IOException {
       if (state == State.NEW) {
-        leftScan.init();
-        rightScan.init();
+        for (Scanner source : sources) {
+          source.init();
+        }
 
         prepareTuplesForFirstComparison();
 
@@ -680,40 +685,87 @@ public class ExternalSortExec extends SortExec {
     }
 
     private void prepareTuplesForFirstComparison() throws IOException {
-      leftTuple = prepare(0, leftScan.next());
-      rightTuple = prepare(1, rightScan.next());
+      for (int i = 0; i < sources.length; i++) {
+        heads[i] = prepare(i, sources[i].next());
+      }
+      tree[0] = build(1);
+    }
+
+    /**
+     * Plays matches of the subtree rooted at the given node, and returns the winner of the subtree.
+     * Leaves are the nodes from k to 2k - 1.
+     */
+    private int build(int node) {
+      if (node >= sources.length) {
+        return node - sources.length;
+      }
+      int left = build(node * 2);
+      int right = build(node * 2 + 1);
+      if (beats(left, right)) {
+        tree[node] = right;
+        return left;
+      } else {
+        tree[node] = left;
+        return right;
+      }
     }
 
-    protected Tuple prepare(int index, Tuple tuple) {
-      return tuple == null ? null : new VTuple(tuple);
+    /**
+     * Replays matches from the leaf of the given source to the root.
+     */
+    private void adjust(int source) {
+      int winner = source;
+      for (int node = (source + sources.length) >>> 1; node > 0; node >>>= 1) {
+        if (beats(tree[node], winner)) {
+          int loser = winner;
+          winner = tree[node];
+          tree[node] = loser;
+        }
+      }
+      tree[0] = winner;
+    }
+
+    /**
+     * An exhausted source always loses, and the source having a smaller index wins a tie.
+     */
+    private boolean beats(int a, int b) {
+      if (heads[a] == null) {
+        return false;
+      }
+      if (heads[b] == null) {
+        return true;
+      }
+      int cmp = comparable != null ? comparable.compare(a, b) : comparator.compare(heads[a], heads[b]);
+      return cmp < 0 || (cmp == 0 && a < b);
     }
 
-    protected int compare() {
-      return comparator.compare(leftTuple, rightTuple);
+    private Tuple prepare(int index, Tuple tuple) {
+      if (tuple != null && comparable != null) {
+        comparable.set(index, tuple);
+      }
+      return tuple;
     }
 
+    @Override
     public Tuple next() throws IOException {
-      if (leftTuple == null && rightTuple == null) {
+      int winner = tree[0];
+      Tuple tuple = heads[winner];
+      if (tuple == null) {
         return null;
       }
-      if (rightTuple == null || (leftTuple != null && compare() < 0)) {
-        Tuple tuple = leftTuple;
-        leftTuple = prepare(0, leftScan.next());
-        return tuple;
-      }
-      Tuple tuple = rightTuple;
-      rightTuple = prepare(1, rightScan.next());
+      // sources do not reuse tuples, so the winner can be returned without a copy
+      heads[winner] = prepare(winner, sources[winner].next());
+      adjust(winner);
       return tuple;
     }
 
     @Override
     public void reset() throws IOException {
       if (state == State.INITED) {
-        leftScan.reset();
-        rightScan.reset();
-
-        leftTuple = null;
-        rightTuple = null;
+        for (Scanner source : sources) {
+          source.reset();
+        }
+        Arrays.fill(heads, null);
 
         prepareTuplesForFirstComparison();
       } else {
@@ -723,7 +775,7 @@ public class ExternalSortExec extends SortExec {
 
     @Override
     public void close() throws IOException {
-      IOUtils.cleanup(LOG, leftScan, rightScan);
+      IOUtils.cleanup(LOG, sources);
       getInputStats();
       mergerProgress = 1.0f;
       setState(State.CLOSED);
@@ -736,18 +788,18 @@ public class ExternalSortExec extends SortExec {
 
     @Override
     public float getProgress() {
-      if (leftScan == null) {
+      if (state != State.INITED) {
         return mergerProgress;
       }
-      return leftScan.getProgress() * 0.5f + rightScan.getProgress() * 0.5f;
+      float progress = 0.0f;
+      for (Scanner source : sources) {
+        progress += source.getProgress();
+      }
+      return progress / sources.length;
     }
 
     @Override
     public TableStats getInputStats() {
-      if (leftScan == null) {
-        return mergerInputStats;
-      }
-      TableStats leftInputStats = leftScan.getInputStats();
       if (mergerInputStats == null) {
         mergerInputStats = new TableStats();
       }
@@ -755,20 +807,165 @@ public class ExternalSortExec extends SortExec {
       mergerInputStats.setReadBytes(0);
       mergerInputStats.setNumRows(0);
 
-      if (leftInputStats != null) {
-        mergerInputStats.setNumBytes(leftInputStats.getNumBytes());
-        mergerInputStats.setReadBytes(leftInputStats.getReadBytes());
-        mergerInputStats.setNumRows(leftInputStats.getNumRows());
+      for (Scanner source : sources) {
+        TableStats sourceInputStats = source.getInputStats();
+        if (sourceInputStats != null) {
+          mergerInputStats.setNumBytes(mergerInputStats.getNumBytes() + sourceInputStats.getNumBytes());
+          mergerInputStats.setReadBytes(mergerInputStats.getReadBytes() + sourceInputStats.getReadBytes());
+          mergerInputStats.setNumRows(mergerInputStats.getNumRows() + sourceInputStats.getNumRows());
+        }
       }
 
-      TableStats rightInputStats = rightScan.getInputStats();
-      if (rightInputStats != null) {
-        mergerInputStats.setNumBytes(mergerInputStats.getNumBytes() + rightInputStats.getNumBytes());
-        mergerInputStats.setReadBytes(mergerInputStats.getReadBytes() + rightInputStats.getReadBytes());
-        mergerInputStats.setNumRows(mergerInputStats.getNumRows() + rightInputStats.getNumRows());
+      return mergerInputStats;
+    }
+  }
+
+  /**
+   * A scanner which reads the next block of a run in a background I/O thread while the current block is merged.
+   * A block is closed when the memory of its decoded tuples reaches the given bytes.
+   * The underlying scanner is only accessed by the I/O thread while a block is being read.
+   */
+  private static class ReadAheadScanner extends AbstractScanner {
+    private static final List<Tuple> EMPTY_BLOCK = Collections.emptyList();
+
+    private final RawFileScanner scanner;
+    private final ExecutorService ioExecutor;
+    private final int blockBytes;
+
+    private Future<Block> nextBlock;
+    private List<Tuple> currentBlock = EMPTY_BLOCK;
+    private int currentIdx;
+
+    /** the progress of the underlying scanner at the start and the end of the current block */
+    private float blockStartProgress;
+    private float blockEndProgress;
+    private boolean exhausted;
+
+    public ReadAheadScanner(RawFileScanner scanner, ExecutorService ioExecutor, int blockBytes) {
+      this.scanner = scanner;
+      this.ioExecutor = ioExecutor;
+      this.blockBytes = blockBytes;
+    }
+
+    private static class Block {
+      final List<Tuple> tuples;
+      final float progress;
+      final boolean eos;
+
+      Block(List<Tuple> tuples, float progress, boolean eos) {
+        this.tuples = tuples;
+        this.progress = progress;
+        this.eos = eos;
       }
+    }
 
-      return mergerInputStats;
+    private Future<Block> readNextBlock() {
+      return ioExecutor.submit(new Callable<Block>() {
+        @Override
+        public Block call() throws Exception {
+          List<Tuple> tuples = new ArrayList<Tuple>();
+          long memoryBytes = 0;
+          Tuple tuple;
+          while ((tuple = scanner.next()) != null) {
+            tuples.add(tuple);
+            memoryBytes += MemoryUtil.calculateMemorySize(tuple);
+            if (memoryBytes >= blockBytes) {
+              break;
+            }
+          }
+          return new Block(tuples, scanner.getProgress(), tuple == null);
+        }
+      });
+    }
+
+    private Block waitForBlock() throws IOException {
+      try {
+        return nextBlock.get();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw new IOException(e.getCause());
+      } finally {
+        nextBlock = null;
+      }
+    }
+
+    @Override
+    public void init() throws IOException {
+      scanner.init();
+      nextBlock = readNextBlock();
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+      while (currentIdx >= currentBlock.size()) {
+        if (nextBlock == null) {
+          exhausted = true;
+          return null;
+        }
+        Block block = waitForBlock();
+        if (!block.eos) {
+          nextBlock = readNextBlock();
+        }
+        currentBlock = block.tuples;
+        currentIdx = 0;
+        blockStartProgress = blockEndProgress;
+        blockEndProgress = block.progress;
+      }
+      return currentBlock.get(currentIdx++);
+    }
+
+    @Override
+    public void reset() throws IOException {
+      if (nextBlock != null) {
+        waitForBlock();
+      }
+      scanner.reset();
+      currentBlock = EMPTY_BLOCK;
+      currentIdx = 0;
+      blockStartProgress = 0.0f;
+      blockEndProgress = 0.0f;
+      exhausted = false;
+      nextBlock = readNextBlock();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (nextBlock != null) {
+          waitForBlock();
+        }
+      } finally {
+        currentBlock = EMPTY_BLOCK;
+        exhausted = true;
+        scanner.close();
+      }
+    }
+
+    @Override
+    public Schema getSchema() {
+      return scanner.getSchema();
+    }
+
+    @Override
+    public float getProgress() {
+      if (exhausted) {
+        return 1.0f;
+      }
+      if (currentBlock.isEmpty()) {
+        return blockStartProgress;
+      }
+      // the progress of a block which was read in advance is divided by the consumed tuples
+      return blockStartProgress +
+          (blockEndProgress - blockStartProgress) * currentIdx / currentBlock.size();
+    }
+
+    @Override
+    public TableStats getInputStats() {
+      return scanner.getInputStats();
     }
   }
 
@@ -798,12 +995,18 @@ public class ExternalSortExec extends SortExec {
       inMemoryTable.clear();
       inMemoryTable = null;
     }
+    memoryConsumer.release();
 
     if(executorService != null){
       executorService.shutdown();
       executorService = null;
     }
 
+    if (ioExecutorService != null) {
+      ioExecutorService.shutdown();
+      ioExecutorService = null;
+    }
+
     plan = null;
     super.close();
   }
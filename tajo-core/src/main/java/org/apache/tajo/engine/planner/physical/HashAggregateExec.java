@@ -20,8 +20,10 @@ package org.apache.tajo.engine.planner.physical;
 
 import org.apache.tajo.plan.function.FunctionContext;
 import org.apache.tajo.plan.logical.GroupbyNode;
+import org.apache.tajo.storage.MemoryUtil;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -34,20 +36,27 @@ import java.util.Map.Entry;
  * This is the hash-based GroupBy Operator.
  */
 public class HashAggregateExec extends AggregationExec {
+  /** the estimated size of a hash entry or a function context, which is added to the size of a key */
+  private static final int OBJECT_BYTES = 32;
+
   private Tuple tuple = null;
   private Map<Tuple, FunctionContext[]> hashTable;
   private boolean computed = false;
   private Iterator<Entry<Tuple, FunctionContext []>> iterator = null;
+  /** the hash table cannot spill, so other operators spill for it, and the task fails if that is not enough */
+  private final MemoryConsumer memoryConsumer;
 
   public HashAggregateExec(TaskAttemptContext ctx, GroupbyNode plan, PhysicalExec subOp) throws IOException {
     super(ctx, plan, subOp);
     hashTable = new HashMap<Tuple, FunctionContext []>(100000);
     this.tuple = new VTuple(plan.getOutSchema().size());
+    this.memoryConsumer = ctx.newMemoryConsumer(getClass().getSimpleName(), false);
   }
 
   private void compute() throws IOException {
     Tuple tuple;
     Tuple keyTuple;
+    long memoryConsumption = 0;
     while(!context.isStopped() && (tuple = child.next()) != null) {
       keyTuple = new VTuple(groupingKeyIds.length);
       // build one key tuple
@@ -67,6 +76,8 @@ public class HashAggregateExec extends AggregationExec {
           aggFunctions[i].merge(contexts[i], tuple);
         }
         hashTable.put(keyTuple, contexts);
+        memoryConsumption += MemoryUtil.calculateMemorySize(keyTuple) + OBJECT_BYTES * (aggFunctionsNum + 1);
+        memoryConsumer.reserveOrFail(memoryConsumption);
       }
     }
 
@@ -121,5 +132,6 @@ public class HashAggregateExec extends AggregationExec {
     hashTable.clear();
     hashTable = null;
     iterator = null;
+    memoryConsumer.release();
   }
 }
@@ -20,14 +20,17 @@ package org.apache.tajo.engine.planner.physical;
 
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.utils.CacheHolder;
 import org.apache.tajo.engine.utils.TableCacheKey;
 import org.apache.tajo.plan.logical.JoinNode;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.storage.FrameTuple;
+import org.apache.tajo.storage.MemoryUtil;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 import org.apache.tajo.worker.ExecutionBlockSharedResource;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -53,6 +56,11 @@ public class HashJoinExec extends CommonJoinExec {
   protected boolean shouldGetLeftTuple = true;
 
   private TableStats cachedRightTableStats;
+  /** the estimated bytes of the rows in the hash table */
+  private long rightTableBytes;
+
+  /** the hash table cannot spill, so other operators spill for it, and the task fails if that is not enough */
+  private final MemoryConsumer memoryConsumer;
 
   public HashJoinExec(TaskAttemptContext context, JoinNode plan, PhysicalExec leftExec,
       PhysicalExec rightExec) {
@@ -77,6 +85,7 @@ public class HashJoinExec extends CommonJoinExec {
     frameTuple = new FrameTuple();
     outTuple = new VTuple(outSchema.size());
     leftKeyTuple = new VTuple(leftKeyList.length);
+    memoryConsumer = context.newMemoryConsumer(getClass().getSimpleName(), false);
   }
 
   protected void getKeyLeftTuple(final Tuple outerTuple, Tuple keyTuple) {
@@ -137,10 +146,15 @@ public class HashJoinExec extends CommonJoinExec {
   protected void loadRightToHashTable() throws IOException {
     ScanExec scanExec = PhysicalPlanUtil.findExecutor(rightChild, ScanExec.class);
     if (scanExec.canBroadcast()) {
-      /* If this table can broadcast, all tasks in a node will share the same cache */
-      TableCacheKey key = CacheHolder.BroadcastCacheHolder.getCacheKey(
-          context, scanExec.getCanonicalName(), scanExec.getFragments());
-      loadRightFromCache(key);
+      TableCacheKey sharedKey = getSharedCacheKey(scanExec);
+      if (sharedKey != null) {
+        loadRightFromSharedCache(sharedKey);
+      } else {
+        /* If this table can broadcast, all tasks in a node will share the same cache */
+        TableCacheKey key = CacheHolder.BroadcastCacheHolder.getCacheKey(
+            context, scanExec.getCanonicalName(), scanExec.getFragments());
+        loadRightFromCache(key);
+      }
     } else {
       this.tupleSlots = buildRightToHashTable();
     }
@@ -148,6 +162,35 @@ public class HashJoinExec extends CommonJoinExec {
     first = false;
   }
 
+  /**
+   * @return The key of the hash table shared by queries, or null if the right table is not a plain scan of files
+   */
+  private TableCacheKey getSharedCacheKey(ScanExec scanExec) throws IOException {
+    String signature = scanExec.getCacheSignature();
+    if (rightChild != scanExec || signature == null ||
+        context.getConf().getIntVar(TajoConf.ConfVars.WORKER_BROADCAST_CACHE_SIZE) <= 0) {
+      return null;
+    }
+    return CacheHolder.BroadcastCacheHolder.getSharedCacheKey(context, scanExec.getCanonicalName(),
+        signature + "," + Arrays.toString(rightKeyList), scanExec.getFragments());
+  }
+
+  protected void loadRightFromSharedCache(TableCacheKey key) throws IOException {
+    ExecutionBlockSharedResource sharedResource = context.getSharedResource();
+    synchronized (sharedResource.getLock()) {
+      CacheHolder<Map<Tuple, List<Tuple>>> data = sharedResource.getSharedBroadcastCache(key);
+      if (data == null) {
+        data = new CacheHolder.BroadcastCacheHolder(buildRightToHashTable(), rightChild.getInputStats(), null);
+        // a hash table built partially by a stopped task must not be shared
+        if (!context.isStopped()) {
+          sharedResource.addSharedBroadcastCache(key, data, rightTableBytes);
+        }
+      }
+      this.tupleSlots = data.getData();
+      this.cachedRightTableStats = data.getTableStats();
+    }
+  }
+
   protected void loadRightFromCache(TableCacheKey key) throws IOException {
     ExecutionBlockSharedResource sharedResource = context.getSharedResource();
     synchronized (sharedResource.getLock()) {
@@ -170,8 +213,12 @@ public class HashJoinExec extends CommonJoinExec {
     Tuple tuple;
     Tuple keyTuple;
     Map<Tuple, List<Tuple>> map = new HashMap<Tuple, List<Tuple>>(100000);
+    long memoryConsumption = 0;
 
     while (!context.isStopped() && (tuple = rightChild.next()) != null) {
+      memoryConsumption += MemoryUtil.calculateMemorySize(tuple);
+      memoryConsumer.reserveOrFail(memoryConsumption);
+
       keyTuple = new VTuple(joinKeyPairs.size());
       for (int i = 0; i < rightKeyList.length; i++) {
         keyTuple.put(i, tuple.get(rightKeyList[i]));
@@ -187,6 +234,7 @@ public class HashJoinExec extends CommonJoinExec {
         map.put(keyTuple, newValue);
       }
     }
+    rightTableBytes = memoryConsumption;
 
     return map;
   }
@@ -210,6 +258,7 @@ public class HashJoinExec extends CommonJoinExec {
       tupleSlots.clear();
       tupleSlots = null;
     }
+    memoryConsumer.release();
 
     iterator = null;
   }
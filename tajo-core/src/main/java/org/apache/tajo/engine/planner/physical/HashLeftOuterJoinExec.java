@@ -23,6 +23,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.utils.CacheHolder;
 import org.apache.tajo.engine.utils.TableCacheKey;
@@ -34,9 +35,11 @@ import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.expr.EvalTreeUtil;
 import org.apache.tajo.plan.logical.JoinNode;
 import org.apache.tajo.storage.FrameTuple;
+import org.apache.tajo.storage.MemoryUtil;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 import org.apache.tajo.worker.ExecutionBlockSharedResource;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -71,6 +74,10 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
 
   private int rightNumCols;
   private TableStats cachedRightTableStats;
+  /** the estimated bytes of the rows in the hash table */
+  private long rightTableBytes;
+  /** the hash table cannot spill, so other operators spill for it, and the task fails if that is not enough */
+  private final MemoryConsumer memoryConsumer;
   private static final Log LOG = LogFactory.getLog(HashLeftOuterJoinExec.class);
 
   public HashLeftOuterJoinExec(TaskAttemptContext context, JoinNode plan, PhysicalExec leftChild,
@@ -78,6 +85,7 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
     super(context, SchemaUtil.merge(leftChild.getSchema(), rightChild.getSchema()),
         plan.getOutSchema(), leftChild, rightChild);
     this.plan = plan;
+    this.memoryConsumer = context.newMemoryConsumer(getClass().getSimpleName(), false);
 
     List<EvalNode> joinQuals = Lists.newArrayList();
     List<EvalNode> joinFilters = Lists.newArrayList();
@@ -212,10 +220,15 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
   protected void loadRightToHashTable() throws IOException {
     ScanExec scanExec = PhysicalPlanUtil.findExecutor(rightChild, ScanExec.class);
     if (scanExec.canBroadcast()) {
-      /* If this table can broadcast, all tasks in a node will share the same cache */
-      TableCacheKey key = CacheHolder.BroadcastCacheHolder.getCacheKey(
-          context, scanExec.getCanonicalName(), scanExec.getFragments());
-      loadRightFromCache(key);
+      TableCacheKey sharedKey = getSharedCacheKey(scanExec);
+      if (sharedKey != null) {
+        loadRightFromSharedCache(sharedKey);
+      } else {
+        /* If this table can broadcast, all tasks in a node will share the same cache */
+        TableCacheKey key = CacheHolder.BroadcastCacheHolder.getCacheKey(
+            context, scanExec.getCanonicalName(), scanExec.getFragments());
+        loadRightFromCache(key);
+      }
     } else {
       this.tupleSlots = buildRightToHashTable();
     }
@@ -223,6 +236,35 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
     first = false;
   }
 
+  /**
+   * @return The key of the hash table shared by queries, or null if the right table is not a plain scan of files
+   */
+  private TableCacheKey getSharedCacheKey(ScanExec scanExec) throws IOException {
+    String signature = scanExec.getCacheSignature();
+    if (rightChild != scanExec || signature == null ||
+        context.getConf().getIntVar(TajoConf.ConfVars.WORKER_BROADCAST_CACHE_SIZE) <= 0) {
+      return null;
+    }
+    return CacheHolder.BroadcastCacheHolder.getSharedCacheKey(context, scanExec.getCanonicalName(),
+        signature + "," + Arrays.toString(rightKeyList), scanExec.getFragments());
+  }
+
+  protected void loadRightFromSharedCache(TableCacheKey key) throws IOException {
+    ExecutionBlockSharedResource sharedResource = context.getSharedResource();
+    synchronized (sharedResource.getLock()) {
+      CacheHolder<Map<Tuple, List<Tuple>>> data = sharedResource.getSharedBroadcastCache(key);
+      if (data == null) {
+        data = new CacheHolder.BroadcastCacheHolder(buildRightToHashTable(), rightChild.getInputStats(), null);
+        // a hash table built partially by a stopped task must not be shared
+        if (!context.isStopped()) {
+          sharedResource.addSharedBroadcastCache(key, data, rightTableBytes);
+        }
+      }
+      this.tupleSlots = data.getData();
+      this.cachedRightTableStats = data.getTableStats();
+    }
+  }
+
   protected void loadRightFromCache(TableCacheKey key) throws IOException {
     ExecutionBlockSharedResource sharedResource = context.getSharedResource();
     synchronized (sharedResource.getLock()) {
@@ -245,8 +287,12 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
     Tuple tuple;
     Tuple keyTuple;
     Map<Tuple, List<Tuple>> map = new HashMap<Tuple, List<Tuple>>(100000);
+    long memoryConsumption = 0;
 
     while (!context.isStopped() && (tuple = rightChild.next()) != null) {
+      memoryConsumption += MemoryUtil.calculateMemorySize(tuple);
+      memoryConsumer.reserveOrFail(memoryConsumption);
+
       keyTuple = new VTuple(joinKeyPairs.size());
       for (int i = 0; i < rightKeyList.length; i++) {
         keyTuple.put(i, tuple.get(rightKeyList[i]));
@@ -262,6 +308,7 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
         map.put(keyTuple, newValue);
       }
     }
+    rightTableBytes = memoryConsumption;
 
     return map;
   }
@@ -284,6 +331,7 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
     super.close();
     tupleSlots.clear();
     tupleSlots = null;
+    memoryConsumer.release();
     iterator = null;
     plan = null;
     joinQual = null;
@@ -39,10 +39,24 @@ public class HashPartitioner extends Partitioner {
     if (numPartitions == 0)
       return 0;
 
+    return getPartitionByHash(getKeyHash(tuple));
+  }
+
+  /**
+   * @return the hash code of the partition keys of a given tuple
+   */
+  public int getKeyHash(Tuple tuple) {
     // build one key tuple
     for (int i = 0; i < partitionKeyIds.length; i++) {
       keyTuple.put(i, tuple.get(partitionKeyIds[i]));
     }
-    return (keyTuple.hashCode() & Integer.MAX_VALUE) % numPartitions;
+    return keyTuple.hashCode();
+  }
+
+  public int getPartitionByHash(int keyHash) {
+    if (numPartitions == 0)
+      return 0;
+
+    return (keyHash & Integer.MAX_VALUE) % numPartitions;
   }
 }
@@ -29,7 +29,10 @@ import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.plan.logical.ShuffleFileWriteNode;
 import org.apache.tajo.storage.HashShuffleAppender;
 import org.apache.tajo.storage.HashShuffleAppenderManager;
+import org.apache.tajo.storage.MemoryUtil;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.util.SpaceSavingSketch;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -44,15 +47,21 @@ import java.util.Map;
  */
 public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   private static Log LOG = LogFactory.getLog(HashShuffleFileWriteExec.class);
+  // only every HOT_KEY_SAMPLE_INTERVAL-th row is offered to the hot key sketch, so most rows skip its map lookup
+  private static final int HOT_KEY_SAMPLE_INTERVAL = 16;
   private ShuffleFileWriteNode plan;
   private final TableMeta meta;
-  private Partitioner partitioner;
+  private HashPartitioner partitioner;
 //  private final Path storeTablePath;
   private Map<Integer, HashShuffleAppender> appenderMap = new HashMap<Integer, HashShuffleAppender>();
   private final int numShuffleOutputs;
   private final int [] shuffleKeyIds;
   private HashShuffleAppenderManager hashShuffleAppenderManager;
   private int numHashShuffleBufferTuples;
+  // buffered tuples are also flushed if the worker runs out of memory
+  private final MemoryConsumer memoryConsumer;
+  // it finds heavy-hitter shuffle keys. If null, hot key detection is disabled.
+  private SpaceSavingSketch<Integer> hotKeySketch;
 
   public HashShuffleFileWriteExec(TaskAttemptContext context,
                                   final ShuffleFileWriteNode plan, final PhysicalExec child) throws IOException {
@@ -75,6 +84,12 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     this.partitioner = new HashPartitioner(shuffleKeyIds, numShuffleOutputs);
     this.hashShuffleAppenderManager = context.getHashShuffleAppenderManager();
     this.numHashShuffleBufferTuples = context.getConf().getIntVar(ConfVars.SHUFFLE_HASH_APPENDER_BUFFER_SIZE);
+    this.memoryConsumer = context.newMemoryConsumer(getClass().getSimpleName(), true);
+
+    int sketchSize = context.getConf().getIntVar(ConfVars.SHUFFLE_HASH_HOT_KEY_SKETCH_SIZE);
+    if (sketchSize > 0 && numShuffleOutputs > 1) {
+      this.hotKeySketch = new SpaceSavingSketch<Integer>(sketchSize);
+    }
   }
 
   @Override
@@ -100,24 +115,32 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   public Tuple next() throws IOException {
     try {
       Tuple tuple;
+      int keyHash;
       int partId;
       int tupleCount = 0;
+      long bufferedBytes = 0;
       long numRows = 0;
       while (!context.isStopped() && (tuple = child.next()) != null) {
         tupleCount++;
         numRows++;
 
-        partId = partitioner.getPartition(tuple);
+        keyHash = partitioner.getKeyHash(tuple);
+        partId = partitioner.getPartitionByHash(keyHash);
+        if (hotKeySketch != null && numRows % HOT_KEY_SAMPLE_INTERVAL == 0) {
+          hotKeySketch.offer(keyHash);
+        }
         List<Tuple> partitionTupleList = partitionTuples.get(partId);
         if (partitionTupleList == null) {
           partitionTupleList = new ArrayList<Tuple>(1000);
           partitionTuples.put(partId, partitionTupleList);
         }
         try {
-          partitionTupleList.add(tuple.clone());
+          Tuple copy = tuple.clone();
+          partitionTupleList.add(copy);
+          bufferedBytes += MemoryUtil.calculateMemorySize(copy);
         } catch (CloneNotSupportedException e) {
         }
-        if (tupleCount >= numHashShuffleBufferTuples) {
+        if (tupleCount >= numHashShuffleBufferTuples || !memoryConsumer.reserve(bufferedBytes)) {
           for (Map.Entry<Integer, List<Tuple>> entry : partitionTuples.entrySet()) {
             int appendPartId = entry.getKey();
             HashShuffleAppender appender = getAppender(appendPartId);
@@ -126,6 +149,8 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
             entry.getValue().clear();
           }
           tupleCount = 0;
+          bufferedBytes = 0;
+          memoryConsumer.release();
         }
       }
 
@@ -138,6 +163,10 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
         entry.getValue().clear();
       }
 
+      memoryConsumer.release();
+
+      reportHotKeys(numRows);
+
       TableStats aggregated = (TableStats) child.getInputStats().clone();
       aggregated.setNumBytes(writtenBytes);
       aggregated.setNumRows(numRows);
@@ -155,6 +184,27 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     }
   }
 
+  /**
+   * It reports shuffle keys, which occupy more than the fair share of a partition in the sampled rows, to the
+   * appenders. The numbers of rows are scaled up from the samples. QueryMaster uses them to find skewed partitions.
+   */
+  private void reportHotKeys(long numRows) throws IOException {
+    if (hotKeySketch == null || numRows == 0) {
+      return;
+    }
+
+    long minRows = numRows / numShuffleOutputs;
+    for (SpaceSavingSketch.Counter<Integer> eachKey : hotKeySketch.getTopK(hotKeySketch.getCapacity())) {
+      long rows = eachKey.getGuaranteedCount() * HOT_KEY_SAMPLE_INTERVAL;
+      if (rows <= minRows) {
+        break;
+      }
+      int keyHash = eachKey.getItem();
+      getAppender(partitioner.getPartitionByHash(keyHash)).addHotKeyRows(keyHash, rows);
+    }
+    hotKeySketch.clear();
+  }
+
   @Override
   public void rescan() throws IOException {
     // nothing to do   
@@ -169,7 +219,9 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     }
 
     partitioner = null;
+    hotKeySketch = null;
     plan = null;
+    memoryConsumer.release();
 
     progress = 1.0f;
   }
@@ -35,6 +35,12 @@ public class ProjectionExec extends UnaryPhysicalExec {
   // for projection
   private Tuple outTuple;
   private Projector projector;
+
+  // input rows which are buffered when some targets are evaluated in batches
+  private Tuple [] batch;
+  private int batchNum;
+  private int batchIdx;
+  private boolean childEof;
   
   public ProjectionExec(TaskAttemptContext context, Projectable plan,
       PhysicalExec child) {
@@ -47,10 +53,17 @@ public class ProjectionExec extends UnaryPhysicalExec {
 
     this.outTuple = new VTuple(outSchema.size());
     this.projector = new Projector(context, inSchema, outSchema, this.plan.getTargets());
+    if (projector.hasBatchTargets()) {
+      this.batch = new Tuple[projector.getBatchSize()];
+    }
   }
 
   @Override
   public Tuple next() throws IOException {
+    if (batch != null) {
+      return nextInBatch();
+    }
+
     Tuple tuple = child.next();
 
     if (tuple ==  null) {
@@ -61,9 +74,41 @@ public class ProjectionExec extends UnaryPhysicalExec {
     return outTuple;
   }
 
+  private Tuple nextInBatch() throws IOException {
+    if (batchIdx == batchNum) {
+      batchNum = 0;
+      batchIdx = 0;
+      Tuple tuple;
+      while (!childEof && batchNum < batch.length) {
+        if ((tuple = child.next()) == null) {
+          childEof = true;
+        } else {
+          batch[batchNum++] = new VTuple(tuple);
+        }
+      }
+      if (batchNum == 0) {
+        return null;
+      }
+      projector.prepareBatch(batch, batchNum);
+    }
+
+    projector.eval(batch[batchIdx], batchIdx, outTuple);
+    batchIdx++;
+    return outTuple;
+  }
+
+  @Override
+  public void rescan() throws IOException {
+    super.rescan();
+    batchNum = 0;
+    batchIdx = 0;
+    childEof = false;
+  }
+
   @Override
   public void close() throws IOException{
     super.close();
     plan = null;
+    batch = null;
   }
 }
@@ -42,6 +42,14 @@ public abstract class ScanExec extends PhysicalExec {
 
   public abstract CatalogProtos.FragmentProto[] getFragments();
 
+  /**
+   * @return A string identifying the rows which this scan returns for the same fragments, or null if the rows
+   * cannot be shared by queries.
+   */
+  public String getCacheSignature() {
+    return null;
+  }
+
   @Override
   public void init() throws IOException {
     canBroadcast = checkIfBroadcast();
@@ -19,6 +19,7 @@
 package org.apache.tajo.engine.planner.physical;
 
 import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.SchemaUtil;
@@ -30,6 +31,8 @@ import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.engine.codegen.CompilationError;
 import org.apache.tajo.engine.planner.Projector;
+import org.apache.tajo.engine.utils.CachedTableScanner;
+import org.apache.tajo.engine.utils.ColumnarTableCache;
 import org.apache.tajo.plan.Target;
 import org.apache.tajo.plan.expr.ConstEval;
 import org.apache.tajo.plan.expr.EvalNode;
@@ -40,16 +43,24 @@ import org.apache.tajo.plan.rewrite.rules.PartitionedTableRewriter;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 
 public class SeqScanExec extends ScanExec {
+  /** Session variables which are read when the qual and targets are evaluated */
+  private static final SessionVars [] EVAL_SESSION_VARS = new SessionVars[] {
+      SessionVars.TIMEZONE,
+      SessionVars.ARITHABORT
+  };
+
   private ScanNode plan;
 
   private Scanner scanner = null;
@@ -187,10 +198,13 @@ public class SeqScanExec extends ScanExec {
     PlannerUtil.applySystemDefaultToTableProperties(context.getQueryContext(), meta);
 
     if (fragments != null) {
-      if (fragments.length > 1) {
-        this.scanner = new MergeScanner(context.getConf(), plan.getPhysicalSchema(), meta,
-            FragmentConvertor.convert(context.getConf(), fragments), projected
-        );
+      List<Fragment> fragmentList = FragmentConvertor.convert(context.getConf(), fragments);
+      if (ColumnarTableCache.isCacheEnabled(meta, fragmentList)) {
+        this.scanner = new CachedTableScanner(context.getConf(), plan.getPhysicalSchema(), meta, fragmentList,
+            projected, ColumnarTableCache.getInstance(),
+            context.newMemoryConsumer(CachedTableScanner.class.getSimpleName(), true));
+      } else if (fragments.length > 1) {
+        this.scanner = new MergeScanner(context.getConf(), plan.getPhysicalSchema(), meta, fragmentList, projected);
       } else {
         StorageManager storageManager = StorageManager.getStorageManager(
             context.getConf(), plan.getTableDesc().getMeta().getStoreType());
@@ -268,6 +282,23 @@ public class SeqScanExec extends ScanExec {
     return fragments;
   }
 
+  @Override
+  public String getCacheSignature() {
+    if (plan == null) {
+      return null;
+    }
+    // the table meta includes the properties parsing the data
+    StringBuilder sb = new StringBuilder(plan.getTableName()).append(',')
+        .append(plan.getTableDesc().getMeta().toJson()).append(',')
+        .append(qual).append(',')
+        .append(plan.hasTargets() ? Arrays.toString(plan.getTargets()) : plan.getOutSchema().toString());
+    // the same expressions can be evaluated differently in other sessions, e.g., date_part() in another timezone
+    for (SessionVars var : EVAL_SESSION_VARS) {
+      sb.append(',').append(var.keyname()).append('=').append(context.getQueryContext().get(var));
+    }
+    return sb.toString();
+  }
+
   @Override
   public float getProgress() {
     if (scanner == null) {
@@ -0,0 +1,536 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.UnsignedBytes;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.util.MurmurHash;
+import org.apache.tajo.util.UnsafeUtil;
+import org.apache.tajo.worker.MemoryConsumer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A set of byte-encoded rows, which keeps rows in off-heap pages and spills them to local files as sorted runs
+ * when its memory exceeds the given limit.
+ *
+ * Rows are added by {@link #add(byte[])}, and then all distinct rows are returned by {@link #next()} in the unsigned
+ * lexicographic order of their bytes after {@link #finish()} is called. Duplicated rows in the memory are removed
+ * when they are added, and duplicated rows across spilled runs are removed while runs are merged. So, all rows
+ * sharing a prefix are returned consecutively.
+ *
+ * If a {@link MemoryConsumer} is given, rows are also spilled when the worker runs out of memory.
+ */
+public class SpillableDistinctSet implements Closeable {
+  private static final Log LOG = LogFactory.getLog(SpillableDistinctSet.class);
+
+  private static final int MAX_PAGE_SIZE = 1024 * 1024;
+  private static final int MIN_PAGE_SIZE = 4 * 1024;
+  private static final int MAX_FAN_IN = 64;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** a slot takes a long address and an int hash */
+  private static final int SLOT_BYTES = 12;
+  private static final long EMPTY = -1;
+
+  private static final Comparator<byte[]> BYTES_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
+  private final long memoryLimit;
+  private final File spillDir;
+  private final int pageSize;
+  private final MemoryConsumer memoryConsumer;
+
+  /** off-heap pages keeping rows as (int length, bytes). They are reused after spilling. */
+  private final List<ByteBuffer> pages = new ArrayList<ByteBuffer>();
+  private int currentPage = -1;
+  private long usedPageBytes;
+
+  /** an open addressing hash table of row addresses. An address is (page index << 32 | offset). */
+  private long [] slots;
+  private int [] hashes;
+  private int size;
+
+  private final List<File> runs = new ArrayList<File>();
+  private int runId;
+
+  private long [] sorted;
+  private RowSource result;
+  private boolean finished;
+
+  public SpillableDistinctSet(long memoryLimit, File spillDir) {
+    this(memoryLimit, spillDir, null);
+  }
+
+  public SpillableDistinctSet(long memoryLimit, File spillDir, MemoryConsumer memoryConsumer) {
+    Preconditions.checkArgument(memoryLimit > 0, "The memory limit must be positive: %s", memoryLimit);
+    this.memoryLimit = memoryLimit;
+    this.spillDir = spillDir;
+    this.memoryConsumer = memoryConsumer;
+    this.pageSize = (int) Math.max(MIN_PAGE_SIZE, Math.min(MAX_PAGE_SIZE, memoryLimit / 8));
+    this.slots = new long[1024];
+    this.hashes = new int[1024];
+    Arrays.fill(slots, EMPTY);
+  }
+
+  /**
+   * Adds a row. It must not be modified after it is added.
+   *
+   * @return False if the same row exists in the memory.
+   */
+  public boolean add(byte [] row) throws IOException {
+    Preconditions.checkState(!finished, "Cannot add a row after finish()");
+
+    int hash = MurmurHash.hash(row);
+    int mask = slots.length - 1;
+    int slot = hash & mask;
+    while (slots[slot] != EMPTY) {
+      if (hashes[slot] == hash && equalsAt(slots[slot], row)) {
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    if ((size + 1) * 4L > slots.length * 3L) {
+      if (size > 0 && !canKeep(getUsedMemory() + slots.length * (long) SLOT_BYTES)) {
+        spill();
+      } else {
+        grow();
+      }
+      slot = findEmptySlot(hash);
+    }
+
+    slots[slot] = store(row);
+    hashes[slot] = hash;
+    size++;
+
+    if (!canKeep(getUsedMemory())) {
+      spill();
+    }
+    return true;
+  }
+
+  private boolean canKeep(long bytes) {
+    return bytes <= memoryLimit && (memoryConsumer == null || memoryConsumer.reserve(bytes));
+  }
+
+  /**
+   * @return The number of rows kept in the memory
+   */
+  public int size() {
+    return size;
+  }
+
+  public int getSpilledRunNum() {
+    return runs.size();
+  }
+
+  @VisibleForTesting
+  long getUsedMemory() {
+    return usedPageBytes + slots.length * (long) SLOT_BYTES;
+  }
+
+  private int findEmptySlot(int hash) {
+    int mask = slots.length - 1;
+    int slot = hash & mask;
+    while (slots[slot] != EMPTY) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void grow() {
+    long [] oldSlots = slots;
+    int [] oldHashes = hashes;
+    slots = new long[oldSlots.length * 2];
+    hashes = new int[oldSlots.length * 2];
+    Arrays.fill(slots, EMPTY);
+
+    for (int i = 0; i < oldSlots.length; i++) {
+      if (oldSlots[i] != EMPTY) {
+        int slot = findEmptySlot(oldHashes[i]);
+        slots[slot] = oldSlots[i];
+        hashes[slot] = oldHashes[i];
+      }
+    }
+  }
+
+  private long store(byte [] row) {
+    int recordSize = 4 + row.length;
+    ByteBuffer page = currentPage < 0 ? null : pages.get(currentPage);
+
+    if (page == null || page.remaining() < recordSize) {
+      currentPage++;
+      if (currentPage < pages.size() && pages.get(currentPage).capacity() >= recordSize) {
+        page = pages.get(currentPage);
+        page.clear();
+      } else {
+        // a larger page is allocated only for a large row
+        page = ByteBuffer.allocateDirect(Math.max(pageSize, recordSize));
+        pages.add(currentPage, page);
+      }
+      usedPageBytes += page.capacity();
+    }
+
+    int offset = page.position();
+    page.putInt(row.length);
+    page.put(row);
+    return ((long) currentPage << 32) | offset;
+  }
+
+  private static int pageOf(long address) {
+    return (int) (address >>> 32);
+  }
+
+  private static int offsetOf(long address) {
+    return (int) address;
+  }
+
+  private boolean equalsAt(long address, byte [] row) {
+    ByteBuffer page = pages.get(pageOf(address));
+    int offset = offsetOf(address);
+    if (page.getInt(offset) != row.length) {
+      return false;
+    }
+    offset += 4;
+    for (int i = 0; i < row.length; i++) {
+      if (page.get(offset + i) != row[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int compare(long a, long b) {
+    ByteBuffer pageA = pages.get(pageOf(a));
+    ByteBuffer pageB = pages.get(pageOf(b));
+    int offsetA = offsetOf(a);
+    int offsetB = offsetOf(b);
+    int lengthA = pageA.getInt(offsetA);
+    int lengthB = pageB.getInt(offsetB);
+    offsetA += 4;
+    offsetB += 4;
+
+    int length = Math.min(lengthA, lengthB);
+    for (int i = 0; i < length; i++) {
+      int cmp = (pageA.get(offsetA + i) & 0xff) - (pageB.get(offsetB + i) & 0xff);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return lengthA - lengthB;
+  }
+
+  private byte [] getRow(long address) {
+    ByteBuffer page = pages.get(pageOf(address));
+    int offset = offsetOf(address);
+    byte [] row = new byte[page.getInt(offset)];
+    for (int i = 0; i < row.length; i++) {
+      row[i] = page.get(offset + 4 + i);
+    }
+    return row;
+  }
+
+  /**
+   * @return The addresses of rows in the memory, which are sorted by their bytes
+   */
+  private long [] sortInMemory() {
+    long [] addresses = new long[size];
+    int num = 0;
+    for (long address : slots) {
+      if (address != EMPTY) {
+        addresses[num++] = address;
+      }
+    }
+    sort(addresses, 0, num - 1);
+    return addresses;
+  }
+
+  private void sort(long [] addresses, int low, int high) {
+    while (high - low > 16) {
+      long pivot = addresses[(low + high) >>> 1];
+      int i = low, j = high;
+      while (i <= j) {
+        while (compare(addresses[i], pivot) < 0) i++;
+        while (compare(addresses[j], pivot) > 0) j--;
+        if (i <= j) {
+          long tmp = addresses[i];
+          addresses[i++] = addresses[j];
+          addresses[j--] = tmp;
+        }
+      }
+      // recurses into the smaller part to bound the stack depth
+      if (j - low < high - i) {
+        sort(addresses, low, j);
+        low = i;
+      } else {
+        sort(addresses, i, high);
+        high = j;
+      }
+    }
+
+    for (int i = low + 1; i <= high; i++) {
+      for (int j = i; j > low && compare(addresses[j - 1], addresses[j]) > 0; j--) {
+        long tmp = addresses[j - 1];
+        addresses[j - 1] = addresses[j];
+        addresses[j] = tmp;
+      }
+    }
+  }
+
+  private File newRunFile() throws IOException {
+    if (!spillDir.exists() && !spillDir.mkdirs()) {
+      throw new IOException("Cannot create a directory: " + spillDir);
+    }
+    return new File(spillDir, "distinct_" + (runId++));
+  }
+
+  /**
+   * Writes rows in the memory to a sorted run, and clears the memory.
+   */
+  private void spill() throws IOException {
+    long start = System.currentTimeMillis();
+    long [] addresses = sortInMemory();
+
+    File file = newRunFile();
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+    try {
+      for (long address : addresses) {
+        byte [] row = getRow(address);
+        out.writeInt(row.length);
+        out.write(row);
+      }
+      out.writeInt(-1);
+    } finally {
+      out.close();
+    }
+    runs.add(file);
+
+    LOG.info("Spilled " + size + " distinct rows (" + FileUtil.humanReadableByteCount(getUsedMemory(), false) +
+        ") to " + file + " (" + (System.currentTimeMillis() - start) + " msec)");
+    clearMemory();
+  }
+
+  private void clearMemory() {
+    Arrays.fill(slots, EMPTY);
+    size = 0;
+    currentPage = -1;
+    usedPageBytes = 0;
+    if (memoryConsumer != null) {
+      memoryConsumer.release();
+    }
+  }
+
+  /**
+   * Finishes adding rows, and prepares to return distinct rows in order.
+   */
+  public void finish() throws IOException {
+    Preconditions.checkState(!finished, "finish() is already called");
+    finished = true;
+    sorted = sortInMemory();
+
+    // merges runs in multiple levels to bound the number of open files
+    while (runs.size() + 1 > MAX_FAN_IN) {
+      List<File> merged = new ArrayList<File>(runs.subList(0, MAX_FAN_IN));
+      runs.removeAll(merged);
+
+      List<RowSource> sources = new ArrayList<RowSource>();
+      for (File run : merged) {
+        sources.add(new RunReader(run));
+      }
+      RowSource merger = new MergingSource(sources);
+      File file = newRunFile();
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+      try {
+        byte [] row;
+        while ((row = merger.next()) != null) {
+          out.writeInt(row.length);
+          out.write(row);
+        }
+        out.writeInt(-1);
+      } finally {
+        FileUtil.cleanup(LOG, out, merger);
+      }
+      for (File run : merged) {
+        run.delete();
+      }
+      runs.add(file);
+    }
+
+    rewind();
+  }
+
+  /**
+   * Starts to return distinct rows from the first one again.
+   */
+  public void rewind() throws IOException {
+    Preconditions.checkState(finished, "finish() should be called before rewind()");
+    if (result != null) {
+      result.close();
+    }
+
+    if (runs.isEmpty()) {
+      result = new MemorySource();
+    } else {
+      List<RowSource> sources = new ArrayList<RowSource>();
+      sources.add(new MemorySource());
+      for (File run : runs) {
+        sources.add(new RunReader(run));
+      }
+      result = new MergingSource(sources);
+    }
+  }
+
+  /**
+   * @return The next distinct row, or null if there are no more rows.
+   */
+  public byte [] next() throws IOException {
+    Preconditions.checkState(finished, "finish() should be called before next()");
+    return result.next();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (result != null) {
+      result.close();
+      result = null;
+    }
+    for (ByteBuffer page : pages) {
+      UnsafeUtil.free(page);
+    }
+    pages.clear();
+    clearMemory();
+    sorted = null;
+
+    for (File run : runs) {
+      run.delete();
+    }
+    runs.clear();
+    spillDir.delete();
+  }
+
+  private interface RowSource extends Closeable {
+    byte [] next() throws IOException;
+  }
+
+  private class MemorySource implements RowSource {
+    private int index;
+
+    @Override
+    public byte[] next() {
+      return index < sorted.length ? getRow(sorted[index++]) : null;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static class RunReader implements RowSource {
+    private final DataInputStream in;
+
+    RunReader(File file) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+    }
+
+    @Override
+    public byte[] next() throws IOException {
+      int length = in.readInt();
+      if (length < 0) {
+        return null;
+      }
+      byte [] row = new byte[length];
+      in.readFully(row);
+      return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  /**
+   * Merges sorted sources, and removes duplicated rows.
+   */
+  private static class MergingSource implements RowSource {
+    private final List<RowSource> sources;
+    private final PriorityQueue<Head> queue;
+    private byte [] last;
+
+    private static class Head {
+      final byte [] row;
+      final RowSource source;
+
+      Head(byte [] row, RowSource source) {
+        this.row = row;
+        this.source = source;
+      }
+    }
+
+    MergingSource(List<RowSource> sources) throws IOException {
+      this.sources = sources;
+      this.queue = new PriorityQueue<Head>(sources.size(), new Comparator<Head>() {
+        @Override
+        public int compare(Head o1, Head o2) {
+          return BYTES_COMPARATOR.compare(o1.row, o2.row);
+        }
+      });
+      for (RowSource source : sources) {
+        advance(source);
+      }
+    }
+
+    private void advance(RowSource source) throws IOException {
+      byte [] row = source.next();
+      if (row != null) {
+        queue.add(new Head(row, source));
+      }
+    }
+
+    @Override
+    public byte[] next() throws IOException {
+      while (!queue.isEmpty()) {
+        Head head = queue.poll();
+        advance(head.source);
+        if (last == null || !Arrays.equals(last, head.row)) {
+          last = head.row;
+          return head.row;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+      for (RowSource source : sources) {
+        source.close();
+      }
+    }
+  }
+}
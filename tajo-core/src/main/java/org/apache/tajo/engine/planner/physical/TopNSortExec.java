@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.base.Preconditions;
+import org.apache.tajo.plan.logical.SortNode;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A sort operator which returns only the first N tuples in the sort order. It is used for ORDER BY with LIMIT.
+ *
+ * It keeps the N smallest tuples in a bounded max-heap whose head is the largest one. An input tuple is copied only
+ * if it is smaller than the head of the full heap, so it takes O(M log N) time and O(N) memory for M input tuples.
+ */
+public class TopNSortExec extends SortExec {
+  private final SortNode plan;
+  private final int limit;
+
+  private PriorityQueue<Tuple> heap;
+  private Iterable<Tuple> sortedTuples;
+  private Iterator<Tuple> iterator;
+  private boolean sorted = false;
+
+  public TopNSortExec(TaskAttemptContext context, SortNode plan, PhysicalExec child, long limit) {
+    super(context, plan.getInSchema(), plan.getOutSchema(), child, plan.getSortKeys());
+    Preconditions.checkArgument(limit >= 0 && limit < Integer.MAX_VALUE, "Invalid limit: %s", limit);
+    this.plan = plan;
+    this.limit = (int) limit;
+  }
+
+  @Override
+  public void init() throws IOException {
+    super.init();
+    // the largest tuple is the head
+    this.heap = new PriorityQueue<Tuple>(Math.max(1, Math.min(limit, 1024)), Collections.reverseOrder(comparator));
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    if (!sorted) {
+      Tuple tuple;
+      while (!context.isStopped() && (tuple = child.next()) != null) {
+        if (heap.size() < limit) {
+          heap.add(new VTuple(tuple));
+        } else if (limit > 0 && comparator.compare(tuple, heap.peek()) < 0) {
+          heap.poll();
+          heap.add(new VTuple(tuple));
+        }
+      }
+
+      List<Tuple> topTuples = new ArrayList<Tuple>(heap);
+      heap.clear();
+      sortedTuples = getSorter(topTuples).sort();
+      iterator = sortedTuples.iterator();
+      sorted = true;
+    }
+
+    if (iterator.hasNext()) {
+      return iterator.next();
+    } else {
+      return null;
+    }
+  }
+
+  @Override
+  public void rescan() throws IOException {
+    super.rescan();
+    if (sortedTuples != null) {
+      iterator = sortedTuples.iterator();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    super.close();
+    heap = null;
+    sortedTuples = null;
+    iterator = null;
+  }
+
+  public SortNode getPlan() {
+    return plan;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+}
@@ -18,32 +18,63 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.expr.WindowFunctionEval;
 import org.apache.tajo.plan.function.FunctionContext;
 import org.apache.tajo.plan.logical.WindowAggNode;
 import org.apache.tajo.plan.logical.WindowSpec;
 import org.apache.tajo.storage.BaseTupleComparator;
+import org.apache.tajo.storage.MemoryUtil;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.TupleComparator;
 import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+import static org.apache.tajo.storage.RawFile.RawFileAppender;
+import static org.apache.tajo.storage.RawFile.RawFileScanner;
+
 /**
  * The sort-based window aggregation operator
+ *
+ * If the input is sorted by the partition keys and the sort keys shared by all window functions, it evaluates
+ * window functions in streaming manner. Each row is returned as soon as it is read unless there are aggregation
+ * functions. Aggregation functions are evaluated over the whole partition, so rows of a partition are kept in a
+ * {@link PartitionBuffer} until the partition ends, and the buffer spills rows to a local file beyond
+ * the session variable WINDOW_BUFFER_SIZE or when the worker runs out of memory.
+ *
+ * Otherwise, each partition is kept in memory and sorted for each window function.
  */
 public class WindowAggExec extends UnaryPhysicalExec {
+  private static final Log LOG = LogFactory.getLog(WindowAggExec.class);
+
   // plan information
   protected final int outputColumnNum;
   protected final int nonFunctionColumnNum;
@@ -67,6 +98,7 @@ public class WindowAggExec extends UnaryPhysicalExec {
   private boolean [] windowFuncFlags;
   private boolean [] endUnboundedFollowingFlags;
   private boolean [] endCurrentRowFlags;
+  private boolean hasAggFunctions;
 
   // operator state
   enum WindowState {
@@ -86,8 +118,26 @@ public class WindowAggExec extends UnaryPhysicalExec {
   WindowState state = WindowState.NEW_WINDOW;
   Iterator<Tuple> tupleInFrameIterator = null;
 
+  // for streaming evaluation
+  private final boolean streaming;
+  private long windowBufferBytesNum;
+  private PartitionBuffer partitionBuffer;
+  private Tuple pendingTuple;
+  private Tuple pendingKey;
+
   public WindowAggExec(TaskAttemptContext context, WindowAggNode plan, PhysicalExec child) throws IOException {
+    this(context, plan, child, false);
+  }
+
+  /**
+   * @param sortedInput True if the input is sorted by the partition keys and the sort keys given by
+   *                    {@link #getCommonSortSpecs(WindowAggNode)}
+   */
+  public WindowAggExec(TaskAttemptContext context, WindowAggNode plan, PhysicalExec child, boolean sortedInput)
+      throws IOException {
     super(context, plan.getInSchema(), plan.getOutSchema(), child);
+    this.streaming = sortedInput && getCommonSortSpecs(plan) != null;
+    this.windowBufferBytesNum = context.getQueryContext().getLong(SessionVars.WINDOW_BUFFER_SIZE) * StorageUnit.MB;
 
     if (plan.hasPartitionKeys()) {
       final Column[] keyColumns = plan.getPartitionKeys();
@@ -131,7 +181,9 @@ public class WindowAggExec extends UnaryPhysicalExec {
         switch (functions[i].getFuncDesc().getFuncType()) {
         case AGGREGATION:
         case DISTINCT_AGGREGATION:
-          aggFuncFlags[i] = true; break;
+          aggFuncFlags[i] = true;
+          hasAggFunctions = true;
+          break;
         case WINDOW:
           windowFuncFlags[i] = true; break;
         default:
@@ -179,12 +231,55 @@ public class WindowAggExec extends UnaryPhysicalExec {
     outputColumnNum = nonFunctionColumnNum + functionNum;
   }
 
+  /**
+   * @return The sort keys shared by all window functions having sort keys, an empty array if no function has
+   * sort keys, or null if functions have different sort keys.
+   */
+  public static SortSpec [] getCommonSortSpecs(WindowAggNode plan) {
+    SortSpec [] common = new SortSpec[0];
+    boolean found = false;
+    if (plan.hasAggFunctions()) {
+      for (WindowFunctionEval function : plan.getWindowFunctions()) {
+        if (function.hasSortSpecs()) {
+          if (!found) {
+            common = function.getSortSpecs();
+            found = true;
+          } else if (!Arrays.equals(common, function.getSortSpecs())) {
+            return null;
+          }
+        }
+      }
+    }
+    return common;
+  }
+
   @Override
   public void init() throws IOException {
     super.init();
     for (EvalNode functionEval : functions) {
       functionEval.bind(context.getEvalContext(), inSchema);
     }
+    if (streaming && hasAggFunctions) {
+      partitionBuffer = new PartitionBuffer(windowBufferBytesNum);
+    }
+  }
+
+  @VisibleForTesting
+  public void setWindowBufferBytesNum(long windowBufferBytesNum) {
+    this.windowBufferBytesNum = windowBufferBytesNum;
+  }
+
+  /**
+   * @return The number of partitions which have been spilled to local files
+   */
+  @VisibleForTesting
+  public int getSpillNum() {
+    return partitionBuffer == null ? 0 : partitionBuffer.spillId;
+  }
+
+  @VisibleForTesting
+  public boolean isStreaming() {
+    return streaming;
   }
 
   private void transition(WindowState state) {
@@ -193,6 +288,10 @@ public class WindowAggExec extends UnaryPhysicalExec {
 
   @Override
   public Tuple next() throws IOException {
+    if (streaming) {
+      return hasAggFunctions ? nextWithPartitionBuffer() : nextStreaming();
+    }
+
     Tuple currentKey = null;
     Tuple readTuple = null;
 
@@ -347,11 +446,229 @@ public class WindowAggExec extends UnaryPhysicalExec {
     }
   }
 
+  private Tuple getPartitionKey(Tuple inTuple) {
+    if (!hasPartitionKeys) {
+      return null;
+    }
+    Tuple key = new VTuple(partitionKeyNum);
+    for (int i = 0; i < partitionKeyNum; i++) {
+      key.put(i, inTuple.get(partitionKeyIds[i]));
+    }
+    return key;
+  }
+
+  private void resetContexts() {
+    contexts = new FunctionContext[functionNum];
+    for (int evalIdx = 0; evalIdx < functionNum; evalIdx++) {
+      contexts[evalIdx] = functions[evalIdx].newContext();
+    }
+  }
+
+  /**
+   * Projects non-function columns of an input tuple, and evaluates window functions of the input tuple.
+   */
+  private Tuple evaluateRow(Tuple inTuple) {
+    Tuple outTuple = new VTuple(outputColumnNum);
+    for (int c = 0; c < nonFunctionColumnNum; c++) {
+      outTuple.put(c, inTuple.get(nonFunctionColumns[c]));
+    }
+    for (int idx = 0; idx < functionNum; idx++) {
+      functions[idx].merge(contexts[idx], inTuple);
+      if (windowFuncFlags[idx]) {
+        outTuple.put(nonFunctionColumnNum + idx, functions[idx].terminate(contexts[idx]));
+      } else {
+        outTuple.put(nonFunctionColumnNum + idx, NullDatum.get());
+      }
+    }
+    return outTuple;
+  }
+
+  /**
+   * Evaluates each row as soon as it is read. It is used only if there are no aggregation functions.
+   */
+  private Tuple nextStreaming() throws IOException {
+    if (context.isStopped() || noMoreTuples) {
+      return null;
+    }
+
+    Tuple inTuple = child.next();
+    if (inTuple == null) {
+      noMoreTuples = true;
+      return null;
+    }
+
+    Tuple currentKey = getPartitionKey(inTuple);
+    if (firstTime || (hasPartitionKeys && !currentKey.equals(lastKey))) {
+      resetContexts();
+      firstTime = false;
+    }
+    lastKey = currentKey;
+    return evaluateRow(inTuple);
+  }
+
+  /**
+   * Evaluates window functions of each row while a partition is read, and keeps the results in the partition buffer.
+   * When the partition ends, the results of aggregation functions are filled into buffered rows in order.
+   */
+  private Tuple nextWithPartitionBuffer() throws IOException {
+    while (!context.isStopped()) {
+      if (state == WindowState.RETRIEVING_FROM_WINDOW) {
+        Tuple outTuple = partitionBuffer.next();
+        if (outTuple != null) {
+          // some aggregation functions (e.g., lead) return a different result for each call
+          for (int idx = 0; idx < functionNum; idx++) {
+            if (aggFuncFlags[idx]) {
+              outTuple.put(nonFunctionColumnNum + idx, functions[idx].terminate(contexts[idx]));
+            }
+          }
+          return outTuple;
+        }
+        partitionBuffer.clear();
+        transition(noMoreTuples ? WindowState.END_OF_TUPLE : WindowState.NEW_WINDOW);
+      }
+
+      if (state == WindowState.END_OF_TUPLE) {
+        return null;
+      }
+
+      // accumulates a partition
+      resetContexts();
+      if (pendingTuple != null) {
+        partitionBuffer.add(evaluateRow(pendingTuple));
+        lastKey = pendingKey;
+        pendingTuple = null;
+      }
+
+      Tuple inTuple;
+      while (!context.isStopped() && (inTuple = child.next()) != null) {
+        Tuple currentKey = getPartitionKey(inTuple);
+        if (hasPartitionKeys && lastKey != null && !currentKey.equals(lastKey)) {
+          // the tuple belongs to the next partition
+          pendingTuple = new VTuple(inTuple);
+          pendingKey = currentKey;
+          break;
+        }
+        lastKey = currentKey;
+        partitionBuffer.add(evaluateRow(inTuple));
+      }
+      noMoreTuples = pendingTuple == null;
+      partitionBuffer.finish();
+      transition(WindowState.RETRIEVING_FROM_WINDOW);
+    }
+    return null;
+  }
+
+  /**
+   * Keeps evaluated rows of a partition in order. Rows beyond the memory limit are written to a local file.
+   */
+  private class PartitionBuffer {
+    private final long memoryLimit;
+    private final LocalDirAllocator localDirAllocator;
+    private final TableMeta meta = CatalogUtil.newTableMeta(StoreType.RAW);
+    private final Path tmpDir = getExecutorTmpDir();
+
+    private final List<Tuple> memoryRows = new ArrayList<Tuple>();
+    private long memoryConsumption;
+    private final MemoryConsumer memoryConsumer;
+    private Iterator<Tuple> memoryIterator;
+
+    private int spillId;
+    private Path spillPath;
+    private RawFileAppender appender;
+    private RawFileScanner scanner;
+
+    PartitionBuffer(long memoryLimit) {
+      this.memoryLimit = memoryLimit;
+      this.localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+      this.memoryConsumer = context.newMemoryConsumer(WindowAggExec.class.getSimpleName(), true);
+    }
+
+    /**
+     * Rows in memory are kept until the partition ends, so the following rows of the partition are spilled
+     * if the memory is not enough.
+     */
+    void add(Tuple tuple) throws IOException {
+      if (appender == null && memoryConsumption < memoryLimit) {
+        long size = MemoryUtil.calculateMemorySize(tuple);
+        if (memoryConsumer.reserve(memoryConsumption + size)) {
+          memoryRows.add(tuple);
+          memoryConsumption += size;
+          return;
+        }
+      }
+
+      if (appender == null) {
+        spillPath = localDirAllocator.getLocalPathForWrite(tmpDir + "/window_" + (spillId++), context.getConf());
+        appender = new RawFileAppender(context.getConf(), null, outSchema, meta, spillPath);
+        appender.init();
+        LOG.info("A window partition takes " + FileUtil.humanReadableByteCount(memoryConsumption, false) +
+            " in memory, and its following rows are spilled to " + spillPath);
+      }
+      appender.addTuple(tuple);
+    }
+
+    void finish() throws IOException {
+      memoryIterator = memoryRows.iterator();
+      if (appender != null) {
+        appender.close();
+        appender = null;
+        File file = new File(spillPath.toUri().getPath());
+        scanner = new RawFileScanner(context.getConf(), outSchema, meta,
+            new FileFragment("window", spillPath, 0, file.length()));
+        scanner.init();
+      }
+    }
+
+    Tuple next() throws IOException {
+      if (memoryIterator.hasNext()) {
+        return memoryIterator.next();
+      }
+      return scanner != null ? scanner.next() : null;
+    }
+
+    void clear() throws IOException {
+      memoryRows.clear();
+      memoryConsumption = 0;
+      memoryConsumer.release();
+      memoryIterator = null;
+      if (appender != null) {
+        appender.close();
+        appender = null;
+      }
+      if (scanner != null) {
+        scanner.close();
+        scanner = null;
+      }
+      if (spillPath != null) {
+        new File(spillPath.toUri().getPath()).delete();
+        spillPath = null;
+      }
+    }
+  }
+
   @Override
   public void rescan() throws IOException {
     super.rescan();
 
     lastKey = null;
     noMoreTuples = false;
+    if (streaming) {
+      firstTime = true;
+      pendingTuple = null;
+      pendingKey = null;
+      state = WindowState.NEW_WINDOW;
+      if (partitionBuffer != null) {
+        partitionBuffer.clear();
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (partitionBuffer != null) {
+      partitionBuffer.clear();
+      partitionBuffer = null;
+    }
+    super.close();
   }
 }
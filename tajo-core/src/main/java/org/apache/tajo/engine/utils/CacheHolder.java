@@ -19,9 +19,12 @@
 package org.apache.tajo.engine.utils;
 
 import com.google.common.collect.Maps;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
 import org.apache.tajo.util.Deallocatable;
@@ -51,7 +54,7 @@ public interface CacheHolder<T> {
 
   /**
    * This is a cache-holder for a join table
-   * It will release when execution block is finished
+   * It will release when execution block is finished, or when it is evicted if it is shared by queries
    */
   public static class BroadcastCacheHolder implements CacheHolder<Map<Tuple, List<Tuple>>> {
     private Map<Tuple, List<Tuple>> data;
@@ -93,5 +96,32 @@ public interface CacheHolder<T> {
 
       return new TableCacheKey(ctx.getTaskId().getTaskId().getExecutionBlockId().toString(), canonicalName, pathNameKey);
     }
+
+    /**
+     * Builds a key of a table shared by queries. It identifies each fragment by its path, range and the modification
+     * time of the file, so a table is read again when its files are changed.
+     *
+     * @param signature A string identifying the rows built from the fragments
+     * @return The key, or null if any fragment is not a file
+     */
+    public static TableCacheKey getSharedCacheKey(TaskAttemptContext ctx, String canonicalName, String signature,
+                                                  CatalogProtos.FragmentProto[] fragments) throws IOException {
+      StringBuilder stringBuilder = new StringBuilder(signature);
+      if (fragments != null) {
+        for (CatalogProtos.FragmentProto f : fragments) {
+          Fragment fragment = FragmentConvertor.convert(ctx.getConf(), f);
+          if (!(fragment instanceof FileFragment)) {
+            return null;
+          }
+          FileFragment fileFragment = (FileFragment) fragment;
+          Path path = fileFragment.getPath();
+          FileStatus status = path.getFileSystem(ctx.getConf()).getFileStatus(path);
+          stringBuilder.append(',').append(path).append(':').append(fileFragment.getStartKey())
+              .append('+').append(fileFragment.getLength()).append('@').append(status.getModificationTime());
+        }
+      }
+
+      return new TableCacheKey(null, canonicalName, stringBuilder.toString());
+    }
   }
 }
@@ -0,0 +1,218 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.utils;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.StorageManager;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.columnar.ColumnarBlock;
+import org.apache.tajo.storage.columnar.ColumnarBlockScanner;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.fragment.Fragment;
+import org.apache.tajo.worker.MemoryConsumer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A scanner of file fragments through {@link ColumnarTableCache}.
+ *
+ * A cached fragment is read from memory. Otherwise, all columns of the fragment are read from the file, and the rows
+ * are cached after the fragment is read to the end. The rows being collected are reserved through a spillable
+ * {@link MemoryConsumer}. If they exceed the capacity of the cache or the reservation is refused, they are dropped and
+ * the fragment is not cached.
+ */
+public class CachedTableScanner implements Scanner {
+  private final TajoConf conf;
+  private final Schema schema;
+  private final TableMeta meta;
+  private final List<FileFragment> fragments;
+  private final ColumnarTableCache cache;
+  private final MemoryConsumer memoryConsumer;
+  private Schema target;
+
+  private Iterator<FileFragment> iterator;
+  private int fragmentIdx;
+  private Scanner currentScanner;
+  private String currentKey;
+  /** it collects the rows of the current fragment read from the file, and it is null if they are not cached */
+  private ColumnarBlock.Builder builder;
+  private TableStats tableStats;
+
+  public CachedTableScanner(TajoConf conf, Schema schema, TableMeta meta, List<Fragment> fragments, Schema target,
+                            ColumnarTableCache cache, MemoryConsumer memoryConsumer) {
+    this.conf = conf;
+    this.schema = schema;
+    this.meta = meta;
+    this.target = target;
+    this.cache = cache;
+    this.memoryConsumer = memoryConsumer;
+
+    this.fragments = new ArrayList<FileFragment>(fragments.size());
+    for (Fragment fragment : fragments) {
+      this.fragments.add((FileFragment) fragment);
+    }
+  }
+
+  @Override
+  public void init() throws IOException {
+    reset();
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    while (currentScanner != null) {
+      Tuple tuple = currentScanner.next();
+      if (tuple != null) {
+        if (builder != null) {
+          builder.add(tuple);
+          if (builder.getRawSize() > cache.getCapacity() || !memoryConsumer.reserve(builder.getRawSize())) {
+            dropBuilder();
+          }
+        }
+        return tuple;
+      }
+
+      if (builder != null) {
+        ColumnarBlock block = builder.build();
+        // the cache reserves the memory of the block by itself
+        dropBuilder();
+        cache.put(currentKey, block);
+      }
+      closeCurrentScanner();
+      currentScanner = getNextScanner();
+    }
+    return null;
+  }
+
+  private Scanner getNextScanner() throws IOException {
+    if (!iterator.hasNext()) {
+      return null;
+    }
+
+    FileFragment fragment = iterator.next();
+    fragmentIdx++;
+    currentKey = ColumnarTableCache.getCacheKey(conf, meta, schema, fragment);
+    ColumnarBlock block = cache.get(currentKey);
+
+    Scanner scanner;
+    if (block != null) {
+      scanner = new ColumnarBlockScanner(block, target);
+    } else {
+      // all columns are read to be cached
+      scanner = StorageManager.getStorageManager(conf, meta.getStoreType()).getScanner(meta, schema, fragment, schema);
+      builder = new ColumnarBlock.Builder(schema);
+    }
+    scanner.init();
+    return scanner;
+  }
+
+  private void dropBuilder() {
+    builder = null;
+    memoryConsumer.release();
+  }
+
+  private void closeCurrentScanner() throws IOException {
+    if (currentScanner != null) {
+      currentScanner.close();
+      TableStats scannerStats = currentScanner.getInputStats();
+      if (scannerStats != null) {
+        tableStats.setReadBytes(tableStats.getReadBytes() + scannerStats.getReadBytes());
+        tableStats.setNumRows(tableStats.getNumRows() + scannerStats.getNumRows());
+      }
+      currentScanner = null;
+    }
+  }
+
+  @Override
+  public void reset() throws IOException {
+    closeCurrentScanner();
+    dropBuilder();
+
+    tableStats = new TableStats();
+    long numBytes = 0;
+    for (FileFragment fragment : fragments) {
+      numBytes += fragment.getLength();
+    }
+    tableStats.setNumBytes(numBytes);
+    tableStats.setNumBlocks(fragments.size());
+
+    iterator = fragments.iterator();
+    fragmentIdx = 0;
+    currentScanner = getNextScanner();
+  }
+
+  @Override
+  public void close() throws IOException {
+    closeCurrentScanner();
+    // a fragment which is not read to the end is not cached
+    dropBuilder();
+    iterator = null;
+  }
+
+  @Override
+  public boolean isProjectable() {
+    return false;
+  }
+
+  @Override
+  public void setTarget(Column[] targets) {
+    this.target = new Schema(targets);
+  }
+
+  @Override
+  public boolean isSelectable() {
+    return false;
+  }
+
+  @Override
+  public void setSearchCondition(Object expr) {
+  }
+
+  @Override
+  public boolean isSplittable() {
+    return false;
+  }
+
+  @Override
+  public float getProgress() {
+    if (iterator == null || currentScanner == null) {
+      return 1.0f;
+    }
+    return Math.min(1.0f, (fragmentIdx - 1 + currentScanner.getProgress()) / fragments.size());
+  }
+
+  @Override
+  public TableStats getInputStats() {
+    return tableStats;
+  }
+
+  @Override
+  public Schema getSchema() {
+    return schema;
+  }
+}
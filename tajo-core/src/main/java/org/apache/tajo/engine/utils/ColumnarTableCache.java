@@ -0,0 +1,226 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.utils;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.storage.columnar.ColumnarBlock;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.fragment.Fragment;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.worker.MemoryConsumer;
+import org.apache.tajo.worker.WorkerMemoryManager;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache of fragments of hot tables in a worker, which are kept in the columnar layout.
+ *
+ * Only tables with the property {@link StorageConstants#IN_MEMORY_CACHE} are cached. A fragment is identified by its
+ * path, range and the modification time of the file, so a fragment is read again when its file is changed.
+ * The least recently used fragments are evicted when the total of their estimated sizes exceeds the capacity.
+ * Their sizes are reserved from the memory of the worker through {@link #setMemoryManager(WorkerMemoryManager)},
+ * and the least recently used ones are also evicted when operators need the memory.
+ */
+public class ColumnarTableCache implements MemoryConsumer.Evictable {
+  private static final Log LOG = LogFactory.getLog(ColumnarTableCache.class);
+
+  private static ColumnarTableCache instance;
+
+  private final LinkedHashMap<String, ColumnarBlock> blocks = new LinkedHashMap<String, ColumnarBlock>(16, 0.75f, true);
+  private long capacity;
+  private long used;
+  private long hitNum;
+  private long missNum;
+  private long evictionNum;
+  private MemoryConsumer memoryConsumer;
+
+  private ColumnarTableCache() {
+    this(ConfVars.WORKER_TABLE_CACHE_SIZE.defaultIntVal * StorageUnit.MB);
+  }
+
+  public ColumnarTableCache(long capacity) {
+    Preconditions.checkArgument(capacity >= 0, "The capacity must not be negative: %s", capacity);
+    this.capacity = capacity;
+  }
+
+  public static synchronized ColumnarTableCache getInstance() {
+    if (instance == null) {
+      instance = new ColumnarTableCache();
+    }
+    return instance;
+  }
+
+  /**
+   * @return True if the fragments of the table should be cached
+   */
+  public static boolean isCacheEnabled(TableMeta meta, List<Fragment> fragments) {
+    if (!Boolean.parseBoolean(meta.getOption(StorageConstants.IN_MEMORY_CACHE, "false"))) {
+      return false;
+    }
+    for (Fragment fragment : fragments) {
+      if (!(fragment instanceof FileFragment)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param meta The table meta including the properties to parse the file
+   * @param schema The schema of columns in the file
+   */
+  public static String getCacheKey(TajoConf conf, TableMeta meta, Schema schema, FileFragment fragment)
+      throws IOException {
+    FileStatus status = fragment.getPath().getFileSystem(conf).getFileStatus(fragment.getPath());
+    return fragment.getPath() + ":" + fragment.getStartKey() + "+" + fragment.getLength() + "@" +
+        status.getModificationTime() + "," + meta.toJson() + "," + schema;
+  }
+
+  /**
+   * @return The cached fragment, or null if it is not cached
+   */
+  public synchronized ColumnarBlock get(String key) {
+    ColumnarBlock block = blocks.get(key);
+    if (block == null) {
+      missNum++;
+    } else {
+      hitNum++;
+    }
+    return block;
+  }
+
+  /**
+   * Caches a fragment. The least recently used fragments are evicted if the capacity is exceeded.
+   *
+   * @return True if the fragment is cached. A fragment larger than the capacity is not cached.
+   */
+  public boolean put(String key, ColumnarBlock block) {
+    synchronized (this) {
+      if (block.getEstimatedSize() > capacity) {
+        return false;
+      }
+
+      ColumnarBlock old = blocks.put(key, block);
+      if (old != null) {
+        used -= old.getEstimatedSize();
+      }
+      used += block.getEstimatedSize();
+      evict(capacity);
+    }
+    updateMemory();
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Cached " + block.getRowNum() + " rows (" +
+          FileUtil.humanReadableByteCount(block.getEstimatedSize(), false) + ") of " + key);
+    }
+    return true;
+  }
+
+  public void setCapacity(long capacity) {
+    Preconditions.checkArgument(capacity >= 0, "The capacity must not be negative: %s", capacity);
+    synchronized (this) {
+      this.capacity = capacity;
+      evict(capacity);
+    }
+    updateMemory();
+  }
+
+  /**
+   * @param memoryManager The manager from which the memory of cached fragments is reserved
+   */
+  public void setMemoryManager(WorkerMemoryManager memoryManager) {
+    MemoryConsumer old;
+    synchronized (this) {
+      old = this.memoryConsumer;
+      this.memoryConsumer = memoryManager.newConsumer("ColumnarTableCache", this);
+    }
+    if (old != null) {
+      old.release();
+    }
+    updateMemory();
+  }
+
+  /**
+   * Reserves the memory of cached fragments. It is called without the lock of this cache, because the memory manager
+   * calls {@link #evict(long)} while holding its own lock.
+   */
+  private void updateMemory() {
+    MemoryConsumer consumer;
+    synchronized (this) {
+      consumer = memoryConsumer;
+    }
+    if (consumer != null) {
+      consumer.update();
+    }
+  }
+
+  @Override
+  public synchronized long getEvictableBytes() {
+    return used;
+  }
+
+  @Override
+  public synchronized long evict(long limit) {
+    Iterator<Map.Entry<String, ColumnarBlock>> it = blocks.entrySet().iterator();
+    while (used > limit && it.hasNext()) {
+      used -= it.next().getValue().getEstimatedSize();
+      it.remove();
+      evictionNum++;
+    }
+    return used;
+  }
+
+  public synchronized long getCapacity() {
+    return capacity;
+  }
+
+  public synchronized long getUsed() {
+    return used;
+  }
+
+  public synchronized int getBlockNum() {
+    return blocks.size();
+  }
+
+  public synchronized long getHitNum() {
+    return hitNum;
+  }
+
+  public synchronized long getMissNum() {
+    return missNum;
+  }
+
+  public synchronized long getEvictionNum() {
+    return evictionNum;
+  }
+}
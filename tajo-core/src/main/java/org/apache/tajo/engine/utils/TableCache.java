@@ -18,25 +18,58 @@
 
 package org.apache.tajo.engine.utils;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.worker.MemoryConsumer;
+import org.apache.tajo.worker.WorkerMemoryManager;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * This is a simple TableCache which just added CacheHolder as needed.
+ * A cache of broadcast tables in a worker.
+ *
+ * A table cached for an execution block is released when the execution block is finished. A table cached across
+ * queries has a key without an execution block (see {@link TableCacheKey#isShared()}). Such tables are kept until the
+ * total of their estimated sizes exceeds the capacity, and then the least recently used ones are evicted.
+ * Their sizes are reserved from the memory of the worker through {@link #setMemoryManager(WorkerMemoryManager)},
+ * and the least recently used ones are also evicted when operators need the memory.
  */
- public class TableCache {
+public class TableCache implements MemoryConsumer.Evictable {
   public static final Log LOG = LogFactory.getLog(TableCache.class);
 
   private static TableCache instance;
   private Map<TableCacheKey, CacheHolder<?>> cacheMap = Maps.newHashMap();
 
+  /** tables shared by queries in the access order */
+  private final LinkedHashMap<TableCacheKey, SharedEntry> sharedCacheMap =
+      new LinkedHashMap<TableCacheKey, SharedEntry>(16, 0.75f, true);
+  private long sharedCapacity;
+  private long sharedBytes;
+  private long hitNum;
+  private long missNum;
+  private long evictionNum;
+  private MemoryConsumer memoryConsumer;
+
   private TableCache() {
+    this(ConfVars.WORKER_BROADCAST_CACHE_SIZE.defaultIntVal * StorageUnit.MB);
+  }
+
+  /**
+   * @param sharedCapacity The maximum bytes of tables shared by queries
+   */
+  public TableCache(long sharedCapacity) {
+    Preconditions.checkArgument(sharedCapacity >= 0, "The capacity must not be negative: %s", sharedCapacity);
+    this.sharedCapacity = sharedCapacity;
   }
 
   public static synchronized TableCache getInstance() {
@@ -62,7 +95,7 @@ import java.util.Map;
   public synchronized List<TableCacheKey> getCacheKeyByExecutionBlockId(ExecutionBlockId ebId) {
     List<TableCacheKey> keys = Lists.newArrayList();
     for (TableCacheKey eachKey : cacheMap.keySet()) {
-      if (eachKey.ebId.equals(ebId.toString())) {
+      if (ebId.toString().equals(eachKey.ebId)) {
         keys.add(eachKey);
       }
     }
@@ -81,4 +114,136 @@ import java.util.Map;
   public synchronized CacheHolder<?> getCache(TableCacheKey cacheKey) {
     return cacheMap.get(cacheKey);
   }
+
+  /**
+   * @return The table shared by queries, or null if it is not cached
+   */
+  public synchronized CacheHolder<?> getSharedCache(TableCacheKey cacheKey) {
+    SharedEntry entry = sharedCacheMap.get(cacheKey);
+    if (entry == null) {
+      missNum++;
+      return null;
+    }
+    hitNum++;
+    return entry.holder;
+  }
+
+  /**
+   * Caches a table to be shared by queries. The least recently used tables are evicted if the capacity is exceeded.
+   *
+   * @param size The estimated bytes of the table
+   * @return True if the table is cached. A table larger than the capacity is not cached.
+   */
+  public boolean addSharedCache(TableCacheKey cacheKey, CacheHolder<?> cacheData, long size) {
+    Preconditions.checkArgument(cacheKey.isShared(), "Not a key shared by queries: %s", cacheKey);
+    synchronized (this) {
+      if (size > sharedCapacity) {
+        return false;
+      }
+
+      SharedEntry old = sharedCacheMap.put(cacheKey, new SharedEntry(cacheData, size));
+      if (old != null) {
+        sharedBytes -= old.size;
+        old.holder.release();
+      }
+      sharedBytes += size;
+      evict(sharedCapacity);
+    }
+    updateMemory();
+
+    LOG.info("Added Shared Broadcast Table Cache: " + cacheKey.getTableName() + " (" +
+        FileUtil.humanReadableByteCount(size, false) + ")");
+    return true;
+  }
+
+  public void setSharedCapacity(long sharedCapacity) {
+    Preconditions.checkArgument(sharedCapacity >= 0, "The capacity must not be negative: %s", sharedCapacity);
+    synchronized (this) {
+      this.sharedCapacity = sharedCapacity;
+      evict(sharedCapacity);
+    }
+    updateMemory();
+  }
+
+  /**
+   * @param memoryManager The manager from which the memory of tables shared by queries is reserved
+   */
+  public void setMemoryManager(WorkerMemoryManager memoryManager) {
+    MemoryConsumer old;
+    synchronized (this) {
+      old = this.memoryConsumer;
+      this.memoryConsumer = memoryManager.newConsumer("BroadcastTableCache", this);
+    }
+    if (old != null) {
+      old.release();
+    }
+    updateMemory();
+  }
+
+  /**
+   * Reserves the memory of shared tables. It is called without the lock of this cache, because the memory manager
+   * calls {@link #evict(long)} while holding its own lock.
+   */
+  private void updateMemory() {
+    MemoryConsumer consumer;
+    synchronized (this) {
+      consumer = memoryConsumer;
+    }
+    if (consumer != null) {
+      consumer.update();
+    }
+  }
+
+  @Override
+  public synchronized long getEvictableBytes() {
+    return sharedBytes;
+  }
+
+  @Override
+  public synchronized long evict(long limit) {
+    Iterator<Map.Entry<TableCacheKey, SharedEntry>> it = sharedCacheMap.entrySet().iterator();
+    while (sharedBytes > limit && it.hasNext()) {
+      Map.Entry<TableCacheKey, SharedEntry> eldest = it.next();
+      it.remove();
+      sharedBytes -= eldest.getValue().size;
+      eldest.getValue().holder.release();
+      evictionNum++;
+      LOG.info("Evicted Shared Broadcast Table Cache: " + eldest.getKey().getTableName());
+    }
+    return sharedBytes;
+  }
+
+  public synchronized long getSharedCapacity() {
+    return sharedCapacity;
+  }
+
+  public synchronized long getSharedBytes() {
+    return sharedBytes;
+  }
+
+  public synchronized int getSharedCacheNum() {
+    return sharedCacheMap.size();
+  }
+
+  public synchronized long getHitNum() {
+    return hitNum;
+  }
+
+  public synchronized long getMissNum() {
+    return missNum;
+  }
+
+  public synchronized long getEvictionNum() {
+    return evictionNum;
+  }
+
+  private static class SharedEntry {
+    final CacheHolder<?> holder;
+    final long size;
+
+    SharedEntry(CacheHolder<?> holder, long size) {
+      this.holder = holder;
+      this.size = size;
+    }
+  }
 }
@@ -29,6 +29,13 @@ public class TableCacheKey {
     this.pathName = pathName;
   }
 
+  /**
+   * @return True if the table is shared by queries. Such a key has no execution block.
+   */
+  public boolean isShared() {
+    return ebId == null;
+  }
+
   public String getTableName() {
     return tableName;
   }
@@ -55,6 +55,7 @@ import org.apache.tajo.plan.verifier.PreLogicalPlanVerifier;
 import org.apache.tajo.plan.verifier.VerificationState;
 import org.apache.tajo.plan.verifier.VerifyException;
 import org.apache.tajo.storage.StorageManager;
+import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.CommonTestingUtil;
 
 import java.io.IOException;
@@ -80,6 +81,11 @@ public class GlobalEngine extends AbstractService {
   private QueryExecutor queryExecutor;
   private DDLExecutor ddlExecutor;
 
+  /** It is null if the plan cache is disabled */
+  private PlanCache planCache;
+  /** It is null if the result cache is disabled */
+  private QueryResultCache resultCache;
+
   public GlobalEngine(final MasterContext context) {
     super(GlobalEngine.class.getName());
     this.context = context;
@@ -97,6 +103,17 @@ public class GlobalEngine extends AbstractService {
       planner = new LogicalPlanner(context.getCatalog());
       optimizer = new LogicalOptimizer(context.getConf());
       annotatedPlanVerifier = new LogicalPlanVerifier(context.getConf(), context.getCatalog());
+
+      int planCacheSize = context.getConf().getIntVar(TajoConf.ConfVars.QUERY_PLAN_CACHE_SIZE);
+      if (planCacheSize > 0) {
+        planCache = new PlanCache(context.getCatalog(), planCacheSize);
+      }
+
+      long resultCacheSize = context.getConf().getLongVar(TajoConf.ConfVars.QUERY_RESULT_CACHE_SIZE);
+      if (resultCacheSize > 0) {
+        resultCache = new QueryResultCache(context.getConf(), context.getCatalog(), resultCacheSize * StorageUnit.MB,
+            context.getConf().getLongVar(TajoConf.ConfVars.QUERY_RESULT_CACHE_TTL));
+      }
     } catch (Throwable t) {
       LOG.error(t.getMessage(), t);
       throw new RuntimeException(t);
@@ -140,6 +157,18 @@ public class GlobalEngine extends AbstractService {
     return queryExecutor;
   }
 
+  @VisibleForTesting
+  public PlanCache getPlanCache() {
+    return planCache;
+  }
+
+  /**
+   * @return The result cache, or null if it is disabled
+   */
+  public QueryResultCache getResultCache() {
+    return resultCache;
+  }
+
   private QueryContext createQueryContext(Session session) {
     QueryContext newQueryContext =  new QueryContext(context.getConf(), session);
 
@@ -176,15 +205,49 @@ public class GlobalEngine extends AbstractService {
     Expr planningContext;
 
     try {
-      if (isJson) {
-        planningContext = buildExpressionFromJson(query);
+      String jsonExpr;
+      LogicalPlan plan;
+
+      PlanCache.CachedPlan cachedPlan = null;
+      if (planCache != null && !isJson) {
+        cachedPlan = planCache.get(query, queryContext);
+      }
+
+      if (cachedPlan != null) {
+        context.getSystemMetrics().counter("Query", "totalQuery").inc();
+        context.getSystemMetrics().counter("Query", "planCacheHit").inc();
+        context.getSystemMetrics().counter("Query", "planningTimeSavedMs").inc(cachedPlan.getPlanningTime());
+        planningContext = cachedPlan.getExpr();
+        jsonExpr = cachedPlan.getJsonExpr();
+        plan = cachedPlan.getPlan();
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Cached plan is used for the query: " + query);
+        }
+
       } else {
-        planningContext = buildExpressionFromSql(query, session);
+        if (isJson) {
+          planningContext = buildExpressionFromJson(query);
+        } else {
+          planningContext = buildExpressionFromSql(query, session);
+        }
+
+        jsonExpr = planningContext.toJson();
+        long planningStart = System.currentTimeMillis();
+        plan = createLogicalPlan(queryContext, planningContext);
+
+        if (planCache != null && !isJson) {
+          context.getSystemMetrics().counter("Query", "planCacheMiss").inc();
+          planCache.put(query, queryContext, plan, planningContext, jsonExpr,
+              System.currentTimeMillis() - planningStart);
+        }
       }
 
-      String jsonExpr = planningContext.toJson();
-      LogicalPlan plan = createLogicalPlan(queryContext, planningContext);
-      SubmitQueryResponse response = queryExecutor.execute(queryContext, session, query, jsonExpr, plan);
+      SubmitQueryResponse response = queryExecutor.execute(queryContext, session, query, planningContext, jsonExpr,
+          plan);
+
+      if (PlannerUtil.checkIfDDLPlan(plan.getRootBlock().getRoot())) {
+        invalidateCaches();
+      }
       return response;
     } catch (Throwable t) {
       context.getSystemMetrics().counter("Query", "errorQuery").inc();
@@ -246,6 +309,7 @@ public class GlobalEngine extends AbstractService {
         throw new SQLException("This is not update query:\n" + sql);
       } else {
         ddlExecutor.execute(queryContext, plan);
+        invalidateCaches();
         return QueryIdFactory.NULL_QUERY_ID;
       }
     } catch (Exception e) {
@@ -254,6 +318,15 @@ public class GlobalEngine extends AbstractService {
     }
   }
 
+  private void invalidateCaches() {
+    if (planCache != null) {
+      planCache.invalidateAll();
+    }
+    if (resultCache != null) {
+      resultCache.invalidateAll();
+    }
+  }
+
   private LogicalPlan createLogicalPlan(QueryContext queryContext, Expr expression) throws PlanningException {
 
     VerificationState state = new VerificationState();
@@ -0,0 +1,258 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.catalog.CatalogService;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.proto.CatalogProtos.TableDescProto;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.logical.LogicalRootNode;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.logical.RelationNode;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.plan.util.PlannerUtil;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of optimized logical plans, which is keyed on the normalized SQL and the session variables.
+ *
+ * A cached plan keeps the descriptions of the tables which it reads at planning time, and it is discarded if
+ * any of them differs from the current one in the catalog. It is because a plan depends on table schemas, partitions
+ * and statistics. All plans are discarded whenever a DDL statement is executed.
+ *
+ * Cached plans are shared by queries, so only plans which are not changed after they are built are cached.
+ * They are the plans of distributed SELECT queries.
+ *
+ * A hit only saves the planning in the master. A query master still parses the expression and builds its own
+ * logical plan, because a LogicalPlan with its query blocks cannot be shipped, and the query master changes it
+ * while it builds the global plan.
+ */
+public class PlanCache {
+  /** Session variables which do not affect query plans */
+  private static final String [] IGNORED_VARS = new String[] {
+      SessionVars.SESSION_ID.keyname(),
+      SessionVars.SESSION_LAST_ACCESS_TIME.keyname(),
+      SessionVars.CLIENT_HOST.keyname()
+  };
+
+  private final CatalogService catalog;
+  private final Cache<String, CachedPlan> cache;
+
+  private final AtomicLong hitNum = new AtomicLong();
+  private final AtomicLong missNum = new AtomicLong();
+  private final AtomicLong savedPlanningTime = new AtomicLong();
+
+  public static class CachedPlan {
+    private final LogicalPlan plan;
+    private final Expr expr;
+    private final String jsonExpr;
+    private final Map<String, TableDescProto> tables;
+    private final long planningTime;
+
+    CachedPlan(LogicalPlan plan, Expr expr, String jsonExpr, Map<String, TableDescProto> tables, long planningTime) {
+      this.plan = plan;
+      this.expr = expr;
+      this.jsonExpr = jsonExpr;
+      this.tables = tables;
+      this.planningTime = planningTime;
+    }
+
+    public LogicalPlan getPlan() {
+      return plan;
+    }
+
+    public Expr getExpr() {
+      return expr;
+    }
+
+    public String getJsonExpr() {
+      return jsonExpr;
+    }
+
+    /**
+     * @return The elapsed time in milliseconds which was taken to build and optimize the plan
+     */
+    public long getPlanningTime() {
+      return planningTime;
+    }
+  }
+
+  public PlanCache(CatalogService catalog, int maxSize) {
+    this.catalog = catalog;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterAccess(1, TimeUnit.HOURS)
+        .build();
+  }
+
+  /**
+   * @return The cached plan of the query, or null if it is not cached or it is outdated.
+   */
+  public CachedPlan get(String sql, QueryContext queryContext) {
+    String key = buildKey(sql, queryContext);
+    CachedPlan cached = cache.getIfPresent(key);
+
+    if (cached != null && !isUpToDate(cached)) {
+      cache.invalidate(key);
+      cached = null;
+    }
+
+    if (cached != null) {
+      hitNum.incrementAndGet();
+      savedPlanningTime.addAndGet(cached.planningTime);
+    } else {
+      missNum.incrementAndGet();
+    }
+    return cached;
+  }
+
+  /**
+   * Caches the plan if it can be shared by queries.
+   *
+   * @param planningTime The elapsed time in milliseconds to build and optimize the plan
+   * @return True if the plan is cached
+   */
+  public boolean put(String sql, QueryContext queryContext, LogicalPlan plan, Expr expr, String jsonExpr,
+                     long planningTime) {
+    if (!isCacheable(plan)) {
+      return false;
+    }
+
+    Map<String, TableDescProto> tables = new TreeMap<String, TableDescProto>();
+    for (LogicalPlan.QueryBlock block : plan.getQueryBlocks()) {
+      for (RelationNode relation : block.getRelations()) {
+        if (relation instanceof ScanNode) {
+          String tableName = ((ScanNode) relation).getTableName();
+          TableDesc desc = catalog.getTableDesc(tableName);
+          if (desc == null) {
+            return false;
+          }
+          tables.put(tableName, desc.getProto());
+        }
+      }
+    }
+
+    cache.put(buildKey(sql, queryContext), new CachedPlan(plan, expr, jsonExpr, tables, planningTime));
+    return true;
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private boolean isUpToDate(CachedPlan cached) {
+    for (Map.Entry<String, TableDescProto> entry : cached.tables.entrySet()) {
+      TableDesc desc = catalog.getTableDesc(entry.getKey());
+      if (desc == null || !desc.getProto().equals(entry.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @VisibleForTesting
+  static boolean isCacheable(LogicalPlan plan) {
+    LogicalRootNode rootNode = plan.getRootBlock().getRoot();
+    NodeType childType = rootNode.getChild().getType();
+
+    return !plan.isExplain() &&
+        childType != NodeType.INSERT && childType != NodeType.CREATE_TABLE &&
+        !PlannerUtil.checkIfSetSession(rootNode) &&
+        !PlannerUtil.checkIfDDLPlan(rootNode) &&
+        // the following queries are executed in the master, and they change their plans.
+        !PlannerUtil.checkIfQueryTargetIsVirtualTable(plan) &&
+        !PlannerUtil.checkIfSimpleQuery(plan) &&
+        !PlannerUtil.checkIfNonFromQuery(plan);
+  }
+
+  static String buildKey(String sql, QueryContext queryContext) {
+    Map<String, String> vars = new TreeMap<String, String>(queryContext.getAllKeyValus());
+    for (String ignored : IGNORED_VARS) {
+      vars.remove(ignored);
+    }
+
+    StringBuilder sb = new StringBuilder(normalize(sql));
+    for (Map.Entry<String, String> var : vars.entrySet()) {
+      sb.append('\0').append(var.getKey()).append('=').append(var.getValue());
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Trims a SQL statement, and replaces each sequence of whitespaces out of quotes by a single space.
+   */
+  @VisibleForTesting
+  static String normalize(String sql) {
+    StringBuilder sb = new StringBuilder(sql.length());
+    char quote = 0;
+    boolean pendingSpace = false;
+
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote == 0 && Character.isWhitespace(c)) {
+        pendingSpace = sb.length() > 0;
+        continue;
+      }
+
+      if (pendingSpace) {
+        sb.append(' ');
+        pendingSpace = false;
+      }
+      sb.append(c);
+
+      if (quote == 0) {
+        if (c == '\'' || c == '"') {
+          quote = c;
+        }
+      } else if (c == quote) {
+        quote = 0;
+      }
+    }
+    return sb.toString();
+  }
+
+  public long getHitNum() {
+    return hitNum.get();
+  }
+
+  public long getMissNum() {
+    return missNum.get();
+  }
+
+  /**
+   * @return The sum of planning times in milliseconds which were saved by cache hits
+   */
+  public long getSavedPlanningTime() {
+    return savedPlanningTime.get();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+}
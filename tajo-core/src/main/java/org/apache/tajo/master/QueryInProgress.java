@@ -59,6 +59,9 @@ public class QueryInProgress {
 
   private QueryInfo queryInfo;
 
+  /** It is null if the result of the query is not cached */
+  private QueryResultCache.PendingResult pendingResult;
+
   private final TajoMaster.MasterContext masterContext;
 
   private NettyClientBase queryMasterRpc;
@@ -189,8 +192,7 @@ public class QueryInProgress {
       builder.setQueryId(queryId.getProto())
           .setQueryContext(queryInfo.getQueryContext().getProto())
           .setSession(session.getProto())
-          .setExprInJson(PrimitiveProtos.StringProto.newBuilder().setValue(queryInfo.getJsonExpr()))
-          .setLogicalPlanJson(PrimitiveProtos.StringProto.newBuilder().setValue(plan.toJson()).build());
+          .setExprInJson(PrimitiveProtos.StringProto.newBuilder().setValue(queryInfo.getJsonExpr()));
 
       queryMasterRpcClient.executeQuery(null, builder.build(), NullCallback.get());
       querySubmitted.set(true);
@@ -212,6 +214,14 @@ public class QueryInProgress {
     return queryId;
   }
 
+  public QueryResultCache.PendingResult getPendingResult() {
+    return pendingResult;
+  }
+
+  public void setPendingResult(QueryResultCache.PendingResult pendingResult) {
+    this.pendingResult = pendingResult;
+  }
+
   public QueryInfo getQueryInfo() {
     readLock.lock();
     try {
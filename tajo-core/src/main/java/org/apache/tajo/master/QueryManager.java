@@ -174,9 +174,20 @@ public class QueryManager extends CompositeService {
   public QueryInfo scheduleQuery(Session session, QueryContext queryContext, String sql,
                                  String jsonExpr, LogicalRootNode plan)
       throws Exception {
+    return scheduleQuery(session, queryContext, sql, jsonExpr, plan, null);
+  }
+
+  /**
+   * @param pendingResult The result to be cached when the query succeeds. It can be null.
+   */
+  public QueryInfo scheduleQuery(Session session, QueryContext queryContext, String sql,
+                                 String jsonExpr, LogicalRootNode plan,
+                                 QueryResultCache.PendingResult pendingResult)
+      throws Exception {
     QueryId queryId = QueryIdFactory.newQueryId(masterContext.getResourceManager().getSeedQueryId());
     QueryInProgress queryInProgress = new QueryInProgress(masterContext, session, queryContext, queryId, sql,
         jsonExpr, plan);
+    queryInProgress.setPendingResult(pendingResult);
 
     synchronized (submittedQueries) {
       queryInProgress.getQueryInfo().setQueryMaster("");
@@ -266,6 +277,12 @@ public class QueryManager extends CompositeService {
         historyCache.put(queryInfo.getQueryId(), queryInfo);
       }
 
+      QueryResultCache resultCache = masterContext.getGlobalEngine().getResultCache();
+      if (resultCache != null && queryInProgress.getPendingResult() != null &&
+          queryInfo.getQueryState() == TajoProtos.QueryState.QUERY_SUCCEEDED) {
+        resultCache.complete(queryInProgress.getPendingResult(), queryInfo.getResultDesc());
+      }
+
       long executionTime = queryInfo.getFinishTime() - queryInfo.getStartTime();
       if (executionTime < minExecutionTime.get()) {
         minExecutionTime.set(executionTime);
@@ -0,0 +1,329 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.master;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.Sets;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.ContentSummary;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.algebra.FunctionExpr;
+import org.apache.tajo.algebra.OpType;
+import org.apache.tajo.catalog.CatalogService;
+import org.apache.tajo.catalog.FunctionDesc;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.proto.CatalogProtos.FunctionType;
+import org.apache.tajo.catalog.proto.CatalogProtos.TableDescProto;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.logical.RelationNode;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.plan.util.ExprFinder;
+import org.apache.tajo.storage.FileStorageManager;
+import org.apache.tajo.storage.StorageManager;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of the results of distributed SELECT queries, which is keyed on the normalized SQL and the session
+ * variables like {@link PlanCache}.
+ *
+ * A cached result keeps the versions of the tables which the query reads. A version consists of the table
+ * description in the catalog, including statistics, and the modification time and the content summary of the table
+ * directory. A result is discarded if any of the versions is changed or its result files are removed. It is also
+ * discarded when it expires or the total size of results exceeds the capacity, and all results are discarded
+ * whenever a DDL statement is executed.
+ *
+ * The versions are taken before a query is submitted, and they are kept in the {@link QueryInProgress} of the query
+ * until the result is cached when the query succeeds.
+ * A cached result is served from its files by {@link org.apache.tajo.master.exec.NonForwardQueryResultFileScanner}.
+ */
+public class QueryResultCache {
+  private static final Log LOG = LogFactory.getLog(QueryResultCache.class);
+
+  /** Functions whose results vary across executions */
+  private static final Set<String> NONDETERMINISTIC_FUNCTIONS =
+      Sets.newHashSet("now", "current_date", "current_time", "random", "sleep");
+
+  private static final Set<FunctionType> BUILTIN_FUNCTION_TYPES = Sets.newHashSet(
+      FunctionType.GENERAL, FunctionType.AGGREGATION, FunctionType.DISTINCT_AGGREGATION, FunctionType.WINDOW);
+
+  private final TajoConf conf;
+  private final CatalogService catalog;
+  private final long capacity;
+  private final Cache<String, CachedResult> cache;
+
+  private final AtomicLong hitNum = new AtomicLong();
+  private final AtomicLong missNum = new AtomicLong();
+
+  /**
+   * The key of a running query and the versions of the tables which it reads
+   */
+  public static class PendingResult {
+    private final String key;
+    private final Map<String, TableVersion> versions;
+
+    PendingResult(String key, Map<String, TableVersion> versions) {
+      this.key = key;
+      this.versions = versions;
+    }
+  }
+
+  private static class CachedResult {
+    private final TableDescProto resultDesc;
+    private final Map<String, TableVersion> versions;
+
+    CachedResult(TableDescProto resultDesc, Map<String, TableVersion> versions) {
+      this.resultDesc = resultDesc;
+      this.versions = versions;
+    }
+
+    long getNumBytes() {
+      return resultDesc.hasStats() ? resultDesc.getStats().getNumBytes() : 0;
+    }
+  }
+
+  @VisibleForTesting
+  static class TableVersion {
+    private final TableDescProto desc;
+    private final long modificationTime;
+    private final long length;
+    private final long fileCount;
+    private final long directoryCount;
+
+    TableVersion(TableDescProto desc, long modificationTime, long length, long fileCount, long directoryCount) {
+      this.desc = desc;
+      this.modificationTime = modificationTime;
+      this.length = length;
+      this.fileCount = fileCount;
+      this.directoryCount = directoryCount;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof TableVersion) {
+        TableVersion other = (TableVersion) obj;
+        return desc.equals(other.desc) &&
+            modificationTime == other.modificationTime &&
+            length == other.length &&
+            fileCount == other.fileCount &&
+            directoryCount == other.directoryCount;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return desc.hashCode() ^ (int) (modificationTime ^ (modificationTime >>> 32));
+    }
+  }
+
+  /**
+   * @param capacity The maximum total bytes of cached results
+   * @param ttlSec The time in seconds for which a result is kept after it is cached
+   */
+  public QueryResultCache(TajoConf conf, CatalogService catalog, long capacity, long ttlSec) {
+    this.conf = conf;
+    this.catalog = catalog;
+    this.capacity = capacity;
+    this.cache = CacheBuilder.newBuilder()
+        // a single segment, so that a large result is not limited by the capacity of a segment
+        .concurrencyLevel(1)
+        .maximumWeight(Math.max(1, capacity / 1024))
+        .weigher(new Weigher<String, CachedResult>() {
+          @Override
+          public int weigh(String key, CachedResult value) {
+            return (int) Math.min(Integer.MAX_VALUE, value.getNumBytes() / 1024 + 1);
+          }
+        })
+        .expireAfterWrite(ttlSec, TimeUnit.SECONDS)
+        .build();
+  }
+
+  /**
+   * @return The description of the cached result of the query, or null if it is not cached or it is outdated.
+   */
+  public TableDesc get(String sql, QueryContext queryContext) {
+    String key = PlanCache.buildKey(sql, queryContext);
+    CachedResult cached = cache.getIfPresent(key);
+
+    if (cached != null && !isUpToDate(cached)) {
+      cache.invalidate(key);
+      cached = null;
+    }
+
+    if (cached != null) {
+      hitNum.incrementAndGet();
+      return new TableDesc(cached.resultDesc);
+    } else {
+      missNum.incrementAndGet();
+      return null;
+    }
+  }
+
+  /**
+   * Takes the versions of the tables which the query reads, so that the result of the query can be cached
+   * by {@link #complete(PendingResult, TableDesc)} when it succeeds. It must be called before the query is submitted.
+   *
+   * @return The pending result, or null if the result of the query cannot be cached
+   */
+  public PendingResult newPendingResult(String sql, QueryContext queryContext, LogicalPlan plan) {
+    Map<String, TableVersion> versions = new TreeMap<String, TableVersion>();
+    try {
+      for (LogicalPlan.QueryBlock block : plan.getQueryBlocks()) {
+        for (RelationNode relation : block.getRelations()) {
+          if (relation instanceof ScanNode) {
+            String tableName = ((ScanNode) relation).getTableName();
+            TableVersion version = getVersion(tableName);
+            if (version == null) {
+              return null;
+            }
+            versions.put(tableName, version);
+          }
+        }
+      }
+    } catch (IOException e) {
+      LOG.warn("Cannot get the versions of the tables: " + e.getMessage());
+      return null;
+    }
+
+    return new PendingResult(PlanCache.buildKey(sql, queryContext), versions);
+  }
+
+  /**
+   * Caches the result of a succeeded query.
+   */
+  public void complete(PendingResult pending, TableDesc resultDesc) {
+    if (resultDesc == null || resultDesc.getPath() == null) {
+      return;
+    }
+
+    CachedResult result = new CachedResult(resultDesc.getProto(), pending.versions);
+    if (result.getNumBytes() <= capacity) {
+      cache.put(pending.key, result);
+    }
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private boolean isUpToDate(CachedResult cached) {
+    try {
+      for (Map.Entry<String, TableVersion> entry : cached.versions.entrySet()) {
+        if (!entry.getValue().equals(getVersion(entry.getKey()))) {
+          return false;
+        }
+      }
+
+      Path resultPath = new Path(cached.resultDesc.getPath());
+      return resultPath.getFileSystem(conf).exists(resultPath);
+    } catch (IOException e) {
+      LOG.warn("Cannot check the cached result: " + e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * @return The current version of the table, or null if it is not a table of a file system.
+   */
+  private TableVersion getVersion(String tableName) throws IOException {
+    TableDesc desc = catalog.getTableDesc(tableName);
+    if (desc == null || desc.getPath() == null ||
+        !(StorageManager.getStorageManager(conf, desc.getMeta().getStoreType()) instanceof FileStorageManager)) {
+      return null;
+    }
+
+    Path path = new Path(desc.getPath());
+    FileSystem fs = path.getFileSystem(conf);
+    if (!fs.exists(path)) {
+      return new TableVersion(desc.getProto(), 0, 0, 0, 0);
+    }
+    FileStatus status = fs.getFileStatus(path);
+    ContentSummary summary = fs.getContentSummary(path);
+    return new TableVersion(desc.getProto(), status.getModificationTime(),
+        summary.getLength(), summary.getFileCount(), summary.getDirectoryCount());
+  }
+
+  /**
+   * @return True if the result of the distributed query does not change as long as the input tables are not changed.
+   */
+  public boolean isCacheable(LogicalPlan plan, Expr expr) {
+    NodeType childType = plan.getRootBlock().getRoot().getChild().getType();
+    if (childType == NodeType.INSERT || childType == NodeType.CREATE_TABLE) {
+      return false;
+    }
+    return isDeterministic(expr);
+  }
+
+  /**
+   * User-defined functions are regarded as nondeterministic because nothing is known about their results.
+   */
+  @VisibleForTesting
+  boolean isDeterministic(Expr expr) {
+    Set<FunctionExpr> functions = ExprFinder.finds(expr, OpType.Function);
+    functions.addAll(ExprFinder.<FunctionExpr>finds(expr, OpType.GeneralSetFunction));
+    functions.addAll(ExprFinder.<FunctionExpr>finds(expr, OpType.WindowFunction));
+    if (functions.isEmpty()) {
+      return true;
+    }
+
+    Set<String> userFunctions = Sets.newHashSet();
+    for (FunctionDesc desc : catalog.getFunctions()) {
+      if (!BUILTIN_FUNCTION_TYPES.contains(desc.getFuncType()) || desc.getInvocation().hasPython()) {
+        userFunctions.add(desc.getFunctionName().toLowerCase());
+      }
+    }
+
+    for (FunctionExpr function : functions) {
+      String name = function.getSignature().toLowerCase();
+      if (NONDETERMINISTIC_FUNCTIONS.contains(name) || userFunctions.contains(name)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public long getHitNum() {
+    return hitNum.get();
+  }
+
+  public long getMissNum() {
+    return missNum.get();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+}
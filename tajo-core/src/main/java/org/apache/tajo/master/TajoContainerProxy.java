@@ -48,15 +48,16 @@ import java.util.List;
 public class TajoContainerProxy extends ContainerProxy {
   private final QueryContext queryContext;
   private final TajoWorker.WorkerContext workerContext;
-  private final String planJson;
+  private final PlanProto.LogicalNodeTree plan;
 
   public TajoContainerProxy(QueryMasterTask.QueryMasterTaskContext context,
                             Configuration conf, TajoContainer container,
-                            QueryContext queryContext, ExecutionBlockId executionBlockId, String planJson) {
+                            QueryContext queryContext, ExecutionBlockId executionBlockId,
+                            PlanProto.LogicalNodeTree plan) {
     super(context, conf, executionBlockId, container);
     this.queryContext = queryContext;
     this.workerContext = context.getQueryMasterContext().getWorkerContext();
-    this.planJson = planJson;
+    this.plan = plan;
   }
 
   @Override
@@ -112,8 +113,8 @@ public class TajoContainerProxy extends ContainerProxy {
               .setContainerId(container.getId().toString())
               .setQueryOutputPath(context.getStagingDir().toString())
               .setQueryContext(queryContext.getProto())
-              .setPlanJson(planJson)
               .setShuffleType(shuffleType)
+              .setPlan(plan)
               .build();
 
       tajoWorkerRpcClient.startExecutionBlock(null, request, NullCallback.get());
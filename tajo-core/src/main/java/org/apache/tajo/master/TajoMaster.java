@@ -42,7 +42,9 @@ import org.apache.tajo.function.FunctionSignature;
 import org.apache.tajo.master.rm.TajoWorkerResourceManager;
 import org.apache.tajo.master.rm.WorkerResourceManager;
 import org.apache.tajo.metrics.CatalogMetricsGaugeSet;
+import org.apache.tajo.metrics.RpcServerMetricsGaugeSet;
 import org.apache.tajo.metrics.WorkerResourceMetricsGaugeSet;
+import org.apache.tajo.rpc.BlockingRpcServer;
 import org.apache.tajo.rpc.RpcChannelFactory;
 import org.apache.tajo.rpc.RpcClientManager;
 import org.apache.tajo.rpc.RpcConstants;
@@ -70,6 +72,7 @@ import java.lang.reflect.Constructor;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -169,6 +172,7 @@ public class TajoMaster extends CompositeService {
     try {
       RackResolver.init(systemConf);
 
+      RpcChannelFactory.setNativeEpollEnabled(systemConf.getBoolVar(ConfVars.RPC_NATIVE_EPOLL_ENABLED));
       RpcClientManager rpcManager = RpcClientManager.getInstance();
       rpcManager.setRetries(systemConf.getInt(RpcConstants.RPC_CLIENT_RETRY_MAX, RpcConstants.DEFAULT_RPC_RETRIES));
       rpcManager.setTimeoutSeconds(
@@ -225,6 +229,11 @@ public class TajoMaster extends CompositeService {
 
     systemMetrics.register("resource", new WorkerResourceMetricsGaugeSet(context));
     systemMetrics.register("catalog", new CatalogMetricsGaugeSet(context));
+
+    Map<String, BlockingRpcServer> rpcServers = new HashMap<String, BlockingRpcServer>();
+    rpcServers.put("clientService", tajoMasterClientService.getRpcServer());
+    rpcServers.put("catalog", catalogServer.getRpcServer());
+    systemMetrics.register("rpc", new RpcServerMetricsGaugeSet(rpcServers));
   }
 
   private void initResourceManager() throws Exception {
@@ -101,8 +101,11 @@ public class TajoMasterClientService extends AbstractService {
     String confClientServiceAddr = conf.getVar(ConfVars.TAJO_MASTER_CLIENT_RPC_ADDRESS);
     InetSocketAddress initIsa = NetUtils.createSocketAddr(confClientServiceAddr);
     int workerNum = conf.getIntVar(ConfVars.MASTER_SERVICE_RPC_SERVER_WORKER_THREAD_NUM);
+    int handlerNum = conf.getIntVar(ConfVars.MASTER_SERVICE_RPC_SERVER_HANDLER_THREAD_NUM);
+    int handlerQueueSize = conf.getIntVar(ConfVars.RPC_SERVER_HANDLER_QUEUE_SIZE);
     try {
-      server = new BlockingRpcServer(TajoMasterClientProtocol.class, clientHandler, initIsa, workerNum);
+      server = new BlockingRpcServer(TajoMasterClientProtocol.class, clientHandler, initIsa, workerNum,
+          handlerNum, handlerQueueSize);
     } catch (Exception e) {
       LOG.error(e);
       throw new RuntimeException(e);
@@ -127,6 +130,10 @@ public class TajoMasterClientService extends AbstractService {
     return this.bindAddress;
   }
 
+  public BlockingRpcServer getRpcServer() {
+    return server;
+  }
+
   /////////////////////////////////////////////////////////////////////////////
   // TajoMasterClientProtocolService
   /////////////////////////////////////////////////////////////////////////////
@@ -35,16 +35,13 @@ public class QueryStartEvent extends AbstractEvent {
   private final Session session;
   private final QueryContext queryContext;
   private final String jsonExpr;
-  private final String logicalPlanJson;
 
-  public QueryStartEvent(QueryId queryId, Session session, QueryContext queryContext, String jsonExpr,
-                         String logicalPlanJson) {
+  public QueryStartEvent(QueryId queryId, Session session, QueryContext queryContext, String jsonExpr) {
     super(EventType.QUERY_START);
     this.queryId = queryId;
     this.session = session;
     this.queryContext = queryContext;
     this.jsonExpr = jsonExpr;
-    this.logicalPlanJson = logicalPlanJson;
   }
 
   public QueryId getQueryId() {
@@ -63,10 +60,6 @@ public class QueryStartEvent extends AbstractEvent {
     return this.jsonExpr;
   }
 
-  public String getLogicalPlanJson() {
-    return logicalPlanJson;
-  }
-
   @Override
   public String toString() {
     return getClass().getName() + "," + getType() + "," + queryId;
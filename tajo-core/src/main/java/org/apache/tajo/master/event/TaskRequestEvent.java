@@ -18,14 +18,21 @@
 
 package org.apache.tajo.master.event;
 
+import com.google.common.collect.Lists;
 import com.google.protobuf.RpcCallback;
 import org.apache.hadoop.yarn.event.AbstractEvent;
 import org.apache.tajo.ExecutionBlockId;
-import org.apache.tajo.ipc.TajoWorkerProtocol;
+import org.apache.tajo.ipc.TajoWorkerProtocol.TaskRequestListProto;
 import org.apache.tajo.ipc.TajoWorkerProtocol.TaskRequestProto;
 import org.apache.tajo.master.event.TaskRequestEvent.TaskRequestEventType;
 import org.apache.tajo.master.container.TajoContainerId;
 
+import java.util.List;
+
+/**
+ * A request of a task runner for at most <code>maxTasks</code> tasks. Tasks assigned to the request are
+ * accumulated, and they are sent to the task runner at once when the request is flushed.
+ */
 public class TaskRequestEvent extends AbstractEvent<TaskRequestEventType> {
 
   public enum TaskRequestEventType {
@@ -35,17 +42,21 @@ public class TaskRequestEvent extends AbstractEvent<TaskRequestEventType> {
   private final int workerId;
   private final TajoContainerId containerId;
   private final ExecutionBlockId executionBlockId;
+  private final int maxTasks;
 
-  private final RpcCallback<TaskRequestProto> callback;
+  private final RpcCallback<TaskRequestListProto> callback;
+  private final List<TaskRequestProto> assignedTasks = Lists.newArrayList();
 
   public TaskRequestEvent(int workerId,
                           TajoContainerId containerId,
                           ExecutionBlockId executionBlockId,
-                          RpcCallback<TaskRequestProto> callback) {
+                          int maxTasks,
+                          RpcCallback<TaskRequestListProto> callback) {
     super(TaskRequestEventType.TASK_REQ);
     this.workerId = workerId;
     this.containerId = containerId;
     this.executionBlockId = executionBlockId;
+    this.maxTasks = Math.max(1, maxTasks);
     this.callback = callback;
   }
 
@@ -61,7 +72,29 @@ public class TaskRequestEvent extends AbstractEvent<TaskRequestEventType> {
     return executionBlockId;
   }
 
-  public RpcCallback<TajoWorkerProtocol.TaskRequestProto> getCallback() {
+  public int getMaxTasks() {
+    return maxTasks;
+  }
+
+  public RpcCallback<TaskRequestListProto> getCallback() {
     return this.callback;
   }
+
+  public void assign(TaskRequestProto task) {
+    assignedTasks.add(task);
+  }
+
+  public int getAssignedNum() {
+    return assignedTasks.size();
+  }
+
+  /**
+   * Sends the assigned tasks to the task runner. It does nothing if no task is assigned.
+   */
+  public void flush() {
+    if (assignedTasks.size() > 0) {
+      callback.run(TaskRequestListProto.newBuilder().addAllRequests(assignedTasks).build());
+      assignedTasks.clear();
+    }
+  }
 }
@@ -157,42 +157,49 @@ public class NonForwardQueryResultFileScanner implements NonForwardQueryResultSc
 
   public List<ByteString> getNextRows(int fetchRowNum) throws IOException {
     List<ByteString> rows = new ArrayList<ByteString>();
-    if (scanExec == null) {
-      return rows;
-    }
     int rowCount = 0;
-    while (true) {
-      Tuple tuple = scanExec.next();
-      if (tuple == null) {
-        scanExec.close();
-        scanExec = null;
-        initSeqScanExec();
-        if (scanExec != null) {
-          tuple = scanExec.next();
-        }
-        if (tuple == null) {
-          if (scanExec != null) {
-            scanExec.close();
-            scanExec = null;
-          }
-          break;
-        }
-      }
+    Tuple tuple;
+    while ((tuple = nextRow()) != null) {
       rows.add(ByteString.copyFrom((rowEncoder.toBytes(tuple))));
       rowCount++;
-      currentNumRows++;
       if (rowCount >= fetchRowNum) {
         break;
       }
-      if (currentNumRows >= maxRow) {
-        scanExec.close();
-        scanExec = null;
-        break;
-      }
     }
     return rows;
   }
 
+  @Override
+  public Tuple nextRow() throws IOException {
+    if (scanExec == null) {
+      return null;
+    }
+    if (currentNumRows >= maxRow) {
+      scanExec.close();
+      scanExec = null;
+      return null;
+    }
+
+    Tuple tuple = scanExec.next();
+    if (tuple == null) {
+      scanExec.close();
+      scanExec = null;
+      initSeqScanExec();
+      if (scanExec != null) {
+        tuple = scanExec.next();
+      }
+      if (tuple == null) {
+        if (scanExec != null) {
+          scanExec.close();
+          scanExec = null;
+        }
+        return null;
+      }
+    }
+    currentNumRows++;
+    return tuple;
+  }
+
   @Override
   public Schema getLogicalSchema() {
     return tableDesc.getLogicalSchema();
@@ -24,6 +24,7 @@ import java.util.List;
 import org.apache.tajo.QueryId;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.storage.Tuple;
 
 import com.google.protobuf.ByteString;
 
@@ -35,6 +36,13 @@ public interface NonForwardQueryResultScanner {
 
   public List<ByteString> getNextRows(int fetchRowNum) throws IOException;
 
+  /**
+   * Returns the next row without encoding it. The returned tuple is valid only until the next call.
+   *
+   * @return The next row, or null if there is no more row
+   */
+  public Tuple nextRow() throws IOException;
+
   public QueryId getQueryId();
   
   public String getSessionId();
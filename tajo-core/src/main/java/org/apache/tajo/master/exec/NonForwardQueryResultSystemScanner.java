@@ -572,35 +572,37 @@ public class NonForwardQueryResultSystemScanner implements NonForwardQueryResult
   @Override
   public List<ByteString> getNextRows(int fetchRowNum) throws IOException {
     List<ByteString> rows = new ArrayList<ByteString>();
-    int startRow = currentRow;
-    int endRow = startRow + fetchRowNum;
+    int endRow = currentRow + fetchRowNum;
     
-    if (physicalExec == null) {
-      return rows;
-    }
-    
-    while (currentRow < endRow) {
-      Tuple currentTuple = physicalExec.next();
-      
-      if (currentTuple == null) {
-        physicalExec.close();
-        physicalExec = null;
-        break;
-      }
-      
-      currentRow++;
+    Tuple currentTuple;
+    while (currentRow < endRow && (currentTuple = nextRow()) != null) {
       rows.add(ByteString.copyFrom(encoder.toBytes(currentTuple)));
-      
-      if (currentRow >= maxRow) {
-        physicalExec.close();
-        physicalExec = null;
-        break;
-      }
     }
     
     return rows;
   }
 
+  @Override
+  public Tuple nextRow() throws IOException {
+    if (physicalExec == null) {
+      return null;
+    }
+    if (currentRow >= maxRow) {
+      physicalExec.close();
+      physicalExec = null;
+      return null;
+    }
+
+    Tuple currentTuple = physicalExec.next();
+    if (currentTuple == null) {
+      physicalExec.close();
+      physicalExec = null;
+      return null;
+    }
+    currentRow++;
+    return currentTuple;
+  }
+
   @Override
   public QueryId getQueryId() {
     return queryId;
@@ -28,6 +28,7 @@ import org.apache.tajo.QueryId;
 import org.apache.tajo.QueryIdFactory;
 import org.apache.tajo.SessionVars;
 import org.apache.tajo.TajoConstants;
+import org.apache.tajo.algebra.Expr;
 import org.apache.tajo.catalog.CatalogService;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableDesc;
@@ -87,8 +88,8 @@ public class QueryExecutor {
     this.hookManager.addHook(new InsertIntoHook());
   }
 
-  public SubmitQueryResponse execute(QueryContext queryContext, Session session, String sql, String jsonExpr,
-                      LogicalPlan plan) throws Exception {
+  public SubmitQueryResponse execute(QueryContext queryContext, Session session, String sql, Expr expr,
+                                     String jsonExpr, LogicalPlan plan) throws Exception {
 
     SubmitQueryResponse.Builder response = SubmitQueryResponse.newBuilder();
     response.setIsForwarded(false);
@@ -122,7 +123,7 @@ public class QueryExecutor {
       execNonFromQuery(queryContext, plan, response);
 
     } else { // it requires distributed execution. So, the query is forwarded to a query master.
-      executeDistributedQuery(queryContext, session, plan, sql, jsonExpr, response);
+      executeDistributedQuery(queryContext, session, plan, sql, expr, jsonExpr, response);
     }
 
     response.setSessionVars(ProtoUtil.convertFromMap(session.getAllVariables()));
@@ -432,10 +433,29 @@ public class QueryExecutor {
   public void executeDistributedQuery(QueryContext queryContext, Session session,
                                       LogicalPlan plan,
                                       String sql,
+                                      Expr expr,
                                       String jsonExpr,
                                       SubmitQueryResponse.Builder responseBuilder) throws Exception {
     LogicalRootNode rootNode = plan.getRootBlock().getRoot();
 
+    QueryResultCache resultCache = context.getGlobalEngine().getResultCache();
+    if (resultCache != null &&
+        (!queryContext.getBool(SessionVars.RESULT_CACHE_ENABLED) || !resultCache.isCacheable(plan, expr))) {
+      resultCache = null;
+    }
+    if (resultCache != null) {
+      TableDesc resultDesc = resultCache.get(sql, queryContext);
+      if (resultDesc != null) {
+        context.getSystemMetrics().counter("Query", "resultCacheHit").inc();
+        execCachedQuery(queryContext, session, sql, rootNode, resultDesc, responseBuilder);
+        return;
+      }
+      context.getSystemMetrics().counter("Query", "resultCacheMiss").inc();
+    }
+    // the versions of the input tables are taken before the query reads them
+    QueryResultCache.PendingResult pendingResult =
+        resultCache != null ? resultCache.newPendingResult(sql, queryContext, plan) : null;
+
     CatalogProtos.StoreType storeType = PlannerUtil.getStoreType(plan);
     if (storeType != null) {
       StorageManager sm = StorageManager.getStorageManager(context.getConf(), storeType);
@@ -451,7 +471,7 @@ public class QueryExecutor {
     QueryManager queryManager = this.context.getQueryJobManager();
     QueryInfo queryInfo;
 
-    queryInfo = queryManager.scheduleQuery(session, queryContext, sql, jsonExpr, rootNode);
+    queryInfo = queryManager.scheduleQuery(session, queryContext, sql, jsonExpr, rootNode, pendingResult);
 
     if(queryInfo == null) {
       responseBuilder.setQueryId(QueryIdFactory.NULL_QUERY_ID.getProto());
@@ -471,6 +491,34 @@ public class QueryExecutor {
     }
   }
 
+  /**
+   * Serves the query from the files of a cached result, in the same way as a simple query.
+   */
+  private void execCachedQuery(QueryContext queryContext, Session session, String query, LogicalRootNode rootNode,
+                               TableDesc resultDesc, SubmitQueryResponse.Builder response) throws Exception {
+    QueryInfo queryInfo = context.getQueryJobManager().createNewSimpleQuery(queryContext, session, query, rootNode);
+    queryInfo.setResultDesc(resultDesc);
+
+    ScanNode scanNode;
+    if (resultDesc.hasPartition()) {
+      scanNode = LogicalPlan.createNodeWithoutPID(PartitionedTableScanNode.class);
+    } else {
+      scanNode = LogicalPlan.createNodeWithoutPID(ScanNode.class);
+    }
+    scanNode.init(resultDesc);
+
+    NonForwardQueryResultScanner queryResultScanner = new NonForwardQueryResultFileScanner(
+        context.getConf(), session.getSessionId(), queryInfo.getQueryId(), scanNode, resultDesc, Integer.MAX_VALUE);
+    queryResultScanner.init();
+    session.addNonForwardQueryResultScanner(queryResultScanner);
+
+    LOG.info("Query " + queryInfo.getQueryId() + "," + query + ", is served from the result cache");
+    response.setQueryId(queryInfo.getQueryId().getProto());
+    response.setMaxRowNum(Integer.MAX_VALUE);
+    response.setTableDesc(resultDesc.getProto());
+    response.setResultCode(ClientProtos.ResultCode.OK);
+  }
+
   public static MasterPlan compileMasterPlan(LogicalPlan plan, QueryContext context, GlobalPlanner planner)
       throws Exception {
 
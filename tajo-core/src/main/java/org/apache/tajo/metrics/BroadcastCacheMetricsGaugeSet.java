@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import org.apache.tajo.engine.utils.TableCache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Metrics of broadcast tables which are shared by queries in a worker.
+ */
+public class BroadcastCacheMetricsGaugeSet implements MetricSet {
+  private final TableCache tableCache;
+
+  public BroadcastCacheMetricsGaugeSet(TableCache tableCache) {
+    this.tableCache = tableCache;
+  }
+
+  @Override
+  public Map<String, Metric> getMetrics() {
+    Map<String, Metric> metricsMap = new HashMap<String, Metric>();
+    metricsMap.put("capacity", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return tableCache.getSharedCapacity();
+      }
+    });
+
+    metricsMap.put("used", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return tableCache.getSharedBytes();
+      }
+    });
+
+    metricsMap.put("tables", new Gauge<Integer>() {
+      @Override
+      public Integer getValue() {
+        return tableCache.getSharedCacheNum();
+      }
+    });
+
+    metricsMap.put("hits", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return tableCache.getHitNum();
+      }
+    });
+
+    metricsMap.put("misses", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return tableCache.getMissNum();
+      }
+    });
+
+    metricsMap.put("evictions", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return tableCache.getEvictionNum();
+      }
+    });
+
+    return metricsMap;
+  }
+}
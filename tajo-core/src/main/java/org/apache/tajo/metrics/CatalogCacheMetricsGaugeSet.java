@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import org.apache.tajo.catalog.AbstractCatalogClient;
+import org.apache.tajo.catalog.CatalogMetadataCache;
+import org.apache.tajo.catalog.CatalogService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Metrics of the metadata cache of a catalog client. It is empty if the catalog client does not have a cache.
+ */
+public class CatalogCacheMetricsGaugeSet implements MetricSet {
+  private final CatalogService catalog;
+
+  public CatalogCacheMetricsGaugeSet(CatalogService catalog) {
+    this.catalog = catalog;
+  }
+
+  @Override
+  public Map<String, Metric> getMetrics() {
+    Map<String, Metric> metricsMap = new HashMap<String, Metric>();
+    if (!(catalog instanceof AbstractCatalogClient)) {
+      return metricsMap;
+    }
+
+    final CatalogMetadataCache cache = ((AbstractCatalogClient) catalog).getMetadataCache();
+    if (cache == null) {
+      return metricsMap;
+    }
+
+    metricsMap.put("cacheHits", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return cache.getHitNum();
+      }
+    });
+
+    metricsMap.put("cacheMisses", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return cache.getMissNum();
+      }
+    });
+
+    metricsMap.put("cacheEntries", new Gauge<Integer>() {
+      @Override
+      public Integer getValue() {
+        return cache.size();
+      }
+    });
+
+    return metricsMap;
+  }
+}
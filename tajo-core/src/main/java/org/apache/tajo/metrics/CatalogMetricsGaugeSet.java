@@ -51,6 +51,8 @@ public class CatalogMetricsGaugeSet implements MetricSet {
       }
     });
 
+    metricsMap.putAll(new CatalogCacheMetricsGaugeSet(tajoMasterContext.getCatalog()).getMetrics());
+
     return metricsMap;
   }
 }
@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import org.apache.tajo.rpc.BlockingRpcServer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Handler metrics of blocking rpc servers, which show how many requests are waiting for handler threads.
+ */
+public class RpcServerMetricsGaugeSet implements MetricSet {
+  private final Map<String, BlockingRpcServer> servers;
+
+  public RpcServerMetricsGaugeSet(Map<String, BlockingRpcServer> servers) {
+    this.servers = servers;
+  }
+
+  @Override
+  public Map<String, Metric> getMetrics() {
+    Map<String, Metric> metricsMap = new HashMap<String, Metric>();
+    for (final Map.Entry<String, BlockingRpcServer> entry : servers.entrySet()) {
+      metricsMap.put(entry.getKey() + "HandlerQueueSize", new Gauge<Integer>() {
+        @Override
+        public Integer getValue() {
+          return entry.getValue() == null ? 0 : entry.getValue().getHandlerQueueSize();
+        }
+      });
+
+      metricsMap.put(entry.getKey() + "ActiveHandlers", new Gauge<Integer>() {
+        @Override
+        public Integer getValue() {
+          return entry.getValue() == null ? 0 : entry.getValue().getActiveHandlerNum();
+        }
+      });
+    }
+    return metricsMap;
+  }
+}
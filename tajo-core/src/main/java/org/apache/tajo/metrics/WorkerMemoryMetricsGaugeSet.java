@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import org.apache.tajo.worker.WorkerMemoryManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Metrics of the memory which operators of running tasks in a worker reserve.
+ */
+public class WorkerMemoryMetricsGaugeSet implements MetricSet {
+  private final WorkerMemoryManager memoryManager;
+
+  public WorkerMemoryMetricsGaugeSet(WorkerMemoryManager memoryManager) {
+    this.memoryManager = memoryManager;
+  }
+
+  @Override
+  public Map<String, Metric> getMetrics() {
+    Map<String, Metric> metricsMap = new HashMap<String, Metric>();
+    metricsMap.put("capacity", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return memoryManager.getCapacity();
+      }
+    });
+
+    metricsMap.put("used", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return memoryManager.getUsedMemory();
+      }
+    });
+
+    metricsMap.put("peak", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return memoryManager.getPeakMemory();
+      }
+    });
+
+    metricsMap.put("queries", new Gauge<Integer>() {
+      @Override
+      public Integer getValue() {
+        return memoryManager.getQueryMemoryUsages().size();
+      }
+    });
+
+    metricsMap.put("maxQueryUsed", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        long max = 0;
+        for (long used : memoryManager.getQueryMemoryUsages().values()) {
+          max = Math.max(max, used);
+        }
+        return max;
+      }
+    });
+
+    metricsMap.put("spillRequests", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return memoryManager.getSpillRequestNum();
+      }
+    });
+
+    metricsMap.put("refusedReservations", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return memoryManager.getRefusedNum();
+      }
+    });
+
+    return metricsMap;
+  }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.tajo.querymaster;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.commons.logging.Log;
@@ -130,6 +131,14 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     stopTaskRunnerReq = builder.build();
   }
 
+  /**
+   * Sends the tasks assigned to the request, followed by the terminal signal for the task runner.
+   */
+  private static void stopTaskRunner(TaskRequestEvent request) {
+    request.assign(stopTaskRunnerReq);
+    request.flush();
+  }
+
   @Override
   public void stop() {
     if(stopEventHandling.getAndSet(true)){
@@ -145,7 +154,7 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     // Return all of request callbacks instantly.
     if(taskRequests != null){
       for (TaskRequestEvent req : taskRequests.taskRequestQueue) {
-        req.getCallback().run(stopTaskRunnerReq);
+        stopTaskRunner(req);
       }
     }
 
@@ -271,6 +280,14 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     return scheduledObjectNum;
   }
 
+  /**
+   * @return The number of hosts which are preferred by non-leaf tasks waiting to be assigned
+   */
+  @VisibleForTesting
+  int getNonLeafTaskHostNum() {
+    return scheduledRequests.nonLeafTaskHostNum();
+  }
+
   private class TaskRequests implements EventHandler<TaskRequestEvent> {
     private final LinkedBlockingQueue<TaskRequestEvent> taskRequestQueue =
         new LinkedBlockingQueue<TaskRequestEvent>();
@@ -282,7 +299,7 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
       }
 
       if(stopEventHandling.get()) {
-        event.getCallback().run(stopTaskRunnerReq);
+        stopTaskRunner(event);
         return;
       }
       int qSize = taskRequestQueue.size();
@@ -602,6 +619,10 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     private final Set<TaskAttemptId> nonLeafTasks = Collections.synchronizedSet(new HashSet<TaskAttemptId>());
     private Map<String, HostVolumeMapping> leafTaskHostMapping = Maps.newConcurrentMap();
     private final Map<String, HashSet<TaskAttemptId>> leafTasksRackMapping = Maps.newConcurrentMap();
+    // pull server host -> non-leaf tasks fetching the largest volume of intermediate data from the host
+    private final Map<String, LinkedHashSet<TaskAttemptId>> nonLeafTaskHostMapping = Maps.newConcurrentMap();
+    // non-leaf task -> its preferred host in nonLeafTaskHostMapping
+    private final Map<TaskAttemptId, String> nonLeafTaskPreferredHosts = Maps.newHashMap();
 
     private synchronized void addLeafTask(TaskAttemptToSchedulerEvent event) {
       TaskAttempt taskAttempt = event.getTaskAttempt();
@@ -639,7 +660,90 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     }
 
     private void addNonLeafTask(TaskAttemptToSchedulerEvent event) {
-      nonLeafTasks.add(event.getTaskAttempt().getId());
+      TaskAttempt taskAttempt = event.getTaskAttempt();
+      String preferredHost = getPreferredHost(taskAttempt.getTask());
+      synchronized (nonLeafTasks) {
+        if (preferredHost != null) {
+          LinkedHashSet<TaskAttemptId> tasks = nonLeafTaskHostMapping.get(preferredHost);
+          if (tasks == null) {
+            tasks = new LinkedHashSet<TaskAttemptId>();
+            nonLeafTaskHostMapping.put(preferredHost, tasks);
+          }
+          tasks.add(taskAttempt.getId());
+          nonLeafTaskPreferredHosts.put(taskAttempt.getId(), preferredHost);
+        }
+        nonLeafTasks.add(taskAttempt.getId());
+      }
+    }
+
+    /**
+     * @return the pull server host which holds the largest volume of intermediate data fetched by the task
+     */
+    private String getPreferredHost(Task task) {
+      Map<String, Long> hostVolumes = new HashMap<String, Long>();
+      for (Set<FetchImpl> fetches : task.getFetches()) {
+        for (FetchImpl fetch : fetches) {
+          String host = fetch.getPullHost().getHost();
+          // a fetch without volume information is regarded as a unit volume
+          long volume = Math.max(1, fetch.getVolume());
+          Long sum = hostVolumes.get(host);
+          hostVolumes.put(host, sum == null ? volume : sum + volume);
+        }
+      }
+
+      String preferredHost = null;
+      long maxVolume = 0;
+      for (Entry<String, Long> entry : hostVolumes.entrySet()) {
+        if (entry.getValue() > maxVolume) {
+          preferredHost = entry.getKey();
+          maxVolume = entry.getValue();
+        }
+      }
+      return preferredHost;
+    }
+
+    /**
+     * It allocates a non-leaf task whose intermediate data are mostly located in the host.
+     * If there is no such task, it allocates any remaining task.
+     */
+    private TaskAttemptId allocateNonLeafTask(String host) {
+      synchronized (nonLeafTasks) {
+        LinkedHashSet<TaskAttemptId> localTasks = host == null ? null : nonLeafTaskHostMapping.get(host);
+        if (localTasks != null && !localTasks.isEmpty()) {
+          TaskAttemptId attemptId = localTasks.iterator().next();
+          removeNonLeafTask(attemptId);
+          hostLocalAssigned++;
+          return attemptId;
+        }
+
+        if (nonLeafTasks.isEmpty()) {
+          return null;
+        }
+        TaskAttemptId attemptId = nonLeafTasks.iterator().next();
+        removeNonLeafTask(attemptId);
+        return attemptId;
+      }
+    }
+
+    /**
+     * It removes an assigned task from all lists including the list of its preferred host.
+     */
+    private void removeNonLeafTask(TaskAttemptId attemptId) {
+      nonLeafTasks.remove(attemptId);
+      String preferredHost = nonLeafTaskPreferredHosts.remove(attemptId);
+      if (preferredHost != null) {
+        LinkedHashSet<TaskAttemptId> tasks = nonLeafTaskHostMapping.get(preferredHost);
+        tasks.remove(attemptId);
+        if (tasks.isEmpty()) {
+          nonLeafTaskHostMapping.remove(preferredHost);
+        }
+      }
+    }
+
+    private int nonLeafTaskHostNum() {
+      synchronized (nonLeafTasks) {
+        return nonLeafTaskHostMapping.size();
+      }
     }
 
     public int leafTaskNum() {
@@ -760,7 +864,7 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         ContainerProxy container = context.getMasterContext().getResourceAllocator()
             .getContainer(taskRequest.getContainerId());
         if(container == null) {
-          taskRequest.getCallback().run(stopTaskRunnerReq);
+          stopTaskRunner(taskRequest);
           continue;
         }
 
@@ -807,7 +911,11 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
             if(hostVolumeMapping.getRemoteConcurrency() > tailLimit){
               //release container
               hostVolumeMapping.decreaseConcurrency(containerId);
-              taskRequest.getCallback().run(stopTaskRunnerReq);
+              if (taskRequest.getAssignedNum() > 0) {
+                taskRequest.flush();
+              } else {
+                stopTaskRunner(taskRequest);
+              }
               continue;
             }
           }
@@ -840,7 +948,7 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
               new ArrayList<FragmentProto>(task.getAllFragments()),
               "",
               false,
-              LogicalNodeSerializer.serialize(task.getLogicalPlan()),
+              serializePlanIfNotShipped(task),
               context.getMasterContext().getQueryContext(),
               stage.getDataChannel(), stage.getBlock().getEnforcer());
           if (checkIfInterQuery(stage.getMasterPlan(), stage.getBlock())) {
@@ -852,11 +960,58 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
           assignedRequest.add(attemptId);
 
           scheduledObjectNum--;
-          taskRequest.getCallback().run(taskAssign.getProto());
+          taskRequest.assign(taskAssign.getProto());
+          if (leafTasks.size() > 0 &&
+              wantsMoreTasks(taskRequest, taskRequests.size() + remoteTaskRequests.size(), leafTaskNum())) {
+            // the same task runner will take the next task in the same way
+            taskRequests.addFirst(taskRequest);
+          } else {
+            taskRequest.flush();
+          }
         } else {
           throw new RuntimeException("Illegal State!!!!!!!!!!!!!!!!!!!!!");
         }
       }
+
+      for (TaskRequestEvent request : taskRequests) {
+        flushOrRequeue(request);
+      }
+      for (TaskRequestEvent request : remoteTaskRequests) {
+        flushOrRequeue(request);
+      }
+    }
+
+    /**
+     * A task runner can receive multiple tasks at once, but it receives at most its fair share of the tasks
+     * waiting to be assigned. Otherwise, task runners requesting tasks early would take the tail tasks of a stage,
+     * and the other requests would get nothing.
+     */
+    private boolean wantsMoreTasks(TaskRequestEvent taskRequest, int otherRequestNum, int waitingTaskNum) {
+      int pendingRequestNum = otherRequestNum + DefaultTaskScheduler.this.taskRequests.size() + 1;
+      int fairShare = Math.max(1, waitingTaskNum / pendingRequestNum);
+      return taskRequest.getAssignedNum() < Math.min(taskRequest.getMaxTasks(), fairShare);
+    }
+
+    /**
+     * Sends the tasks assigned to the request. A request without any task is put back into the request queue,
+     * because its task runner waits until it is answered.
+     */
+    private void flushOrRequeue(TaskRequestEvent taskRequest) {
+      if (taskRequest.getAssignedNum() > 0) {
+        taskRequest.flush();
+      } else {
+        DefaultTaskScheduler.this.taskRequests.handle(taskRequest);
+      }
+    }
+
+    /**
+     * Workers already have the plan of the execution block, so a task carries its plan only if it differs.
+     */
+    private PlanProto.LogicalNodeTree serializePlanIfNotShipped(Task task) {
+      if (stage.isShippedPlan(task.getLogicalPlan())) {
+        return null;
+      }
+      return LogicalNodeSerializer.serialize(task.getLogicalPlan());
     }
 
     private boolean checkIfInterQuery(MasterPlan masterPlan, ExecutionBlock block) {
@@ -880,14 +1035,12 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         taskRequest = taskRequests.pollFirst();
         LOG.debug("assignToNonLeafTasks: " + taskRequest.getExecutionBlockId());
 
-        TaskAttemptId attemptId;
-        // random allocation
-        if (nonLeafTasks.size() > 0) {
-          synchronized (nonLeafTasks){
-            attemptId = nonLeafTasks.iterator().next();
-            nonLeafTasks.remove(attemptId);
-          }
-          LOG.debug("Assigned based on * match");
+        WorkerConnectionInfo connectionInfo = context.getMasterContext().getResourceAllocator().
+            getWorkerConnectionInfo(taskRequest.getWorkerId());
+        // prefer a task whose intermediate data are mostly located in the requesting worker
+        TaskAttemptId attemptId = allocateNonLeafTask(connectionInfo == null ? null : connectionInfo.getHost());
+        if (attemptId != null) {
+          LOG.debug("Assigned based on intermediate data volume per host");
 
           Task task;
           task = stage.getTask(attemptId.getTaskId());
@@ -896,7 +1049,7 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
               Lists.newArrayList(task.getAllFragments()),
               "",
               false,
-              LogicalNodeSerializer.serialize(task.getLogicalPlan()),
+              serializePlanIfNotShipped(task),
               context.getMasterContext().getQueryContext(),
               stage.getDataChannel(),
               stage.getBlock().getEnforcer());
@@ -912,14 +1065,18 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
             }
           }
 
-          WorkerConnectionInfo connectionInfo = context.getMasterContext().getResourceAllocator().
-              getWorkerConnectionInfo(taskRequest.getWorkerId());
           context.getMasterContext().getEventHandler().handle(new TaskAttemptAssignedEvent(attemptId,
               taskRequest.getContainerId(), connectionInfo));
-          taskRequest.getCallback().run(taskAssign.getProto());
+          taskRequest.assign(taskAssign.getProto());
           totalAssigned++;
           scheduledObjectNum--;
+
+          if (nonLeafTaskNum() > 0 && wantsMoreTasks(taskRequest, taskRequests.size(), nonLeafTaskNum())) {
+            taskRequests.addFirst(taskRequest);
+            continue;
+          }
         }
+        flushOrRequeue(taskRequest);
       }
     }
   }
@@ -120,19 +120,21 @@ public class QueryMasterManagerService extends CompositeService
   }
 
   @Override
-  public void getTask(RpcController controller, TajoWorkerProtocol.GetTaskRequestProto request,
-                      RpcCallback<TajoWorkerProtocol.TaskRequestProto> done) {
+  public void getTasks(RpcController controller, TajoWorkerProtocol.GetTaskRequestProto request,
+                       RpcCallback<TajoWorkerProtocol.TaskRequestListProto> done) {
     try {
       ExecutionBlockId ebId = new ExecutionBlockId(request.getExecutionBlockId());
       QueryMasterTask queryMasterTask = workerContext.getQueryMaster().getQueryMasterTask(ebId.getQueryId());
 
       if(queryMasterTask == null || queryMasterTask.isStopped()) {
-        done.run(DefaultTaskScheduler.stopTaskRunnerReq);
+        done.run(TajoWorkerProtocol.TaskRequestListProto.newBuilder()
+            .addRequests(DefaultTaskScheduler.stopTaskRunnerReq).build());
       } else {
         TajoContainerId cid =
             queryMasterTask.getQueryTaskContext().getResourceAllocator().makeContainerId(request.getContainerId());
-        LOG.debug("getTask:" + cid + ", ebId:" + ebId);
-        queryMasterTask.handleTaskRequestEvent(new TaskRequestEvent(request.getWorkerId(), cid, ebId, done));
+        LOG.debug("getTasks:" + cid + ", ebId:" + ebId + ", maxTasks:" + request.getMaxTasks());
+        queryMasterTask.handleTaskRequestEvent(
+            new TaskRequestEvent(request.getWorkerId(), cid, ebId, request.getMaxTasks(), done));
       }
     } catch (Exception e) {
       LOG.error(e.getMessage(), e);
@@ -198,13 +200,15 @@ public class QueryMasterManagerService extends CompositeService
   }
 
   @Override
-  public void done(RpcController controller, TajoWorkerProtocol.TaskCompletionReport report,
+  public void done(RpcController controller, TajoWorkerProtocol.TaskCompletionReportList reports,
                    RpcCallback<PrimitiveProtos.BoolProto> done) {
     try {
-      QueryMasterTask queryMasterTask = queryMaster.getQueryMasterTask(
-          new QueryId(report.getId().getTaskId().getExecutionBlockId().getQueryId()));
-      if (queryMasterTask != null) {
-        queryMasterTask.getEventHandler().handle(new TaskCompletionEvent(report));
+      for (TajoWorkerProtocol.TaskCompletionReport report : reports.getReportsList()) {
+        QueryMasterTask queryMasterTask = queryMaster.getQueryMasterTask(
+            new QueryId(report.getId().getTaskId().getExecutionBlockId().getQueryId()));
+        if (queryMasterTask != null) {
+          queryMasterTask.getEventHandler().handle(new TaskCompletionEvent(report));
+        }
       }
       done.run(TajoWorker.TRUE_PROTO);
     } catch (Exception e) {
@@ -250,8 +254,7 @@ public class QueryMasterManagerService extends CompositeService
       queryMaster.handle(new QueryStartEvent(queryId,
           new Session(request.getSession()),
           new QueryContext(workerContext.getQueryMaster().getContext().getConf(),
-              request.getQueryContext()), request.getExprInJson().getValue(),
-          request.getLogicalPlanJson().getValue()));
+              request.getQueryContext()), request.getExprInJson().getValue()));
       done.run(TajoWorker.TRUE_PROTO);
     } catch (Exception e) {
       workerContext.getWorkerSystemMetrics().counter("querymaster", "errorQuery").inc();
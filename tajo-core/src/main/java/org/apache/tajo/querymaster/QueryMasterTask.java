@@ -318,6 +318,8 @@ public class QueryMasterTask extends CompositeService {
       CatalogService catalog = getQueryTaskContext().getQueryMasterContext().getWorkerContext().getCatalog();
       LogicalPlanner planner = new LogicalPlanner(catalog);
       LogicalOptimizer optimizer = new LogicalOptimizer(systemConf);
+      // The plan is built again from the expression even if the master used a cached plan.
+      // See PlanCache for the reason.
       Expr expr = JsonHelper.fromJson(jsonExpr, Expr.class);
       jsonExpr = null; // remove the possible OOM
       plan = planner.createPlan(queryContext, expr);
@@ -39,6 +39,7 @@ import org.apache.tajo.engine.planner.global.DataChannel;
 import org.apache.tajo.engine.planner.global.ExecutionBlock;
 import org.apache.tajo.engine.planner.global.GlobalPlanner;
 import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.engine.utils.TupleUtil;
 import org.apache.tajo.exception.InternalException;
 import org.apache.tajo.ipc.TajoWorkerProtocol.DistinctGroupbyEnforcer.MultipleAggregationStage;
@@ -432,14 +433,463 @@ public class Repartitioner {
     }
     Stage.scheduleFragment(stage, fragments[0], rightFragments);
 
-    // Assign partitions to tasks in a round robin manner.
-    for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> entry
-        : hashEntries.entrySet()) {
-      addJoinShuffle(stage, entry.getKey(), entry.getValue());
+    QueryContext queryContext = masterPlan.getContext();
+    long desiredTaskVolume = StorageUnit.MB * (long) desireJoinTaskVolumn;
+
+    // The sides whose partitions can be split into multiple tasks while the other side is replicated to them
+    List<ExecutionBlockId> splittableEbIds = new ArrayList<ExecutionBlockId>();
+    Map<ExecutionBlockId, Long> volumes = new HashMap<ExecutionBlockId, Long>();
+    if (broadcastScans == null && scans.length == 2) {
+      splittableEbIds = getSplittableBlocks(execBlock);
+      for (int i = 0; i < scans.length; i++) {
+        volumes.put(TajoIdUtils.createExecutionBlockId(scans[i].getTableName()), stats[i]);
+      }
+    }
+    boolean runtimeOptimization = queryContext.getBool(SessionVars.RUNTIME_OPTIMIZATION_ENABLED);
+
+    // If the actual volume of one side turns out to be small enough, the other side does not need to be
+    // joined partition by partition. The small side is replicated to every task instead.
+    ExecutionBlockId replicatedEbId = null;
+    if (!splittableEbIds.isEmpty() && runtimeOptimization &&
+        queryContext.getBool(SessionVars.TEST_BROADCAST_JOIN_ENABLED)) {
+      replicatedEbId = getRuntimeBroadcastBlock(splittableEbIds, volumes, hashEntries,
+          queryContext.getLong(SessionVars.BROADCAST_TABLE_SIZE_LIMIT));
+    }
+
+    int scheduledTaskNum = 0;
+    if (replicatedEbId != null) {
+      scheduledTaskNum = scheduleReplicatedJoin(stage, hashEntries, replicatedEbId, desiredTaskVolume);
+    } else {
+      // If the join type allows it, a skewed partition of one side is split into multiple tasks
+      // while the same partition of the other side is replicated to all of them.
+      ExecutionBlockId splittableEbId = null;
+      Set<Integer> skewedPartitions = new HashSet<Integer>();
+      if (!splittableEbIds.isEmpty() && queryContext.getBool(SessionVars.JOIN_SKEW_SPLIT_ENABLED)) {
+        splittableEbId = getLargestBlock(splittableEbIds, volumes);
+        skewedPartitions = findSkewedJoinPartitions(hashEntries, splittableEbId, desiredTaskVolume,
+            queryContext.getInt(SessionVars.JOIN_SKEW_FACTOR));
+      }
+
+      List<Integer> normalPartitions = new ArrayList<Integer>();
+      for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> entry
+          : hashEntries.entrySet()) {
+        if (skewedPartitions.contains(entry.getKey())) {
+          int splitNum = addSkewedJoinShuffle(stage, entry.getKey(), entry.getValue(), splittableEbId,
+              desiredTaskVolume);
+          if (splitNum > 1) {
+            execBlock.addRuntimeDecision("skewed partition " + entry.getKey() + " of " + splittableEbId
+                + " is split into " + splitNum + " tasks");
+          }
+          scheduledTaskNum += splitNum;
+        } else {
+          normalPartitions.add(entry.getKey());
+        }
+      }
+
+      if (runtimeOptimization) {
+        // Small partitions are coalesced into a task according to their actual volumes.
+        int coalescedTaskNum = scheduleCoalescedJoinPartitions(stage, normalPartitions, hashEntries,
+            desiredTaskVolume);
+        if (coalescedTaskNum < normalPartitions.size()) {
+          execBlock.addRuntimeDecision(normalPartitions.size() + " join partitions are coalesced into "
+              + coalescedTaskNum + " tasks");
+        }
+        scheduledTaskNum += coalescedTaskNum;
+      } else {
+        // Assign partitions to tasks in a round robin manner.
+        for (Integer eachPartId : normalPartitions) {
+          addJoinShuffle(stage, eachPartId, hashEntries.get(eachPartId));
+        }
+        scheduledTaskNum += normalPartitions.size();
+      }
+    }
+
+    schedulerContext.setTaskSize((int) Math.ceil((double) bothFetchSize / Math.max(1, scheduledTaskNum)));
+    schedulerContext.setEstimatedTaskNum(scheduledTaskNum);
+  }
+
+  /**
+   * It returns the child blocks whose partitions can be split into multiple tasks. The partitions of
+   * the other side are replicated to the split tasks, so the other side must not be a row-preserved relation.
+   *
+   * @return the execution block ids of splittable sides. If both sides are not splittable, it returns an empty list.
+   */
+  private static List<ExecutionBlockId> getSplittableBlocks(ExecutionBlock execBlock) {
+    List<ExecutionBlockId> splittableEbIds = new ArrayList<ExecutionBlockId>();
+    JoinNode joinNode = PlannerUtil.findTopNode(execBlock.getPlan(), NodeType.JOIN);
+    if (joinNode == null) {
+      return splittableEbIds;
+    }
+    ScanNode leftScan = PlannerUtil.findTopNode(joinNode.getLeftChild(), NodeType.SCAN);
+    ScanNode rightScan = PlannerUtil.findTopNode(joinNode.getRightChild(), NodeType.SCAN);
+    if (leftScan == null || rightScan == null) {
+      return splittableEbIds;
+    }
+
+    ExecutionBlockId leftEbId = TajoIdUtils.createExecutionBlockId(leftScan.getTableName());
+    ExecutionBlockId rightEbId = TajoIdUtils.createExecutionBlockId(rightScan.getTableName());
+    switch (joinNode.getJoinType()) {
+    case INNER:
+    case CROSS:
+      splittableEbIds.add(leftEbId);
+      splittableEbIds.add(rightEbId);
+      break;
+    case LEFT_OUTER:
+    case LEFT_SEMI:
+    case LEFT_ANTI:
+      splittableEbIds.add(leftEbId);
+      break;
+    case RIGHT_OUTER:
+    case RIGHT_SEMI:
+    case RIGHT_ANTI:
+      splittableEbIds.add(rightEbId);
+      break;
+    default:
+      break;
+    }
+    return splittableEbIds;
+  }
+
+  private static ExecutionBlockId getLargestBlock(List<ExecutionBlockId> ebIds, Map<ExecutionBlockId, Long> volumes) {
+    ExecutionBlockId largestEbId = null;
+    long largestVolume = -1;
+    for (ExecutionBlockId eachEbId : ebIds) {
+      long volume = volumes.containsKey(eachEbId) ? volumes.get(eachEbId) : 0;
+      if (volume > largestVolume) {
+        largestEbId = eachEbId;
+        largestVolume = volume;
+      }
+    }
+    return largestEbId;
+  }
+
+  /**
+   * The maximum number of fetches of a replicated side in a single task. It prevents every task from sending
+   * too many http requests for a small but widely scattered intermediate data.
+   */
+  private final static int MAX_REPLICATED_FETCH_NUM = 256;
+
+  /**
+   * If the actual volume of the non-splittable side is smaller than the broadcast threshold,
+   * the join can be executed like a broadcast join at runtime.
+   *
+   * @return the execution block id of the side to be replicated, or null if it is not possible.
+   */
+  private static ExecutionBlockId getRuntimeBroadcastBlock(
+      List<ExecutionBlockId> splittableEbIds, Map<ExecutionBlockId, Long> volumes,
+      Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> hashEntries, long broadcastSizeLimit) {
+    ExecutionBlockId largeEbId = getLargestBlock(splittableEbIds, volumes);
+    ExecutionBlockId smallEbId = null;
+    for (ExecutionBlockId eachEbId : volumes.keySet()) {
+      if (!eachEbId.equals(largeEbId)) {
+        smallEbId = eachEbId;
+      }
+    }
+    if (largeEbId == null || smallEbId == null || volumes.get(smallEbId) > broadcastSizeLimit) {
+      return null;
+    }
+
+    int fetchNum = 0;
+    for (Map<ExecutionBlockId, List<IntermediateEntry>> eachPartition : hashEntries.values()) {
+      List<IntermediateEntry> entries = eachPartition.get(smallEbId);
+      if (entries != null) {
+        fetchNum += hashByHost(entries).size();
+      }
+    }
+    if (fetchNum > MAX_REPLICATED_FETCH_NUM) {
+      LOG.info(smallEbId + " is not replicated at runtime because it requires " + fetchNum + " fetches");
+      return null;
+    }
+    return smallEbId;
+  }
+
+  /**
+   * All intermediate data of the replicated side are fetched by every task, and the intermediate data of
+   * the other side are evenly distributed into tasks regardless of their partitions.
+   *
+   * @return the number of scheduled tasks
+   */
+  private static int scheduleReplicatedJoin(Stage stage,
+                                            Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> hashEntries,
+                                            ExecutionBlockId replicatedEbId, long desiredTaskVolume) {
+    ExecutionBlockId splittableEbId = null;
+    List<FetchImpl> replicatedFetches = new ArrayList<FetchImpl>();
+    List<IntermediateEntry> splittableEntries = new ArrayList<IntermediateEntry>();
+    long replicatedVolume = 0;
+    for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> eachPartition : hashEntries.entrySet()) {
+      for (Entry<ExecutionBlockId, List<IntermediateEntry>> entry : eachPartition.getValue().entrySet()) {
+        if (entry.getValue().isEmpty()) {
+          continue;
+        }
+        if (entry.getKey().equals(replicatedEbId)) {
+          replicatedFetches.addAll(mergeShuffleRequest(eachPartition.getKey(), HASH_SHUFFLE, entry.getValue()));
+          replicatedVolume += getTotalVolume(entry.getValue());
+        } else {
+          splittableEbId = entry.getKey();
+          splittableEntries.addAll(entry.getValue());
+        }
+      }
+    }
+
+    if (splittableEbId == null) {
+      LOG.info(stage.getId() + " has no intermediate data to be joined with " + replicatedEbId);
+      return 0;
+    }
+
+    Map<String, List<FetchImpl>> replicated = new HashMap<String, List<FetchImpl>>();
+    if (!replicatedFetches.isEmpty()) {
+      replicated.put(replicatedEbId.toString(), replicatedFetches);
+    }
+    List<List<FetchImpl>> splitFetches = splitIntermediateEntries(splittableEntries, desiredTaskVolume);
+    scheduleSplitFetches(stage, splittableEbId, splitFetches, replicated);
+
+    stage.getBlock().addRuntimeDecision(replicatedEbId + " (" + replicatedVolume + " bytes) is replicated to "
+        + splitFetches.size() + " tasks instead of repartition join");
+    LOG.info(stage.getId() + ", " + replicatedEbId + " (" + replicatedVolume + " bytes) is replicated to "
+        + splitFetches.size() + " tasks instead of repartition join");
+    return splitFetches.size();
+  }
+
+  /**
+   * It groups partitions into tasks so that each task has an input volume close to the desired task volume.
+   * A partition larger than the desired task volume is assigned to a single task.
+   *
+   * @return the number of scheduled tasks
+   */
+  private static int scheduleCoalescedJoinPartitions(Stage stage, List<Integer> partitionIds,
+      Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> hashEntries, long desiredTaskVolume) {
+    Map<Integer, Long> partitionVolumes = new HashMap<Integer, Long>();
+    for (Integer eachPartId : partitionIds) {
+      long volume = 0;
+      for (List<IntermediateEntry> eachEntries : hashEntries.get(eachPartId).values()) {
+        volume += getTotalVolume(eachEntries);
+      }
+      partitionVolumes.put(eachPartId, volume);
+    }
+
+    int scheduledTaskNum = 0;
+    for (List<Integer> eachGroup : coalescePartitions(partitionVolumes, desiredTaskVolume)) {
+      Map<String, List<FetchImpl>> fetches = new HashMap<String, List<FetchImpl>>();
+      for (Integer eachPartId : eachGroup) {
+        for (Entry<ExecutionBlockId, List<IntermediateEntry>> entry : hashEntries.get(eachPartId).entrySet()) {
+          if (!entry.getValue().isEmpty()) {
+            TUtil.putCollectionToNestedList(fetches, entry.getKey().toString(),
+                mergeShuffleRequest(eachPartId, HASH_SHUFFLE, entry.getValue()));
+          }
+        }
+      }
+
+      if (fetches.isEmpty()) {
+        LOG.info(stage.getId() + "'s " + eachGroup + " partitions have empty result.");
+        continue;
+      }
+      Stage.scheduleFetches(stage, fetches);
+      scheduledTaskNum++;
+    }
+    return scheduledTaskNum;
+  }
+
+  /**
+   * It packs partitions into groups in a descending order of volumes. A new group is started when
+   * the current group would exceed the desired volume.
+   *
+   * @return groups of partition ids
+   */
+  @VisibleForTesting
+  public static List<List<Integer>> coalescePartitions(final Map<Integer, Long> partitionVolumes,
+                                                       long desiredVolume) {
+    List<Integer> sortedPartitionIds = new ArrayList<Integer>(partitionVolumes.keySet());
+    Collections.sort(sortedPartitionIds, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        long v1 = partitionVolumes.get(o1);
+        long v2 = partitionVolumes.get(o2);
+        return v1 < v2 ? 1 : (v1 > v2 ? -1 : o1.compareTo(o2));
+      }
+    });
+
+    List<List<Integer>> groups = new ArrayList<List<Integer>>();
+    List<Integer> currentGroup = new ArrayList<Integer>();
+    long currentVolume = 0;
+    for (Integer eachPartId : sortedPartitionIds) {
+      long volume = partitionVolumes.get(eachPartId);
+      if (!currentGroup.isEmpty() && currentVolume + volume > desiredVolume) {
+        groups.add(currentGroup);
+        currentGroup = new ArrayList<Integer>();
+        currentVolume = 0;
+      }
+      currentGroup.add(eachPartId);
+      currentVolume += volume;
+    }
+    if (!currentGroup.isEmpty()) {
+      groups.add(currentGroup);
+    }
+    return groups;
+  }
+
+  /**
+   * A partition is regarded as skewed if it is larger than the desired task volume and it is larger than
+   * the median partition volume multiplied by $JOIN_SKEW_FACTOR, or if a single shuffle key occupies
+   * at least the half of the partition.
+   */
+  @VisibleForTesting
+  public static Set<Integer> findSkewedJoinPartitions(
+      Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> hashEntries,
+      ExecutionBlockId splittableEbId, long desiredTaskVolume, int skewFactor) {
+    Map<Integer, Long> partitionVolumes = new HashMap<Integer, Long>();
+    for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> entry : hashEntries.entrySet()) {
+      List<IntermediateEntry> splittableEntries = entry.getValue().get(splittableEbId);
+      if (splittableEntries != null && !splittableEntries.isEmpty()) {
+        partitionVolumes.put(entry.getKey(), getTotalVolume(splittableEntries));
+      }
+    }
+
+    Set<Integer> skewedPartitions = new HashSet<Integer>();
+    if (partitionVolumes.isEmpty()) {
+      return skewedPartitions;
+    }
+
+    List<Long> sortedVolumes = new ArrayList<Long>(partitionVolumes.values());
+    Collections.sort(sortedVolumes);
+    long medianVolume = sortedVolumes.get(sortedVolumes.size() / 2);
+
+    for (Entry<Integer, Long> entry : partitionVolumes.entrySet()) {
+      long volume = entry.getValue();
+      if (volume <= desiredTaskVolume) {
+        continue;
+      }
+
+      List<IntermediateEntry> splittableEntries = hashEntries.get(entry.getKey()).get(splittableEbId);
+      Pair<Integer, Double> hotKey = getHottestKey(splittableEntries);
+      if (volume > medianVolume * skewFactor || hotKey.getSecond() >= 0.5) {
+        skewedPartitions.add(entry.getKey());
+        LOG.info(splittableEbId + ", Skewed join partition=" + entry.getKey() + ", volume=" + volume
+            + ", median volume=" + medianVolume + ", hottest key hash=" + hotKey.getFirst()
+            + ", hottest key ratio=" + String.format("%.2f", hotKey.getSecond()));
+      }
+    }
+    return skewedPartitions;
+  }
+
+  private static long getTotalVolume(List<IntermediateEntry> entries) {
+    long volume = 0;
+    for (IntermediateEntry eachEntry : entries) {
+      volume += eachEntry.getVolume();
+    }
+    return volume;
+  }
+
+  /**
+   * @return a pair of the hottest key hash and the ratio of its rows to the rows of the partition
+   */
+  private static Pair<Integer, Double> getHottestKey(List<IntermediateEntry> entries) {
+    long numRows = 0;
+    Map<Integer, Long> hotKeyRows = new HashMap<Integer, Long>();
+    for (IntermediateEntry eachEntry : entries) {
+      numRows += eachEntry.getNumRows();
+      for (Entry<Integer, Long> eachHotKey : eachEntry.getHotKeyRows().entrySet()) {
+        Long rows = hotKeyRows.get(eachHotKey.getKey());
+        hotKeyRows.put(eachHotKey.getKey(), rows == null ? eachHotKey.getValue() : rows + eachHotKey.getValue());
+      }
     }
 
-    schedulerContext.setTaskSize((int) Math.ceil((double) bothFetchSize / joinTaskNum));
-    schedulerContext.setEstimatedTaskNum(joinTaskNum);
+    Integer hottestKey = null;
+    long hottestRows = 0;
+    for (Entry<Integer, Long> eachHotKey : hotKeyRows.entrySet()) {
+      if (eachHotKey.getValue() > hottestRows) {
+        hottestKey = eachHotKey.getKey();
+        hottestRows = eachHotKey.getValue();
+      }
+    }
+    return new Pair<Integer, Double>(hottestKey, numRows == 0 ? 0.0d : (double) hottestRows / numRows);
+  }
+
+  /**
+   * It splits the intermediate data of a splittable side into page-aligned ranges and groups them into tasks
+   * according to the desired task volume. The intermediate data of the other side are fetched by every task.
+   *
+   * @return the number of scheduled tasks
+   */
+  private static int addSkewedJoinShuffle(Stage stage, int partitionId,
+                                          Map<ExecutionBlockId, List<IntermediateEntry>> grouppedPartitions,
+                                          ExecutionBlockId splittableEbId, long desiredTaskVolume) {
+    Map<String, List<FetchImpl>> replicatedFetches = new HashMap<String, List<FetchImpl>>();
+    for (Entry<ExecutionBlockId, List<IntermediateEntry>> entry : grouppedPartitions.entrySet()) {
+      if (!entry.getKey().equals(splittableEbId) && !entry.getValue().isEmpty()) {
+        replicatedFetches.put(entry.getKey().toString(),
+            Lists.newArrayList(mergeShuffleRequest(partitionId, HASH_SHUFFLE, entry.getValue())));
+      }
+    }
+
+    List<List<FetchImpl>> splitFetches =
+        splitIntermediateEntries(grouppedPartitions.get(splittableEbId), desiredTaskVolume);
+
+    // a partition consisting of a single page cannot be split
+    if (splitFetches.size() <= 1) {
+      addJoinShuffle(stage, partitionId, grouppedPartitions);
+      return 1;
+    }
+
+    scheduleSplitFetches(stage, splittableEbId, splitFetches, replicatedFetches);
+    LOG.info(stage.getId() + "'s skewed partition " + partitionId + " is split into " + splitFetches.size()
+        + " tasks");
+    return splitFetches.size();
+  }
+
+  /**
+   * It splits intermediate entries into page-aligned ranges and groups the ranges by the desired task volume.
+   *
+   * @return a list of fetches for each task
+   */
+  private static List<List<FetchImpl>> splitIntermediateEntries(List<IntermediateEntry> entries,
+                                                                long desiredTaskVolume) {
+    List<List<FetchImpl>> splitFetches = new ArrayList<List<FetchImpl>>();
+    List<FetchImpl> fetchListForSingleTask = new ArrayList<FetchImpl>();
+    long fetchListVolume = 0;
+    for (IntermediateEntry eachEntry : entries) {
+      for (Pair<Long, Long> eachSplit : eachEntry.split(desiredTaskVolume, desiredTaskVolume)) {
+        if (fetchListVolume > 0 && fetchListVolume + eachSplit.getSecond() > desiredTaskVolume) {
+          splitFetches.add(fetchListForSingleTask);
+          fetchListForSingleTask = new ArrayList<FetchImpl>();
+          fetchListVolume = 0;
+        }
+        FetchImpl fetch = new FetchImpl(eachEntry.getPullHost(), HASH_SHUFFLE, eachEntry.getEbId(),
+            eachEntry.getPartId(), TUtil.newList(eachEntry));
+        fetch.setOffset(eachSplit.getFirst());
+        fetch.setLength(eachSplit.getSecond());
+        fetch.setVolume(eachSplit.getSecond());
+        fetchListForSingleTask.add(fetch);
+        fetchListVolume += eachSplit.getSecond();
+      }
+    }
+    if (!fetchListForSingleTask.isEmpty()) {
+      splitFetches.add(fetchListForSingleTask);
+    }
+    return splitFetches;
+  }
+
+  /**
+   * It schedules a task for each split of a splittable side. Each task also fetches a copy of replicated fetches.
+   */
+  private static void scheduleSplitFetches(Stage stage, ExecutionBlockId splittableEbId,
+                                           List<List<FetchImpl>> splitFetches,
+                                           Map<String, List<FetchImpl>> replicatedFetches) {
+    for (List<FetchImpl> eachSplitFetches : splitFetches) {
+      Map<String, List<FetchImpl>> fetches = new HashMap<String, List<FetchImpl>>();
+      fetches.put(splittableEbId.toString(), eachSplitFetches);
+      for (Entry<String, List<FetchImpl>> entry : replicatedFetches.entrySet()) {
+        List<FetchImpl> copies = new ArrayList<FetchImpl>();
+        for (FetchImpl eachFetch : entry.getValue()) {
+          try {
+            copies.add(eachFetch.clone());
+          } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+          }
+        }
+        fetches.put(entry.getKey(), copies);
+      }
+      Stage.scheduleFetches(stage, fetches);
+    }
   }
 
   /**
@@ -608,10 +1058,12 @@ public class Repartitioner {
       if (mergedPartitions.containsKey(mergedKey)) {
         FetchImpl fetch = mergedPartitions.get(mergedKey);
         fetch.addPart(partition.getTaskId(), partition.getAttemptId());
+        fetch.setVolume(fetch.getVolume() + partition.getVolume());
       } else {
         // In some cases like union each IntermediateEntry has different EBID.
         FetchImpl fetch = new FetchImpl(partition.getPullHost(), type, partition.getEbId(), partitionId);
         fetch.addPart(partition.getTaskId(), partition.getAttemptId());
+        fetch.setVolume(partition.getVolume());
         mergedPartitions.put(mergedKey, fetch);
       }
     }
@@ -853,6 +1305,7 @@ public class Repartitioner {
           for (IntermediateEntry ie : e.getValue()) {
             volumeSum += ie.getVolume();
           }
+          fetch.setVolume(volumeSum);
 
           if (finalFetches.containsKey(interm.getKey())) {
             finalFetches.get(interm.getKey()).addFetche(fetch).increaseVolume(volumeSum);
@@ -913,6 +1366,10 @@ public class Repartitioner {
       // divide fetch uris into the the proper number of tasks according to volumes
       scheduleFetchesByEvenDistributedVolumes(stage, finalFetches, scan.getTableName(), determinedTaskNum);
       LOG.info(stage.getId() + ", DeterminedTaskNum : " + determinedTaskNum);
+      if (determinedTaskNum < finalFetches.size()) {
+        stage.getBlock().addRuntimeDecision(finalFetches.size() + " shuffle partitions are coalesced into "
+            + determinedTaskNum + " tasks by their actual volumes");
+      }
     }
   }
 
@@ -1093,6 +1550,7 @@ public class Repartitioner {
             ebId, currentInterm.getPartId(), TUtil.newList(currentInterm));
         fetch.setOffset(eachSplit.getFirst());
         fetch.setLength(eachSplit.getSecond());
+        fetch.setVolume(eachSplit.getSecond());
         fetchListForSingleTask.add(fetch);
         fetchListVolume += eachSplit.getSecond();
       }
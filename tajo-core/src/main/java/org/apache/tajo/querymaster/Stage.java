@@ -39,7 +39,6 @@ import org.apache.tajo.catalog.statistics.ColumnStats;
 import org.apache.tajo.catalog.statistics.StatisticsUtil;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
-import org.apache.tajo.engine.json.CoreGsonHelper;
 import org.apache.tajo.engine.planner.PhysicalPlannerImpl;
 import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.engine.planner.global.DataChannel;
@@ -58,6 +57,8 @@ import org.apache.tajo.master.container.TajoContainerId;
 import org.apache.tajo.master.event.*;
 import org.apache.tajo.master.event.TaskAttemptToSchedulerEvent.TaskAttemptScheduleContext;
 import org.apache.tajo.plan.logical.*;
+import org.apache.tajo.plan.serder.LogicalNodeSerializer;
+import org.apache.tajo.plan.serder.PlanProto.LogicalNodeTree;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.querymaster.Task.IntermediateEntry;
 import org.apache.tajo.storage.FileStorageManager;
@@ -312,6 +313,10 @@ public class Stage implements EventHandler<StageEvent> {
   private AtomicBoolean stopShuffleReceiver = new AtomicBoolean();
   private StageHistory finalStageHistory;
 
+  // the plan shipped to workers once per execution block, and its serialized form
+  private LogicalNode shippedPlan;
+  private LogicalNodeTree serializedPlan;
+
   public Stage(QueryMasterTask.QueryMasterTaskContext context, MasterPlan masterPlan, ExecutionBlock block) {
     this.context = context;
     this.masterPlan = masterPlan;
@@ -431,6 +436,35 @@ public class Stage implements EventHandler<StageEvent> {
     return block;
   }
 
+  /**
+   * Serializes the plan of this execution block only once, and returns the same tree whenever task runners are
+   * launched. Workers cache it per execution block, so tasks running this plan do not need to carry it.
+   */
+  public synchronized LogicalNodeTree getSerializedPlan() {
+    if (serializedPlan == null) {
+      long startTime = System.currentTimeMillis();
+      shippedPlan = block.getPlan();
+      serializedPlan = LogicalNodeSerializer.serialize(shippedPlan);
+      LOG.info(getId() + " plan is serialized into " + serializedPlan.getSerializedSize() + " bytes ("
+          + (System.currentTimeMillis() - startTime) + " msec)");
+    }
+    return serializedPlan;
+  }
+
+  /**
+   * @return True if the plan was shipped to workers with task runners of this stage
+   */
+  public synchronized boolean isShippedPlan(LogicalNode plan) {
+    return shippedPlan != null && shippedPlan == plan;
+  }
+
+  /**
+   * @return The size in bytes of the serialized plan, or 0 if it is not serialized yet
+   */
+  public synchronized int getSerializedPlanSize() {
+    return serializedPlan == null ? 0 : serializedPlan.getSerializedSize();
+  }
+
   public void addTask(Task task) {
     tasks.put(task.getId(), task);
   }
@@ -462,6 +496,8 @@ public class Stage implements EventHandler<StageEvent> {
 
     stageHistory.setExecutionBlockId(getId().toString());
     stageHistory.setPlan(PlannerUtil.buildExplainString(block.getPlan()));
+    stageHistory.setRuntimeDecisions(block.getRuntimeDecisions());
+    stageHistory.setSerializedPlanSize(getSerializedPlanSize());
     stageHistory.setState(getState().toString());
     stageHistory.setStartTime(startTime);
     stageHistory.setFinishTime(finishTime);
@@ -1180,7 +1216,7 @@ public class Stage implements EventHandler<StageEvent> {
         stage.eventHandler.handle(
             new LaunchTaskRunnersEvent(stage.getId(), allocationEvent.getAllocatedContainer(),
                 stage.getContext().getQueryContext(),
-                CoreGsonHelper.toJson(stage.getBlock().getPlan(), LogicalNode.class))
+                stage.getSerializedPlan())
         );
 
         stage.eventHandler.handle(new StageEvent(stage.getId(), StageEventType.SQ_START));
@@ -41,6 +41,7 @@ import org.apache.tajo.master.event.*;
 import org.apache.tajo.master.event.TaskAttemptToSchedulerEvent.TaskAttemptScheduleContext;
 import org.apache.tajo.plan.logical.*;
 import org.apache.tajo.storage.DataLocation;
+import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
@@ -327,11 +328,44 @@ public class Task implements EventHandler<TaskEvent> {
     if (fragment instanceof FileFragment) {
       diskIds = ((FileFragment)fragment).getDiskIds();
     }
+
+    if (hosts.length > 1 && isInMemoryCached(fragment)) {
+      // a fragment of a cached table is always scheduled to the same replica host, which keeps it in memory
+      int i = getCacheHostIndex((FileFragment) fragment);
+      dataLocations.add(new DataLocation(hosts[i], diskIds == null ? -1 : diskIds[i]));
+      return;
+    }
+
     for (int i = 0; i < hosts.length; i++) {
       dataLocations.add(new DataLocation(hosts[i], diskIds == null ? -1 : diskIds[i]));
     }
   }
 
+  private boolean isInMemoryCached(Fragment fragment) {
+    if (!(fragment instanceof FileFragment)) {
+      return false;
+    }
+    for (ScanNode eachScan : scan) {
+      if (eachScan.getCanonicalName().equals(fragment.getTableName())) {
+        return Boolean.parseBoolean(
+            eachScan.getTableDesc().getMeta().getOption(StorageConstants.IN_MEMORY_CACHE, "false"));
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return The index of the host chosen by the fragment regardless of the order of hosts
+   */
+  private static int getCacheHostIndex(FileFragment fragment) {
+    String[] hosts = fragment.getHosts();
+    String[] sortedHosts = hosts.clone();
+    Arrays.sort(sortedHosts);
+    int hash = (fragment.getPath().toString() + ":" + fragment.getStartKey()).hashCode();
+    String chosen = sortedHosts[(hash & Integer.MAX_VALUE) % sortedHosts.length];
+    return Arrays.asList(hosts).indexOf(chosen);
+  }
+
   public void addFragment(Fragment fragment, boolean useDataLocation) {
     Set<FragmentProto> fragmentProtos;
     if (fragMap.containsKey(fragment.getTableName())) {
@@ -787,6 +821,9 @@ public class Task implements EventHandler<TaskEvent> {
     long volume;
     List<Pair<Long, Integer>> pages;
     List<Pair<Long, Pair<Integer, Integer>>> failureRowNums;
+    long numRows;
+    //<key hash, row num> of heavy-hitter shuffle keys
+    Map<Integer, Long> hotKeyRows = new HashMap<Integer, Long>();
 
     public IntermediateEntry(IntermediateEntryProto proto) {
       this.ebId = new ExecutionBlockId(proto.getEbId());
@@ -809,6 +846,11 @@ public class Task implements EventHandler<TaskEvent> {
       for (IntermediateEntryProto.PageProto eachPage: proto.getPagesList()) {
         pages.add(new Pair(eachPage.getPos(), eachPage.getLength()));
       }
+
+      this.numRows = proto.getNumRows();
+      for (IntermediateEntryProto.HotKeyProto eachHotKey: proto.getHotKeysList()) {
+        hotKeyRows.put(eachHotKey.getKeyHash(), eachHotKey.getNumRows());
+      }
     }
 
     public IntermediateEntry(int taskId, int attemptId, int partId, PullHost host) {
@@ -870,6 +912,14 @@ public class Task implements EventHandler<TaskEvent> {
       return failureRowNums;
     }
 
+    public long getNumRows() {
+      return numRows;
+    }
+
+    public Map<Integer, Long> getHotKeyRows() {
+      return hotKeyRows;
+    }
+
     @Override
     public int hashCode() {
       return Objects.hashCode(ebId, taskId, partId, attemptId, host);
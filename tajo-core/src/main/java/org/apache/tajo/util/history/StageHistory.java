@@ -66,6 +66,10 @@ public class StageHistory implements GsonObject {
   private int hostLocalAssigned;
   @Expose
   private int rackLocalAssigned;
+  @Expose
+  private List<String> runtimeDecisions;
+  @Expose
+  private int serializedPlanSize;
 
   private List<TaskHistory> tasks;
 
@@ -181,6 +185,22 @@ public class StageHistory implements GsonObject {
     this.plan = plan;
   }
 
+  public List<String> getRuntimeDecisions() {
+    return runtimeDecisions;
+  }
+
+  public void setRuntimeDecisions(List<String> runtimeDecisions) {
+    this.runtimeDecisions = runtimeDecisions;
+  }
+
+  public int getSerializedPlanSize() {
+    return serializedPlanSize;
+  }
+
+  public void setSerializedPlanSize(int serializedPlanSize) {
+    this.serializedPlanSize = serializedPlanSize;
+  }
+
   public int getHostLocalAssigned() {
     return hostLocalAssigned;
   }
@@ -263,7 +283,8 @@ public class StageHistory implements GsonObject {
 
       .setPlan(plan)
       .setHostLocalAssigned(hostLocalAssigned)
-      .setRackLocalAssigned(rackLocalAssigned);
+      .setRackLocalAssigned(rackLocalAssigned)
+      .setSerializedPlanSize(serializedPlanSize);
 
     return builder.build();
   }
@@ -50,6 +50,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -71,7 +72,7 @@ public class ExecutionBlockContext {
   private ExecutionBlockId executionBlockId;
   private QueryContext queryContext;
   private TajoWorker.WorkerContext workerContext;
-  private String plan;
+  private PlanProto.LogicalNodeTree plan;
 
   private ExecutionBlockSharedResource resource;
 
@@ -94,8 +95,12 @@ public class ExecutionBlockContext {
 
   private final ConcurrentMap<String, TaskRunnerHistory> histories = Maps.newConcurrentMap();
 
+  // the completion reports of tasks, which are not sent to the query master yet
+  private final List<TaskCompletionReport> completionReports = Lists.newArrayList();
+
   public ExecutionBlockContext(TajoConf conf, TajoWorker.WorkerContext workerContext,
-                               TaskRunnerManager manager, QueryContext queryContext, String plan,
+                               TaskRunnerManager manager, QueryContext queryContext,
+                               PlanProto.LogicalNodeTree plan,
                                ExecutionBlockId executionBlockId, WorkerConnectionInfo queryMaster,
                                PlanProto.ShuffleType shuffleType) throws Throwable {
     this.manager = manager;
@@ -137,6 +142,10 @@ public class ExecutionBlockContext {
     // resource intiailization
     try{
       this.resource.initialize(queryContext, plan);
+      if (workerContext != null) {
+        workerContext.getWorkerSystemMetrics().histogram("query", "planDecodeTime")
+            .update(resource.getPlanDecodeTime());
+      }
     } catch (Throwable e) {
       try {
         NettyClientBase client = getQueryMasterConnection();
@@ -163,6 +172,8 @@ public class ExecutionBlockContext {
       return;
     }
 
+    flushCompletionReports();
+
     try {
       reporter.stop();
     } catch (InterruptedException e) {
@@ -186,6 +197,41 @@ public class ExecutionBlockContext {
     resource.release();
   }
 
+  /**
+   * Keeps the completion report of a task. Kept reports are sent to the query master at once by
+   * {@link #flushCompletionReports()}.
+   */
+  public void addCompletionReport(TaskCompletionReport report) {
+    synchronized (completionReports) {
+      completionReports.add(report);
+    }
+  }
+
+  public int getPendingCompletionReportNum() {
+    synchronized (completionReports) {
+      return completionReports.size();
+    }
+  }
+
+  public void flushCompletionReports() {
+    TaskCompletionReportList reports;
+    synchronized (completionReports) {
+      if (completionReports.isEmpty()) {
+        return;
+      }
+      reports = TaskCompletionReportList.newBuilder().addAllReports(completionReports).build();
+      completionReports.clear();
+    }
+
+    try {
+      NettyClientBase client = getQueryMasterConnection();
+      QueryMasterProtocol.QueryMasterProtocolService.Interface stub = client.getStub();
+      stub.done(null, reports, NullCallback.get());
+    } catch (Throwable t) {
+      LOG.error("Cannot report " + reports.getReportsCount() + " completed tasks: " + t.getMessage(), t);
+    }
+  }
+
   public TajoConf getConf() {
     return systemConf;
   }
@@ -248,6 +294,10 @@ public class ExecutionBlockContext {
     return manager.getTaskRunner(taskRunnerId);
   }
 
+  public ExecutorService getTaskExecutor() {
+    return manager.getTaskExecutor();
+  }
+
   public void addTaskHistory(String taskRunnerId, TaskAttemptId quAttemptId, TaskHistory taskHistory) {
     histories.get(taskRunnerId).addTaskHistory(quAttemptId, taskHistory);
   }
@@ -301,6 +351,7 @@ public class ExecutionBlockContext {
 
       IntermediateEntryProto.Builder intermediateBuilder = IntermediateEntryProto.newBuilder();
       IntermediateEntryProto.PageProto.Builder pageBuilder = IntermediateEntryProto.PageProto.newBuilder();
+      IntermediateEntryProto.HotKeyProto.Builder hotKeyBuilder = IntermediateEntryProto.HotKeyProto.newBuilder();
       FailureIntermediateProto.Builder failureBuilder = FailureIntermediateProto.newBuilder();
 
       for (HashShuffleAppenderManager.HashShuffleIntermediate eachShuffle: shuffles) {
@@ -321,6 +372,13 @@ public class ExecutionBlockContext {
           failureBuilder.setEndRowNum(eachFailure.getSecond().getSecond());
           failureIntermediateItems.add(failureBuilder.build());
         }
+        List<IntermediateEntryProto.HotKeyProto> hotKeys = Lists.newArrayList();
+        for (Map.Entry<Integer, Long> eachHotKey : eachShuffle.getHotKeyRows().entrySet()) {
+          hotKeyBuilder.clear();
+          hotKeyBuilder.setKeyHash(eachHotKey.getKey());
+          hotKeyBuilder.setNumRows(eachHotKey.getValue());
+          hotKeys.add(hotKeyBuilder.build());
+        }
         intermediateBuilder.clear();
 
         intermediateBuilder.setEbId(ebId.getProto())
@@ -331,7 +389,9 @@ public class ExecutionBlockContext {
             .setPartId(eachShuffle.getPartId())
             .setVolume(eachShuffle.getVolume())
             .addAllPages(pages)
-            .addAllFailures(failureIntermediateItems);
+            .addAllFailures(failureIntermediateItems)
+            .setNumRows(eachShuffle.getNumRows())
+            .addAllHotKeys(hotKeys);
         intermediateEntries.add(intermediateBuilder.build());
       }
 
@@ -384,6 +444,9 @@ public class ExecutionBlockContext {
               client = getQueryMasterConnection();
               QueryMasterProtocol.QueryMasterProtocolService.Interface masterStub = client.getStub();
 
+              // completions which are kept while task runners are still busy are sent at least once per interval
+              flushCompletionReports();
+
               if(tasks.size() == 0){
                 masterStub.ping(null, getExecutionBlockId().getProto(), NullCallback.get());
               } else {
@@ -26,7 +26,6 @@ import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.engine.codegen.ExecutorPreCompiler;
 import org.apache.tajo.engine.codegen.TajoClassLoader;
-import org.apache.tajo.engine.json.CoreGsonHelper;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.engine.utils.CacheHolder;
 import org.apache.tajo.engine.utils.TableCache;
@@ -34,6 +33,8 @@ import org.apache.tajo.engine.utils.TableCacheKey;
 import org.apache.tajo.plan.PlanningException;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.plan.serder.LogicalNodeDeserializer;
+import org.apache.tajo.plan.serder.PlanProto.LogicalNodeTree;
 import org.apache.tajo.util.Pair;
 
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -50,15 +51,17 @@ public class ExecutionBlockSharedResource {
   // Resources
   private TajoClassLoader classLoader;
   private ExecutorPreCompiler.CompilationContext compilationContext;
+  private LogicalNodeTree serializedPlan;
   private LogicalNode plan;
+  private long planDecodeTime;
   private boolean codeGenEnabled = false;
 
-  public void initialize(final QueryContext context, final String planJson) {
+  public void initialize(final QueryContext context, final LogicalNodeTree serializedPlan) {
 
     if (!initializing.getAndSet(true)) {
       try {
         ExecutionBlockSharedResource.this.context = context;
-        initPlan(planJson);
+        initPlan(serializedPlan);
         initCodeGeneration();
         resourceInitSuccess = true;
       } catch (Throwable t) {
@@ -72,8 +75,12 @@ public class ExecutionBlockSharedResource {
     }
   }
 
-  private void initPlan(String planJson) {
-    plan = CoreGsonHelper.fromJson(planJson, LogicalNode.class);
+  private void initPlan(LogicalNodeTree serializedPlan) {
+    long startTime = System.currentTimeMillis();
+    this.serializedPlan = serializedPlan;
+    plan = LogicalNodeDeserializer.deserialize(context, null, serializedPlan);
+    planDecodeTime = System.currentTimeMillis() - startTime;
+    LOG.info("Plan (" + serializedPlan.getSerializedSize() + " bytes) is decoded in " + planDecodeTime + " msec");
   }
 
   private void initCodeGeneration() throws PlanningException {
@@ -89,6 +96,20 @@ public class ExecutionBlockSharedResource {
     return this.plan;
   }
 
+  /**
+   * @return The plan of the execution block, which is shipped once and shared by all tasks of it
+   */
+  public LogicalNodeTree getSerializedPlan() {
+    return serializedPlan;
+  }
+
+  /**
+   * @return The elapsed time in milliseconds to decode the plan of the execution block
+   */
+  public long getPlanDecodeTime() {
+    return planDecodeTime;
+  }
+
   public EvalNode compileEval(Schema schema, EvalNode eval) {
     return compilationContext.getCompiler().compile(schema, eval);
   }
@@ -130,6 +151,17 @@ public class ExecutionBlockSharedResource {
     TableCache.getInstance().addCache(cacheKey, cacheData);
   }
 
+  /**
+   * @return The broadcast table shared by queries, or null if it is not cached
+   */
+  public <T extends Object> CacheHolder<T> getSharedBroadcastCache(TableCacheKey key) {
+    return (CacheHolder<T>) TableCache.getInstance().getSharedCache(key);
+  }
+
+  public boolean addSharedBroadcastCache(TableCacheKey cacheKey, CacheHolder<?> cacheData, long size) {
+    return TableCache.getInstance().addSharedCache(cacheKey, cacheData, size);
+  }
+
   public void releaseBroadcastCache(ExecutionBlockId id) {
     TableCache.getInstance().releaseCache(id);
   }
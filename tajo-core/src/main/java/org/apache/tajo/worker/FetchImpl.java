@@ -52,6 +52,8 @@ public class FetchImpl implements ProtoObject<TajoWorkerProtocol.FetchProto>, Cl
   private long offset = -1;
   private long length = -1;
 
+  private long volume = 0;                     // the volume of intermediate data, it is only used by the scheduler
+
   public FetchImpl() {
     taskIds = new ArrayList<Integer>();
     attemptIds = new ArrayList<Integer>();
@@ -231,6 +233,14 @@ public class FetchImpl implements ProtoObject<TajoWorkerProtocol.FetchProto>, Cl
     this.length = length;
   }
 
+  public long getVolume() {
+    return volume;
+  }
+
+  public void setVolume(long volume) {
+    this.volume = volume;
+  }
+
   public FetchImpl clone() throws CloneNotSupportedException {
     FetchImpl newFetchImpl = (FetchImpl) super.clone();
 
@@ -249,6 +259,7 @@ public class FetchImpl implements ProtoObject<TajoWorkerProtocol.FetchProto>, Cl
     }
     newFetchImpl.offset = offset;
     newFetchImpl.length = length;
+    newFetchImpl.volume = volume;
     return newFetchImpl;
   }
 
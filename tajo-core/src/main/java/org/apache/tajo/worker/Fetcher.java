@@ -22,7 +22,6 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.*;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.timeout.ReadTimeoutException;
 import io.netty.handler.timeout.ReadTimeoutHandler;
@@ -87,11 +86,11 @@ public class Fetcher {
     }
 
     if (!useLocalFile) {
+      EventLoopGroup eventLoopGroup = RpcChannelFactory.getSharedClientEventloopGroup(
+          RpcChannelFactory.ClientChannelId.FETCHER, conf.getIntVar(TajoConf.ConfVars.SHUFFLE_RPC_CLIENT_WORKER_THREAD_NUM));
       bootstrap = new Bootstrap()
-        .group(
-            RpcChannelFactory.getSharedClientEventloopGroup(RpcChannelFactory.ClientChannelId.FETCHER,
-                conf.getIntVar(TajoConf.ConfVars.SHUFFLE_RPC_CLIENT_WORKER_THREAD_NUM)))
-        .channel(NioSocketChannel.class)
+        .group(eventLoopGroup)
+        .channel(RpcChannelFactory.getClientChannelClass(eventLoopGroup))
         .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
         .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000) // set 5 sec
         .option(ChannelOption.SO_RCVBUF, 1048576) // set 1M
@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import com.google.common.base.Preconditions;
+import org.apache.tajo.TaskAttemptId;
+
+/**
+ * The memory which an operator reserves from {@link WorkerMemoryManager}.
+ *
+ * An operator calls {@link #reserve(long)} with the total bytes which it keeps in memory. If it returns false,
+ * a spillable operator should spill its data and then call {@link #release()}. The memory must be released when
+ * the operator is closed.
+ */
+public class MemoryConsumer {
+  private final WorkerMemoryManager manager;
+  private final String name;
+  private final TaskAttemptId taskId;
+  private final boolean spillable;
+  private final Evictable evictable;
+
+  // guarded by the manager
+  volatile long reserved;
+  volatile boolean spillRequested;
+
+  MemoryConsumer(WorkerMemoryManager manager, String name, TaskAttemptId taskId, boolean spillable,
+                 Evictable evictable) {
+    this.manager = manager;
+    this.name = name;
+    this.taskId = taskId;
+    this.spillable = spillable;
+    this.evictable = evictable;
+  }
+
+  /**
+   * Makes the reservation cover the given bytes. It is cheap if the bytes are within the reserved pages.
+   *
+   * @param bytes The total bytes which the operator keeps in memory
+   * @return False if the operator should spill. For a consumer which is not spillable, false means that the memory
+   *         cannot be reserved even after other consumers spill.
+   */
+  public boolean reserve(long bytes) {
+    if (spillRequested) {
+      return false;
+    }
+    return bytes <= reserved || manager.reserve(this, bytes);
+  }
+
+  /**
+   * Makes the reservation of a consumer which cannot spill cover the given bytes.
+   *
+   * @param bytes The total bytes which the operator keeps in memory
+   * @throws MemoryExhaustedException If the memory cannot be reserved even after other consumers spill
+   */
+  public void reserveOrFail(long bytes) throws MemoryExhaustedException {
+    if (!reserve(bytes)) {
+      throw new MemoryExhaustedException(this, bytes, manager.getCapacity());
+    }
+  }
+
+  /**
+   * Makes the reservation of an evictable consumer cover {@link Evictable#getEvictableBytes()}. If the memory is not
+   * free, the consumer is asked to evict its data instead of making other consumers spill.
+   * It must not be called while the lock of the evictable data is held.
+   */
+  public void update() {
+    Preconditions.checkState(evictable != null, "Not an evictable consumer: %s", this);
+    manager.update(this);
+  }
+
+  /**
+   * Releases all reserved memory.
+   */
+  public void release() {
+    manager.release(this);
+  }
+
+  /**
+   * @return True if another operator asked this consumer to spill.
+   */
+  public boolean isSpillRequested() {
+    return spillRequested;
+  }
+
+  public long getReservedBytes() {
+    return reserved;
+  }
+
+  public boolean isSpillable() {
+    return spillable;
+  }
+
+  Evictable getEvictable() {
+    return evictable;
+  }
+
+  public TaskAttemptId getTaskId() {
+    return taskId;
+  }
+
+  @Override
+  public String toString() {
+    return taskId == null ? name : name + "(" + taskId + ")";
+  }
+
+  /**
+   * Data which can be dropped at any time to release memory, such as a cache.
+   *
+   * {@link WorkerMemoryManager} calls it while holding its own lock, so an implementation must not call
+   * the manager while holding the lock which these methods take.
+   */
+  public interface Evictable {
+    /**
+     * @return The bytes which it keeps in memory
+     */
+    long getEvictableBytes();
+
+    /**
+     * Drops the least recently used data until at most the given bytes remain.
+     *
+     * @return The bytes which remain
+     */
+    long evict(long limit);
+  }
+}
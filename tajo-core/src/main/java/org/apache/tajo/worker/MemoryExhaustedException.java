@@ -0,0 +1,34 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.tajo.util.FileUtil;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an operator which cannot spill needs more memory than the worker can give to it.
+ */
+public class MemoryExhaustedException extends IOException {
+  public MemoryExhaustedException(MemoryConsumer consumer, long bytes, long capacity) {
+    super(consumer + " cannot keep " + FileUtil.humanReadableByteCount(bytes, false) + " in memory, because the " +
+        "memory for operators of this worker (" + FileUtil.humanReadableByteCount(capacity, false) + ") is " +
+        "exhausted. Lower the hash join or hash group-by size limit to use a sort-based operator instead.");
+  }
+}
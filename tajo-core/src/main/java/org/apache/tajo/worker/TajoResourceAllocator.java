@@ -172,7 +172,7 @@ public class TajoResourceAllocator extends AbstractResourceAllocator {
     // But, Assign ExecutionBlock to assigned tajo worker
     for(TajoContainer eachContainer: event.getContainers()) {
       TajoContainerProxy containerProxy = new TajoContainerProxy(queryTaskContext, tajoConf,
-        eachContainer, event.getQueryContext(), event.getExecutionBlockId(), event.getPlanJson());
+        eachContainer, event.getQueryContext(), event.getExecutionBlockId(), event.getPlan());
       allocationExecutor.submit(new LaunchRunner(eachContainer.getId(), containerProxy));
     }
   }
@@ -36,7 +36,14 @@ import org.apache.tajo.catalog.CatalogService;
 import org.apache.tajo.catalog.FunctionDesc;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.function.FunctionLoader;
+import org.apache.tajo.engine.utils.ColumnarTableCache;
+import org.apache.tajo.engine.utils.TableCache;
 import org.apache.tajo.function.FunctionSignature;
+import org.apache.tajo.metrics.BroadcastCacheMetricsGaugeSet;
+import org.apache.tajo.metrics.CatalogCacheMetricsGaugeSet;
+import org.apache.tajo.metrics.ColumnarCacheMetricsGaugeSet;
+import org.apache.tajo.metrics.RpcServerMetricsGaugeSet;
+import org.apache.tajo.metrics.WorkerMemoryMetricsGaugeSet;
 import org.apache.tajo.rpc.RpcClientManager;
 import org.apache.tajo.rpc.RpcConstants;
 import org.apache.tajo.service.ServiceTracker;
@@ -56,6 +63,7 @@ import org.apache.tajo.rule.SelfDiagnosisRuleEngine;
 import org.apache.tajo.rule.SelfDiagnosisRuleSession;
 import org.apache.tajo.storage.HashShuffleAppenderManager;
 import org.apache.tajo.storage.StorageManager;
+import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.*;
 import org.apache.tajo.util.history.HistoryReader;
 import org.apache.tajo.util.history.HistoryWriter;
@@ -67,6 +75,7 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -122,6 +131,8 @@ public class TajoWorker extends CompositeService {
 
   private HashShuffleAppenderManager hashShuffleAppenderManager;
 
+  private WorkerMemoryManager memoryManager;
+
   private AsyncDispatcher dispatcher;
 
   private LocalDirAllocator lDirAllocator;
@@ -154,6 +165,7 @@ public class TajoWorker extends CompositeService {
     this.systemConf = (TajoConf)conf;
     RackResolver.init(systemConf);
 
+    RpcChannelFactory.setNativeEpollEnabled(systemConf.getBoolVar(ConfVars.RPC_NATIVE_EPOLL_ENABLED));
     RpcClientManager rpcManager = RpcClientManager.getInstance();
     rpcManager.setRetries(systemConf.getInt(RpcConstants.RPC_CLIENT_RETRY_MAX, RpcConstants.DEFAULT_RPC_RETRIES));
     rpcManager.setTimeoutSeconds(
@@ -237,6 +249,14 @@ public class TajoWorker extends CompositeService {
       LOG.fatal(e.getMessage(), e);
       System.exit(-1);
     }
+    memoryManager = new WorkerMemoryManager(systemConf);
+    TableCache.getInstance().setSharedCapacity(
+        systemConf.getIntVar(ConfVars.WORKER_BROADCAST_CACHE_SIZE) * StorageUnit.MB);
+    ColumnarTableCache.getInstance().setCapacity(
+        systemConf.getIntVar(ConfVars.WORKER_TABLE_CACHE_SIZE) * StorageUnit.MB);
+    // cached tables take free memory for operators, and they are evicted when operators need it
+    TableCache.getInstance().setMemoryManager(memoryManager);
+    ColumnarTableCache.getInstance().setMemoryManager(memoryManager);
 
     taskHistoryWriter = new HistoryWriter(workerContext.getWorkerName(), false);
     addIfService(taskHistoryWriter);
@@ -264,6 +284,13 @@ public class TajoWorker extends CompositeService {
       }
     });
 
+    workerSystemMetrics.register("rpc", new RpcServerMetricsGaugeSet(
+        Collections.singletonMap("clientService", tajoWorkerClientService.getRpcServer())));
+
+    if (catalogClient != null) {
+      workerSystemMetrics.register("catalog", new CatalogCacheMetricsGaugeSet(catalogClient));
+    }
+
     workerSystemMetrics.register("task", "runningTasks", new Gauge<Integer>() {
       @Override
       public Integer getValue() {
@@ -274,6 +301,10 @@ public class TajoWorker extends CompositeService {
         }
       }
     });
+
+    workerSystemMetrics.register("memory", new WorkerMemoryMetricsGaugeSet(memoryManager));
+    workerSystemMetrics.register("broadcastCache", new BroadcastCacheMetricsGaugeSet(TableCache.getInstance()));
+    workerSystemMetrics.register("tableCache", new ColumnarCacheMetricsGaugeSet(ColumnarTableCache.getInstance()));
   }
 
   private int initWebServer() {
@@ -491,6 +522,10 @@ public class TajoWorker extends CompositeService {
       return hashShuffleAppenderManager;
     }
 
+    public WorkerMemoryManager getMemoryManager() {
+      return memoryManager;
+    }
+
     public HistoryWriter getTaskHistoryWriter() {
       return taskHistoryWriter;
     }
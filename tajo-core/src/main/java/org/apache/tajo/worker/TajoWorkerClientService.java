@@ -75,7 +75,10 @@ public class TajoWorkerClientService extends AbstractService {
       }
 
       int workerNum = this.conf.getIntVar(TajoConf.ConfVars.WORKER_SERVICE_RPC_SERVER_WORKER_THREAD_NUM);
-      this.rpcServer = new BlockingRpcServer(QueryMasterClientProtocol.class, serviceHandler, initIsa, workerNum);
+      int handlerNum = this.conf.getIntVar(TajoConf.ConfVars.WORKER_SERVICE_RPC_SERVER_HANDLER_THREAD_NUM);
+      int handlerQueueSize = this.conf.getIntVar(TajoConf.ConfVars.RPC_SERVER_HANDLER_QUEUE_SIZE);
+      this.rpcServer = new BlockingRpcServer(QueryMasterClientProtocol.class, serviceHandler, initIsa, workerNum,
+          handlerNum, handlerQueueSize);
       this.rpcServer.start();
 
       this.bindAddr = NetUtils.getConnectAddress(rpcServer.getListenAddress());
@@ -108,6 +111,10 @@ public class TajoWorkerClientService extends AbstractService {
     return bindAddr;
   }
 
+  public BlockingRpcServer getRpcServer() {
+    return rpcServer;
+  }
+
   public class TajoWorkerClientProtocolServiceHandler
           implements QueryMasterClientProtocol.QueryMasterClientProtocolService.BlockingInterface {
 
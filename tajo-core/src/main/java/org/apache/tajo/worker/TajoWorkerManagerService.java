@@ -33,6 +33,7 @@ import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.ipc.TajoWorkerProtocol;
 import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.plan.function.python.PythonControllerPool;
 import org.apache.tajo.rpc.AsyncRpcServer;
 import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos;
 import org.apache.tajo.util.NetUtils;
@@ -121,7 +122,7 @@ public class TajoWorkerManagerService extends CompositeService
           , new ExecutionBlockId(request.getExecutionBlockId())
           , request.getContainerId()
           , new QueryContext(workerContext.getConf(), request.getQueryContext()),
-          request.getPlanJson(),
+          request.getPlan(),
           request.getShuffleType()
       ));
       done.run(TajoWorker.TRUE_PROTO);
@@ -158,7 +159,9 @@ public class TajoWorkerManagerService extends CompositeService
   @Override
   public void cleanup(RpcController controller, TajoIdProtos.QueryIdProto request,
                       RpcCallback<PrimitiveProtos.BoolProto> done) {
-    workerContext.cleanup(new QueryId(request).toString());
+    String queryId = new QueryId(request).toString();
+    workerContext.cleanup(queryId);
+    PythonControllerPool.getInstance().clear(queryId);
     done.run(TajoWorker.TRUE_PROTO);
   }
 
@@ -49,6 +49,7 @@ import org.apache.tajo.master.cluster.WorkerConnectionInfo;
 import org.apache.tajo.plan.function.python.TajoScriptEngine;
 import org.apache.tajo.plan.logical.*;
 import org.apache.tajo.plan.serder.LogicalNodeDeserializer;
+import org.apache.tajo.plan.serder.PlanProto;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.pullserver.TajoPullServerService;
 import org.apache.tajo.pullserver.retriever.FileChunk;
@@ -134,7 +135,13 @@ public class Task {
   }
 
   public void initPlan() throws IOException {
-    plan = LogicalNodeDeserializer.deserialize(queryContext, context.getEvalContext(), request.getPlan());
+    // a task carries its own plan only if it differs from the plan of the execution block
+    PlanProto.LogicalNodeTree serializedPlan = request.getPlan();
+    if (serializedPlan == null) {
+      serializedPlan = executionBlockContext.getSharedResource().getSerializedPlan();
+    }
+    // each task decodes its own plan, because eval nodes are bound to the eval context of the task
+    plan = LogicalNodeDeserializer.deserialize(queryContext, context.getEvalContext(), serializedPlan);
     LogicalNode [] scanNode = PlannerUtil.findAllNodes(plan, NodeType.SCAN);
     if (scanNode != null) {
       for (LogicalNode node : scanNode) {
@@ -190,8 +197,9 @@ public class Task {
   }
 
   private void startScriptExecutors() throws IOException {
+    String queryId = context.getTaskId().getTaskId().getExecutionBlockId().getQueryId().toString();
     for (TajoScriptEngine executor : context.getEvalContext().getAllScriptEngines()) {
-      executor.start(systemConf);
+      executor.start(systemConf, queryId);
     }
   }
 
@@ -472,8 +480,8 @@ public class Task {
         context.setState(TaskAttemptState.TA_SUCCEEDED);
         executionBlockContext.succeededTasksNum.incrementAndGet();
 
-        TaskCompletionReport report = getTaskCompletionReport();
-        queryMasterStub.done(null, report, NullCallback.get());
+        // task runners send the completion reports in a batch
+        executionBlockContext.addCompletionReport(getTaskCompletionReport());
       }
       finishTime = System.currentTimeMillis();
       LOG.info(context.getTaskId() + " completed. " +
@@ -500,6 +508,7 @@ public class Task {
     } catch (IOException e) {
       LOG.fatal(e.getMessage(), e);
     }
+    context.getMemoryManager().removeTask(getTaskId());
 
     executionBlockContext.getWorkerContext().getTaskHistoryWriter().appendHistory(taskHistory);
     stopScriptExecutors();
@@ -523,6 +532,8 @@ public class Task {
         taskHistory.setOutputStats(context.getResultStats().getProto());
       }
 
+      taskHistory.setPeakMemoryBytes(context.getMemoryManager().getTaskPeakMemory(getTaskId()));
+
       if (hasFetchPhase()) {
         taskHistory.setTotalFetchCount(fetcherRunners.size());
         int i = 0;
@@ -692,6 +703,9 @@ public class Task {
       File defaultStoreFile;
       FileChunk storeChunk = null;
       List<Fetcher> runnerList = Lists.newArrayList();
+      WorkerConnectionInfo conn = executionBlockContext.getWorkerContext().getConnectionInfo();
+      // pull server host -> whether it is this worker
+      Map<String, Boolean> localHosts = new HashMap<String, Boolean>();
 
       for (FetchImpl f : fetches) {
         storeDir = new File(inputDir.toString(), f.getName());
@@ -701,10 +715,13 @@ public class Task {
 
         for (URI uri : f.getURIs()) {
           defaultStoreFile = new File(storeDir, "in_" + i);
-          InetAddress address = InetAddress.getByName(uri.getHost());
+          Boolean isLocal = localHosts.get(uri.getHost());
+          if (isLocal == null) {
+            isLocal = NetUtils.isLocalAddress(InetAddress.getByName(uri.getHost()));
+            localHosts.put(uri.getHost(), isLocal);
+          }
 
-          WorkerConnectionInfo conn = executionBlockContext.getWorkerContext().getConnectionInfo();
-          if (NetUtils.isLocalAddress(address) && conn.getPullServerPort() == uri.getPort()) {
+          if (isLocal && conn.getPullServerPort() == uri.getPort()) {
             boolean hasError = false;
             try {
               LOG.info("Try to get local file chunk at local host");
@@ -721,7 +738,12 @@ public class Task {
 
             if (storeChunk != null && storeChunk.getFile() != null && storeChunk.startOffset() > -1
                 && hasError == false) {
+              // The intermediate data written by this worker are read in place. Neither http fetch nor copy
+              // is needed, so a fetcher is not created for the chunk.
               storeChunk.setFromRemote(false);
+              storeChunk.setEbId(f.getName());
+              localChunks.add(storeChunk);
+              continue;
             } else {
               storeChunk = new FileChunk(defaultStoreFile, 0, -1);
               storeChunk.setFromRemote(true);
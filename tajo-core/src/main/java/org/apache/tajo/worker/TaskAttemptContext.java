@@ -83,6 +83,7 @@ public class TaskAttemptContext {
   /** a output volume for each partition */
   private Map<Integer, Long> partitionOutputVolume;
   private HashShuffleAppenderManager hashShuffleAppenderManager;
+  private WorkerMemoryManager memoryManager;
 
   private EvalContext evalContext = new EvalContext();
 
@@ -120,7 +121,9 @@ public class TaskAttemptContext {
 
     if (workerContext != null) {
       this.hashShuffleAppenderManager = workerContext.getHashShuffleAppenderManager();
+      this.memoryManager = workerContext.getMemoryManager();
     } else {
+      this.memoryManager = new WorkerMemoryManager(queryContext.getConf());
       try {
         this.hashShuffleAppenderManager = new HashShuffleAppenderManager(queryContext.getConf());
       } catch (IOException e) {
@@ -407,6 +410,18 @@ public class TaskAttemptContext {
     return hashShuffleAppenderManager;
   }
 
+  public WorkerMemoryManager getMemoryManager() {
+    return memoryManager;
+  }
+
+  /**
+   * @param name The name of an operator
+   * @param spillable True if the operator can release its memory by spilling
+   */
+  public MemoryConsumer newMemoryConsumer(String name, boolean spillable) {
+    return memoryManager.newConsumer(name, queryId, spillable);
+  }
+
   public EvalContext getEvalContext() {
     return evalContext;
   }
@@ -50,6 +50,8 @@ public class TaskHistory implements ProtoObject<TaskHistoryProto>, History {
   private int finishedFetchCount;
   private int totalFetchCount;
   private List<FetcherHistoryProto> fetcherHistories;
+  /** the peak memory which operators of the task reserved */
+  private long peakMemoryBytes;
 
   public TaskHistory(TaskAttemptId taskAttemptId, TaskAttemptState state, float progress,
                      long startTime, long finishTime, CatalogProtos.TableStatsProto inputStats) {
@@ -91,6 +93,10 @@ public class TaskHistory implements ProtoObject<TaskHistoryProto>, History {
     }
 
     this.fetcherHistories = proto.getFetcherHistoriesList();
+
+    if (proto.hasPeakMemoryBytes()) {
+      this.peakMemoryBytes = proto.getPeakMemoryBytes();
+    }
   }
 
   private void init() {
@@ -135,6 +141,10 @@ public class TaskHistory implements ProtoObject<TaskHistoryProto>, History {
     }
 
     builder.addAllFetcherHistories(fetcherHistories);
+
+    if (peakMemoryBytes > 0) {
+      builder.setPeakMemoryBytes(peakMemoryBytes);
+    }
     return builder.build();
   }
 
@@ -214,6 +224,14 @@ public class TaskHistory implements ProtoObject<TaskHistoryProto>, History {
     this.outputStats = outputStats;
   }
 
+  public long getPeakMemoryBytes() {
+    return peakMemoryBytes;
+  }
+
+  public void setPeakMemoryBytes(long peakMemoryBytes) {
+    this.peakMemoryBytes = peakMemoryBytes;
+  }
+
   @Override
   public HistoryType getHistoryType() {
     return HistoryType.TASK;
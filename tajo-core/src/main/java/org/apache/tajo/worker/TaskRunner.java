@@ -38,6 +38,7 @@ import org.apache.tajo.rpc.NettyClientBase;
 import org.apache.tajo.rpc.NullCallback;
 
 import java.net.ConnectException;
+import java.util.LinkedList;
 import java.util.concurrent.*;
 
 import static org.apache.tajo.ipc.TajoWorkerProtocol.*;
@@ -59,8 +60,6 @@ public class TaskRunner extends AbstractService {
   // for Fetcher
   private ExecutorService fetchLauncher;
 
-  // A thread to receive each assigned query unit and execute the query unit
-  private Thread taskLauncher;
 
   // Contains the object references related for TaskRunner
   private ExecutionBlockContext executionBlockContext;
@@ -146,7 +145,7 @@ public class TaskRunner extends AbstractService {
     }
     this.finishTime = System.currentTimeMillis();
     this.history.setFinishTime(finishTime);
-    // If this flag become true, taskLauncher will be terminated.
+    // If this flag become true, the task launching loop will be terminated.
 
     LOG.info("Stop TaskRunner: " + getId());
     synchronized (this) {
@@ -186,13 +185,16 @@ public class TaskRunner extends AbstractService {
     LOG.info("TaskRunner startup");
     try {
 
-      taskLauncher = new Thread(new Runnable() {
+      // it receives each assigned task and executes it in a long-lived thread of the worker
+      getContext().getTaskExecutor().execute(new Runnable() {
 
         @Override
         public void run() {
           int receivedNum = 0;
-          CallFuture<TaskRequestProto> callFuture = null;
-          TaskRequestProto taskRequest = null;
+          int batchSize = systemConf.getIntVar(ConfVars.TASK_DISPATCH_BATCH_SIZE);
+          CallFuture<TaskRequestListProto> callFuture = null;
+          // tasks which are received at once, and are not run yet
+          LinkedList<TaskRequestProto> pendingTasks = new LinkedList<TaskRequestProto>();
 
           while(!stopped) {
             NettyClientBase client;
@@ -214,84 +216,100 @@ public class TaskRunner extends AbstractService {
             QueryMasterProtocolService.Interface qmClientService = client.getStub();
 
             try {
-              if (callFuture == null) {
-                callFuture = new CallFuture<TaskRequestProto>();
-                LOG.info("Request GetTask: " + getId());
-                GetTaskRequestProto request = GetTaskRequestProto.newBuilder()
-                    .setExecutionBlockId(getExecutionBlockId().getProto())
-                    .setContainerId(((TajoContainerIdPBImpl) containerId).getProto())
-                    .setWorkerId(getContext().getWorkerContext().getConnectionInfo().getId())
-                    .build();
-
-                qmClientService.getTask(callFuture.getController(), request, callFuture);
-              }
-              try {
-                // wait for an assigning task for 3 seconds
-                taskRequest = callFuture.get(3, TimeUnit.SECONDS);
-              } catch (InterruptedException e) {
-                if(stopped) {
-                  break;
+              if (pendingTasks.isEmpty()) {
+                // completions are reported before this task runner waits for next tasks
+                getContext().flushCompletionReports();
+
+                if (callFuture == null) {
+                  callFuture = new CallFuture<TaskRequestListProto>();
+                  LOG.info("Request GetTasks: " + getId());
+                  GetTaskRequestProto request = GetTaskRequestProto.newBuilder()
+                      .setExecutionBlockId(getExecutionBlockId().getProto())
+                      .setContainerId(((TajoContainerIdPBImpl) containerId).getProto())
+                      .setWorkerId(getContext().getWorkerContext().getConnectionInfo().getId())
+                      .setMaxTasks(batchSize)
+                      .build();
+
+                  qmClientService.getTasks(callFuture.getController(), request, callFuture);
                 }
-              } catch (TimeoutException te) {
-                if(stopped) {
+
+                TaskRequestListProto taskRequests;
+                try {
+                  // wait for assigning tasks for 3 seconds
+                  taskRequests = callFuture.get(3, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                  if(stopped) {
+                    break;
+                  }
+                  taskRequests = null;
+                } catch (TimeoutException te) {
+                  if(stopped) {
+                    break;
+                  }
+                  // if there has been no assigning task for a given period,
+                  // TaskRunner will retry to request an assigning task.
+                  if (LOG.isDebugEnabled()) {
+                    LOG.info("Retry assigning task:" + getId());
+                  }
+                  continue;
+                } catch (ExecutionException ee) {
+                  LOG.error(ee.getMessage(), ee);
                   break;
                 }
-                // if there has been no assigning task for a given period,
-                // TaskRunner will retry to request an assigning task.
-                if (LOG.isDebugEnabled()) {
-                  LOG.info("Retry assigning task:" + getId());
-                }
-                continue;
-              } catch (ExecutionException ee) {
-                LOG.error(ee.getMessage(), ee);
-                break;
-              }
 
-              if (taskRequest != null) {
-                // QueryMaster can send the terminal signal to TaskRunner.
-                // If TaskRunner receives the terminal signal, TaskRunner will be terminated
-                // immediately.
-                if (taskRequest.getShouldDie()) {
-                  LOG.info("Received ShouldDie flag:" + getId());
+                callFuture = null;
+                if (taskRequests == null || taskRequests.getRequestsCount() == 0) {
                   stop();
                   //notify to TaskRunnerManager
                   getContext().stopTaskRunner(getId());
-                } else {
-                  getContext().getWorkerContext().getWorkerSystemMetrics().counter("query", "task").inc();
-                  LOG.info("Accumulated Received Task: " + (++receivedNum));
-
-                  TaskAttemptId taskAttemptId = new TaskAttemptId(taskRequest.getId());
-                  if (getContext().getTasks().containsKey(taskAttemptId)) {
-                    LOG.error("Duplicate Task Attempt: " + taskAttemptId);
-                    fatalError(qmClientService, taskAttemptId, "Duplicate Task Attempt: " + taskAttemptId);
-                    continue;
-                  }
-
-                  LOG.info("Initializing: " + taskAttemptId);
-                  Task task;
-                  try {
-                    task = new Task(getId(), getTaskBaseDir(), taskAttemptId, executionBlockContext,
-                        new TaskRequestImpl(taskRequest));
-                    getContext().getTasks().put(taskAttemptId, task);
-
-                    task.init();
-                    if (task.hasFetchPhase()) {
-                      task.fetch(); // The fetch is performed in an asynchronous way.
-                    }
-                    // task.run() is a blocking call.
-                    task.run();
-                  } catch (Throwable t) {
-                    LOG.error(t.getMessage(), t);
-                    fatalError(qmClientService, taskAttemptId, t.getMessage());
-                  } finally {
-                    callFuture = null;
-                    taskRequest = null;
-                  }
+                  continue;
                 }
-              } else {
+                pendingTasks.addAll(taskRequests.getRequestsList());
+              }
+
+              TaskRequestProto taskRequest = pendingTasks.poll();
+
+              // QueryMaster can send the terminal signal to TaskRunner.
+              // If TaskRunner receives the terminal signal, TaskRunner will be terminated
+              // immediately.
+              if (taskRequest.getShouldDie()) {
+                LOG.info("Received ShouldDie flag:" + getId());
+                getContext().flushCompletionReports();
                 stop();
                 //notify to TaskRunnerManager
                 getContext().stopTaskRunner(getId());
+              } else {
+                getContext().getWorkerContext().getWorkerSystemMetrics().counter("query", "task").inc();
+                LOG.info("Accumulated Received Task: " + (++receivedNum));
+
+                TaskAttemptId taskAttemptId = new TaskAttemptId(taskRequest.getId());
+                if (getContext().getTasks().containsKey(taskAttemptId)) {
+                  LOG.error("Duplicate Task Attempt: " + taskAttemptId);
+                  fatalError(qmClientService, taskAttemptId, "Duplicate Task Attempt: " + taskAttemptId);
+                  continue;
+                }
+
+                LOG.info("Initializing: " + taskAttemptId);
+                Task task;
+                try {
+                  task = new Task(getId(), getTaskBaseDir(), taskAttemptId, executionBlockContext,
+                      new TaskRequestImpl(taskRequest));
+                  getContext().getTasks().put(taskAttemptId, task);
+
+                  task.init();
+                  if (task.hasFetchPhase()) {
+                    task.fetch(); // The fetch is performed in an asynchronous way.
+                  }
+                  // task.run() is a blocking call.
+                  task.run();
+                } catch (Throwable t) {
+                  LOG.error(t.getMessage(), t);
+                  fatalError(qmClientService, taskAttemptId, t.getMessage());
+                }
+
+                if (getContext().getPendingCompletionReportNum() >= batchSize) {
+                  getContext().flushCompletionReports();
+                }
               }
             } catch (Throwable t) {
               LOG.fatal(t.getMessage(), t);
@@ -299,7 +317,6 @@ public class TaskRunner extends AbstractService {
           }
         }
       });
-      taskLauncher.start();
     } catch (Throwable t) {
       LOG.fatal("Unhandled exception. Starting shutdown.", t);
     }
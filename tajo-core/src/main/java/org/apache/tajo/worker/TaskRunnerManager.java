@@ -19,6 +19,7 @@
 package org.apache.tajo.worker;
 
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
@@ -28,12 +29,13 @@ import org.apache.hadoop.yarn.event.EventHandler;
 import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.worker.event.TaskRunnerEvent;
 import org.apache.tajo.worker.event.TaskRunnerStartEvent;
 import org.apache.tajo.worker.event.TaskRunnerStopEvent;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TaskRunnerManager extends CompositeService implements EventHandler<TaskRunnerEvent> {
@@ -47,6 +49,12 @@ public class TaskRunnerManager extends CompositeService implements EventHandler<
   private AtomicBoolean stop = new AtomicBoolean(false);
   private FinishedTaskCleanThread finishedTaskCleanThread;
   private Dispatcher dispatcher;
+  /**
+   * Threads running task runners. They are kept across task runners, so thread-local caches, such as the caches of
+   * pooled buffers, are reused by following tasks. There is at most one thread per task slot of the worker.
+   */
+  private ThreadPoolExecutor taskExecutor;
+  private int prestartThreadNum;
 
   public TaskRunnerManager(TajoWorker.WorkerContext workerContext, Dispatcher dispatcher) {
     super(TaskRunnerManager.class.getName());
@@ -66,6 +74,15 @@ public class TaskRunnerManager extends CompositeService implements EventHandler<
     }
     tajoConf = (TajoConf)conf;
     dispatcher.register(TaskRunnerEvent.EventType.class, this);
+
+    // the resource manager does not assign more task runners than the memory slots of the worker. If it does,
+    // the extra task runners wait for running ones to stop.
+    int maxThreadNum = Math.max(1, tajoConf.getIntVar(ConfVars.WORKER_RESOURCE_AVAILABLE_MEMORY_MB) /
+        tajoConf.getIntVar(ConfVars.TASK_DEFAULT_MEMORY));
+    prestartThreadNum = Math.min(maxThreadNum, tajoConf.getIntVar(ConfVars.WORKER_TASK_EXECUTOR_THREAD_NUM));
+    ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("Task executor #%d").setDaemon(true).build();
+    taskExecutor = new ThreadPoolExecutor(maxThreadNum, maxThreadNum, 0, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), threadFactory);
     super.init(tajoConf);
   }
 
@@ -73,6 +90,9 @@ public class TaskRunnerManager extends CompositeService implements EventHandler<
   public void start() {
     finishedTaskCleanThread = new FinishedTaskCleanThread();
     finishedTaskCleanThread.start();
+    for (int i = 0; i < prestartThreadNum; i++) {
+      taskExecutor.prestartCoreThread();
+    }
     super.start();
   }
 
@@ -97,6 +117,10 @@ public class TaskRunnerManager extends CompositeService implements EventHandler<
       finishedTaskCleanThread.interrupt();
     }
 
+    if (taskExecutor != null) {
+      taskExecutor.shutdownNow();
+    }
+
     super.stop();
   }
 
@@ -141,6 +165,13 @@ public class TaskRunnerManager extends CompositeService implements EventHandler<
     return null;
   }
 
+  /**
+   * @return The long-lived threads which run task runners
+   */
+  public ExecutorService getTaskExecutor() {
+    return taskExecutor;
+  }
+
   public int getNumTasks() {
     return taskRunnerMap.size();
   }
@@ -0,0 +1,348 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.FileUtil;
+
+import java.util.*;
+
+/**
+ * A pool of memory shared by memory-intensive operators of all tasks running in a worker.
+ *
+ * Operators reserve memory in pages through {@link MemoryConsumer}s. If the pool is exhausted, a request is still
+ * granted as long as the consumer stays within its fair share, which is the capacity divided by the number of
+ * consumers holding memory, and spillable consumers holding more than the fair share are asked to spill. They spill
+ * when they reserve memory next time, so a spill always happens in the thread of its own operator. A spillable
+ * consumer beyond its fair share is refused, and it should spill by itself. Consumers which cannot spill, such as
+ * in-memory hash tables, are granted as long as the memory fits in the pool once the requested spills are done.
+ * Otherwise, they are refused and the task should fail (see {@link MemoryConsumer#reserveOrFail(long)}).
+ *
+ * Caches are evictable consumers (see {@link MemoryConsumer.Evictable}). They only take free memory, and they are
+ * asked to evict their data before any operator is asked to spill.
+ *
+ * It also keeps the memory usage of each task and each query.
+ */
+public class WorkerMemoryManager {
+  private static final Log LOG = LogFactory.getLog(WorkerMemoryManager.class);
+
+  /** the unit of reservation */
+  public static final long PAGE_SIZE = StorageUnit.MB;
+
+  private static final Comparator<MemoryConsumer> LARGEST_FIRST = new Comparator<MemoryConsumer>() {
+    @Override
+    public int compare(MemoryConsumer o1, MemoryConsumer o2) {
+      long r1 = o1.getReservedBytes();
+      long r2 = o2.getReservedBytes();
+      return r1 == r2 ? 0 : (r1 < r2 ? 1 : -1);
+    }
+  };
+
+  private final long capacity;
+
+  /** consumers holding memory */
+  private final Set<MemoryConsumer> consumers = new HashSet<MemoryConsumer>();
+  private final Map<TaskAttemptId, TaskMemoryUsage> taskUsages = new HashMap<TaskAttemptId, TaskMemoryUsage>();
+  private final Map<QueryId, Long> queryUsages = new HashMap<QueryId, Long>();
+
+  private long used;
+  private long peak;
+  private long spillRequestNum;
+  private long refusedNum;
+  private long evictionNum;
+
+  public WorkerMemoryManager(TajoConf conf) {
+    this((long) (Runtime.getRuntime().maxMemory() * conf.getFloatVar(ConfVars.WORKER_EXECUTOR_MEMORY_RATIO)));
+  }
+
+  public WorkerMemoryManager(long capacity) {
+    Preconditions.checkArgument(capacity > 0, "The memory capacity must be positive: %s", capacity);
+    this.capacity = capacity;
+    LOG.info("Memory for operators: " + FileUtil.humanReadableByteCount(capacity, false));
+  }
+
+  /**
+   * @param name The name of the consumer, which is used for logging
+   * @param taskId The task which the consumer belongs to. It can be null.
+   * @param spillable True if the consumer can release its memory by spilling
+   */
+  public MemoryConsumer newConsumer(String name, TaskAttemptId taskId, boolean spillable) {
+    return new MemoryConsumer(this, name, taskId, spillable, null);
+  }
+
+  /**
+   * @param name The name of the consumer, which is used for logging
+   * @param evictable The data which the consumer keeps in memory
+   */
+  public MemoryConsumer newConsumer(String name, MemoryConsumer.Evictable evictable) {
+    return new MemoryConsumer(this, name, null, false, evictable);
+  }
+
+  /**
+   * Makes the reservation of the consumer cover the given bytes.
+   *
+   * @return True if the memory is reserved.
+   */
+  synchronized boolean reserve(MemoryConsumer consumer, long bytes) {
+    long need = toPages(bytes) - consumer.reserved;
+    if (need <= 0) {
+      return true;
+    }
+
+    if (used + need > capacity) {
+      evict(consumer, used + need - capacity);
+    }
+    if (used + need > capacity) {
+      int consumerNum = consumers.contains(consumer) ? consumers.size() : consumers.size() + 1;
+      long fairShare = capacity / consumerNum;
+      if (consumer.isSpillable() && consumer.reserved + need > fairShare) {
+        refusedNum++;
+        return false;
+      }
+      long releasing = requestSpill(consumer, used + need - capacity, fairShare);
+      if (!consumer.isSpillable() && used - releasing + need > capacity) {
+        refusedNum++;
+        return false;
+      }
+    }
+
+    consumers.add(consumer);
+    consumer.reserved += need;
+    addUsage(consumer, need);
+    return true;
+  }
+
+  /**
+   * Makes the reservation of an evictable consumer cover its data. If it needs more than the free memory,
+   * it evicts its data to fit in the free memory.
+   */
+  synchronized void update(MemoryConsumer consumer) {
+    MemoryConsumer.Evictable evictable = consumer.getEvictable();
+    long bytes = evictable.getEvictableBytes();
+    long free = capacity - (used - consumer.reserved);
+    if (toPages(bytes) > free) {
+      bytes = evictable.evict(Math.max(free / PAGE_SIZE * PAGE_SIZE, 0));
+    }
+    setReserved(consumer, toPages(bytes));
+  }
+
+  /**
+   * Asks evictable consumers other than the requester to drop their data, the largest first, until the released
+   * memory covers the given bytes.
+   */
+  private void evict(MemoryConsumer requester, long bytes) {
+    List<MemoryConsumer> candidates = new ArrayList<MemoryConsumer>();
+    for (MemoryConsumer consumer : consumers) {
+      if (consumer != requester && consumer.getEvictable() != null) {
+        candidates.add(consumer);
+      }
+    }
+
+    Collections.sort(candidates, LARGEST_FIRST);
+    for (MemoryConsumer candidate : candidates) {
+      if (bytes <= 0) {
+        break;
+      }
+      long reserved = candidate.reserved;
+      long remains = candidate.getEvictable().evict(Math.max(reserved - bytes, 0));
+      setReserved(candidate, toPages(remains));
+      long released = reserved - candidate.reserved;
+      if (released > 0) {
+        bytes -= released;
+        evictionNum++;
+        LOG.info("Evicted " + FileUtil.humanReadableByteCount(released, false) + " of " + candidate +
+            " for " + requester);
+      }
+    }
+  }
+
+  private void setReserved(MemoryConsumer consumer, long reserved) {
+    long delta = reserved - consumer.reserved;
+    if (reserved > 0) {
+      consumers.add(consumer);
+    } else {
+      consumers.remove(consumer);
+    }
+    consumer.reserved = reserved;
+    addUsage(consumer, delta);
+  }
+
+  private static long toPages(long bytes) {
+    return (bytes + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+  }
+
+  /**
+   * Asks spillable consumers beyond the fair share to spill, the largest first, until the memory to be released
+   * covers the given bytes.
+   *
+   * @return The bytes which consumers asked to spill will release
+   */
+  private long requestSpill(MemoryConsumer requester, long bytes, long fairShare) {
+    long releasing = 0;
+    List<MemoryConsumer> candidates = new ArrayList<MemoryConsumer>();
+    for (MemoryConsumer consumer : consumers) {
+      if (consumer.isSpillRequested()) {
+        releasing += consumer.reserved;
+      } else if (consumer != requester && consumer.isSpillable() && consumer.reserved > fairShare) {
+        candidates.add(consumer);
+      }
+    }
+
+    Collections.sort(candidates, LARGEST_FIRST);
+    for (MemoryConsumer candidate : candidates) {
+      if (releasing >= bytes) {
+        break;
+      }
+      candidate.spillRequested = true;
+      releasing += candidate.reserved;
+      spillRequestNum++;
+      LOG.info("Request " + candidate + " to spill (" +
+          FileUtil.humanReadableByteCount(candidate.reserved, false) + ") for " + requester);
+    }
+    return releasing;
+  }
+
+  /**
+   * Releases all memory of the consumer.
+   */
+  synchronized void release(MemoryConsumer consumer) {
+    consumer.spillRequested = false;
+    if (consumers.remove(consumer)) {
+      addUsage(consumer, -consumer.reserved);
+      consumer.reserved = 0;
+    }
+  }
+
+  private void addUsage(MemoryConsumer consumer, long delta) {
+    used += delta;
+    peak = Math.max(peak, used);
+
+    TaskAttemptId taskId = consumer.getTaskId();
+    if (taskId == null) {
+      return;
+    }
+
+    TaskMemoryUsage taskUsage = taskUsages.get(taskId);
+    if (taskUsage == null) {
+      taskUsage = new TaskMemoryUsage();
+      taskUsages.put(taskId, taskUsage);
+    }
+    taskUsage.used += delta;
+    taskUsage.peak = Math.max(taskUsage.peak, taskUsage.used);
+
+    QueryId queryId = taskId.getTaskId().getExecutionBlockId().getQueryId();
+    Long queryUsage = queryUsages.get(queryId);
+    long newUsage = (queryUsage == null ? 0 : queryUsage) + delta;
+    if (newUsage > 0) {
+      queryUsages.put(queryId, newUsage);
+    } else {
+      queryUsages.remove(queryId);
+    }
+  }
+
+  /**
+   * Releases memory which the consumers of the task still hold, and forgets the usage of the task.
+   * It should be called when the task is finished.
+   */
+  public synchronized void removeTask(TaskAttemptId taskId) {
+    List<MemoryConsumer> remains = new ArrayList<MemoryConsumer>();
+    for (MemoryConsumer consumer : consumers) {
+      if (taskId.equals(consumer.getTaskId())) {
+        remains.add(consumer);
+      }
+    }
+    for (MemoryConsumer consumer : remains) {
+      LOG.warn(consumer + " did not release " + FileUtil.humanReadableByteCount(consumer.reserved, false));
+      release(consumer);
+    }
+    taskUsages.remove(taskId);
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  public synchronized long getUsedMemory() {
+    return used;
+  }
+
+  /**
+   * @return The memory which a consumer that cannot spill can reserve, once spillable consumers spill and caches are
+   *         evicted
+   */
+  public synchronized long getReservableMemory() {
+    long reservable = capacity;
+    for (MemoryConsumer consumer : consumers) {
+      if (!consumer.isSpillable() && consumer.getEvictable() == null) {
+        reservable -= consumer.reserved;
+      }
+    }
+    return Math.max(reservable, 0);
+  }
+
+  public synchronized long getPeakMemory() {
+    return peak;
+  }
+
+  public synchronized long getTaskMemory(TaskAttemptId taskId) {
+    TaskMemoryUsage taskUsage = taskUsages.get(taskId);
+    return taskUsage == null ? 0 : taskUsage.used;
+  }
+
+  public synchronized long getTaskPeakMemory(TaskAttemptId taskId) {
+    TaskMemoryUsage taskUsage = taskUsages.get(taskId);
+    return taskUsage == null ? 0 : taskUsage.peak;
+  }
+
+  public synchronized long getQueryMemory(QueryId queryId) {
+    Long queryUsage = queryUsages.get(queryId);
+    return queryUsage == null ? 0 : queryUsage;
+  }
+
+  /**
+   * @return The memory usage of queries holding memory
+   */
+  public synchronized Map<QueryId, Long> getQueryMemoryUsages() {
+    return new HashMap<QueryId, Long>(queryUsages);
+  }
+
+  public synchronized long getSpillRequestNum() {
+    return spillRequestNum;
+  }
+
+  public synchronized long getRefusedNum() {
+    return refusedNum;
+  }
+
+  public synchronized long getEvictionNum() {
+    return evictionNum;
+  }
+
+  private static class TaskMemoryUsage {
+    long used;
+    long peak;
+  }
+}
@@ -28,14 +28,14 @@ public class TaskRunnerStartEvent extends TaskRunnerEvent {
   private final QueryContext queryContext;
   private final WorkerConnectionInfo queryMaster;
   private final String containerId;
-  private final String plan;
+  private final PlanProto.LogicalNodeTree plan;
   private final PlanProto.ShuffleType shuffleType;
 
   public TaskRunnerStartEvent(WorkerConnectionInfo queryMaster,
                               ExecutionBlockId executionBlockId,
                               String containerId,
                               QueryContext context,
-                              String plan,
+                              PlanProto.LogicalNodeTree plan,
                               PlanProto.ShuffleType shuffleType) {
     super(EventType.START, executionBlockId);
     this.queryMaster = queryMaster;
@@ -57,7 +57,7 @@ public class TaskRunnerStartEvent extends TaskRunnerEvent {
     return queryContext;
   }
 
-  public String getPlan() {
+  public PlanProto.LogicalNodeTree getPlan() {
     return plan;
   }
 
@@ -19,6 +19,7 @@
 package org.apache.tajo.ws.rs;
 
 import org.apache.tajo.QueryId;
+import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.master.TajoMaster.MasterContext;
 import org.apache.tajo.master.exec.NonForwardQueryResultScanner;
 import org.apache.tajo.ws.rs.resources.ClusterResource;
@@ -38,6 +39,7 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -51,8 +53,13 @@ public class ClientApplication extends Application {
   
   private final SecureRandom secureRandom;
 
+  /** Streams of query results, each of which holds a handler thread of the REST server */
+  private final Semaphore streamPermits;
+
   public ClientApplication(MasterContext masterContext) {
     this.masterContext = masterContext;
+    this.streamPermits = new Semaphore(
+        masterContext.getConf().getIntVar(TajoConf.ConfVars.REST_SERVICE_MAX_CONCURRENT_STREAMS));
     
     this.secureRandom = new SecureRandom();
     
@@ -81,6 +88,17 @@ public class ClientApplication extends Application {
   public MasterContext getMasterContext() {
     return masterContext;
   }
+
+  /**
+   * @return True if a new result stream can start. Then, {@link #releaseStream()} should be called when it ends.
+   */
+  public boolean tryAcquireStream() {
+    return streamPermits.tryAcquire();
+  }
+
+  public void releaseStream() {
+    streamPermits.release();
+  }
   
   /**
    * It returns generated 8-byte size integer.
@@ -44,4 +44,14 @@ public class ResourcesUtil {
     response.setMessage(message);
     return Response.status(Response.Status.BAD_REQUEST).entity(response).build();
   }
+
+  public static Response createServiceUnavailableResponse(Log log, String message) {
+    if (log != null) {
+      log.warn(message);
+    }
+
+    ExceptionResponse response = new ExceptionResponse();
+    response.setMessage(message);
+    return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity(response).build();
+  }
 }
@@ -44,6 +44,7 @@ import org.apache.tajo.plan.logical.LogicalNode;
 import org.apache.tajo.plan.serder.EvalNodeAdapter;
 import org.apache.tajo.plan.serder.LogicalNodeAdapter;
 import org.apache.tajo.util.TUtil;
+import org.apache.tajo.ws.rs.netty.NettyRestHandlerContainer;
 import org.apache.tajo.ws.rs.netty.NettyRestServer;
 import org.apache.tajo.ws.rs.netty.NettyRestServerFactory;
 import org.apache.tajo.ws.rs.netty.gson.GsonFeature;
@@ -91,13 +92,20 @@ public class TajoRestService extends CompositeService {
   protected void serviceInit(Configuration conf) throws Exception {
     GsonFeature gsonFeature = new GsonFeature(registerTypeAdapterMap());
     
+    TajoConf tajoConf = (TajoConf) conf;
+    int handlerNum = TajoConf.getIntVar(tajoConf, TajoConf.ConfVars.REST_SERVICE_HANDLER_THREAD_NUM);
+    if (TajoConf.getIntVar(tajoConf, TajoConf.ConfVars.REST_SERVICE_MAX_CONCURRENT_STREAMS) >= handlerNum) {
+      LOG.warn(TajoConf.ConfVars.REST_SERVICE_MAX_CONCURRENT_STREAMS.keyname() + " is not less than " +
+          TajoConf.ConfVars.REST_SERVICE_HANDLER_THREAD_NUM.keyname() +
+          ", so result streams can block other requests.");
+    }
     ClientApplication clientApplication = new ClientApplication(masterContext);
     ResourceConfig resourceConfig = ResourceConfig.forApplication(clientApplication)
         .register(gsonFeature)
         .register(LoggingFilter.class)
         .property(ServerProperties.FEATURE_AUTO_DISCOVERY_DISABLE, true)
-        .property(ServerProperties.METAINF_SERVICES_LOOKUP_DISABLE, true);
-    TajoConf tajoConf = (TajoConf) conf;
+        .property(ServerProperties.METAINF_SERVICES_LOOKUP_DISABLE, true)
+        .property(NettyRestHandlerContainer.HANDLER_THREAD_NUM, handlerNum);
 
     int port = TajoConf.getIntVar(tajoConf, TajoConf.ConfVars.REST_SERVICE_PORT);
     URI restServiceURI = new URI("http", null, "0.0.0.0", port, "/rest", null, null);
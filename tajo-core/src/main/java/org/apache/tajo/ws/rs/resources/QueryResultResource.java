@@ -23,7 +23,12 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.QueryId;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.datum.Datum;
 import org.apache.tajo.ipc.ClientProtos.ResultCode;
 import org.apache.tajo.master.QueryInfo;
 import org.apache.tajo.master.TajoMaster.MasterContext;
@@ -33,6 +38,12 @@ import org.apache.tajo.plan.LogicalPlan;
 import org.apache.tajo.plan.logical.PartitionedTableScanNode;
 import org.apache.tajo.plan.logical.ScanNode;
 import org.apache.tajo.session.Session;
+import org.apache.tajo.storage.RowStoreUtil;
+import org.apache.tajo.storage.RowStoreUtil.RowStoreEncoder;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.json.JsonLineSerializer;
+import org.apache.tajo.storage.text.TextFieldSerializerDeserializer;
+import org.apache.tajo.storage.text.TextLineSerializer;
 import org.apache.tajo.util.TajoIdUtils;
 import org.apache.tajo.ws.rs.*;
 import org.apache.tajo.ws.rs.responses.GetQueryResultDataResponse;
@@ -42,6 +53,7 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.*;
 import javax.ws.rs.core.Response.Status;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -70,8 +82,13 @@ public class QueryResultResource {
   private static final String cacheIdKeyName = "cacheId";
   private static final String offsetKeyName = "offset";
   private static final String countKeyName = "count";
+  private static final String formatKeyName = "format";
+
+  private static final String csvMediaType = "text/csv";
+  private static final String jsonLinesMediaType = "application/x-ndjson";
 
   private static final String tajoDigestHeaderName = "X-Tajo-Digest";
+  private static final String transferEncodingHeaderName = "Transfer-Encoding";
 
   public UriInfo getUriInfo() {
     return uriInfo;
@@ -365,28 +382,318 @@ public class QueryResultResource {
       }
     }
 
-    private void skipOffsetRow(NonForwardQueryResultScanner queryResultScanner, int offset) throws IOException {
-      if (offset < 0) {
+    private String getEncodedBase64DigestString(List<ByteString> outputList) throws NoSuchAlgorithmException {
+      MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+
+      for (ByteString byteString: outputList) {
+        messageDigest.update(byteString.toByteArray());
+      }
+
+      return Base64.encodeBase64String(messageDigest.digest());
+    }
+  }
+
+  private static void skipOffsetRow(NonForwardQueryResultScanner queryResultScanner, int offset) throws IOException {
+    if (offset < 0) {
+      return;
+    }
+
+    int currentRow = queryResultScanner.getCurrentRowNumber();
+
+    if (offset < (currentRow+1)) {
+      throw new RuntimeException("Offset must be over the current row number");
+    }
+
+    queryResultScanner.getNextRows(offset - currentRow - 1);
+  }
+
+  @GET
+  @Path("{cacheId}/stream")
+  @Produces({MediaType.APPLICATION_OCTET_STREAM, csvMediaType, jsonLinesMediaType})
+  public Response getQueryResultStream(@HeaderParam(QueryResource.tajoSessionIdHeaderName) String sessionId,
+      @PathParam("cacheId") String cacheId,
+      @DefaultValue("-1") @QueryParam("offset") int offset,
+      @DefaultValue("binary") @QueryParam("format") String format) {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Client sent a get query result stream request.");
+    }
+
+    Response response = null;
+    try {
+      initializeContext();
+      JerseyResourceDelegateContextKey<String> sessionIdKey =
+          JerseyResourceDelegateContextKey.valueOf(sessionIdKeyName, String.class);
+      context.put(sessionIdKey, sessionId);
+      JerseyResourceDelegateContextKey<Long> cacheIdKey =
+          JerseyResourceDelegateContextKey.valueOf(cacheIdKeyName, Long.class);
+      context.put(cacheIdKey, Long.valueOf(cacheId));
+      JerseyResourceDelegateContextKey<Integer> offsetKey =
+          JerseyResourceDelegateContextKey.valueOf(offsetKeyName, Integer.class);
+      context.put(offsetKey, offset);
+      JerseyResourceDelegateContextKey<String> formatKey =
+          JerseyResourceDelegateContextKey.valueOf(formatKeyName, String.class);
+      context.put(formatKey, format);
+
+      response = JerseyResourceDelegateUtil.runJerseyResourceDelegate(
+          new GetQueryResultStreamDelegate(),
+          application,
+          context,
+          LOG);
+    } catch (Throwable e) {
+      LOG.error(e.getMessage(), e);
+
+      response = ResourcesUtil.createExceptionResponse(null, e.getMessage());
+    }
+
+    return response;
+  }
+
+  /**
+   * It streams all remaining rows in a chunked response instead of fetching a batch of rows per request.
+   */
+  private static class GetQueryResultStreamDelegate implements JerseyResourceDelegate {
+
+    @Override
+    public Response run(JerseyResourceDelegateContext context) {
+      JerseyResourceDelegateContextKey<String> sessionIdKey =
+          JerseyResourceDelegateContextKey.valueOf(sessionIdKeyName, String.class);
+      String sessionId = context.get(sessionIdKey);
+      JerseyResourceDelegateContextKey<String> queryIdKey =
+          JerseyResourceDelegateContextKey.valueOf(queryIdKeyName, String.class);
+      String queryId = context.get(queryIdKey);
+      JerseyResourceDelegateContextKey<Long> cacheIdKey =
+          JerseyResourceDelegateContextKey.valueOf(cacheIdKeyName, Long.class);
+      Long cacheId = context.get(cacheIdKey);
+      JerseyResourceDelegateContextKey<ClientApplication> clientApplicationKey =
+          JerseyResourceDelegateContextKey.valueOf(JerseyResourceDelegateUtil.ClientApplicationKey, ClientApplication.class);
+      ClientApplication clientApplication = context.get(clientApplicationKey);
+      JerseyResourceDelegateContextKey<Integer> offsetKey =
+          JerseyResourceDelegateContextKey.valueOf(offsetKeyName, Integer.class);
+      int offset = context.get(offsetKey);
+      JerseyResourceDelegateContextKey<String> formatKey =
+          JerseyResourceDelegateContextKey.valueOf(formatKeyName, String.class);
+      String format = context.get(formatKey);
+
+      if (sessionId == null || sessionId.isEmpty()) {
+        return ResourcesUtil.createBadRequestResponse(LOG, "Session id is required. Please refer the header " +
+            QueryResource.tajoSessionIdHeaderName);
+      }
+
+      if (queryId == null || queryId.isEmpty()) {
+        return ResourcesUtil.createBadRequestResponse(LOG, "Query id is required. Please specify the query id");
+      }
+
+      QueryId queryIdObj;
+      try {
+        queryIdObj = TajoIdUtils.parseQueryId(queryId);
+      } catch (Throwable e) {
+        return ResourcesUtil.createExceptionResponse(LOG, "Invalid query id : " + queryId);
+      }
+
+      if (cacheId == null || cacheId.longValue() == 0) {
+        return ResourcesUtil.createBadRequestResponse(LOG, "Cache id is null or empty.");
+      }
+
+      ResultFormat resultFormat;
+      try {
+        resultFormat = ResultFormat.valueOf(format.toUpperCase());
+      } catch (IllegalArgumentException e) {
+        return ResourcesUtil.createBadRequestResponse(LOG, "Invalid format : " + format);
+      }
+
+      NonForwardQueryResultScanner cachedQueryResultScanner =
+          clientApplication.getCachedNonForwardResultScanner(queryIdObj, cacheId.longValue());
+
+      // a stream holds a handler thread until it ends, so the other requests should not wait for all streams
+      if (!clientApplication.tryAcquireStream()) {
+        return ResourcesUtil.createServiceUnavailableResponse(LOG,
+            "Too many result streams are running. Please retry later.");
+      }
+
+      boolean started = false;
+      try {
+        skipOffsetRow(cachedQueryResultScanner, offset);
+
+        Response response = Response.ok(
+            new QueryResultChunkedOutput(cachedQueryResultScanner, resultFormat, clientApplication))
+            .type(resultFormat.mediaType)
+            .header(transferEncodingHeaderName, "chunked")
+            .build();
+        started = true;
+        return response;
+      } catch (IOException e) {
+        LOG.error(e.getMessage(), e);
+
+        return ResourcesUtil.createExceptionResponse(null, e.getMessage());
+      } finally {
+        if (!started) {
+          clientApplication.releaseStream();
+        }
+      }
+    }
+  }
+
+  private enum ResultFormat {
+    // the same as the response of getQueryResultSet
+    BINARY(MediaType.APPLICATION_OCTET_STREAM),
+    CSV(csvMediaType),
+    // json lines
+    JSON(jsonLinesMediaType);
+
+    private final String mediaType;
+
+    ResultFormat(String mediaType) {
+      this.mediaType = mediaType;
+    }
+  }
+
+  /**
+   * It writes rows directly from the scanner, so that only a row is kept in memory at a time.
+   */
+  private static class QueryResultChunkedOutput implements StreamingOutput {
+
+    private final NonForwardQueryResultScanner scanner;
+    private final ResultFormat format;
+    private final ClientApplication clientApplication;
+
+    public QueryResultChunkedOutput(NonForwardQueryResultScanner scanner, ResultFormat format,
+                                    ClientApplication clientApplication) {
+      this.scanner = scanner;
+      this.format = format;
+      this.clientApplication = clientApplication;
+    }
+
+    @Override
+    public void write(OutputStream outputStream) throws IOException, WebApplicationException {
+      try {
+        writeRows(outputStream);
+      } finally {
+        clientApplication.releaseStream();
+      }
+    }
+
+    private void writeRows(OutputStream outputStream) throws IOException {
+      Schema schema = scanner.getLogicalSchema();
+
+      if (format == ResultFormat.BINARY) {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        RowStoreEncoder encoder = RowStoreUtil.createEncoder(schema);
+        Tuple tuple;
+        while ((tuple = scanner.nextRow()) != null) {
+          byte[] row = encoder.toBytes(tuple);
+          out.writeInt(row.length);
+          out.write(row);
+        }
+        out.flush();
         return;
       }
 
-      int currentRow = queryResultScanner.getCurrentRowNumber();
+      TextLineSerializer serializer;
+      byte[] lineDelimiter;
+      if (format == ResultFormat.CSV) {
+        serializer = new RFC4180LineSerializer(schema, CatalogUtil.newTableMeta(StoreType.TEXTFILE));
+        lineDelimiter = RFC4180LineSerializer.LINE_DELIMITER;
+      } else {
+        serializer = new JsonLineSerializer(schema, CatalogUtil.newTableMeta(StoreType.JSON));
+        lineDelimiter = new byte[] {'\n'};
+      }
 
-      if (offset < (currentRow+1)) {
-        throw new RuntimeException("Offset must be over the current row number");
+      serializer.init();
+      try {
+        Tuple tuple;
+        while ((tuple = scanner.nextRow()) != null) {
+          serializer.serialize(outputStream, tuple);
+          outputStream.write(lineDelimiter);
+        }
+        outputStream.flush();
+      } finally {
+        serializer.release();
       }
+    }
+  }
+
+  /**
+   * It writes a row in CSV of RFC 4180. A field containing a comma, a double quote or a line break is enclosed in
+   * double quotes, and double quotes in it are doubled. A NULL is an empty field, and an empty text is "".
+   */
+  static class RFC4180LineSerializer extends TextLineSerializer {
+    static final byte[] LINE_DELIMITER = {'\r', '\n'};
+    private static final byte[] EMPTY_QUOTED = {'"', '"'};
+    private static final byte[] NULL_CHARS = new byte[0];
+
+    private TextFieldSerializerDeserializer serde;
+    private ByteArrayOutputStream fieldBuffer;
 
-      queryResultScanner.getNextRows(offset - currentRow - 1);
+    public RFC4180LineSerializer(Schema schema, TableMeta meta) {
+      super(schema, meta);
     }
 
-    private String getEncodedBase64DigestString(List<ByteString> outputList) throws NoSuchAlgorithmException {
-      MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+    @Override
+    public void init() {
+      serde = new TextFieldSerializerDeserializer(meta);
+      fieldBuffer = new ByteArrayOutputStream();
+    }
 
-      for (ByteString byteString: outputList) {
-        messageDigest.update(byteString.toByteArray());
+    @Override
+    public int serialize(OutputStream out, Tuple input) throws IOException {
+      int writtenBytes = 0;
+      for (int i = 0; i < schema.size(); i++) {
+        if (i > 0) {
+          out.write(',');
+          writtenBytes++;
+        }
+
+        Datum datum = input.get(i);
+        if (datum == null || datum.isNull()) {
+          continue;
+        }
+
+        fieldBuffer.reset();
+        serde.serialize(fieldBuffer, datum, schema.getColumn(i), i, NULL_CHARS);
+        byte[] field = fieldBuffer.toByteArray();
+        if (field.length == 0) {
+          out.write(EMPTY_QUOTED);
+          writtenBytes += EMPTY_QUOTED.length;
+        } else if (needsQuote(field)) {
+          writtenBytes += writeQuoted(out, field);
+        } else {
+          out.write(field);
+          writtenBytes += field.length;
+        }
       }
+      return writtenBytes;
+    }
 
-      return Base64.encodeBase64String(messageDigest.digest());
+    private static boolean needsQuote(byte[] field) {
+      for (byte b : field) {
+        if (b == ',' || b == '"' || b == '\r' || b == '\n') {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static int writeQuoted(OutputStream out, byte[] field) throws IOException {
+      int writtenBytes = 2;
+      out.write('"');
+      int start = 0;
+      for (int i = 0; i < field.length; i++) {
+        if (field[i] == '"') {
+          // the quote is written twice, once with the preceding bytes and once more here
+          out.write(field, start, i - start + 1);
+          out.write('"');
+          writtenBytes += i - start + 2;
+          start = i + 1;
+        }
+      }
+      out.write(field, start, field.length - start);
+      writtenBytes += field.length - start;
+      out.write('"');
+      return writtenBytes;
+    }
+
+    @Override
+    public void release() {
     }
   }
 
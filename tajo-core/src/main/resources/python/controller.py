@@ -18,7 +18,7 @@
 import sys
 import os
 import logging
-import base64
+import struct
 
 from datetime import datetime
 try:
@@ -29,48 +29,31 @@ except ImportError:
 
 from tajo_util import write_user_exception, udf_logging
 
-FIELD_DELIMITER = ','
-TUPLE_START = '('
-TUPLE_END = ')'
-BAG_START = '{'
-BAG_END = '}'
-MAP_START = '['
-MAP_END = ']'
-MAP_KEY = '#'
-PARAMETER_DELIMITER = '\t'
-PRE_WRAP_DELIM = '|'
-POST_WRAP_DELIM = '_'
-NULL_BYTE = "-"
-END_RECORD_DELIM = '|_\n'
-END_RECORD_DELIM_LENGTH = len(END_RECORD_DELIM)
-
-WRAPPED_FIELD_DELIMITER = PRE_WRAP_DELIM + FIELD_DELIMITER + POST_WRAP_DELIM
-WRAPPED_TUPLE_START = PRE_WRAP_DELIM + TUPLE_START + POST_WRAP_DELIM
-WRAPPED_TUPLE_END = PRE_WRAP_DELIM + TUPLE_END + POST_WRAP_DELIM
-WRAPPED_BAG_START = PRE_WRAP_DELIM + BAG_START + POST_WRAP_DELIM
-WRAPPED_BAG_END = PRE_WRAP_DELIM + BAG_END + POST_WRAP_DELIM
-WRAPPED_MAP_START = PRE_WRAP_DELIM + MAP_START + POST_WRAP_DELIM
-WRAPPED_MAP_END = PRE_WRAP_DELIM + MAP_END + POST_WRAP_DELIM
-WRAPPED_PARAMETER_DELIMITER = PRE_WRAP_DELIM + PARAMETER_DELIMITER + POST_WRAP_DELIM
-WRAPPED_NULL_BYTE = PRE_WRAP_DELIM + NULL_BYTE + POST_WRAP_DELIM
-
-TYPE_TUPLE = TUPLE_START
-TYPE_BAG = BAG_START
-TYPE_MAP = MAP_START
-
-TYPE_BOOLEAN = "B"
-TYPE_INTEGER = "I"
-TYPE_LONG = "L"
-TYPE_FLOAT = "F"
-TYPE_DOUBLE = "D"
-TYPE_BYTEARRAY = "A"
-TYPE_CHARARRAY = "C"
-TYPE_DATETIME = "T"
-TYPE_BIGINTEGER = "N"
-TYPE_BIGDECIMAL = "E"
-
-END_OF_STREAM = TYPE_CHARARRAY + "\x04" + END_RECORD_DELIM
-TURN_ON_OUTPUT_CAPTURING = TYPE_CHARARRAY + "TURN_ON_OUTPUT_CAPTURING" + END_RECORD_DELIM
+if sys.version_info[0] >= 3:
+    unicode = str
+    long = int
+    xrange = range
+
+# Value tags of the batch protocol (see org.apache.tajo.plan.function.python.PythonBatchProtocol)
+TYPE_NULL = b'N'
+TYPE_BOOLEAN = b'B'
+TYPE_INTEGER = b'I'
+TYPE_LONG = b'L'
+TYPE_DOUBLE = b'D'
+TYPE_CHARARRAY = b'C'
+TYPE_BYTEARRAY = b'A'
+TYPE_DATETIME = b'T'
+
+INT_STRUCT = struct.Struct('>i')
+LONG_STRUCT = struct.Struct('>q')
+DOUBLE_STRUCT = struct.Struct('>d')
+BATCH_HEADER_STRUCT = struct.Struct('>ii')
+
+DATETIME_FORMATS = ["%Y-%m-%d %H:%M:%S.%f", "%Y-%m-%d %H:%M:%S", "%Y-%m-%d", "%H:%M:%S.%f", "%H:%M:%S"]
+
+MIN_LONG = -(1 << 63)
+MAX_LONG = (1 << 63) - 1
+
 NUM_LINES_OFFSET_TRACE = int(os.environ.get('PYTHON_TRACE_OFFSET', 0))
 
 class PythonStreamingController:
@@ -80,16 +63,15 @@ class PythonStreamingController:
     def main(self,
              module_name, file_path, func_name, cache_path,
              output_stream_path, error_stream_path, log_file_name, output_schema):
-        sys.stdin = os.fdopen(sys.stdin.fileno(), 'rb', 0)
+        self.input_stream = os.fdopen(sys.stdin.fileno(), 'rb')
 
-        # Need to ensure that user functions can't write to the streams we use to communicate with pig.
+        # Need to ensure that user functions can't write to the streams we use to communicate with tajo.
         self.stream_output = os.fdopen(sys.stdout.fileno(), 'wb', 0)
-        self.stream_error = os.fdopen(sys.stderr.fileno(), 'wb', 0)
-
-        self.input_stream = sys.stdin
+        self.stream_error = os.fdopen(sys.stderr.fileno(), 'w')
         # TODO: support controller logging
-        # self.log_stream = open(output_stream_path, 'a')
-        # sys.stderr = open(error_stream_path, 'w')
+        # A controller is reused by many tasks, so what user functions print is discarded
+        # instead of filling up the pipes which are not read.
+        sys.stdout = sys.stderr = open(os.devnull, 'w')
 
         sys.path.append(file_path)
         sys.path.append(cache_path)
@@ -101,228 +83,176 @@ class PythonStreamingController:
             logging.info("To reduce the amount of information being logged only a small subset of rows are logged at the "
                          "INFO level.  Call udf_logging.set_log_level_debug in tajo_util to see all rows being processed.")
 
-        input_str = self.get_next_input()
-
         try:
-            func = __import__(module_name, globals(), locals(), [func_name], -1).__dict__[func_name]
+            func = __import__(module_name, globals(), locals(), [func_name]).__dict__[func_name]
         except:
             # These errors should always be caused by user code.
             write_user_exception(module_name, self.stream_error, NUM_LINES_OFFSET_TRACE)
             self.close_controller(-1)
 
+        # A vectorized function takes a list of values for each parameter, and returns a list of results.
+        vectorized = getattr(func, 'vectorized', False)
+
         log_message = logging.info
         if udf_logging.udf_log_level == logging.DEBUG:
             log_message = logging.debug
 
-        while input_str != END_OF_STREAM:
+        batch = self.get_next_batch()
+        while batch is not None:
             try:
                 try:
+                    row_num, columns = deserialize_batch(batch)
                     if should_log:
-                        log_message("Serialized Input: %s" % (input_str))
-                    inputs = deserialize_input(input_str)
-                    if should_log:
-                        log_message("Deserialized Input: %s" % (unicode(inputs)))
+                        log_message("Deserialized Input: %s" % (unicode(columns)))
                 except:
                     # Capture errors where the user passes in bad data.
                     write_user_exception(module_name, self.stream_error, NUM_LINES_OFFSET_TRACE)
                     self.close_controller(-3)
 
                 try:
-                    func_output = func(*inputs)
+                    if vectorized:
+                        outputs = func(*columns)
+                        if len(outputs) != row_num:
+                            raise ValueError("A vectorized function must return %d results, but %d results are returned"
+                                             % (row_num, len(outputs)))
+                    elif len(columns) == 0:
+                        outputs = [func() for i in xrange(row_num)]
+                    else:
+                        outputs = [func(*params) for params in zip(*columns)]
                     if should_log:
-                        log_message("UDF Output: %s" % (unicode(func_output)))
+                        log_message("UDF Output: %s" % (unicode(outputs)))
                 except:
                     # These errors should always be caused by user code.
                     write_user_exception(module_name, self.stream_error, NUM_LINES_OFFSET_TRACE)
                     self.close_controller(-2)
 
-                output = serialize_output(func_output, output_schema)
-                if should_log:
-                    log_message("Serialized Output: %s" % (output))
-
-                self.stream_output.write( "%s%s" % (output, END_RECORD_DELIM) )
+                self.stream_output.write(serialize_outputs(outputs))
             except Exception as e:
                 # This should only catch internal exceptions with the controller
-                # and pig- not with user code.
+                # and tajo- not with user code.
                 import traceback
                 traceback.print_exc(file=self.stream_error)
                 sys.exit(-3)
 
-            sys.stdout.flush()
-            sys.stderr.flush()
-            self.stream_output.flush()
-            self.stream_error.flush()
-
-            input_str = self.get_next_input()
-
-    def get_next_input(self):
-        input_stream = self.input_stream
-        # log_stream = self.log_stream
-
-        input_str = input_stream.readline()
-
-        while input_str.endswith(END_RECORD_DELIM) == False:
-            line = input_stream.readline()
-            if line == '':
-                input_str = ''
-                break
-            input_str += line
-
-        if input_str == '':
-            return END_OF_STREAM
-
-        if input_str == END_OF_STREAM:
-            return input_str
-
-        return input_str[:-END_RECORD_DELIM_LENGTH]
+            batch = self.get_next_batch()
+
+    def get_next_batch(self):
+        """
+        Reads the payload of the next batch, or returns None at the end of the stream.
+        """
+        header = self.input_stream.read(INT_STRUCT.size)
+        if len(header) < INT_STRUCT.size:
+            return None
+        length = INT_STRUCT.unpack(header)[0]
+        payload = self.input_stream.read(length)
+        if len(payload) < length:
+            return None
+        return payload
 
     def close_controller(self, exit_code):
-        sys.stderr.close()
         self.stream_error.write("\n")
         self.stream_error.close()
-        sys.stdout.close()
-        self.stream_output.write("\n")
         self.stream_output.close()
         sys.exit(exit_code)
 
-def deserialize_input(input_str):
-    if len(input_str) == 0:
-        return []
-
-    return [_deserialize_input(param, 0, len(param)) for param in input_str.split(WRAPPED_FIELD_DELIMITER)]
-
-def _deserialize_input(input_str, si, ei):
-    len = ei - si + 1
-    if len < 1:
-        # Handle all of the cases where you can have valid empty input.
-        if ei == si:
-            if input_str[si] == TYPE_CHARARRAY:
-                return u""
-            elif input_str[si] == TYPE_BYTEARRAY:
-                return bytearray("")
-            else:
-                raise Exception("Got input type flag %s, but no data to go with it.\nInput string: %s\nSlice: %s" % (input_str[si], input_str, input_str[si:ei+1]))
-        else:
-            raise Exception("Start index %d greater than end index %d.\nInput string: %s\n, Slice: %s" % (si, ei, input_str[si:ei+1]))
-
-    tokens = input_str.split(WRAPPED_PARAMETER_DELIMITER)
-    schema = tokens[0];
-    param = tokens[1];
-
-    if schema == NULL_BYTE:
-        return None
-    elif schema == TYPE_CHARARRAY:
-        return unicode(param, 'utf-8')
-    elif schema == TYPE_BYTEARRAY:
-        return bytearray(param)
-    elif schema == TYPE_INTEGER:
-        return int(param)
-    elif schema == TYPE_LONG or schema == TYPE_BIGINTEGER:
-        return long(param)
-    elif schema == TYPE_FLOAT or schema == TYPE_DOUBLE or schema == TYPE_BIGDECIMAL:
-        return float(param)
-    elif schema == TYPE_BOOLEAN:
-        return param == "true"
-    elif schema == TYPE_DATETIME:
-        # Format is "yyyy-MM-ddTHH:mm:ss.SSS+00:00" or "2013-08-23T18:14:03.123+ZZ"
-        if USE_DATEUTIL:
-            return parser.parse(param)
-        else:
-            # Try to use datetime even though it doesn't handle time zones properly,
-            # We only use the first 3 microsecond digits and drop time zone (first 23 characters)
-            return datetime.strptime(param, "%Y-%m-%dT%H:%M:%S.%f")
-    else:
-        raise Exception("Can't determine type of input: %s" % param)
-
-def _deserialize_collection(input_str, return_type, si, ei):
-    list_result = []
-    append_to_list_result = list_result.append
-    dict_result = {}
-
-    index = si
-    field_start = si
-    depth = 0
-
-    key = None
-
-    # recurse to deserialize elements if the collection is not empty
-    if ei-si+1 > 0:
-        while True:
-            if index >= ei - 2:
-                if return_type == TYPE_MAP:
-                    dict_result[key] = _deserialize_input(input_str, value_start, ei)
-                else:
-                    append_to_list_result(_deserialize_input(input_str, field_start, ei))
-                break
-
-            if return_type == TYPE_MAP and not key:
-                key_index = input_str.find(MAP_KEY, index)
-                key = unicode(input_str[index+1:key_index], 'utf-8')
-                index = key_index + 1
-                value_start = key_index + 1
-                continue
-
-            if not (input_str[index] == PRE_WRAP_DELIM and input_str[index+2] == POST_WRAP_DELIM):
-                prewrap_index = input_str.find(PRE_WRAP_DELIM, index+1)
-                index = (prewrap_index if prewrap_index != -1 else end_index)
-                continue
-
-            mid = input_str[index+1]
-
-            if mid == BAG_START or mid == TUPLE_START or mid == MAP_START:
-                depth += 1
-            elif mid == BAG_END or mid == TUPLE_END or mid == MAP_END:
-                depth -= 1
-            elif depth == 0 and mid == FIELD_DELIMITER:
-                if return_type == TYPE_MAP:
-                    dict_result[key] = _deserialize_input(input_str, value_start, index - 1)
-                    key = None
-                else:
-                    append_to_list_result(_deserialize_input(input_str, field_start, index - 1))
-                field_start = index + 3
-
-            index += 3
-
-    if return_type == TYPE_MAP:
-        return dict_result
-    elif return_type == TYPE_TUPLE:
-        return tuple(list_result)
+def deserialize_batch(payload):
+    """
+    Returns the number of rows and a list of values for each column.
+    """
+    row_num, column_num = BATCH_HEADER_STRUCT.unpack_from(payload, 0)
+    offset = BATCH_HEADER_STRUCT.size
+    columns = []
+    for c in xrange(column_num):
+        column = []
+        append = column.append
+        for r in xrange(row_num):
+            value, offset = deserialize_value(payload, offset)
+            append(value)
+        columns.append(column)
+    return row_num, columns
+
+def deserialize_value(payload, offset):
+    tag = payload[offset:offset + 1]
+    offset += 1
+
+    if tag == TYPE_NULL:
+        return None, offset
+    elif tag == TYPE_INTEGER:
+        return INT_STRUCT.unpack_from(payload, offset)[0], offset + INT_STRUCT.size
+    elif tag == TYPE_LONG:
+        return long(LONG_STRUCT.unpack_from(payload, offset)[0]), offset + LONG_STRUCT.size
+    elif tag == TYPE_DOUBLE:
+        return DOUBLE_STRUCT.unpack_from(payload, offset)[0], offset + DOUBLE_STRUCT.size
+    elif tag == TYPE_BOOLEAN:
+        return payload[offset:offset + 1] != b'\x00', offset + 1
+
+    length = INT_STRUCT.unpack_from(payload, offset)[0]
+    offset += INT_STRUCT.size
+    data = payload[offset:offset + length]
+    offset += length
+
+    if tag == TYPE_CHARARRAY:
+        return unicode(data, 'utf-8'), offset
+    elif tag == TYPE_BYTEARRAY:
+        return bytearray(data), offset
+    elif tag == TYPE_DATETIME:
+        return deserialize_datetime(data.decode('utf-8')), offset
     else:
-        return list_result
+        raise Exception("Can't determine type of input: %s" % tag)
 
-def wrap_tuple(o, serialized_item):
-    if type(o) != tuple:
-        return WRAPPED_TUPLE_START + serialized_item + WRAPPED_TUPLE_END
-    else:
-        return serialized_item
+def deserialize_datetime(data):
+    if USE_DATEUTIL:
+        return parser.parse(data)
+
+    # Try to use datetime even though it doesn't handle time zones properly,
+    # We only use the first 3 microsecond digits and drop time zone (first 23 characters)
+    for format in DATETIME_FORMATS:
+        try:
+            return datetime.strptime(data[:23], format)
+        except ValueError:
+            pass
+    raise ValueError("Can't parse datetime: %s" % data)
 
-def serialize_output(output, out_schema, utfEncodeAllFields=False):
+def serialize_outputs(outputs):
     """
-    @param utfEncodeStrings - Generally we want to utf encode only strings.  But for
-        Maps we utf encode everything because on the Java side we don't know the schema
-        for maps so we wouldn't be able to tell which fields were encoded or not.
+    Returns a response which has the serialized value of each output.
     """
-
+    buf = [INT_STRUCT.pack(len(outputs))]
+    append = buf.append
+    for output in outputs:
+        serialize_output(output, append)
+    payload = b''.join(buf)
+    return INT_STRUCT.pack(len(payload)) + payload
+
+def serialize_output(output, append):
     output_type = type(output)
 
     if output is None:
-        result = WRAPPED_NULL_BYTE
+        append(TYPE_NULL)
     elif output_type == bool:
-        result = ("true" if output else "false")
+        append(TYPE_BOOLEAN)
+        append(b'\x01' if output else b'\x00')
+    elif (output_type == int or output_type == long) and MIN_LONG <= output <= MAX_LONG:
+        append(TYPE_LONG)
+        append(LONG_STRUCT.pack(output))
+    elif output_type == float:
+        append(TYPE_DOUBLE)
+        append(DOUBLE_STRUCT.pack(output))
     elif output_type == bytearray:
-        result = str(output)
+        append_bytes(TYPE_BYTEARRAY, bytes(output), append)
     elif output_type == datetime:
-        result = output.isoformat()
-    elif utfEncodeAllFields or output_type == str or output_type == unicode:
-        # unicode is necessary in cases where we're encoding non-strings.
-        result = unicode(output).encode('utf-8')
+        append_bytes(TYPE_CHARARRAY, output.isoformat().encode('utf-8'), append)
+    elif output_type == unicode:
+        append_bytes(TYPE_CHARARRAY, output.encode('utf-8'), append)
+    elif output_type == bytes:
+        append_bytes(TYPE_CHARARRAY, output, append)
     else:
-        result = str(output)
+        append_bytes(TYPE_CHARARRAY, unicode(output).encode('utf-8'), append)
 
-    if out_schema == "blob":
-        return base64.b64encode(result)
-    else:
-        return result
+def append_bytes(tag, data, append):
+    append(tag)
+    append(INT_STRUCT.pack(len(data)))
+    append(data)
 
 if __name__ == '__main__':
     controller = PythonStreamingController()
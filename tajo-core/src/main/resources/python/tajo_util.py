@@ -16,6 +16,7 @@
 #  See the License for the specific language governing permissions and
 #  limitations under the License.
 
+import functools
 import logging
 
 class udf_logging(object):
@@ -39,11 +40,20 @@ class udf_logging(object):
 
 def outputType(type_str):
     def wrap(f):
+        @functools.wraps(f)
         def wrapped_f(*args):
             return f(*args)
         return wrapped_f
     return wrap
 
+def vectorized(f):
+    """
+    Marks a function which processes a batch of rows at once. It takes a list of values for each parameter,
+    and returns a list having the result of each row.
+    """
+    f.vectorized = True
+    return f
+
 def write_user_exception(filename, stream_err_output, num_lines_offset_trace=0):
     import sys
     import traceback
@@ -22,6 +22,7 @@
 <%@ page import="org.apache.commons.lang.StringUtils" %>
 <%@ page import="org.apache.tajo.TaskAttemptId" %>
 <%@ page import="org.apache.tajo.ipc.TajoWorkerProtocol" %>
+<%@ page import="org.apache.tajo.util.FileUtil" %>
 <%@ page import="org.apache.tajo.util.JSPUtil" %>
 <%@ page import="org.apache.tajo.util.TajoIdUtils" %>
 <%@ page import="org.apache.tajo.webapp.StaticHttpServer" %>
@@ -99,6 +100,7 @@
         <tr><td align="right">Working Path</td><td><%=taskHistory.getWorkingPath()%></td></tr>
         <tr><td align="right">Input Statistics</td><td><%=JSPUtil.tableStatToString(taskHistory.getInputStats())%></td></tr>
         <tr><td align="right">Output Statistics</td><td><%=JSPUtil.tableStatToString(taskHistory.getOutputStats())%></td></tr>
+        <tr><td align="right">Peak Memory</td><td><%=FileUtil.humanReadableByteCount(taskHistory.getPeakMemoryBytes(), false)%></td></tr>
     </table>
     <hr/>
     <%
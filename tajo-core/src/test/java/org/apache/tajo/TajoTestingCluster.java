@@ -161,6 +161,9 @@ public class TajoTestingCluster {
     // Memory cache termination
     conf.setIntVar(ConfVars.WORKER_HISTORY_EXPIRE_PERIOD, 1);
 
+    // Tests which need the query result cache enable it by the session variable
+    conf.setBoolVar(ConfVars.$RESULT_CACHE_ENABLED, false);
+
     conf.setStrings(ConfVars.PYTHON_CODE_DIR.varname, getClass().getResource("/python").toString());
 
     /* Since Travi CI limits the size of standard output log up to 4MB */
@@ -18,14 +18,23 @@
 
 package org.apache.tajo.engine.function;
 
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
 import org.apache.tajo.plan.function.FunctionContext;
 import org.junit.Test;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.function.builtin.ApproxCountDistinct;
+import org.apache.tajo.engine.function.builtin.ApproxMedian;
+import org.apache.tajo.engine.function.builtin.ApproxPercentile;
+import org.apache.tajo.engine.function.builtin.ApproxTopK;
 import org.apache.tajo.engine.function.builtin.AvgLong;
+import org.apache.tajo.plan.function.AggFunction;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class TestAggFunction {
@@ -62,4 +71,47 @@ public class TestAggFunction {
     avg.merge(ctx, new VTuple(new Datum[] {avg.getPartialResult(ctx2)}));
     assertTrue((double)(15 + 55) / (5 + 10) == avg.terminate(ctx).asFloat8());
   }
+
+  /**
+   * Evaluates the values in two partitions, and merges their partial results like a two-phase aggregation.
+   */
+  private static Datum evalInTwoPhases(AggFunction<Datum> func, Datum [] args, int num) {
+    FunctionContext [] firstPhase = new FunctionContext[] {func.newContext(), func.newContext()};
+    for (int i = 0; i < num; i++) {
+      Tuple params = new VTuple(1 + args.length);
+      params.put(0, DatumFactory.createInt4(i % 1000));
+      for (int j = 0; j < args.length; j++) {
+        params.put(j + 1, args[j]);
+      }
+      func.eval(firstPhase[i % 2], params);
+    }
+
+    FunctionContext secondPhase = func.newContext();
+    for (FunctionContext ctx : firstPhase) {
+      func.merge(secondPhase, new VTuple(new Datum[] {func.getPartialResult(ctx)}));
+    }
+    return func.terminate(secondPhase);
+  }
+
+  @Test
+  public void testApproxFunctions() {
+    assertEquals(1000, evalInTwoPhases(new ApproxCountDistinct(), new Datum[] {}, 10000).asInt8(), 10);
+    assertEquals(899, evalInTwoPhases(new ApproxPercentile(),
+        new Datum[] {DatumFactory.createFloat8(0.9)}, 10000).asFloat8(), 10);
+    assertEquals(499, evalInTwoPhases(new ApproxMedian(), new Datum[] {}, 10000).asFloat8(), 10);
+
+    ApproxTopK topK = new ApproxTopK();
+    FunctionContext ctx = topK.newContext();
+    for (int i = 0; i < 1000; i++) {
+      topK.eval(ctx, new VTuple(new Datum[] {
+          DatumFactory.createText(i % 2 == 0 ? "a" : (i % 10 == 1 ? "b" : "c" + i)), DatumFactory.createInt4(2)}));
+    }
+    FunctionContext merged = topK.newContext();
+    topK.merge(merged, new VTuple(new Datum[] {topK.getPartialResult(ctx)}));
+    JSONArray result = (JSONArray) JSONValue.parse(topK.terminate(merged).asChars());
+    assertEquals(2, result.size());
+    assertEquals("a", ((JSONObject) result.get(0)).get("item"));
+    assertEquals(500, ((Number) ((JSONObject) result.get(0)).get("count")).intValue());
+    assertEquals("b", ((JSONObject) result.get(1)).get("item"));
+  }
 }
@@ -19,6 +19,8 @@
 package org.apache.tajo.engine.function;
 
 
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes;
 import org.apache.tajo.engine.eval.ExprTestBase;
 import org.junit.Test;
 
@@ -33,4 +35,30 @@ public class TestJsonFunctions extends ExprTestBase {
     testSimpleEval("select json_extract_path_text('" + JSON_DOCUMENT + "', '$.array[1]') ", new String[]{"2"});
 
   }
+
+  @Test
+  public void testJsonExtractPathTextVariousPaths() throws IOException {
+    testSimpleEval("select json_extract_path_text('" + JSON_DOCUMENT + "', '$.map') ",
+        new String[]{"{\"name\":\"tajo\"}"});
+    testSimpleEval("select json_extract_path_text('" + JSON_DOCUMENT + "', '$[\"map\"][\"name\"]') ",
+        new String[]{"tajo"});
+    testSimpleEval("select json_extract_path_text('" + JSON_DOCUMENT + "', '$.array[5]') ", new String[]{""});
+    testSimpleEval("select json_extract_path_text('" + JSON_DOCUMENT + "', '$.none.name') ", new String[]{""});
+    testSimpleEval("select json_extract_path_text('{\"a\" : ', '$.a') ", new String[]{""});
+    // a path not supported by the compiled extractor
+    testSimpleEval("select json_extract_path_text('" + JSON_DOCUMENT + "', '$.map.*') ", new String[]{"[\"tajo\"]"});
+  }
+
+  @Test
+  public void testJsonExtractPathTextSharedInput() throws IOException {
+    Schema schema = new Schema();
+    schema.addColumn("id", TajoDataTypes.Type.INT4);
+    schema.addColumn("doc", TajoDataTypes.Type.TEXT);
+
+    String doc = "{\"event\": \"click\", \"user\": {\"id\": 7, \"tags\": [\"a\", \"b\"]}, \"ts\": 100}";
+    testEval(schema, "events", "1|" + doc,
+        "select json_extract_path_text(doc, '$.event'), json_extract_path_text(doc, '$.user.id'), " +
+            "json_extract_path_text(doc, '$.user.tags[1]'), json_extract_path_text(doc, '$.ts') from events",
+        new String[]{"click", "7", "b", "100"}, '|', true);
+  }
 }
@@ -34,6 +34,7 @@ public class TestPythonFunctions extends ExprTestBase {
     testSimpleEval("select sum_py(1,2)", new String[]{"3"});
     testSimpleEval("select percent(386, 1000)", new String[]{"38.6"});
     testSimpleEval("select concat4('Tajo', 'is', 'awesome', '!')", new String[]{"Tajo is awesome !"});
+    testSimpleEval("select sum_vec(1, 2)", new String[]{"3"});
   }
 
   @Test
@@ -46,6 +46,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import static org.apache.tajo.TajoConstants.DEFAULT_TABLESPACE_NAME;
@@ -187,4 +189,56 @@ public class TestExternalSortExec {
     exec.close();
     System.out.println("Sort Time: " + (end - start) + " msc");
   }
+
+  @Test
+  public final void testCalculateMergeFanout() {
+    // 200MB buffer, 1 core, 256KB read-ahead blocks
+    assertEquals(400, ExternalSortExec.calculateMergeFanout(200L * 1024 * 1024, 1, 8));
+    assertEquals(100, ExternalSortExec.calculateMergeFanout(200L * 1024 * 1024, 4, 8));
+    // too small buffer falls back to the configured fanout
+    assertEquals(8, ExternalSortExec.calculateMergeFanout(1024, 1, 8));
+    // too large buffer is limited by the maximum fanout
+    assertEquals(1024, ExternalSortExec.calculateMergeFanout(10L * 1024 * 1024 * 1024, 1, 8));
+  }
+
+  @Test
+  public final void testLoserTreeMergeWithTies() throws IOException {
+    Schema schema = new Schema();
+    schema.addColumn("key", Type.INT4);
+    schema.addColumn("run", Type.INT4);
+    SortSpec[] sortSpecs = new SortSpec[] {new SortSpec(schema.getColumn("key"), true, false)};
+
+    // a non-power-of-two fan-in whose runs share keys, have different lengths and include an empty run
+    int fanIn = 5;
+    int totalNum = 0;
+    Scanner[] runs = new Scanner[fanIn];
+    for (int i = 0; i < fanIn; i++) {
+      List<Tuple> run = new ArrayList<Tuple>();
+      for (int j = 0; i != 3 && j < 10 + i * 3; j++) {
+        Tuple tuple = new VTuple(2);
+        tuple.put(0, DatumFactory.createInt4(j / (i % 2 + 1)));
+        tuple.put(1, DatumFactory.createInt4(i));
+        run.add(tuple);
+      }
+      runs[i] = new ExternalSortExec.MemTableScanner(run, run.size(), 0);
+      totalNum += run.size();
+    }
+
+    Scanner merger = new ExternalSortExec.LoserTreeMerger(schema, runs, new BaseTupleComparator(schema, sortSpecs));
+    merger.init();
+    int cnt = 0;
+    Tuple prev = null;
+    Tuple tuple;
+    while ((tuple = merger.next()) != null) {
+      if (prev != null) {
+        assertTrue(prev.getInt4(0) <= tuple.getInt4(0));
+        // ties are returned in the order of runs
+        assertTrue(prev.getInt4(0) < tuple.getInt4(0) || prev.getInt4(1) <= tuple.getInt4(1));
+      }
+      prev = tuple;
+      cnt++;
+    }
+    merger.close();
+    assertEquals(totalNum, cnt);
+  }
 }
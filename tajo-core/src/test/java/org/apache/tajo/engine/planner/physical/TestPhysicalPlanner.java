@@ -1086,6 +1086,41 @@ public class TestPhysicalPlanner {
     assertTrue(exec instanceof ExternalSortExec);
   }
 
+  @Test
+  public final void testTopNSort() throws IOException, PlanningException {
+    FileFragment[] frags = FileStorageManager.splitNG(conf, "default.employee", employee.getMeta(),
+        new Path(employee.getPath()), Integer.MAX_VALUE);
+
+    Path workDir = CommonTestingUtil.getTestDir(TajoTestingCluster.DEFAULT_TEST_DIRECTORY + "/testTopNSort");
+    Expr context = analyzer.parse("select name, empId from employee order by empId desc limit 5");
+    LogicalPlan plan = planner.createPlan(defaultContext, context);
+    optimizer.optimize(plan);
+    LogicalNode rootNode = plan.getRootBlock().getRoot();
+
+    TaskAttemptContext ctx = new TaskAttemptContext(new QueryContext(conf),
+        LocalTajoTestingUtility.newTaskAttemptId(masterPlan),
+        new FileFragment[] {frags[0]}, workDir);
+    ctx.setEnforcer(new Enforcer());
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, rootNode);
+
+    LimitExec limitExec = PhysicalPlanUtil.findExecutor(exec, LimitExec.class);
+    assertNotNull(limitExec);
+    assertTrue(limitExec.getChild() instanceof TopNSortExec);
+
+    exec.init();
+    Tuple tuple;
+    int expected = 99;
+    while ((tuple = exec.next()) != null) {
+      assertEquals(expected, tuple.get(1).asInt4());
+      assertEquals("name_" + expected, tuple.get(0).asChars());
+      expected--;
+    }
+    exec.close();
+    assertEquals(94, expected);
+  }
+
   @Test
   public final void testGroupByEnforcer() throws IOException, PlanningException {
     FileFragment[] frags = FileStorageManager.splitNG(conf, "default.score", score.getMeta(), new Path(score.getPath()),
@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.worker.MemoryConsumer;
+import org.apache.tajo.worker.WorkerMemoryManager;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class TestSpillableDistinctSet {
+
+  private static TreeSet<String> addRandomRows(SpillableDistinctSet set, int num) throws IOException {
+    Random rnd = new Random(-1);
+    TreeSet<String> expected = new TreeSet<String>();
+    for (int i = 0; i < num; i++) {
+      String row = "row_" + rnd.nextInt(num / 3);
+      expected.add(row);
+      set.add(row.getBytes());
+    }
+    return expected;
+  }
+
+  private static void assertRows(TreeSet<String> expected, SpillableDistinctSet set) throws IOException {
+    Iterator<String> iterator = expected.iterator();
+    byte [] row;
+    while ((row = set.next()) != null) {
+      assertTrue(iterator.hasNext());
+      assertEquals(iterator.next(), new String(row));
+    }
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  public void testInMemory() throws IOException {
+    File dir = new File(CommonTestingUtil.getTestDir().toUri().getPath());
+    SpillableDistinctSet set = new SpillableDistinctSet(64 * 1024 * 1024, dir);
+    assertTrue(set.add("a".getBytes()));
+    assertFalse(set.add("a".getBytes()));
+
+    TreeSet<String> expected = addRandomRows(set, 10000);
+    expected.add("a");
+    set.finish();
+    assertEquals(0, set.getSpilledRunNum());
+    assertRows(expected, set);
+    set.close();
+  }
+
+  @Test
+  public void testSpill() throws IOException {
+    File dir = new File(CommonTestingUtil.getTestDir().toUri().getPath());
+    SpillableDistinctSet set = new SpillableDistinctSet(64 * 1024, dir);
+    TreeSet<String> expected = addRandomRows(set, 300000);
+    assertTrue(set.getUsedMemory() <= 64 * 1024);
+
+    set.finish();
+    assertTrue(set.getSpilledRunNum() > 0);
+    assertRows(expected, set);
+
+    set.rewind();
+    assertRows(expected, set);
+    set.close();
+    assertFalse(dir.exists());
+  }
+
+  @Test
+  public void testSpillByWorkerMemory() throws IOException {
+    File dir = new File(CommonTestingUtil.getTestDir().toUri().getPath());
+    WorkerMemoryManager manager = new WorkerMemoryManager(2 * WorkerMemoryManager.PAGE_SIZE);
+    MemoryConsumer consumer = manager.newConsumer("distinct", null, true);
+    SpillableDistinctSet set = new SpillableDistinctSet(64 * 1024 * 1024, dir, consumer);
+    TreeSet<String> expected = addRandomRows(set, 300000);
+    assertTrue(manager.getPeakMemory() <= 2 * WorkerMemoryManager.PAGE_SIZE);
+
+    set.finish();
+    assertTrue(set.getSpilledRunNum() > 0);
+    assertRows(expected, set);
+    set.close();
+    assertEquals(0, manager.getUsedMemory());
+  }
+}
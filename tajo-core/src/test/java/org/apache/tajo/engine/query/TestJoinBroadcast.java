@@ -30,6 +30,7 @@ import org.apache.tajo.datum.Int4Datum;
 import org.apache.tajo.datum.TextDatum;
 import org.apache.tajo.engine.planner.global.ExecutionBlock;
 import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.engine.utils.TableCache;
 import org.apache.tajo.jdbc.FetchResultSet;
 import org.apache.tajo.plan.logical.NodeType;
 import org.apache.tajo.querymaster.QueryMasterTask;
@@ -716,6 +717,39 @@ public class TestJoinBroadcast extends QueryTestCaseBase {
     assertEquals(expected, resultSetData);
 
   }
+
+  @Test
+  public final void testSharedBroadcastTable() throws Exception {
+    executeString("create table shared_broadcast_t1 (n_nationkey int4, n_name text)").close();
+    executeString("insert overwrite into shared_broadcast_t1 select n_nationkey, n_name from nation").close();
+    String query = "select l_orderkey, n_name from lineitem_large join shared_broadcast_t1 " +
+        "on l_orderkey = n_nationkey order by l_orderkey, n_name";
+
+    TableCache cache = TableCache.getInstance();
+    ResultSet res = executeString(query);
+    String expected = resultSetToString(res);
+    cleanupQuery(res);
+    long missNum = cache.getMissNum();
+    long hitNum = cache.getHitNum();
+    assertTrue(cache.getSharedCacheNum() > 0);
+
+    // the hash table built by the previous query is used
+    res = executeString(query);
+    assertEquals(expected, resultSetToString(res));
+    cleanupQuery(res);
+    assertEquals(missNum, cache.getMissNum());
+    assertTrue(cache.getHitNum() > hitNum);
+
+    // the rewritten table is read again
+    executeString("insert overwrite into shared_broadcast_t1 select n_nationkey, n_name from nation").close();
+    res = executeString(query);
+    assertEquals(expected, resultSetToString(res));
+    cleanupQuery(res);
+    assertTrue(cache.getMissNum() > missNum);
+
+    executeString("drop table shared_broadcast_t1 purge").close();
+  }
+
   @Test
   public void testMultipleBroadcastDataFileWithZeroLength() throws Exception {
     // According to node type(leaf or non-leaf) Broadcast join is determined differently by Repartitioner.
@@ -28,6 +28,7 @@ import org.apache.tajo.client.QueryStatus;
 import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.utils.ColumnarTableCache;
 import org.apache.tajo.ipc.ClientProtos;
 import org.apache.tajo.plan.rewrite.BaseLogicalPlanRewriteRuleProvider;
 import org.apache.tajo.plan.rewrite.LogicalPlanRewriteRule;
@@ -730,6 +731,13 @@ public class TestSelectQuery extends QueryTestCaseBase {
     cleanupQuery(res);
   }
 
+  @Test
+  public void testSelectVectorizedPythonFunc() throws Exception {
+    ResultSet res = executeQuery();
+    assertResultSet(res);
+    cleanupQuery(res);
+  }
+
   @Test
   public void testSelectWithParentheses1() throws Exception {
     ResultSet res = executeQuery();
@@ -743,4 +751,50 @@ public class TestSelectQuery extends QueryTestCaseBase {
     assertResultSet(res);
     cleanupQuery(res);
   }
-}
\ No newline at end of file
+
+  @Test
+  public final void testInMemoryCachedTable() throws Exception {
+    executeString("create table in_memory_t1 (id int4, name text, comment text) " +
+        "with ('" + StorageConstants.IN_MEMORY_CACHE + "'='true')").close();
+    executeString("insert overwrite into in_memory_t1 select n_nationkey, n_name, " +
+        "case when n_nationkey % 3 = 0 then null else n_comment end from nation").close();
+    // a projection of the cached columns in another order, including nulls
+    String query = "select comment, id from in_memory_t1 where id > 5 order by id";
+
+    ResultSet res = executeString("select case when n_nationkey % 3 = 0 then null else n_comment end as comment, " +
+        "n_nationkey as id from nation where n_nationkey > 5 order by id");
+    String expected = resultSetToString(res);
+    cleanupQuery(res);
+    assertTrue(expected.contains("null"));
+
+    ColumnarTableCache cache = ColumnarTableCache.getInstance();
+    res = executeString(query);
+    assertEquals(expected, resultSetToString(res));
+    cleanupQuery(res);
+    long missNum = cache.getMissNum();
+    long hitNum = cache.getHitNum();
+    assertTrue(cache.getBlockNum() > 0);
+
+    // the fragments cached by the previous query are read from memory
+    res = executeString(query);
+    assertEquals(expected, resultSetToString(res));
+    cleanupQuery(res);
+    assertEquals(missNum, cache.getMissNum());
+    assertTrue(cache.getHitNum() > hitNum);
+
+    // the rewritten table is read again
+    executeString("insert overwrite into in_memory_t1 select n_nationkey, n_name, n_comment from nation " +
+        "where n_nationkey < 10").close();
+    res = executeString("select n_comment as comment, n_nationkey as id from nation " +
+        "where n_nationkey > 5 and n_nationkey < 10 order by id");
+    expected = resultSetToString(res);
+    cleanupQuery(res);
+
+    res = executeString(query);
+    assertEquals(expected, resultSetToString(res));
+    cleanupQuery(res);
+    assertTrue(cache.getMissNum() > missNum);
+
+    executeString("drop table in_memory_t1 purge").close();
+  }
+}
@@ -462,4 +462,20 @@ public class TestWindowQuery extends QueryTestCaseBase {
       executeString("DROP TABLE multiwindow PURGE");
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public final void testStreamingWindow1() throws Exception {
+    // only window functions sharing sort keys, which are evaluated without buffering partitions
+    ResultSet res = executeQuery();
+    assertResultSet(res);
+    cleanupQuery(res);
+  }
+
+  @Test
+  public final void testStreamingWindow2() throws Exception {
+    // an aggregation function over whole partitions, which are kept in the partition buffer
+    ResultSet res = executeQuery();
+    assertResultSet(res);
+    cleanupQuery(res);
+  }
+}
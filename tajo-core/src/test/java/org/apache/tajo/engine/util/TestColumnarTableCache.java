@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.util;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.utils.ColumnarTableCache;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.columnar.ColumnarBlock;
+import org.apache.tajo.worker.MemoryConsumer;
+import org.apache.tajo.worker.WorkerMemoryManager;
+import org.junit.Test;
+
+import static org.apache.tajo.worker.WorkerMemoryManager.PAGE_SIZE;
+import static org.junit.Assert.*;
+
+public class TestColumnarTableCache {
+
+  private static ColumnarBlock createBlock(int rowNum) {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT8);
+    ColumnarBlock.Builder builder = new ColumnarBlock.Builder(schema);
+    for (int i = 0; i < rowNum; i++) {
+      VTuple tuple = new VTuple(1);
+      tuple.put(0, DatumFactory.createInt8(i));
+      builder.add(tuple);
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testEviction() {
+    ColumnarBlock block = createBlock(100);
+    ColumnarTableCache cache = new ColumnarTableCache(block.getEstimatedSize() * 2);
+
+    assertNull(cache.get("f1"));
+    assertTrue(cache.put("f1", block));
+    assertTrue(cache.put("f2", createBlock(100)));
+    assertSame(block, cache.get("f1"));
+
+    // f2 is the least recently used
+    assertTrue(cache.put("f3", createBlock(100)));
+    assertNull(cache.get("f2"));
+    assertSame(block, cache.get("f1"));
+    assertEquals(2, cache.getBlockNum());
+    assertEquals(block.getEstimatedSize() * 2, cache.getUsed());
+
+    // a fragment larger than the capacity is not cached
+    assertFalse(cache.put("f4", createBlock(1000)));
+
+    assertEquals(2, cache.getHitNum());
+    assertEquals(2, cache.getMissNum());
+    assertEquals(1, cache.getEvictionNum());
+
+    cache.setCapacity(0);
+    assertEquals(0, cache.getBlockNum());
+    assertEquals(0, cache.getUsed());
+  }
+
+  @Test
+  public void testEvictedForOperators() {
+    ColumnarBlock block = createBlock(200000);
+    long blockPages = (block.getEstimatedSize() + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+    WorkerMemoryManager memoryManager = new WorkerMemoryManager(blockPages + PAGE_SIZE);
+    ColumnarTableCache cache = new ColumnarTableCache(blockPages * 2);
+    cache.setMemoryManager(memoryManager);
+
+    assertTrue(cache.put("f1", block));
+    assertEquals(blockPages, memoryManager.getUsedMemory());
+
+    // an operator takes the memory of cached fragments instead of making others spill
+    MemoryConsumer sort = memoryManager.newConsumer("sort", null, true);
+    assertTrue(sort.reserve(2 * PAGE_SIZE));
+    assertNull(cache.get("f1"));
+    assertEquals(1, memoryManager.getEvictionNum());
+    assertEquals(0, memoryManager.getSpillRequestNum());
+    assertEquals(2 * PAGE_SIZE, memoryManager.getUsedMemory());
+
+    // a fragment only takes free memory
+    assertTrue(cache.put("f2", createBlock(200000)));
+    assertEquals(0, cache.getBlockNum());
+    assertFalse(sort.isSpillRequested());
+
+    sort.release();
+    assertTrue(cache.put("f3", createBlock(200000)));
+    assertEquals(blockPages, memoryManager.getUsedMemory());
+  }
+}
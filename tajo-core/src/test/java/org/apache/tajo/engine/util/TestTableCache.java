@@ -24,7 +24,10 @@ import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.engine.utils.CacheHolder;
 import org.apache.tajo.engine.utils.TableCache;
 import org.apache.tajo.engine.utils.TableCacheKey;
+import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.worker.ExecutionBlockSharedResource;
+import org.apache.tajo.worker.MemoryConsumer;
+import org.apache.tajo.worker.WorkerMemoryManager;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -34,8 +37,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.*;
 
 public class TestTableCache {
 
@@ -66,6 +68,128 @@ public class TestTableCache {
     executor.shutdown();
   }
 
+  @Test
+  public void testSharedTableCacheEviction() throws Exception {
+    TableCache cache = new TableCache(100);
+    TableCacheKey key1 = new TableCacheKey(null, "t1", "path1@1");
+    TableCacheKey key2 = new TableCacheKey(null, "t2", "path2@1");
+    TableCacheKey key3 = new TableCacheKey(null, "t3", "path3@1");
+
+    assertNull(cache.getSharedCache(key1));
+    assertTrue(cache.addSharedCache(key1, createHolder(1), 40));
+    assertTrue(cache.addSharedCache(key2, createHolder(2), 40));
+    assertEquals(1L, cache.getSharedCache(key1).getData());
+
+    // key2 is the least recently used
+    assertTrue(cache.addSharedCache(key3, createHolder(3), 40));
+    assertNull(cache.getSharedCache(key2));
+    assertEquals(1L, cache.getSharedCache(key1).getData());
+    assertEquals(3L, cache.getSharedCache(key3).getData());
+    assertEquals(80, cache.getSharedBytes());
+    assertEquals(2, cache.getSharedCacheNum());
+
+    // a table larger than the capacity is not cached
+    assertFalse(cache.addSharedCache(key2, createHolder(2), 101));
+    assertEquals(2, cache.getSharedCacheNum());
+
+    assertEquals(3, cache.getHitNum());
+    assertEquals(2, cache.getMissNum());
+    assertEquals(1, cache.getEvictionNum());
+
+    // a modified file makes a different key
+    assertNull(cache.getSharedCache(new TableCacheKey(null, "t1", "path1@2")));
+
+    cache.setSharedCapacity(0);
+    assertEquals(0, cache.getSharedCacheNum());
+    assertEquals(0, cache.getSharedBytes());
+    assertEquals(3, cache.getEvictionNum());
+  }
+
+  @Test
+  public void testSharedTableCacheMemory() throws Exception {
+    WorkerMemoryManager memoryManager = new WorkerMemoryManager(100 * StorageUnit.MB);
+    TableCache cache = new TableCache(10 * StorageUnit.MB);
+    cache.setMemoryManager(memoryManager);
+
+    cache.addSharedCache(new TableCacheKey(null, "t1", "path1@1"), createHolder(1), 3 * StorageUnit.MB);
+    assertEquals(3 * StorageUnit.MB, memoryManager.getUsedMemory());
+    cache.addSharedCache(new TableCacheKey(null, "t2", "path2@1"), createHolder(2), 5 * StorageUnit.MB);
+    assertEquals(8 * StorageUnit.MB, memoryManager.getUsedMemory());
+
+    // evicted tables release their memory
+    cache.setSharedCapacity(6 * StorageUnit.MB);
+    assertEquals(5 * StorageUnit.MB, memoryManager.getUsedMemory());
+    cache.setSharedCapacity(0);
+    assertEquals(0, memoryManager.getUsedMemory());
+  }
+
+  @Test
+  public void testSharedTableCacheEvictedForOperators() throws Exception {
+    WorkerMemoryManager memoryManager = new WorkerMemoryManager(10 * StorageUnit.MB);
+    TableCache cache = new TableCache(10 * StorageUnit.MB);
+    cache.setMemoryManager(memoryManager);
+    TableCacheKey key1 = new TableCacheKey(null, "t1", "path1@1");
+    TableCacheKey key2 = new TableCacheKey(null, "t2", "path2@1");
+    TableCacheKey key3 = new TableCacheKey(null, "t3", "path3@1");
+
+    cache.addSharedCache(key1, createHolder(1), 4 * StorageUnit.MB);
+    cache.addSharedCache(key2, createHolder(2), 4 * StorageUnit.MB);
+    assertEquals(8 * StorageUnit.MB, memoryManager.getUsedMemory());
+
+    // an operator takes the memory of the least recently used table instead of making others spill
+    MemoryConsumer sort = memoryManager.newConsumer("sort", null, true);
+    assertTrue(sort.reserve(5 * StorageUnit.MB));
+    assertEquals(1, memoryManager.getEvictionNum());
+    assertEquals(0, memoryManager.getSpillRequestNum());
+    assertEquals(4 * StorageUnit.MB, cache.getSharedBytes());
+    assertEquals(9 * StorageUnit.MB, memoryManager.getUsedMemory());
+
+    // a new table only takes free memory, so the cache evicts its own tables
+    cache.addSharedCache(key3, createHolder(3), 4 * StorageUnit.MB);
+    assertFalse(sort.isSpillRequested());
+    assertEquals(9 * StorageUnit.MB, memoryManager.getUsedMemory());
+    assertNull(cache.getSharedCache(key1));
+    assertNull(cache.getSharedCache(key2));
+    assertEquals(3L, cache.getSharedCache(key3).getData());
+
+    sort.release();
+    assertEquals(4 * StorageUnit.MB, memoryManager.getUsedMemory());
+  }
+
+  @Test
+  public void testSharedTableCacheNotReleasedByExecutionBlock() throws Exception {
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(
+        QueryIdFactory.newQueryId(System.currentTimeMillis(), 0));
+
+    TableCache cache = new TableCache(100);
+    TableCacheKey sharedKey = new TableCacheKey(null, "shared", "path");
+    TableCacheKey key = new TableCacheKey(ebId.toString(), "shared", "path");
+    cache.addSharedCache(sharedKey, createHolder(1), 10);
+    cache.addCache(key, createHolder(2));
+
+    cache.releaseCache(ebId);
+    assertFalse(cache.hasCache(key));
+    assertNotNull(cache.getSharedCache(sharedKey));
+  }
+
+  private static CacheHolder<Long> createHolder(final long value) {
+    return new CacheHolder<Long>() {
+      @Override
+      public Long getData() {
+        return value;
+      }
+
+      @Override
+      public TableStats getTableStats() {
+        return new TableStats();
+      }
+
+      @Override
+      public void release() {
+      }
+    };
+  }
+
   private Callable<CacheHolder<Long>> createTask(final TableCacheKey key, final ExecutionBlockSharedResource resource) {
     return new Callable<CacheHolder<Long>>() {
       @Override
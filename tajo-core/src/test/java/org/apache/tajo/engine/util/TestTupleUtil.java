@@ -75,6 +75,35 @@ public class TestTupleUtil {
     assertEquals(tuple, tuple2);
   }
 
+  @Test
+  public final void testCharToBytesAndToTuple() {
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.CHAR);
+    schema.addColumn("col2", Type.CHAR);
+    schema.addColumn("col3", Type.INT4);
+
+    Tuple tuple = new VTuple(3);
+    tuple.put(new Datum[] {
+        DatumFactory.createChar("tajo"),
+        DatumFactory.createNullDatum(),
+        DatumFactory.createInt4(1)
+    });
+
+    byte [] bytes = RowStoreUtil.createEncoder(schema).toBytes(tuple);
+    assertEquals(tuple, RowStoreUtil.createDecoder(schema).toTuple(bytes));
+  }
+
+  @Test
+  public final void testIsSupported() {
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.CHAR);
+    schema.addColumn("col2", Type.TIMESTAMP);
+    assertTrue(RowStoreUtil.isSupported(schema));
+
+    schema.addColumn("col3", Type.INET6);
+    assertFalse(RowStoreUtil.isSupported(schema));
+  }
+
   @Test
   public final void testGetPartitions() {
     Tuple sTuple = new VTuple(7);
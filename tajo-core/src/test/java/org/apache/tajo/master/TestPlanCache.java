@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master;
+
+import org.apache.tajo.QueryTestCaseBase;
+import org.apache.tajo.TajoConstants;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+
+import static org.junit.Assert.*;
+
+public class TestPlanCache extends QueryTestCaseBase {
+
+  public TestPlanCache() {
+    super(TajoConstants.DEFAULT_DATABASE_NAME);
+  }
+
+  @Test
+  public final void testNormalize() {
+    assertEquals("select * from t where a = 'x  y'", PlanCache.normalize(" select *\n  from t\twhere a = 'x  y'  "));
+    assertEquals("select \"A  B\" from t", PlanCache.normalize("select   \"A  B\"   from t"));
+  }
+
+  @Test
+  public final void testCachedPlan() throws Exception {
+    PlanCache planCache = testingCluster.getMaster().getContext().getGlobalEngine().getPlanCache();
+    assertNotNull(planCache);
+
+    long hitNum = planCache.getHitNum();
+    ResultSet res = executeString("select l_orderkey, count(*) as cnt from lineitem group by l_orderkey");
+    cleanupQuery(res);
+    assertEquals(hitNum, planCache.getHitNum());
+
+    // the same query which differs only in whitespaces
+    res = executeString("select l_orderkey,  count(*) as cnt\n from lineitem group by l_orderkey ");
+    cleanupQuery(res);
+    assertEquals(hitNum + 1, planCache.getHitNum());
+
+    // DDL statements discard cached plans
+    executeString("create table plan_cache_t1 (c1 int4)").close();
+    assertEquals(0, planCache.size());
+    executeString("drop table plan_cache_t1 purge").close();
+  }
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.master;
+
+import org.apache.tajo.QueryTestCaseBase;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.TajoConstants;
+import org.apache.tajo.engine.parser.SQLAnalyzer;
+import org.apache.tajo.util.TUtil;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestQueryResultCache extends QueryTestCaseBase {
+
+  public TestQueryResultCache() throws Exception {
+    super(TajoConstants.DEFAULT_DATABASE_NAME);
+
+    Map<String, String> variables = new HashMap<String, String>();
+    variables.put(SessionVars.RESULT_CACHE_ENABLED.keyname(), "true");
+    client.updateSessionVariables(variables);
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    client.unsetSessionVariables(TUtil.newList(SessionVars.RESULT_CACHE_ENABLED.keyname()));
+  }
+
+  @Test
+  public final void testIsDeterministic() throws Exception {
+    QueryResultCache resultCache = testingCluster.getMaster().getContext().getGlobalEngine().getResultCache();
+    SQLAnalyzer analyzer = new SQLAnalyzer();
+    assertTrue(resultCache.isDeterministic(
+        analyzer.parse("select l_orderkey, sum(l_quantity) from lineitem where upper(l_comment) = 'A' group by 1")));
+    assertFalse(resultCache.isDeterministic(analyzer.parse("select l_orderkey, now() from lineitem")));
+    assertFalse(resultCache.isDeterministic(
+        analyzer.parse("select l_orderkey from lineitem where l_shipdate < current_date")));
+    assertFalse(resultCache.isDeterministic(analyzer.parse("select random(10) from lineitem")));
+    // user-defined functions
+    assertFalse(resultCache.isDeterministic(analyzer.parse("select l_orderkey, return_one() from lineitem")));
+    assertFalse(resultCache.isDeterministic(analyzer.parse("select sum_py(l_orderkey, l_partkey) from lineitem")));
+  }
+
+  @Test
+  public final void testCachedResult() throws Exception {
+    QueryResultCache resultCache = testingCluster.getMaster().getContext().getGlobalEngine().getResultCache();
+    assertNotNull(resultCache);
+
+    executeString("create table result_cache_t1 as select l_orderkey, l_quantity from lineitem").close();
+    String query = "select l_orderkey, sum(l_quantity) as total from result_cache_t1 group by l_orderkey";
+
+    long hitNum = resultCache.getHitNum();
+    ResultSet res = executeString(query);
+    String expected = resultSetToString(res);
+    cleanupQuery(res);
+    assertEquals(hitNum, resultCache.getHitNum());
+
+    // the same query which differs only in whitespaces
+    res = executeString(query.replace(" from ", "\n  from "));
+    assertEquals(expected, resultSetToString(res));
+    cleanupQuery(res);
+    assertEquals(hitNum + 1, resultCache.getHitNum());
+
+    // a changed input table makes the result outdated
+    executeString("insert into result_cache_t1 select l_orderkey, l_quantity from lineitem").close();
+    res = executeString(query);
+    assertNotEquals(expected, resultSetToString(res));
+    cleanupQuery(res);
+    assertEquals(hitNum + 1, resultCache.getHitNum());
+
+    // the session opts out of the result cache
+    Map<String, String> variables = new HashMap<String, String>();
+    variables.put(SessionVars.RESULT_CACHE_ENABLED.keyname(), "false");
+    client.updateSessionVariables(variables);
+    try {
+      res = executeString(query);
+      cleanupQuery(res);
+      assertEquals(hitNum + 1, resultCache.getHitNum());
+    } finally {
+      variables.put(SessionVars.RESULT_CACHE_ENABLED.keyname(), "true");
+      client.updateSessionVariables(variables);
+    }
+
+    // DDL statements discard cached results
+    executeString("drop table result_cache_t1 purge").close();
+    assertEquals(0, resultCache.size());
+  }
+}
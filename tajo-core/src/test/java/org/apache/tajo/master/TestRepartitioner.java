@@ -478,6 +478,78 @@ public class TestRepartitioner {
     assertEquals(expectedTotalLength, totalLength);
   }
 
+  @Test
+  public void testFindSkewedJoinPartitions() {
+    QueryId q1 = TestTajoIds.createQueryId(1315890136000l, 2);
+    ExecutionBlockId leftEbId = new ExecutionBlockId(q1, 1);
+    ExecutionBlockId rightEbId = new ExecutionBlockId(q1, 2);
+    long mb = 1024 * 1024;
+
+    Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> hashEntries =
+        new HashMap<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>>();
+    for (int i = 0; i < 10; i++) {
+      Map<ExecutionBlockId, List<IntermediateEntry>> partEntries = new HashMap<ExecutionBlockId, List<IntermediateEntry>>();
+      IntermediateEntry left = new IntermediateEntry(-1, -1, i, new Task.PullHost("tajo1", 1234));
+      left.setEbId(leftEbId);
+      left.setVolume(i == 3 ? 500 * mb : (i == 5 ? 30 * mb : 10 * mb));
+      partEntries.put(leftEbId, TUtil.newList(left));
+
+      IntermediateEntry right = new IntermediateEntry(-1, -1, i, new Task.PullHost("tajo2", 1234));
+      right.setEbId(rightEbId);
+      right.setVolume(mb);
+      partEntries.put(rightEbId, TUtil.newList(right));
+      hashEntries.put(i, partEntries);
+    }
+
+    assertEquals(Sets.newHashSet(3), Repartitioner.findSkewedJoinPartitions(hashEntries, leftEbId, 128 * mb, 4));
+    // the partitions of the right side are smaller than the desired task volume.
+    assertTrue(Repartitioner.findSkewedJoinPartitions(hashEntries, rightEbId, 128 * mb, 4).isEmpty());
+  }
+
+  @Test
+  public void testFindSkewedJoinPartitionsByHotKey() {
+    QueryId q1 = TestTajoIds.createQueryId(1315890136000l, 2);
+    ExecutionBlockId ebId = new ExecutionBlockId(q1, 1);
+    long mb = 1024 * 1024;
+
+    Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> hashEntries =
+        new HashMap<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>>();
+    for (int i = 0; i < 4; i++) {
+      TajoWorkerProtocol.IntermediateEntryProto.Builder builder = TajoWorkerProtocol.IntermediateEntryProto.newBuilder();
+      builder.setEbId(ebId.getProto()).setTaskId(-1).setAttemptId(-1).setPartId(i)
+          .setHost("tajo1:1234").setVolume(200 * mb).setNumRows(1000);
+      if (i == 2) {
+        builder.addHotKeys(TajoWorkerProtocol.IntermediateEntryProto.HotKeyProto.newBuilder()
+            .setKeyHash(12345).setNumRows(600));
+      }
+      IntermediateEntry entry = new IntermediateEntry(builder.build());
+
+      Map<ExecutionBlockId, List<IntermediateEntry>> partEntries = new HashMap<ExecutionBlockId, List<IntermediateEntry>>();
+      partEntries.put(ebId, TUtil.newList(entry));
+      hashEntries.put(i, partEntries);
+    }
+
+    assertEquals(Sets.newHashSet(2), Repartitioner.findSkewedJoinPartitions(hashEntries, ebId, 128 * mb, 4));
+  }
+
+  @Test
+  public void testCoalescePartitions() {
+    Map<Integer, Long> partitionVolumes = new HashMap<Integer, Long>();
+    partitionVolumes.put(0, 200L);
+    partitionVolumes.put(1, 10L);
+    partitionVolumes.put(2, 60L);
+    partitionVolumes.put(3, 50L);
+    partitionVolumes.put(4, 30L);
+    partitionVolumes.put(5, 0L);
+
+    List<List<Integer>> groups = Repartitioner.coalescePartitions(partitionVolumes, 100);
+    assertEquals(3, groups.size());
+    // a partition larger than the desired volume is not merged with others
+    assertEquals(TUtil.newList(0), groups.get(0));
+    assertEquals(TUtil.newList(2), groups.get(1));
+    assertEquals(TUtil.newList(3, 4, 1, 5), groups.get(2));
+  }
+
   @Test
   public void testFetchImpl() {
     ExecutionBlockId ebId = new ExecutionBlockId(LocalTajoTestingUtility.newQueryId(), 0);
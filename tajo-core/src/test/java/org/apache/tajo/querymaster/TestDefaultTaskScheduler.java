@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.querymaster;
+
+import com.google.protobuf.RpcCallback;
+import org.apache.hadoop.yarn.event.EventHandler;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.TaskId;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
+import org.apache.tajo.engine.planner.global.ExecutionBlock;
+import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.ipc.TajoWorkerProtocol.TaskRequestListProto;
+import org.apache.tajo.ipc.TajoWorkerProtocol.TaskRequestProto;
+import org.apache.tajo.plan.serder.PlanProto.ShuffleType;
+import org.apache.tajo.master.event.TaskAttemptToSchedulerEvent;
+import org.apache.tajo.master.event.TaskRequestEvent;
+import org.apache.tajo.master.event.TaskSchedulerEvent.EventType;
+import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.worker.AbstractResourceAllocator;
+import org.apache.tajo.worker.FetchImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestDefaultTaskScheduler {
+  private ExecutionBlockId ebId;
+  private DefaultTaskScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    TajoConf conf = new TajoConf();
+    ebId = QueryIdFactory.newExecutionBlockId(QueryIdFactory.newQueryId(System.currentTimeMillis(), 0), 1);
+
+    QueryMasterTask.QueryMasterTaskContext masterContext = mock(QueryMasterTask.QueryMasterTaskContext.class);
+    AbstractResourceAllocator allocator = mock(AbstractResourceAllocator.class);
+    when(masterContext.getConf()).thenReturn(conf);
+    when(masterContext.getQueryContext()).thenReturn(new QueryContext(conf));
+    when(masterContext.getEventHandler()).thenReturn(mock(EventHandler.class));
+    when(masterContext.getResourceAllocator()).thenReturn(allocator);
+    when(allocator.getWorkerConnectionInfo(anyInt())).thenReturn(null);
+
+    ExecutionBlock block = mock(ExecutionBlock.class);
+    when(block.getEnforcer()).thenReturn(new Enforcer());
+    Stage stage = mock(Stage.class);
+    when(stage.getBlock()).thenReturn(block);
+    when(stage.getMasterPlan()).thenReturn(mock(MasterPlan.class));
+    when(stage.getEventHandler()).thenReturn(mock(EventHandler.class));
+    when(stage.getTask(any(TaskId.class))).thenReturn(mock(Task.class));
+    when(stage.isShippedPlan(any(LogicalNode.class))).thenReturn(true);
+
+    scheduler = new DefaultTaskScheduler(new TaskSchedulerContext(masterContext, false, ebId), stage);
+    scheduler.init(conf);
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.stop();
+  }
+
+  /**
+   * Tasks of a stage are counted as soon as they are created, but they reach the scheduler one by one.
+   */
+  private void addTasks(int createdNum, int arrivedNum) {
+    addTasks(createdNum, arrivedNum, null);
+  }
+
+  /**
+   * @param pullHost The host of the intermediate data which the arrived tasks fetch. It may be null.
+   */
+  private void addTasks(int createdNum, int arrivedNum, String pullHost) {
+    for (int i = 0; i < createdNum; i++) {
+      scheduler.handle(new FetchScheduleEvent(EventType.T_SCHEDULE, ebId,
+          new HashMap<String, List<FetchImpl>>()));
+    }
+    for (int i = 0; i < arrivedNum; i++) {
+      TaskAttemptId attemptId = QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId, i), 0);
+      TaskAttempt attempt = mock(TaskAttempt.class);
+      Task task = mock(Task.class);
+      if (pullHost != null) {
+        Set<FetchImpl> fetches = new HashSet<FetchImpl>();
+        fetches.add(new FetchImpl(new Task.PullHost(pullHost, 0), ShuffleType.HASH_SHUFFLE, ebId, i));
+        Collection<Set<FetchImpl>> fetchList = new ArrayList<Set<FetchImpl>>();
+        fetchList.add(fetches);
+        when(task.getFetches()).thenReturn(fetchList);
+      }
+      when(attempt.getId()).thenReturn(attemptId);
+      when(attempt.getTask()).thenReturn(task);
+      scheduler.handle(new TaskAttemptToSchedulerEvent(EventType.T_SCHEDULE, ebId, null, attempt));
+    }
+  }
+
+  private List<ResponseCollector> request(int requestNum, int maxTasks) {
+    List<ResponseCollector> collectors = new ArrayList<ResponseCollector>();
+    for (int i = 0; i < requestNum; i++) {
+      ResponseCollector collector = new ResponseCollector();
+      scheduler.handleTaskRequestEvent(new TaskRequestEvent(i, null, ebId, maxTasks, collector));
+      collectors.add(collector);
+    }
+    return collectors;
+  }
+
+  @Test
+  public void testMoreRequestsThanTasks() {
+    List<ResponseCollector> collectors = request(3, 4);
+    addTasks(6, 2);
+
+    scheduler.schedule();
+    assertEquals(1, collectors.get(0).getTaskNum());
+    assertEquals(1, collectors.get(1).getTaskNum());
+    assertEquals(0, collectors.get(2).responses.size());
+
+    // a request without any task is answered when the scheduler stops
+    scheduler.stop();
+    for (ResponseCollector collector : collectors) {
+      assertEquals(1, collector.responses.size());
+    }
+    assertTrue(collectors.get(2).responses.get(0).getRequests(0).getShouldDie());
+  }
+
+  @Test
+  public void testBatchAssignment() {
+    List<ResponseCollector> collectors = request(2, 4);
+    addTasks(0, 5);
+
+    scheduler.schedule();
+    int total = 0;
+    int maxAssigned = 0;
+    for (ResponseCollector collector : collectors) {
+      assertEquals(1, collector.responses.size());
+      assertTrue(collector.getTaskNum() >= 1 && collector.getTaskNum() <= 4);
+      total += collector.getTaskNum();
+      maxAssigned = Math.max(maxAssigned, collector.getTaskNum());
+    }
+    // each request takes at most its fair share, so some tasks can be left to the next requests
+    assertTrue(total <= 5);
+    assertTrue(maxAssigned > 1);
+  }
+
+  @Test
+  public void testNonLocalAssignmentRemovesHostMapping() {
+    // the requesting workers are unknown, so the tasks are assigned regardless of their preferred host
+    addTasks(0, 3, "host1");
+    assertEquals(1, scheduler.getNonLeafTaskHostNum());
+
+    List<ResponseCollector> collectors = request(3, 1);
+    scheduler.schedule();
+    for (ResponseCollector collector : collectors) {
+      assertEquals(1, collector.getTaskNum());
+    }
+    assertEquals(0, scheduler.getNonLeafTaskHostNum());
+  }
+
+  private static class ResponseCollector implements RpcCallback<TaskRequestListProto> {
+    private final List<TaskRequestListProto> responses = new ArrayList<TaskRequestListProto>();
+
+    @Override
+    public void run(TaskRequestListProto parameter) {
+      responses.add(parameter);
+    }
+
+    int getTaskNum() {
+      int num = 0;
+      for (TaskRequestListProto response : responses) {
+        for (TaskRequestProto request : response.getRequestsList()) {
+          if (!request.getShouldDie()) {
+            num++;
+          }
+        }
+      }
+      return num;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.querymaster;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.storage.DataLocation;
+import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestTask {
+  private static final String TABLE_NAME = "default.t1";
+
+  private static List<DataLocation> getDataLocations(boolean inMemoryCache, String... hosts) {
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.CSV);
+    if (inMemoryCache) {
+      meta.putOption(StorageConstants.IN_MEMORY_CACHE, "true");
+    }
+    TableDesc desc = mock(TableDesc.class);
+    when(desc.getMeta()).thenReturn(meta);
+    ScanNode scan = mock(ScanNode.class);
+    when(scan.getCanonicalName()).thenReturn(TABLE_NAME);
+    when(scan.getTableDesc()).thenReturn(desc);
+
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(
+        QueryIdFactory.newQueryId(System.currentTimeMillis(), 0));
+    Task task = new Task(new TajoConf(), null, QueryIdFactory.newTaskId(ebId), true, null);
+    task.setLogicalPlan(scan);
+    task.addFragment(new FileFragment(TABLE_NAME, new Path("/t1/file"), 0, 100, hosts), true);
+    return task.getDataLocations();
+  }
+
+  @Test
+  public void testDataLocationsOfCachedTable() {
+    List<DataLocation> locations = getDataLocations(true, "host1", "host2", "host3");
+    assertEquals(1, locations.size());
+    String host = locations.get(0).getHost();
+
+    // the same replica host is chosen regardless of the order of hosts, so the cached fragment is reused
+    List<DataLocation> reordered = getDataLocations(true, "host3", "host1", "host2");
+    assertEquals(1, reordered.size());
+    assertEquals(host, reordered.get(0).getHost());
+  }
+
+  @Test
+  public void testDataLocationsOfUncachedTable() {
+    assertEquals(3, getDataLocations(false, "host1", "host2", "host3").size());
+  }
+}
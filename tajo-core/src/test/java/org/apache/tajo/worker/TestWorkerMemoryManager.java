@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.junit.Test;
+
+import static org.apache.tajo.worker.WorkerMemoryManager.PAGE_SIZE;
+import static org.junit.Assert.*;
+
+public class TestWorkerMemoryManager {
+
+  @Test
+  public void testReserveInPages() {
+    WorkerMemoryManager manager = new WorkerMemoryManager(10 * PAGE_SIZE);
+    MemoryConsumer consumer = manager.newConsumer("sort", null, true);
+
+    assertTrue(consumer.reserve(PAGE_SIZE + 1));
+    assertEquals(2 * PAGE_SIZE, consumer.getReservedBytes());
+    assertEquals(2 * PAGE_SIZE, manager.getUsedMemory());
+
+    assertTrue(consumer.reserve(2 * PAGE_SIZE));
+    assertEquals(2 * PAGE_SIZE, manager.getUsedMemory());
+
+    consumer.release();
+    assertEquals(0, consumer.getReservedBytes());
+    assertEquals(0, manager.getUsedMemory());
+    assertEquals(2 * PAGE_SIZE, manager.getPeakMemory());
+  }
+
+  @Test
+  public void testSpillRequest() {
+    WorkerMemoryManager manager = new WorkerMemoryManager(8 * PAGE_SIZE);
+    MemoryConsumer large = manager.newConsumer("sort", null, true);
+    MemoryConsumer small = manager.newConsumer("window", null, true);
+
+    assertTrue(large.reserve(8 * PAGE_SIZE));
+
+    // the pool is exhausted, but the small one is within the fair share
+    assertTrue(small.reserve(2 * PAGE_SIZE));
+    assertTrue(large.isSpillRequested());
+    assertFalse(small.isSpillRequested());
+    assertEquals(1, manager.getSpillRequestNum());
+
+    // the large one should spill before it keeps more rows
+    assertFalse(large.reserve(PAGE_SIZE));
+    large.release();
+    assertFalse(large.isSpillRequested());
+    assertEquals(2 * PAGE_SIZE, manager.getUsedMemory());
+    assertTrue(large.reserve(PAGE_SIZE));
+  }
+
+  @Test
+  public void testRefuseBeyondFairShare() {
+    WorkerMemoryManager manager = new WorkerMemoryManager(4 * PAGE_SIZE);
+    MemoryConsumer first = manager.newConsumer("sort", null, true);
+    MemoryConsumer second = manager.newConsumer("sort", null, true);
+
+    assertTrue(first.reserve(4 * PAGE_SIZE));
+    assertTrue(second.reserve(PAGE_SIZE));
+    assertTrue(first.isSpillRequested());
+
+    // the fair share of two consumers is two pages
+    assertFalse(second.reserve(3 * PAGE_SIZE));
+    assertEquals(1, manager.getRefusedNum());
+    assertEquals(PAGE_SIZE, second.getReservedBytes());
+  }
+
+  @Test
+  public void testNonSpillableConsumer() throws Exception {
+    WorkerMemoryManager manager = new WorkerMemoryManager(2 * PAGE_SIZE);
+    MemoryConsumer sort = manager.newConsumer("sort", null, true);
+    MemoryConsumer hashTable = manager.newConsumer("join", null, false);
+
+    assertTrue(sort.reserve(2 * PAGE_SIZE));
+    assertEquals(2 * PAGE_SIZE, manager.getReservableMemory());
+    // a hash table cannot spill, so it is granted if the memory fits once others spill
+    assertTrue(hashTable.reserve(2 * PAGE_SIZE));
+    assertTrue(sort.isSpillRequested());
+    assertEquals(4 * PAGE_SIZE, manager.getUsedMemory());
+    assertEquals(0, manager.getReservableMemory());
+
+    // it is refused if the memory does not fit even after others spill
+    assertFalse(hashTable.reserve(3 * PAGE_SIZE));
+    assertEquals(1, manager.getRefusedNum());
+    assertEquals(2 * PAGE_SIZE, hashTable.getReservedBytes());
+    try {
+      hashTable.reserveOrFail(3 * PAGE_SIZE);
+      fail("MemoryExhaustedException is expected");
+    } catch (MemoryExhaustedException e) {
+      assertTrue(e.getMessage().contains("join"));
+    }
+
+    sort.release();
+    hashTable.release();
+    assertEquals(0, manager.getUsedMemory());
+  }
+
+  @Test
+  public void testTaskAndQueryUsage() {
+    WorkerMemoryManager manager = new WorkerMemoryManager(10 * PAGE_SIZE);
+    MasterPlan plan = new MasterPlan(LocalTajoTestingUtility.newQueryId(), null, null);
+    TaskAttemptId task1 = LocalTajoTestingUtility.newTaskAttemptId(plan);
+    TaskAttemptId task2 = LocalTajoTestingUtility.newTaskAttemptId(plan);
+    QueryId queryId = task1.getTaskId().getExecutionBlockId().getQueryId();
+
+    MemoryConsumer sort = manager.newConsumer("sort", task1, true);
+    MemoryConsumer join = manager.newConsumer("join", task1, false);
+    MemoryConsumer agg = manager.newConsumer("agg", task2, false);
+
+    sort.reserve(3 * PAGE_SIZE);
+    join.reserve(PAGE_SIZE);
+    agg.reserve(2 * PAGE_SIZE);
+    assertEquals(4 * PAGE_SIZE, manager.getTaskMemory(task1));
+    assertEquals(2 * PAGE_SIZE, manager.getTaskMemory(task2));
+    assertEquals(6 * PAGE_SIZE, manager.getQueryMemory(queryId));
+
+    sort.release();
+    assertEquals(PAGE_SIZE, manager.getTaskMemory(task1));
+    assertEquals(4 * PAGE_SIZE, manager.getTaskPeakMemory(task1));
+
+    // the memory which is not released by the task is released when the task is removed
+    manager.removeTask(task1);
+    assertEquals(0, manager.getTaskPeakMemory(task1));
+    assertEquals(2 * PAGE_SIZE, manager.getUsedMemory());
+    assertEquals(2 * PAGE_SIZE, manager.getQueryMemory(queryId));
+
+    manager.removeTask(task2);
+    assertEquals(0, manager.getQueryMemory(queryId));
+    assertTrue(manager.getQueryMemoryUsages().isEmpty());
+  }
+}
@@ -284,4 +284,106 @@ public class TestQueryResultResource extends QueryTestCaseBase {
       assertTrue(aTuple.getInt4(response.getSchema().getColumnId("l_orderkey")) > 0);
     }
   }
+
+  @Test
+  public void testGetQueryResultStream() throws Exception {
+    String sessionId = generateNewSessionAndGetId();
+    URI queryIdURI = sendNewQueryResquest(sessionId, "select * from lineitem");
+    URI queryResultURI = new URI(queryIdURI + "/result");
+
+    GetQueryResultDataResponse response = restClient.target(queryResultURI)
+        .request().header(tajoSessionIdHeaderName, sessionId)
+        .get(new GenericType<GetQueryResultDataResponse>(GetQueryResultDataResponse.class));
+
+    assertNotNull(response);
+    assertEquals(ResultCode.OK, response.getResultCode());
+    URI queryResultStreamURI = new URI(response.getResultset().getLink() + "/stream");
+
+    Response queryResultStreamResponse = restClient.target(queryResultStreamURI)
+        .queryParam("offset", 2)
+        .request().header(tajoSessionIdHeaderName, sessionId)
+        .get();
+
+    assertNotNull(queryResultStreamResponse);
+    assertEquals(Status.OK.getStatusCode(), queryResultStreamResponse.getStatus());
+
+    DataInputStream queryResultStreamInputStream =
+        new DataInputStream(new BufferedInputStream(queryResultStreamResponse.readEntity(InputStream.class)));
+
+    boolean isFinished = false;
+    List<Tuple> tupleList = TUtil.newList();
+    RowStoreUtil.RowStoreDecoder decoder = RowStoreUtil.createDecoder(response.getSchema());
+    while (!isFinished) {
+      try {
+        int length = queryResultStreamInputStream.readInt();
+        byte[] dataByteArray = new byte[length];
+        queryResultStreamInputStream.readFully(dataByteArray);
+        tupleList.add(decoder.toTuple(dataByteArray));
+      } catch (EOFException eof) {
+        isFinished = true;
+      }
+    }
+
+    assertEquals(4, tupleList.size());
+    for (Tuple aTuple: tupleList) {
+      assertTrue(aTuple.getInt4(response.getSchema().getColumnId("l_orderkey")) > 0);
+    }
+  }
+
+  @Test
+  public void testGetQueryResultStreamAsCSV() throws Exception {
+    String sessionId = generateNewSessionAndGetId();
+    URI queryIdURI = sendNewQueryResquest(sessionId, "select l_orderkey, l_partkey from lineitem");
+    URI queryResultURI = new URI(queryIdURI + "/result");
+
+    GetQueryResultDataResponse response = restClient.target(queryResultURI)
+        .request().header(tajoSessionIdHeaderName, sessionId)
+        .get(new GenericType<GetQueryResultDataResponse>(GetQueryResultDataResponse.class));
+
+    assertNotNull(response);
+    assertEquals(ResultCode.OK, response.getResultCode());
+    URI queryResultStreamURI = new URI(response.getResultset().getLink() + "/stream");
+
+    Response queryResultStreamResponse = restClient.target(queryResultStreamURI)
+        .queryParam("format", "csv")
+        .request().header(tajoSessionIdHeaderName, sessionId)
+        .get();
+
+    assertNotNull(queryResultStreamResponse);
+    assertEquals(Status.OK.getStatusCode(), queryResultStreamResponse.getStatus());
+
+    String [] lines = queryResultStreamResponse.readEntity(String.class).split("\r\n");
+    assertEquals(5, lines.length);
+    for (String line : lines) {
+      String [] fields = line.split(",");
+      assertEquals(2, fields.length);
+      assertTrue(Integer.parseInt(fields[0]) > 0);
+    }
+  }
+
+  @Test
+  public void testGetQueryResultStreamAsQuotedCSV() throws Exception {
+    String sessionId = generateNewSessionAndGetId();
+    URI queryIdURI = sendNewQueryResquest(sessionId, "select l_orderkey, 'a,b' as c1, 'say \"hi\"' as c2, " +
+        "concat('x', chr(10), 'y') as c3 from lineitem where l_orderkey = 2");
+    URI queryResultURI = new URI(queryIdURI + "/result");
+
+    GetQueryResultDataResponse response = restClient.target(queryResultURI)
+        .request().header(tajoSessionIdHeaderName, sessionId)
+        .get(new GenericType<GetQueryResultDataResponse>(GetQueryResultDataResponse.class));
+
+    assertNotNull(response);
+    assertEquals(ResultCode.OK, response.getResultCode());
+    URI queryResultStreamURI = new URI(response.getResultset().getLink() + "/stream");
+
+    Response queryResultStreamResponse = restClient.target(queryResultStreamURI)
+        .queryParam("format", "csv")
+        .request().header(tajoSessionIdHeaderName, sessionId)
+        .get();
+
+    assertNotNull(queryResultStreamResponse);
+    assertEquals(Status.OK.getStatusCode(), queryResultStreamResponse.getStatus());
+    assertEquals("2,\"a,b\",\"say \"\"hi\"\"\",\"x\ny\"\r\n",
+        queryResultStreamResponse.readEntity(String.class));
+  }
 }
@@ -14,7 +14,7 @@
 #  See the License for the specific language governing permissions and
 #  limitations under the License.
 
-from tajo_util import outputType
+from tajo_util import outputType, vectorized
 
 #Percent- Percentage
 @outputType("float8")
@@ -29,4 +29,10 @@ def comma_format(num):
 #concatMultiple- concat multiple words
 @outputType("text")
 def concat4(word1, word2, word3, word4):
-    return word1 + " " + word2 + " " + word3 + " " + word4
\ No newline at end of file
+    return word1 + " " + word2 + " " + word3 + " " + word4
+
+#sumVec- add the values of two columns in a batch at once
+@outputType("int8")
+@vectorized
+def sum_vec(nums1, nums2):
+    return [a + b for a, b in zip(nums1, nums2)]
@@ -0,0 +1 @@
+select n_nationkey, sum_vec(n_nationkey, n_regionkey) as sum from nation where n_nationkey < 5
\ No newline at end of file
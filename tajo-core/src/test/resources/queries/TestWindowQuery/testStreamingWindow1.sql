@@ -0,0 +1,7 @@
+SELECT
+  l_orderkey,
+  l_linenumber,
+  row_number() over (PARTITION BY l_orderkey ORDER BY l_linenumber) as r1,
+  lag(l_quantity, 1) over (PARTITION BY l_orderkey ORDER BY l_linenumber) as lag1
+FROM
+  LINEITEM;
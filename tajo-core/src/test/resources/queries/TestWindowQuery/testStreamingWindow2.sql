@@ -0,0 +1,7 @@
+SELECT
+  l_orderkey,
+  l_linenumber,
+  rank() over (PARTITION BY l_orderkey ORDER BY l_linenumber) as r1,
+  sum(l_quantity) over (PARTITION BY l_orderkey) as s1
+FROM
+  LINEITEM;
@@ -26,6 +26,7 @@ import java.util.Map;
 
 public class EvalContext {
   private final Map<EvalNode, TajoScriptEngine> scriptEngineMap = TUtil.newHashMap();
+  private final Map<String, Object> functionCacheMap = TUtil.newHashMap();
 
   public void addScriptEngine(EvalNode evalNode, TajoScriptEngine scriptExecutor) {
     this.scriptEngineMap.put(evalNode, scriptExecutor);
@@ -42,4 +43,16 @@ public class EvalContext {
   public Collection<TajoScriptEngine> getAllScriptEngines() {
     return this.scriptEngineMap.values();
   }
+
+  /**
+   * A function cache is shared by all functions evaluated in this context. For example, functions reading
+   * the same input of a row can share a parse result through it.
+   */
+  public void addFunctionCache(String name, Object cache) {
+    this.functionCacheMap.put(name, cache);
+  }
+
+  public Object getFunctionCache(String name) {
+    return this.functionCacheMap.get(name);
+  }
 }
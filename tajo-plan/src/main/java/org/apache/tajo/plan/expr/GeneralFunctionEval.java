@@ -26,12 +26,14 @@ import org.apache.tajo.datum.Datum;
 import org.apache.tajo.plan.function.FunctionInvoke;
 import org.apache.tajo.plan.function.FunctionInvokeContext;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
 
 import java.io.IOException;
 
 public class GeneralFunctionEval extends FunctionEval {
   protected FunctionInvoke funcInvoke;
   @Expose protected FunctionInvokeContext invokeContext;
+  private transient Tuple [] batchParams;
 
 	public GeneralFunctionEval(OverridableConf queryContext, FunctionDesc desc, EvalNode[] givenArgs)
       throws IOException {
@@ -47,6 +49,7 @@ public class GeneralFunctionEval extends FunctionEval {
       if (evalContext != null && evalContext.hasScriptEngine(this)) {
         this.invokeContext.setScriptEngine(evalContext.getScriptEngine(this));
       }
+      this.invokeContext.setEvalContext(evalContext);
       this.funcInvoke.init(invokeContext);
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -62,6 +65,28 @@ public class GeneralFunctionEval extends FunctionEval {
     return res;
   }
 
+  /**
+   * @return True if this function is more efficient when it is evaluated by {@link #evalBatch}.
+   */
+  public boolean isBatchEvaluable() {
+    return funcDesc.getInvocation().hasPython();
+  }
+
+  /**
+   * Evaluates this function for multiple rows at once. The parameters of all rows are evaluated before
+   * the function is invoked, so it should be used only when this function is evaluated for every row.
+   */
+  public void evalBatch(Tuple [] tuples, int num, Datum [] results) {
+    super.eval(null);
+    if (batchParams == null || batchParams.length < num) {
+      batchParams = new Tuple[num];
+    }
+    for (int i = 0; i < num; i++) {
+      batchParams[i] = new VTuple(evalParams(tuples[i]));
+    }
+    funcInvoke.eval(batchParams, num, results);
+  }
+
 	@Override
   public Object clone() throws CloneNotSupportedException {
     GeneralFunctionEval eval = (GeneralFunctionEval) super.clone();
@@ -67,6 +67,18 @@ public abstract class FunctionInvoke implements Cloneable {
    */
   public abstract Datum eval(Tuple tuple);
 
+  /**
+   * Evaluate the parameters of multiple rows. It is overridden by functions which can process rows in a batch.
+   * @param params parameters of each row
+   * @param num the number of rows
+   * @param results an array where the result of each row is written
+   */
+  public void eval(Tuple [] params, int num, Datum [] results) {
+    for (int i = 0; i < num; i++) {
+      results[i] = eval(params[i]);
+    }
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o instanceof FunctionInvoke) {
@@ -20,6 +20,7 @@ package org.apache.tajo.plan.function;
 
 import com.google.common.base.Objects;
 import org.apache.tajo.OverridableConf;
+import org.apache.tajo.plan.expr.EvalContext;
 import org.apache.tajo.plan.expr.FunctionEval;
 import org.apache.tajo.plan.function.python.TajoScriptEngine;
 
@@ -32,6 +33,7 @@ public class FunctionInvokeContext {
   private final OverridableConf queryContext;
   private final FunctionEval.ParamType[] paramTypes;
   private TajoScriptEngine scriptEngine;
+  private EvalContext evalContext;
 
   public FunctionInvokeContext(OverridableConf queryContext, FunctionEval.ParamType[] paramTypes) {
     this.queryContext = queryContext;
@@ -58,6 +60,14 @@ public class FunctionInvokeContext {
     return scriptEngine;
   }
 
+  public void setEvalContext(EvalContext evalContext) {
+    this.evalContext = evalContext;
+  }
+
+  public EvalContext getEvalContext() {
+    return evalContext;
+  }
+
   @Override
   public int hashCode() {
     return Objects.hashCode(queryContext, Arrays.hashCode(paramTypes));
@@ -25,6 +25,7 @@ import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.function.Function;
 import org.apache.tajo.json.GsonObject;
+import org.apache.tajo.plan.expr.EvalContext;
 import org.apache.tajo.plan.expr.FunctionEval;
 import org.apache.tajo.storage.Tuple;
 
@@ -40,6 +41,12 @@ public abstract class GeneralFunction extends Function implements GsonObject {
   @SuppressWarnings("unused")
   public void init(OverridableConf queryContext, FunctionEval.ParamType [] paramTypes) {}
 
+  /**
+   * This method gives the context where a function instance is evaluated. It can be null.
+   */
+  @SuppressWarnings("unused")
+  public void bind(EvalContext evalContext) {}
+
   public abstract Datum eval(Tuple params);
 
 	public enum Type {
@@ -50,6 +50,7 @@ public class LegacyScalarFunctionInvoke extends FunctionInvoke implements Clonea
   @Override
   public void init(FunctionInvokeContext context) {
     function.init(context.getQueryContext(), context.getParamTypes());
+    function.bind(context.getEvalContext());
   }
 
   @Override
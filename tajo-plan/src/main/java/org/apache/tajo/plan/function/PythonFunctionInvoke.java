@@ -51,6 +51,11 @@ public class PythonFunctionInvoke extends FunctionInvoke implements Cloneable {
     return res;
   }
 
+  @Override
+  public void eval(Tuple [] params, int num, Datum [] results) {
+    scriptEngine.eval(params, num, results);
+  }
+
   @Override
   public Object clone() throws CloneNotSupportedException {
     // nothing to do
@@ -0,0 +1,229 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.plan.function.python;
+
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.AnyDatum;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.exception.UnsupportedException;
+import org.apache.tajo.storage.Tuple;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * The binary protocol between {@link PythonScriptEngine} and the python controller.
+ * (Please refer to 'tajo-core/src/main/resources/python/controller.py')
+ *
+ * A request carries a batch of rows laid out column by column, and a response carries the result of each row.
+ * Both start with the length of the payload, so the controller reads a whole batch at once.
+ * <pre>
+ *   request  := payload length (int), row num (int), column num (int), values of column 0, values of column 1, ...
+ *   response := payload length (int), row num (int), values
+ *   value    := tag (byte) followed by a fixed-length or length-prefixed encoding
+ * </pre>
+ * Each value has its own tag, because the parameters of python functions are typed ANY. Numbers are big-endian.
+ */
+public class PythonBatchProtocol {
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  static final byte NULL = 'N';
+  static final byte BOOLEAN = 'B';
+  static final byte INT = 'I';
+  static final byte LONG = 'L';
+  static final byte DOUBLE = 'D';
+  static final byte TEXT = 'C';
+  static final byte BYTES = 'A';
+  static final byte DATETIME = 'T';
+
+  private final int columnNum;
+  private final DataType outType;
+
+  private final ByteArrayOutputStream requestBuffer = new ByteArrayOutputStream(64 * 1024);
+  private final DataOutputStream request = new DataOutputStream(requestBuffer);
+  private byte [] responseBuffer = new byte[64 * 1024];
+
+  public PythonBatchProtocol(int columnNum, DataType outType) {
+    this.columnNum = columnNum;
+    this.outType = outType;
+  }
+
+  /**
+   * Writes a request having the given rows, and flushes the stream.
+   */
+  public void writeRequest(DataOutputStream out, Tuple [] inputs, int num) throws IOException {
+    requestBuffer.reset();
+    request.writeInt(num);
+    request.writeInt(columnNum);
+    for (int col = 0; col < columnNum; col++) {
+      for (int row = 0; row < num; row++) {
+        writeValue(inputs[row].get(col));
+      }
+    }
+    request.flush();
+
+    out.writeInt(requestBuffer.size());
+    requestBuffer.writeTo(out);
+    out.flush();
+  }
+
+  private void writeValue(Datum datum) throws IOException {
+    if (datum instanceof AnyDatum) {
+      datum = ((AnyDatum) datum).getActual();
+    }
+
+    switch (datum.type()) {
+    case NULL_TYPE:
+      request.writeByte(NULL);
+      break;
+    case BOOLEAN:
+      request.writeByte(BOOLEAN);
+      request.writeBoolean(datum.asBool());
+      break;
+    case INT1:
+    case INT2:
+    case INT4:
+      request.writeByte(INT);
+      request.writeInt(datum.asInt4());
+      break;
+    case INT8:
+      request.writeByte(LONG);
+      request.writeLong(datum.asInt8());
+      break;
+    case FLOAT4:
+    case FLOAT8:
+      request.writeByte(DOUBLE);
+      request.writeDouble(datum.asFloat8());
+      break;
+    case CHAR:
+    case TEXT:
+      writeBytes(TEXT, datum.asTextBytes());
+      break;
+    case DATE:
+    case TIME:
+    case TIMESTAMP:
+      writeBytes(DATETIME, datum.asChars().getBytes(UTF8));
+      break;
+    case BLOB:
+    case INET4:
+    case INET6:
+      writeBytes(BYTES, datum.asByteArray());
+      break;
+    default:
+      throw new UnsupportedException(datum.type().name());
+    }
+  }
+
+  private void writeBytes(byte tag, byte [] bytes) throws IOException {
+    request.writeByte(tag);
+    request.writeInt(bytes.length);
+    request.write(bytes);
+  }
+
+  /**
+   * Reads a response, and converts its values into the output type.
+   */
+  public void readResponse(DataInputStream in, int num, Datum [] results) throws IOException {
+    int length = in.readInt();
+    if (responseBuffer.length < length) {
+      responseBuffer = new byte[Math.max(length, responseBuffer.length * 2)];
+    }
+    in.readFully(responseBuffer, 0, length);
+
+    ByteBuffer response = ByteBuffer.wrap(responseBuffer, 0, length);
+    int resultNum = response.getInt();
+    if (resultNum != num) {
+      throw new IOException("The python controller returned " + resultNum + " results for " + num + " rows");
+    }
+    for (int i = 0; i < num; i++) {
+      results[i] = readValue(response);
+    }
+  }
+
+  private Datum readValue(ByteBuffer response) throws IOException {
+    byte tag = response.get();
+    switch (tag) {
+    case NULL:
+      return NullDatum.get();
+    case BOOLEAN:
+      boolean bool = response.get() != 0;
+      return outType.getType() == Type.BOOLEAN ?
+          DatumFactory.createBool(bool) : DatumFactory.createFromString(outType, Boolean.toString(bool));
+    case LONG:
+      return createNumber(response.getLong());
+    case DOUBLE:
+      return createNumber(response.getDouble());
+    case TEXT:
+    case BYTES:
+      byte [] bytes = new byte[response.getInt()];
+      response.get(bytes);
+      switch (outType.getType()) {
+      case TEXT:
+        return DatumFactory.createText(bytes);
+      case BLOB:
+        return DatumFactory.createBlob(bytes);
+      default:
+        return DatumFactory.createFromString(outType, new String(bytes, UTF8));
+      }
+    default:
+      throw new IOException("Unknown value tag from the python controller: " + (char) tag);
+    }
+  }
+
+  private Datum createNumber(long value) {
+    switch (outType.getType()) {
+    case INT2:
+      return DatumFactory.createInt2((short) value);
+    case INT4:
+      return DatumFactory.createInt4((int) value);
+    case INT8:
+      return DatumFactory.createInt8(value);
+    case FLOAT4:
+      return DatumFactory.createFloat4(value);
+    case FLOAT8:
+      return DatumFactory.createFloat8(value);
+    default:
+      return DatumFactory.createFromString(outType, Long.toString(value));
+    }
+  }
+
+  private Datum createNumber(double value) {
+    switch (outType.getType()) {
+    case INT2:
+      return DatumFactory.createInt2((short) value);
+    case INT4:
+      return DatumFactory.createInt4((int) value);
+    case INT8:
+      return DatumFactory.createInt8((long) value);
+    case FLOAT4:
+      return DatumFactory.createFloat4((float) value);
+    case FLOAT8:
+      return DatumFactory.createFloat8(value);
+    default:
+      return DatumFactory.createFromString(outType, Double.toString(value));
+    }
+  }
+}
@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.plan.function.python;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.plan.function.stream.StreamingUtil;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.util.TUtil;
+
+import java.io.*;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * A pool of python controller processes shared by all {@link PythonScriptEngine}s in a JVM.
+ *
+ * Starting a controller takes a python interpreter startup and an import of the script, so a controller released by
+ * a task is kept idle and reused by later tasks of the same query which run the same function. Controllers are not
+ * shared by queries, because a script keeps its module state in the controller, and they are not reused after the
+ * script file is modified. Controllers which have been idle longer than the timeout are destroyed. A controller
+ * exits by itself when the JVM exits, because it stops when its standard input is closed.
+ */
+public class PythonControllerPool {
+  private static final Log LOG = LogFactory.getLog(PythonControllerPool.class);
+
+  private static final PythonControllerPool instance = new PythonControllerPool();
+
+  /** idle controllers for each query, script version and command. The most recently used one comes first. */
+  private final Map<String, LinkedList<Controller>> idleControllers = TUtil.newHashMap();
+  private long idleTimeoutMs = Long.MAX_VALUE;
+
+  public static PythonControllerPool getInstance() {
+    return instance;
+  }
+
+  /**
+   * A python controller process and its standard streams.
+   */
+  public static class Controller {
+    /** null if the controller is not pooled */
+    private final String scope;
+    private final String key;
+    private final Process process;
+    private final DataOutputStream stdin;
+    private final DataInputStream stdout;
+    private final InputStream stderr;
+
+    private long lastUsedTime;
+    private boolean broken = false;
+
+    Controller(String scope, String key, Process process) {
+      this.scope = scope;
+      this.key = key;
+      this.process = process;
+      this.stdin = new DataOutputStream(new BufferedOutputStream(process.getOutputStream(), 64 * 1024));
+      this.stdout = new DataInputStream(new BufferedInputStream(process.getInputStream(), 64 * 1024));
+      this.stderr = process.getErrorStream();
+    }
+
+    public DataOutputStream getInput() {
+      return stdin;
+    }
+
+    public DataInputStream getOutput() {
+      return stdout;
+    }
+
+    /**
+     * Marks that this controller must not be reused, e.g., because it failed to evaluate a function.
+     */
+    public void markBroken() {
+      broken = true;
+    }
+
+    public boolean isAlive() {
+      try {
+        process.exitValue();
+        return false;
+      } catch (IllegalThreadStateException e) {
+        return true;
+      }
+    }
+
+    /**
+     * Destroys this controller, and returns what it wrote to the standard error, e.g., the traceback of an error.
+     */
+    public String destroyAndGetError() {
+      destroy();
+      try {
+        return IOUtils.toString(stderr);
+      } catch (IOException e) {
+        return e.getMessage();
+      } finally {
+        FileUtil.cleanup(LOG, stderr);
+      }
+    }
+
+    void destroy() {
+      process.destroy();
+      FileUtil.cleanup(LOG, stdin, stdout);
+    }
+  }
+
+  /**
+   * Takes an idle controller started by the command in the same scope, or starts a new one.
+   *
+   * @param scope The scope in which controllers are shared, e.g., a query id. If it is null, the controller is
+   *              destroyed when it is released.
+   * @param scriptModifiedTime The last modified time of the script file
+   */
+  public Controller acquire(String scope, String [] command, long scriptModifiedTime) throws IOException {
+    String commandLine = StringUtils.join(command, ' ');
+    String key = scope == null ? null : scope + ' ' + scriptModifiedTime + ' ' + commandLine;
+
+    synchronized (this) {
+      evictIdleControllers();
+      LinkedList<Controller> idles = idleControllers.get(key);
+      while (idles != null && !idles.isEmpty()) {
+        Controller controller = idles.removeFirst();
+        if (controller.isAlive()) {
+          return controller;
+        }
+        controller.destroy();
+      }
+    }
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Starting a python controller: " + commandLine);
+    }
+    return new Controller(scope, key, StreamingUtil.createProcess(command).start());
+  }
+
+  /**
+   * Returns a controller to the pool. It is destroyed if it is broken, it is not pooled, or the pool already has
+   * enough idle ones.
+   *
+   * @param maxIdle The max number of idle controllers for each command
+   * @param idleTimeoutMs The time after which idle controllers are destroyed
+   */
+  public void release(Controller controller, int maxIdle, long idleTimeoutMs) {
+    synchronized (this) {
+      this.idleTimeoutMs = idleTimeoutMs;
+      if (controller.key != null && !controller.broken && controller.isAlive()) {
+        LinkedList<Controller> idles = idleControllers.get(controller.key);
+        if (idles == null) {
+          idles = new LinkedList<Controller>();
+          idleControllers.put(controller.key, idles);
+        }
+        if (idles.size() < maxIdle) {
+          controller.lastUsedTime = System.currentTimeMillis();
+          idles.addFirst(controller);
+          evictIdleControllers();
+          return;
+        }
+      }
+    }
+    controller.destroy();
+  }
+
+  private void evictIdleControllers() {
+    long now = System.currentTimeMillis();
+    for (Iterator<LinkedList<Controller>> it = idleControllers.values().iterator(); it.hasNext(); ) {
+      LinkedList<Controller> idles = it.next();
+      while (!idles.isEmpty() && now - idles.getLast().lastUsedTime > idleTimeoutMs) {
+        idles.removeLast().destroy();
+      }
+      if (idles.isEmpty()) {
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * Destroys the idle controllers of the scope, e.g., when its query is finished.
+   */
+  public synchronized void clear(String scope) {
+    for (Iterator<LinkedList<Controller>> it = idleControllers.values().iterator(); it.hasNext(); ) {
+      LinkedList<Controller> idles = it.next();
+      if (!idles.isEmpty() && scope.equals(idles.getFirst().scope)) {
+        for (Controller controller : idles) {
+          controller.destroy();
+        }
+        it.remove();
+      }
+    }
+  }
+
+  @VisibleForTesting
+  public synchronized int getIdleNum() {
+    int num = 0;
+    for (LinkedList<Controller> idles : idleControllers.values()) {
+      num += idles.size();
+    }
+    return num;
+  }
+
+  @VisibleForTesting
+  public synchronized void clear() {
+    for (LinkedList<Controller> idles : idleControllers.values()) {
+      for (Controller controller : idles) {
+        controller.destroy();
+      }
+    }
+    idleControllers.clear();
+  }
+}
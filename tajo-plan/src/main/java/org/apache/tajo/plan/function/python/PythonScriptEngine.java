@@ -31,10 +31,8 @@ import org.apache.tajo.function.FunctionInvocation;
 import org.apache.tajo.function.FunctionSignature;
 import org.apache.tajo.function.FunctionSupplement;
 import org.apache.tajo.function.PythonInvocationDesc;
-import org.apache.tajo.plan.function.stream.*;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
-import org.apache.tajo.util.FileUtil;
 import org.apache.tajo.util.TUtil;
 
 import java.io.*;
@@ -48,7 +46,8 @@ import java.util.regex.Pattern;
  * {@link PythonScriptEngine} is responsible for registering python functions and maintaining the controller process.
  * The controller is a python process that executes the python UDFs.
  * (Please refer to 'tajo-core/src/main/resources/python/controller.py')
- * Data are exchanged via standard I/O between PythonScriptEngine and the controller.
+ * Data are exchanged in batches of rows via standard I/O between PythonScriptEngine and the controller
+ * (see {@link PythonBatchProtocol}). Controllers are taken from {@link PythonControllerPool}, so they outlive engines.
  */
 public class PythonScriptEngine extends TajoScriptEngine {
 
@@ -169,27 +168,21 @@ public class PythonScriptEngine extends TajoScriptEngine {
   private static final int CONTROLLER_LOG_FILE_PATH = 8; // Controller log file logs progress through the controller script not user code.
   private static final int OUT_SCHEMA = 9; // the schema of the output column
 
-  private Configuration systemConf;
-
-  private Process process; // Handle to the external execution of python functions
+  private static String extractedControllerPath; // the controller file extracted from the jar
 
-  private InputHandler inputHandler;
-  private OutputHandler outputHandler;
+  private Configuration systemConf;
 
-  private DataOutputStream stdin; // stdin of the process
-  private InputStream stdout; // stdout of the process
-  private InputStream stderr; // stderr of the process
+  private PythonControllerPool.Controller controller; // Handle to the external execution of python functions
+  private PythonBatchProtocol protocol;
 
   private final FunctionSignature functionSignature;
   private final PythonInvocationDesc invocationDesc;
   private final Schema inSchema;
   private final Schema outSchema;
-  private final int [] projectionCols = new int[]{0};
-
-  private final CSVLineSerDe lineSerDe = new CSVLineSerDe();
-  private final TableMeta pipeMeta = CatalogUtil.newTableMeta(CatalogProtos.StoreType.TEXTFILE);
 
   private static final Tuple EMPTY_INPUT = new VTuple(0);
+  private final Tuple [] singleInput = new Tuple[1];
+  private final Datum [] singleResult = new Datum[1];
 
   public PythonScriptEngine(FunctionDesc functionDesc) {
     if (!functionDesc.getInvocation().hasPython()) {
@@ -206,39 +199,43 @@ public class PythonScriptEngine extends TajoScriptEngine {
     outSchema = new Schema(new Column[]{new Column("out", functionSignature.getReturnType())});
   }
 
+  /**
+   * Starts with a controller which is not pooled.
+   */
   @Override
   public void start(Configuration systemConf) throws IOException {
+    start(systemConf, null);
+  }
+
+  @Override
+  public void start(Configuration systemConf, String queryId) throws IOException {
     this.systemConf = systemConf;
-    startUdfController();
-    createInputHandlers();
-    setStreams();
+    controller = PythonControllerPool.getInstance().acquire(queryId, buildCommand(),
+        new File(invocationDesc.getPath()).lastModified());
+    protocol = new PythonBatchProtocol(inSchema.size(), outSchema.getColumn(0).getDataType());
     if (LOG.isDebugEnabled()) {
       LOG.debug("PythonScriptExecutor starts up");
     }
   }
 
+  /**
+   * Returns the controller to the pool, so that it can be reused by other tasks of the query.
+   */
   @Override
   public void shutdown() {
-    process.destroy();
-    FileUtil.cleanup(LOG, stdin);
-    FileUtil.cleanup(LOG, stdout);
-    FileUtil.cleanup(LOG, stderr);
-    FileUtil.cleanup(LOG, inputHandler);
-    FileUtil.cleanup(LOG, outputHandler);
-    stdin = null;
-    stdout = stderr = null;
-    inputHandler = null;
-    outputHandler = null;
+    if (controller != null) {
+      PythonControllerPool.getInstance().release(controller,
+          systemConf.getInt(TajoConf.ConfVars.PYTHON_CONTROLLER_MAX_IDLE.keyname(),
+              TajoConf.ConfVars.PYTHON_CONTROLLER_MAX_IDLE.defaultIntVal),
+          systemConf.getInt(TajoConf.ConfVars.PYTHON_CONTROLLER_IDLE_TIMEOUT_SEC.keyname(),
+              TajoConf.ConfVars.PYTHON_CONTROLLER_IDLE_TIMEOUT_SEC.defaultIntVal) * 1000L);
+      controller = null;
+    }
     if (LOG.isDebugEnabled()) {
       LOG.debug("PythonScriptExecutor shuts down");
     }
   }
 
-  private void startUdfController() throws IOException {
-    ProcessBuilder processBuilder = StreamingUtil.createProcess(buildCommand());
-    process = processBuilder.start();
-  }
-
   /**
    * Build a command to execute an external process.
    * @return
@@ -283,46 +280,29 @@ public class PythonScriptEngine extends TajoScriptEngine {
     return command;
   }
 
-  private void createInputHandlers() {
-    TextLineSerializer serializer = lineSerDe.createSerializer(inSchema, pipeMeta);
-    serializer.init();
-    this.inputHandler = new InputHandler(serializer);
-    TextLineDeserializer deserializer = lineSerDe.createDeserializer(outSchema, pipeMeta, projectionCols);
-    deserializer.init();
-    this.outputHandler = new OutputHandler(deserializer);
-  }
-
-  /**
-   * Get the standard input, output, and error streams of the external process
-   *
-   * @throws IOException
-   */
-  private void setStreams() throws IOException {
-    stdout = new DataInputStream(new BufferedInputStream(process.getInputStream()));
-    outputHandler.bindTo(stdout);
-
-    stdin = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
-    inputHandler.bindTo(stdin);
-
-    stderr = new DataInputStream(new BufferedInputStream(process.getErrorStream()));
-  }
-
   /**
    * Find the path to the controller file for the streaming language.
    *
    * First check path to job jar and if the file is not found (like in the
    * case of running hadoop in standalone mode) write the necessary files
-   * to temporary files and return that path.
+   * to temporary files and return that path. The files are written once per JVM,
+   * so that the commands of the same function are identical and their controllers can be pooled.
    *
    * @return
    * @throws IOException
    */
   private String getControllerPath() throws IOException {
-    String controllerPath = PYTHON_CONTROLLER_JAR_PATH;
     File controller = new File(PYTHON_CONTROLLER_JAR_PATH);
-    if (!controller.exists()) {
+    if (controller.exists()) {
+      return PYTHON_CONTROLLER_JAR_PATH;
+    }
+    return extractControllerFiles();
+  }
+
+  private static synchronized String extractControllerFiles() throws IOException {
+    if (extractedControllerPath == null) {
       File controllerFile = File.createTempFile("controller", FILE_EXTENSION);
-      InputStream pythonControllerStream = this.getClass().getResourceAsStream(PYTHON_CONTROLLER_JAR_PATH);
+      InputStream pythonControllerStream = PythonScriptEngine.class.getResourceAsStream(PYTHON_CONTROLLER_JAR_PATH);
       try {
         FileUtils.copyInputStreamToFile(pythonControllerStream, controllerFile);
       } finally {
@@ -331,38 +311,40 @@ public class PythonScriptEngine extends TajoScriptEngine {
       controllerFile.deleteOnExit();
       File tajoUtilFile = new File(controllerFile.getParent() + File.separator + TAJO_UTIL_NAME);
       tajoUtilFile.deleteOnExit();
-      InputStream pythonUtilStream = this.getClass().getResourceAsStream(PYTHON_TAJO_UTIL_PATH);
+      InputStream pythonUtilStream = PythonScriptEngine.class.getResourceAsStream(PYTHON_TAJO_UTIL_PATH);
       try {
         FileUtils.copyInputStreamToFile(pythonUtilStream, tajoUtilFile);
       } finally {
         pythonUtilStream.close();
       }
-      controllerPath = controllerFile.getAbsolutePath();
+      extractedControllerPath = controllerFile.getAbsolutePath();
     }
-    return controllerPath;
+    return extractedControllerPath;
   }
 
   public Datum eval(Tuple input) {
-    try {
-      if (input == null) {
-        // When nothing is passed into the UDF the tuple
-        // being sent is the full tuple for the relation.
-        // We want it to be nothing (since that's what the user wrote).
-        input = EMPTY_INPUT;
-      }
+    // When nothing is passed into the UDF the tuple being sent is the full tuple for the relation.
+    // We want it to be nothing (since that's what the user wrote).
+    singleInput[0] = input == null ? EMPTY_INPUT : input;
+    eval(singleInput, 1, singleResult);
+    return singleResult[0];
+  }
 
-      inputHandler.putNext(input);
-      stdin.flush();
-    } catch (Exception e) {
-      throw new RuntimeException("Failed adding input to inputQueue", e);
-    }
-    Datum result;
+  /**
+   * Evaluates the inputs of multiple rows in a single round trip to the controller.
+   *
+   * @param inputs the parameters of each row
+   * @param num the number of rows
+   * @param results an array where the result of each row is written
+   */
+  public void eval(Tuple [] inputs, int num, Datum [] results) {
     try {
-      result = outputHandler.getNext().get(0);
-    } catch (Exception e) {
-      throw new RuntimeException("Problem getting output", e);
+      protocol.writeRequest(controller.getInput(), inputs, num);
+      protocol.readResponse(controller.getOutput(), num, results);
+    } catch (IOException e) {
+      controller.markBroken();
+      throw new RuntimeException("Failed to evaluate the python function '" + invocationDesc.getName() + "': " +
+          controller.destroyAndGetError(), e);
     }
-
-    return result;
   }
 }
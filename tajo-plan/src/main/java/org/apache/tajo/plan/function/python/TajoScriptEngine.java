@@ -67,6 +67,17 @@ public abstract class TajoScriptEngine {
    */
   public abstract void start(Configuration systemConf) throws IOException;
 
+  /**
+   * Start TajoScriptEngine for a query. Resources which outlive the engine can be shared only in the query.
+   *
+   * @param systemConf
+   * @param queryId
+   * @throws IOException
+   */
+  public void start(Configuration systemConf, String queryId) throws IOException {
+    start(systemConf);
+  }
+
   /**
    * Shutdown TajoScriptEngine.
    * @throws IOException
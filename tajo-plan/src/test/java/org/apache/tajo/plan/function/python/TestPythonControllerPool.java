@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.plan.function.python;
+
+import org.apache.tajo.plan.function.python.PythonControllerPool.Controller;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestPythonControllerPool {
+  // a process which keeps running until its standard input is closed
+  private static final String [] COMMAND = new String[] {"cat"};
+  private static final long IDLE_TIMEOUT_MS = 60 * 1000;
+
+  private final PythonControllerPool pool = PythonControllerPool.getInstance();
+
+  @After
+  public void tearDown() {
+    pool.clear();
+  }
+
+  @Test
+  public void testReuseInQuery() throws Exception {
+    Controller controller = pool.acquire("q_1", COMMAND, 1);
+    pool.release(controller, 4, IDLE_TIMEOUT_MS);
+    assertEquals(1, pool.getIdleNum());
+
+    Controller reused = pool.acquire("q_1", COMMAND, 1);
+    assertSame(controller, reused);
+    pool.release(reused, 4, IDLE_TIMEOUT_MS);
+  }
+
+  @Test
+  public void testNotSharedByQueries() throws Exception {
+    Controller controller = pool.acquire("q_1", COMMAND, 1);
+    pool.release(controller, 4, IDLE_TIMEOUT_MS);
+
+    Controller other = pool.acquire("q_2", COMMAND, 1);
+    assertNotSame(controller, other);
+    pool.release(other, 4, IDLE_TIMEOUT_MS);
+    assertEquals(2, pool.getIdleNum());
+
+    // the controllers of a finished query are destroyed
+    pool.clear("q_1");
+    assertEquals(1, pool.getIdleNum());
+    Controller restarted = pool.acquire("q_1", COMMAND, 1);
+    assertNotSame(controller, restarted);
+    pool.release(restarted, 4, IDLE_TIMEOUT_MS);
+  }
+
+  @Test
+  public void testNotReusedAfterScriptModified() throws Exception {
+    Controller controller = pool.acquire("q_1", COMMAND, 1);
+    pool.release(controller, 4, IDLE_TIMEOUT_MS);
+
+    Controller modified = pool.acquire("q_1", COMMAND, 2);
+    assertNotSame(controller, modified);
+    pool.release(modified, 4, IDLE_TIMEOUT_MS);
+  }
+
+  @Test
+  public void testNotPooledWithoutScope() throws Exception {
+    Controller controller = pool.acquire(null, COMMAND, 1);
+    pool.release(controller, 4, IDLE_TIMEOUT_MS);
+    assertEquals(0, pool.getIdleNum());
+  }
+}
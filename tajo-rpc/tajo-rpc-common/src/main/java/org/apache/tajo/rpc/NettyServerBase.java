@@ -29,7 +29,6 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.concurrent.GlobalEventExecutor;
 
 import java.io.IOException;
@@ -83,7 +82,7 @@ public class NettyServerBase {
 
     this.initializer = initializer;
     bootstrap
-      .channel(NioServerSocketChannel.class)
+      .channel(RpcChannelFactory.getServerChannelClass(bootstrap.childGroup()))
       .childHandler(initializer)
       .option(ChannelOption.SO_REUSEADDR, true)
       .option(ChannelOption.TCP_NODELAY, true)
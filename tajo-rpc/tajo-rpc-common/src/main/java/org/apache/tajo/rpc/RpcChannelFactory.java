@@ -21,7 +21,15 @@ package org.apache.tajo.rpc;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -39,6 +47,8 @@ public final class RpcChannelFactory {
 
   private static final Object lockObjectForLoopGroup = new Object();
   private static AtomicInteger serverCount = new AtomicInteger(0);
+  /** If true, event loop groups created later use the linux native epoll transport */
+  private static volatile boolean nativeEpollEnabled = false;
 
   public enum ClientChannelId {
     CLIENT_DEFAULT,
@@ -60,6 +70,52 @@ public final class RpcChannelFactory {
     defaultMaxKeyPoolCount.put(ClientChannelId.FETCHER, 1);
   }
 
+  /**
+   * Enables the linux native epoll transport. It should be called before any rpc server or client is created.
+   * If the native library is not available, NIO transport is used.
+   */
+  public static void setNativeEpollEnabled(boolean enabled) {
+    if (enabled && !Epoll.isAvailable()) {
+      LOG.warn("Native epoll transport is not available, so NIO transport is used: " + Epoll.unavailabilityCause());
+      enabled = false;
+    }
+    nativeEpollEnabled = enabled;
+  }
+
+  public static boolean isNativeEpollEnabled() {
+    return nativeEpollEnabled;
+  }
+
+  private static EventLoopGroup createEventLoopGroup(int threadNum, ThreadFactory threadFactory) {
+    if (nativeEpollEnabled) {
+      return new EpollEventLoopGroup(threadNum, threadFactory);
+    } else {
+      return new NioEventLoopGroup(threadNum, threadFactory);
+    }
+  }
+
+  /**
+   * @return the server channel class which matches the transport of the given event loop group
+   */
+  public static Class<? extends ServerChannel> getServerChannelClass(EventLoopGroup eventLoopGroup) {
+    if (eventLoopGroup instanceof EpollEventLoopGroup) {
+      return EpollServerSocketChannel.class;
+    } else {
+      return NioServerSocketChannel.class;
+    }
+  }
+
+  /**
+   * @return the client channel class which matches the transport of the given event loop group
+   */
+  public static Class<? extends SocketChannel> getClientChannelClass(EventLoopGroup eventLoopGroup) {
+    if (eventLoopGroup instanceof EpollEventLoopGroup) {
+      return EpollSocketChannel.class;
+    } else {
+      return NioSocketChannel.class;
+    }
+  }
+
   /**
   * make this factory static thus all clients can share its thread pool.
   * NioClientSocketChannelFactory has only one method newChannel() visible for user, which is thread-safe
@@ -131,7 +187,7 @@ public final class RpcChannelFactory {
     ThreadFactoryBuilder builder = new ThreadFactoryBuilder();
     ThreadFactory clientFactory = builder.setNameFormat(name + " Client #%d").build();
 
-    return new NioEventLoopGroup(workerNum, clientFactory);
+    return createEventLoopGroup(workerNum, clientFactory);
   }
 
   // Client must release the external resources
@@ -144,10 +200,8 @@ public final class RpcChannelFactory {
     ThreadFactory bossFactory = builder.setNameFormat(name + " Server Boss #%d").build();
     ThreadFactory workerFactory = builder.setNameFormat(name + " Server Worker #%d").build();
     
-    EventLoopGroup bossGroup =
-        new NioEventLoopGroup(1, bossFactory);
-    EventLoopGroup workerGroup = 
-        new NioEventLoopGroup(workerNum, workerFactory);
+    EventLoopGroup bossGroup = createEventLoopGroup(1, bossFactory);
+    EventLoopGroup workerGroup = createEventLoopGroup(workerNum, workerFactory);
     
     return new ServerBootstrap().group(bossGroup, workerGroup);
   }
@@ -29,4 +29,5 @@ public class RpcConstants {
   public static final int DEFAULT_CONNECT_TIMEOUT = 60000;  // 60 sec
   public static final int DEFAULT_PAUSE = 1000; // 1 sec
   public static final int DEFAULT_FUTURE_TIMEOUT_SECONDS = 10;
+  public static final int DEFAULT_PAYLOAD_COMPRESSION_THRESHOLD = 1024 * 1024; // 1 MB
 }
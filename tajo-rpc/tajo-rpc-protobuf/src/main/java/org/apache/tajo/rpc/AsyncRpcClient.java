@@ -24,6 +24,7 @@ import io.netty.channel.ChannelHandler;
 import org.apache.tajo.rpc.RpcClientManager.RpcConnectionKey;
 import org.apache.tajo.rpc.RpcProtos.RpcResponse;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -86,7 +87,7 @@ public class AsyncRpcClient extends NettyClientBase<AsyncRpcClient.ResponseCallb
                            final RpcCallback<Message> done) {
 
       int nextSeqId = sequence.getAndIncrement();
-      RpcProtos.RpcRequest rpcRequest = buildRequest(nextSeqId, method, param);
+      RpcFrame<RpcProtos.RpcRequest> rpcRequest = buildRequest(nextSeqId, method, param);
 
       invoke(rpcRequest, new ResponseCallback(controller, responseType, done), 0);
     }
@@ -96,7 +97,7 @@ public class AsyncRpcClient extends NettyClientBase<AsyncRpcClient.ResponseCallb
   private class ClientChannelInboundHandler extends NettyChannelInboundHandler {
 
     @Override
-    protected void run(RpcResponse response, ResponseCallback callback) throws Exception {
+    protected void run(RpcFrame<RpcResponse> response, ResponseCallback callback) throws Exception {
       callback.run(response);
     }
 
@@ -106,11 +107,11 @@ public class AsyncRpcClient extends NettyClientBase<AsyncRpcClient.ResponseCallb
           .setErrorMessage(message + "")
           .setId(requestId);
 
-      callback.run(responseBuilder.build());
+      callback.run(new RpcFrame<RpcResponse>(responseBuilder.build(), null));
     }
   }
 
-  static class ResponseCallback implements RpcCallback<RpcResponse> {
+  static class ResponseCallback implements RpcCallback<RpcFrame<RpcResponse>> {
     private final RpcController controller;
     private final Message responsePrototype;
     private final RpcCallback<Message> callback;
@@ -124,10 +125,12 @@ public class AsyncRpcClient extends NettyClientBase<AsyncRpcClient.ResponseCallb
     }
 
     @Override
-    public void run(RpcResponse rpcResponse) {
+    public void run(RpcFrame<RpcResponse> frame) {
+      RpcResponse rpcResponse = frame.getHeader();
       // if hasErrorMessage is true, it means rpc-level errors.
       // it can be called the callback function with null response.
       if (rpcResponse.hasErrorMessage()) {
+        frame.release();
         if (controller != null) {
           this.controller.setFailed(rpcResponse.getErrorMessage());
         }
@@ -135,15 +138,11 @@ public class AsyncRpcClient extends NettyClientBase<AsyncRpcClient.ResponseCallb
       } else { // if rpc call succeed
 
         Message responseMessage = null;
-        if (rpcResponse.hasResponseMessage()) {
-
-          try {
-            responseMessage = responsePrototype.newBuilderForType().mergeFrom(
-                rpcResponse.getResponseMessage()).build();
-          } catch (InvalidProtocolBufferException e) {
-            if (controller != null) {
-              this.controller.setFailed(e.getMessage());
-            }
+        try {
+          responseMessage = frame.parsePayload(responsePrototype);
+        } catch (IOException e) {
+          if (controller != null) {
+            this.controller.setFailed(e.getMessage());
           }
         }
         callback.run(responseMessage);
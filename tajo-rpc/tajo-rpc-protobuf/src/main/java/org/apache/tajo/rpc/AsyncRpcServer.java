@@ -58,7 +58,7 @@ public class AsyncRpcServer extends NettyServerBase {
   }
 
   @ChannelHandler.Sharable
-  private class ServerHandler extends SimpleChannelInboundHandler<RpcRequest> {
+  private class ServerHandler extends SimpleChannelInboundHandler<RpcFrame<RpcRequest>> {
 
     @Override
     public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
@@ -79,22 +79,21 @@ public class AsyncRpcServer extends NettyServerBase {
     }
 
     @Override
-    protected void channelRead0(final ChannelHandlerContext ctx, final RpcRequest request) throws Exception {
+    protected void channelRead0(final ChannelHandlerContext ctx, final RpcFrame<RpcRequest> frame)
+        throws Exception {
 
+      final RpcRequest request = frame.getHeader();
       String methodName = request.getMethodName();
       final MethodDescriptor methodDescriptor = service.getDescriptorForType().findMethodByName(methodName);
 
       if (methodDescriptor == null) {
+        frame.release();
         exceptionCaught(ctx, new RemoteCallException(request.getId(), new NoSuchMethodException(methodName)));
         return;
       }
 
       try {
-        Message paramProto = null;
-        if (request.hasRequestMessage()) {
-          paramProto = service.getRequestPrototype(methodDescriptor).newBuilderForType()
-              .mergeFrom(request.getRequestMessage()).build();
-        }
+        Message paramProto = frame.parsePayload(service.getRequestPrototype(methodDescriptor));
 
         final RpcController controller = new NettyRpcController();
 
@@ -104,15 +103,11 @@ public class AsyncRpcServer extends NettyServerBase {
 
             RpcResponse.Builder builder = RpcResponse.newBuilder().setId(request.getId());
 
-            if (returnValue != null) {
-              builder.setResponseMessage(returnValue.toByteString());
-            }
-
             if (controller.failed()) {
               builder.setErrorMessage(controller.errorText());
             }
 
-            ctx.writeAndFlush(builder.build());
+            ctx.writeAndFlush(new RpcFrame<RpcResponse>(builder.build(), returnValue));
           }
         };
 
@@ -129,7 +124,7 @@ public class AsyncRpcServer extends NettyServerBase {
         throws Exception {
       if (cause instanceof RemoteCallException) {
         RemoteCallException callException = (RemoteCallException) cause;
-        ctx.writeAndFlush(callException.getResponse());
+        ctx.writeAndFlush(new RpcFrame<RpcResponse>(callException.getResponse(), null));
 
         if(LOG.isDebugEnabled()) {
           Throwable rootCause = ExceptionUtils.getRootCause(cause);
@@ -24,6 +24,7 @@ import io.netty.channel.ChannelHandler;
 import org.apache.tajo.rpc.RpcClientManager.RpcConnectionKey;
 import org.apache.tajo.rpc.RpcProtos.RpcResponse;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
 import java.util.concurrent.*;
@@ -88,7 +89,7 @@ public class BlockingRpcClient extends NettyClientBase<BlockingRpcClient.ProtoCa
         throws TajoServiceException {
 
       int nextSeqId = sequence.getAndIncrement();
-      RpcProtos.RpcRequest rpcRequest = buildRequest(nextSeqId, method, param);
+      RpcFrame<RpcProtos.RpcRequest> rpcRequest = buildRequest(nextSeqId, method, param);
       ProtoCallFuture callFuture = new ProtoCallFuture(controller, responsePrototype);
 
       invoke(rpcRequest, callFuture, 0);
@@ -120,20 +121,19 @@ public class BlockingRpcClient extends NettyClientBase<BlockingRpcClient.ProtoCa
   public class ClientChannelInboundHandler extends NettyChannelInboundHandler {
 
     @Override
-    protected void run(RpcResponse rpcResponse, ProtoCallFuture callback) throws Exception {
+    protected void run(RpcFrame<RpcResponse> frame, ProtoCallFuture callback) throws Exception {
+      RpcResponse rpcResponse = frame.getHeader();
       if (rpcResponse.hasErrorMessage()) {
+        frame.release();
         callback.setFailed(rpcResponse.getErrorMessage(),
             makeTajoServiceException(rpcResponse, new ServiceException(rpcResponse.getErrorTrace())));
       } else {
         Message responseMessage = null;
 
-        if (rpcResponse.hasResponseMessage()) {
-          try {
-            responseMessage = callback.returnType.newBuilderForType().mergeFrom(rpcResponse.getResponseMessage())
-                .build();
-          } catch (InvalidProtocolBufferException e) {
-            callback.setFailed(e.getMessage(), e);
-          }
+        try {
+          responseMessage = frame.parsePayload(callback.returnType);
+        } catch (IOException e) {
+          callback.setFailed(e.getMessage(), e);
         }
         callback.setResponse(responseMessage);
       }
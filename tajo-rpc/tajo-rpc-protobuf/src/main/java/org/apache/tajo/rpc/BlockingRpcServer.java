@@ -18,6 +18,7 @@
 
 package org.apache.tajo.rpc;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.BlockingService;
 import com.google.protobuf.Descriptors.MethodDescriptor;
 import com.google.protobuf.Message;
@@ -30,17 +31,37 @@ import org.apache.tajo.rpc.RpcProtos.RpcRequest;
 
 import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
+import java.util.concurrent.*;
 
 public class BlockingRpcServer extends NettyServerBase {
   private static Log LOG = LogFactory.getLog(BlockingRpcServer.class);
   private final BlockingService service;
   private final ChannelInitializer<Channel> initializer;
+  /** If not null, blocking methods are called in this executor instead of netty event loops */
+  private final ThreadPoolExecutor handlerExecutor;
 
   public BlockingRpcServer(final Class<?> protocol,
                            final Object instance,
                            final InetSocketAddress bindAddress,
                            final int workerNum)
       throws Exception {
+    this(protocol, instance, bindAddress, workerNum, 0, 0);
+  }
+
+  /**
+   * @param workerNum the number of netty event loop threads which only decode requests and encode responses
+   * @param handlerNum the number of handler threads which call blocking methods.
+   *                   If it is zero, blocking methods are called in event loop threads.
+   * @param handlerQueueSize the maximum number of requests waiting for handler threads.
+   *                         Requests exceeding it are rejected with an error response.
+   */
+  public BlockingRpcServer(final Class<?> protocol,
+                           final Object instance,
+                           final InetSocketAddress bindAddress,
+                           final int workerNum,
+                           final int handlerNum,
+                           final int handlerQueueSize)
+      throws Exception {
 
     super(protocol.getSimpleName(), bindAddress);
 
@@ -53,13 +74,43 @@ public class BlockingRpcServer extends NettyServerBase {
         "newReflectiveBlockingService", interfaceClass);
 
     this.service = (BlockingService) method.invoke(null, instance);
+    if (handlerNum > 0) {
+      ThreadFactory threadFactory = new ThreadFactoryBuilder()
+          .setNameFormat(protocol.getSimpleName() + " Handler #%d").setDaemon(true).build();
+      this.handlerExecutor = new ThreadPoolExecutor(handlerNum, handlerNum, 0L, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<Runnable>(Math.max(1, handlerQueueSize)), threadFactory);
+    } else {
+      this.handlerExecutor = null;
+    }
     this.initializer = new ProtoServerChannelInitializer(new ServerHandler(), RpcRequest.getDefaultInstance());
 
     super.init(this.initializer, workerNum);
   }
 
+  /**
+   * @return the number of requests waiting for handler threads
+   */
+  public int getHandlerQueueSize() {
+    return handlerExecutor == null ? 0 : handlerExecutor.getQueue().size();
+  }
+
+  /**
+   * @return the number of handler threads which are calling blocking methods
+   */
+  public int getActiveHandlerNum() {
+    return handlerExecutor == null ? 0 : handlerExecutor.getActiveCount();
+  }
+
+  @Override
+  public void shutdown(boolean waitUntilThreadsStop) {
+    super.shutdown(waitUntilThreadsStop);
+    if (handlerExecutor != null) {
+      handlerExecutor.shutdownNow();
+    }
+  }
+
   @ChannelHandler.Sharable
-  private class ServerHandler extends SimpleChannelInboundHandler<RpcRequest> {
+  private class ServerHandler extends SimpleChannelInboundHandler<RpcFrame<RpcRequest>> {
 
     @Override
     public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
@@ -80,35 +131,54 @@ public class BlockingRpcServer extends NettyServerBase {
     }
 
     @Override
-    protected void channelRead0(final ChannelHandlerContext ctx, final RpcRequest request) throws Exception {
+    protected void channelRead0(final ChannelHandlerContext ctx, final RpcFrame<RpcRequest> frame)
+        throws Exception {
 
+      final RpcRequest request = frame.getHeader();
       String methodName = request.getMethodName();
       final MethodDescriptor methodDescriptor = service.getDescriptorForType().findMethodByName(methodName);
       if (methodDescriptor == null) {
+        frame.release();
         exceptionCaught(ctx, new RemoteCallException(request.getId(), new NoSuchMethodException(methodName)));
         return;
       }
 
+      if (handlerExecutor == null) {
+        callBlockingMethod(ctx, frame, methodDescriptor);
+        return;
+      }
+
       try {
-        Message paramProto = null;
-        if (request.hasRequestMessage()) {
-          paramProto = service.getRequestPrototype(methodDescriptor).newBuilderForType()
-              .mergeFrom(request.getRequestMessage()).build();
-        }
+        handlerExecutor.execute(new Runnable() {
+          @Override
+          public void run() {
+            callBlockingMethod(ctx, frame, methodDescriptor);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        frame.release();
+        exceptionCaught(ctx, new RemoteCallException(request.getId(), methodDescriptor,
+            new RejectedExecutionException(serviceName + " is too busy: " + getHandlerQueueSize()
+                + " requests are waiting")));
+      }
+    }
+
+    private void callBlockingMethod(ChannelHandlerContext ctx, RpcFrame<RpcRequest> frame,
+                                    MethodDescriptor methodDescriptor) {
+      RpcRequest request = frame.getHeader();
+      try {
+        // the payload is parsed in a handler thread rather than an event loop thread
+        Message paramProto = frame.parsePayload(service.getRequestPrototype(methodDescriptor));
 
         RpcController controller = new NettyRpcController();
         Message returnValue = service.callBlockingMethod(methodDescriptor, controller, paramProto);
 
         RpcProtos.RpcResponse.Builder builder = RpcProtos.RpcResponse.newBuilder().setId(request.getId());
 
-        if (returnValue != null) {
-          builder.setResponseMessage(returnValue.toByteString());
-        }
-
         if (controller.failed()) {
           builder.setErrorMessage(controller.errorText());
         }
-        ctx.writeAndFlush(builder.build());
+        ctx.writeAndFlush(new RpcFrame<RpcProtos.RpcResponse>(builder.build(), returnValue));
       } catch (RemoteCallException e) {
         exceptionCaught(ctx, e);
       } catch (Throwable throwable) {
@@ -120,7 +190,7 @@ public class BlockingRpcServer extends NettyServerBase {
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
       if (cause instanceof RemoteCallException) {
         RemoteCallException callException = (RemoteCallException) cause;
-        ctx.writeAndFlush(callException.getResponse());
+        ctx.writeAndFlush(new RpcFrame<RpcProtos.RpcResponse>(callException.getResponse(), null));
 
         if(LOG.isDebugEnabled()) {
           Throwable rootCause = ExceptionUtils.getRootCause(cause);
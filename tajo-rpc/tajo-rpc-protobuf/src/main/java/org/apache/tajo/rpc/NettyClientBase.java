@@ -24,7 +24,6 @@ import com.google.protobuf.ServiceException;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.*;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
 import io.netty.util.concurrent.GenericFutureListener;
@@ -65,10 +64,11 @@ public abstract class NettyClientBase<T> implements ProtoDeclaration, Closeable
 
   // should be called from sub class
   protected void init(ChannelInitializer<Channel> initializer) {
+    EventLoopGroup eventLoopGroup = RpcChannelFactory.getSharedClientEventloopGroup();
     this.bootstrap = new Bootstrap();
     this.bootstrap
-        .group(RpcChannelFactory.getSharedClientEventloopGroup())
-        .channel(NioSocketChannel.class)
+        .group(eventLoopGroup)
+        .channel(RpcChannelFactory.getClientChannelClass(eventLoopGroup))
         .handler(initializer)
         .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
         .option(ChannelOption.SO_REUSEADDR, true)
@@ -96,24 +96,21 @@ public abstract class NettyClientBase<T> implements ProtoDeclaration, Closeable
     }
   }
 
-  protected static RpcProtos.RpcRequest buildRequest(int seqId,
-                                        Descriptors.MethodDescriptor method,
-                                        Message param) {
+  protected static RpcFrame<RpcProtos.RpcRequest> buildRequest(int seqId,
+                                                              Descriptors.MethodDescriptor method,
+                                                              Message param) {
     RpcProtos.RpcRequest.Builder requestBuilder = RpcProtos.RpcRequest.newBuilder()
         .setId(seqId)
         .setMethodName(method.getName());
 
-    if (param != null) {
-      requestBuilder.setRequestMessage(param.toByteString());
-    }
-
-    return requestBuilder.build();
+    return new RpcFrame<RpcProtos.RpcRequest>(requestBuilder.build(), param);
   }
 
   /**
    * Repeat invoke rpc request until the connection attempt succeeds or exceeded retries
    */
-  protected void invoke(final RpcProtos.RpcRequest rpcRequest, final T callback, final int retry) {
+  protected void invoke(final RpcFrame<RpcProtos.RpcRequest> rpcRequest, final T callback, final int retry) {
+    final int seqId = rpcRequest.getHeader().getId();
 
     ChannelPromise promise = getChannel().newPromise();
     promise.addListener(new GenericFutureListener<ChannelFuture>() {
@@ -123,7 +120,7 @@ public abstract class NettyClientBase<T> implements ProtoDeclaration, Closeable
 
         if (future.isSuccess()) {
 
-          getHandler().registerCallback(rpcRequest.getId(), callback);
+          getHandler().registerCallback(seqId, callback);
         } else {
 
           if (!future.channel().isActive() && retry < maxRetries) {
@@ -146,9 +143,9 @@ public abstract class NettyClientBase<T> implements ProtoDeclaration, Closeable
           } else {
 
             /* Max retry count has been exceeded or internal failure */
-            getHandler().registerCallback(rpcRequest.getId(), callback);
+            getHandler().registerCallback(seqId, callback);
             getHandler().exceptionCaught(getChannel().pipeline().lastContext(),
-                new RecoverableException(rpcRequest.getId(), future.cause()));
+                new RecoverableException(seqId, future.cause()));
           }
         }
       }
@@ -261,7 +258,7 @@ public abstract class NettyClientBase<T> implements ProtoDeclaration, Closeable
     }
   }
 
-  protected abstract class NettyChannelInboundHandler extends SimpleChannelInboundHandler<RpcResponse> {
+  protected abstract class NettyChannelInboundHandler extends SimpleChannelInboundHandler<RpcFrame<RpcResponse>> {
 
     protected void registerCallback(int seqId, T callback) {
       if (requests.putIfAbsent(seqId, callback) != null) {
@@ -305,20 +302,23 @@ public abstract class NettyClientBase<T> implements ProtoDeclaration, Closeable
     }
 
     @Override
-    protected final void channelRead0(ChannelHandlerContext ctx, RpcResponse response) throws Exception {
-      T callback = requests.remove(response.getId());
-      if (callback == null)
+    protected final void channelRead0(ChannelHandlerContext ctx, RpcFrame<RpcResponse> response) throws Exception {
+      T callback = requests.remove(response.getHeader().getId());
+      if (callback == null) {
+        response.release();
         LOG.warn("Dangling rpc call");
-      else run(response, callback);
+      } else {
+        run(response, callback);
+      }
     }
 
     /**
      * A {@link #channelRead0} received a message.
-     * @param response response proto of type {@link RpcResponse}.
+     * @param response response frame whose header is {@link RpcResponse}. Its payload must be parsed or released.
      * @param callback callback of type {@link T}.
      * @throws Exception
      */
-    protected abstract void run(RpcResponse response, T callback) throws Exception;
+    protected abstract void run(RpcFrame<RpcResponse> response, T callback) throws Exception;
 
     /**
      * Calls from exceptionCaught
@@ -23,15 +23,13 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
-import io.netty.handler.codec.protobuf.ProtobufDecoder;
-import io.netty.handler.codec.protobuf.ProtobufEncoder;
-import io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
-import io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender;
 import io.netty.handler.timeout.IdleStateHandler;
 
 import java.util.concurrent.TimeUnit;
 
 class ProtoClientChannelInitializer extends ChannelInitializer<Channel> {
+  private static final ProtoFrameEncoder FRAME_ENCODER = new ProtoFrameEncoder();
+
   private final MessageLite defaultInstance;
   private final ChannelHandler handler;
   private final long timeoutTimeNanos;
@@ -54,10 +52,8 @@ class ProtoClientChannelInitializer extends ChannelInitializer<Channel> {
 
     if (enablePing) pipeline.addLast("MonitorClientHandler", new MonitorClientHandler());
 
-    pipeline.addLast("frameDecoder", new ProtobufVarint32FrameDecoder());
-    pipeline.addLast("protobufDecoder", new ProtobufDecoder(defaultInstance));
-    pipeline.addLast("frameEncoder", new ProtobufVarint32LengthFieldPrepender());
-    pipeline.addLast("protobufEncoder", new ProtobufEncoder());
+    pipeline.addLast("frameDecoder", new ProtoFrameDecoder<MessageLite>(defaultInstance));
+    pipeline.addLast("frameEncoder", FRAME_ENCODER);
     pipeline.addLast("handler", handler);
   }
 }
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.rpc;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+/**
+ * Decodes a frame encoded by {@link ProtoFrameEncoder} into a {@link RpcFrame}.
+ * The header is parsed immediately, but the payload is kept as a buffer and parsed later.
+ * A frame is copied out of the inbound buffer, because the decoder can discard or reallocate
+ * the inbound buffer before a payload is parsed, possibly in another thread.
+ */
+public class ProtoFrameDecoder<T extends MessageLite> extends LengthFieldBasedFrameDecoder {
+  private final Parser<T> headerParser;
+
+  @SuppressWarnings("unchecked")
+  public ProtoFrameDecoder(T headerPrototype) {
+    super(Integer.MAX_VALUE, 0, 4, 0, 4);
+    this.headerParser = (Parser<T>) headerPrototype.getParserForType();
+  }
+
+  @Override
+  protected Object decode(ChannelHandlerContext ctx, ByteBuf in) throws Exception {
+    ByteBuf frame = (ByteBuf) super.decode(ctx, in);
+    if (frame == null) {
+      return null;
+    }
+
+    boolean releaseFrame = true;
+    try {
+      byte flags = frame.readByte();
+      int headerSize = readRawVarint32(frame);
+
+      T header;
+      if (frame.hasArray()) {
+        header = headerParser.parseFrom(frame.array(), frame.arrayOffset() + frame.readerIndex(), headerSize);
+      } else {
+        header = headerParser.parseFrom(CodedInputStream.newInstance(new ByteBufInputStream(frame, headerSize)));
+      }
+      frame.readerIndex(frame.readerIndex() + headerSize);
+
+      if ((flags & RpcFrame.HAS_PAYLOAD) != 0) {
+        releaseFrame = false;
+        return new RpcFrame<T>(header, frame, (flags & RpcFrame.COMPRESSED) != 0);
+      } else {
+        return new RpcFrame<T>(header, (ByteBuf) null, false);
+      }
+    } finally {
+      if (releaseFrame) {
+        frame.release();
+      }
+    }
+  }
+
+  private static int readRawVarint32(ByteBuf buffer) {
+    int result = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte b = buffer.readByte();
+      result |= (b & 0x7f) << shift;
+      if (b >= 0) {
+        return result;
+      }
+    }
+    throw new CorruptedFrameException("malformed varint32 of rpc header length");
+  }
+}
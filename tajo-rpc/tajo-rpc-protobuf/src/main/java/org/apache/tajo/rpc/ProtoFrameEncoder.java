@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.rpc;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+/**
+ * Encodes a {@link RpcFrame} into the following layout:
+ *
+ * <pre>
+ * +--------------+-----------+-------------------+------------------+--------------------------+
+ * | frame length | flags     | header length     | header           | payload (optional)       |
+ * | (4 bytes)    | (1 byte)  | (varint32)        | (header length)  | (possibly deflated)      |
+ * +--------------+-----------+-------------------+------------------+--------------------------+
+ * </pre>
+ *
+ * The payload message is serialized directly into the outbound buffer without an intermediate ByteString.
+ * A large payload is already deflated by {@link RpcFrame}, so it is just copied here.
+ */
+@ChannelHandler.Sharable
+public class ProtoFrameEncoder extends MessageToByteEncoder<RpcFrame> {
+
+  public ProtoFrameEncoder() {
+    // heap buffers enable protobuf to write a message directly into the backing array
+    super(false);
+  }
+
+  @Override
+  protected void encode(ChannelHandlerContext ctx, RpcFrame frame, ByteBuf out) throws Exception {
+    MessageLite header = frame.getHeader();
+    MessageLite message = frame.getMessage();
+    byte[] deflatedMessage = frame.getDeflatedMessage();
+    boolean compress = deflatedMessage != null;
+
+    int headerSize = header.getSerializedSize();
+    int payloadSize = message == null ? 0 : (compress ? deflatedMessage.length : message.getSerializedSize());
+
+    byte flags = 0;
+    if (message != null) {
+      flags |= RpcFrame.HAS_PAYLOAD;
+    }
+    if (compress) {
+      flags |= RpcFrame.COMPRESSED;
+    }
+
+    int bodySize = 1 + CodedOutputStream.computeRawVarint32Size(headerSize) + headerSize + payloadSize;
+
+    out.ensureWritable(4 + bodySize);
+    out.writeInt(bodySize);
+    out.writeByte(flags);
+
+    int remaining = bodySize - 1;
+    CodedOutputStream codedOutput;
+    if (out.hasArray()) {
+      codedOutput = CodedOutputStream.newInstance(out.array(), out.arrayOffset() + out.writerIndex(), remaining);
+    } else {
+      codedOutput = CodedOutputStream.newInstance(new ByteBufOutputStream(out));
+    }
+    codedOutput.writeRawVarint32(headerSize);
+    header.writeTo(codedOutput);
+    if (compress) {
+      codedOutput.writeRawBytes(deflatedMessage);
+    } else if (message != null) {
+      message.writeTo(codedOutput);
+    }
+    codedOutput.flush();
+    if (out.hasArray()) {
+      out.writerIndex(out.writerIndex() + remaining);
+    }
+  }
+}
@@ -23,12 +23,10 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
-import io.netty.handler.codec.protobuf.ProtobufDecoder;
-import io.netty.handler.codec.protobuf.ProtobufEncoder;
-import io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
-import io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender;
 
 class ProtoServerChannelInitializer extends ChannelInitializer<Channel> {
+  private static final ProtoFrameEncoder FRAME_ENCODER = new ProtoFrameEncoder();
+
   private final MessageLite defaultInstance;
   private final ChannelHandler handler;
 
@@ -41,10 +39,8 @@ class ProtoServerChannelInitializer extends ChannelInitializer<Channel> {
   protected void initChannel(Channel channel) throws Exception {
     ChannelPipeline pipeline = channel.pipeline();
     pipeline.addLast("MonitorServerHandler", new MonitorServerHandler());
-    pipeline.addLast("frameDecoder", new ProtobufVarint32FrameDecoder());
-    pipeline.addLast("protobufDecoder", new ProtobufDecoder(defaultInstance));
-    pipeline.addLast("frameEncoder", new ProtobufVarint32LengthFieldPrepender());
-    pipeline.addLast("protobufEncoder", new ProtobufEncoder());
+    pipeline.addLast("frameDecoder", new ProtoFrameDecoder<MessageLite>(defaultInstance));
+    pipeline.addLast("frameEncoder", FRAME_ENCODER);
     pipeline.addLast("handler", handler);
   }
 }
@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.rpc;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Message;
+import com.google.protobuf.MessageLite;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.util.ReferenceCountUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * An rpc frame which consists of a header ({@link RpcProtos.RpcRequest} or {@link RpcProtos.RpcResponse})
+ * and a payload message. The payload is not wrapped in the header as a ByteString. An outbound payload is
+ * serialized by {@link ProtoFrameEncoder} directly into the outbound buffer, and an inbound payload is kept
+ * in a buffer copied from the inbound buffer until it is parsed by {@link #parsePayload(Message)}.
+ * A large outbound payload is deflated when the frame is created, so that an event loop thread only copies it.
+ *
+ * An inbound frame having a payload must be released by {@link #parsePayload(Message)} or {@link #release()}.
+ */
+public class RpcFrame<T extends MessageLite> {
+  static final byte HAS_PAYLOAD = 0x01;
+  static final byte COMPRESSED = 0x02;
+
+  private static final int DEFLATER_BUFFER_SIZE = 64 * 1024;
+  private static final int INFLATER_BUFFER_SIZE = 64 * 1024;
+
+  private final T header;
+  /** outbound payload */
+  private final MessageLite message;
+  /** outbound payload deflated in the caller thread, or null if it is not compressed */
+  private final byte[] deflatedMessage;
+  /** inbound payload */
+  private ByteBuf payload;
+  private final boolean compressed;
+
+  public RpcFrame(T header, MessageLite message) {
+    this(header, message, RpcConstants.DEFAULT_PAYLOAD_COMPRESSION_THRESHOLD);
+  }
+
+  /**
+   * @param compressionThreshold the minimum bytes of a payload to be compressed. If it is not positive,
+   *                             the payload is never compressed.
+   */
+  RpcFrame(T header, MessageLite message, int compressionThreshold) {
+    this.header = header;
+    this.message = message;
+    this.payload = null;
+    this.compressed = message != null && compressionThreshold > 0
+        && message.getSerializedSize() >= compressionThreshold;
+    this.deflatedMessage = compressed ? deflate(message) : null;
+  }
+
+  RpcFrame(T header, ByteBuf payload, boolean compressed) {
+    this.header = header;
+    this.message = null;
+    this.deflatedMessage = null;
+    this.payload = payload;
+    this.compressed = compressed;
+  }
+
+  public T getHeader() {
+    return header;
+  }
+
+  MessageLite getMessage() {
+    return message;
+  }
+
+  byte[] getDeflatedMessage() {
+    return deflatedMessage;
+  }
+
+  private static byte[] deflate(MessageLite message) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(message.getSerializedSize() / 4);
+      DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(bytes, deflater, DEFLATER_BUFFER_SIZE);
+      message.writeTo(deflaterOutput);
+      deflaterOutput.finish();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      // never happens, because it writes into a byte array
+      throw new IllegalStateException(e);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  public boolean hasPayload() {
+    return message != null || payload != null;
+  }
+
+  /**
+   * Parses the inbound payload and releases it.
+   *
+   * @param prototype the default instance of the payload message
+   * @return the payload message, or null if this frame does not have a payload
+   */
+  @SuppressWarnings("unchecked")
+  public <M extends Message> M parsePayload(M prototype) throws IOException {
+    if (message != null) {
+      return (M) message;
+    }
+    if (payload == null) {
+      return null;
+    }
+
+    Inflater inflater = null;
+    try {
+      CodedInputStream codedInput;
+      if (!compressed && payload.hasArray()) {
+        codedInput = CodedInputStream.newInstance(payload.array(),
+            payload.arrayOffset() + payload.readerIndex(), payload.readableBytes());
+      } else {
+        InputStream in = new ByteBufInputStream(payload);
+        if (compressed) {
+          inflater = new Inflater();
+          in = new InflaterInputStream(in, inflater, INFLATER_BUFFER_SIZE);
+        }
+        codedInput = CodedInputStream.newInstance(in);
+      }
+      codedInput.setSizeLimit(Integer.MAX_VALUE);
+
+      Message.Builder builder = prototype.newBuilderForType();
+      builder.mergeFrom(codedInput);
+      return (M) builder.build();
+    } finally {
+      if (inflater != null) {
+        inflater.end();
+      }
+      release();
+    }
+  }
+
+  /**
+   * Releases the inbound payload without parsing it.
+   */
+  public void release() {
+    if (payload != null) {
+      ReferenceCountUtil.release(payload);
+      payload = null;
+    }
+  }
+}
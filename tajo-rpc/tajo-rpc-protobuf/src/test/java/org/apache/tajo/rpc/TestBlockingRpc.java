@@ -39,7 +39,11 @@ import java.lang.annotation.Target;
 import java.net.ConnectException;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
@@ -163,6 +167,42 @@ public class TestBlockingRpc {
     assertEquals(MESSAGE, response2.getMessage());
   }
 
+  @Test(timeout = 60000)
+  @SetupRpcConnection(setupRpcServer = false, setupRpcClient = false)
+  public void testRpcWithHandlerExecutor() throws Exception {
+    // a single event loop thread with two handler threads
+    server = new BlockingRpcServer(DummyProtocol.class, new DummyProtocolBlockingImpl(),
+        new InetSocketAddress("127.0.0.1", 0), 1, 2, 10);
+    server.start();
+    setUpRpcClient();
+
+    final EchoMessage message = EchoMessage.newBuilder()
+        .setMessage(MESSAGE).build();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Future<EchoMessage> delayed = executor.submit(new Callable<EchoMessage>() {
+      @Override
+      public EchoMessage call() throws Exception {
+        return stub.delay(null, message);
+      }
+    });
+
+    // a slow call must not block other calls sharing the event loop
+    Thread.sleep(500);
+    long start = System.currentTimeMillis();
+    EchoMessage response = stub.echo(null, message);
+    assertEquals(MESSAGE, response.getMessage());
+    assertTrue(System.currentTimeMillis() - start < 2000);
+    assertTrue(server.getActiveHandlerNum() >= 1);
+
+    // an exception of the slow call is thrown here
+    assertEquals(MESSAGE, delayed.get(10, TimeUnit.SECONDS).getMessage());
+    executor.shutdown();
+    assertEquals(0, server.getHandlerQueueSize());
+
+    tearDownRpcClient();
+    tearDownRpcServer();
+  }
+
   @Test
   public void testGetNull() throws Exception {
     assertNull(stub.getNull(null, null));
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.rpc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.commons.lang.StringUtils;
+import org.apache.tajo.rpc.RpcProtos.RpcRequest;
+import org.apache.tajo.rpc.test.TestProtos.EchoMessage;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestProtoFrameCodec {
+
+  private static RpcFrame<RpcRequest> encodeAndDecode(RpcFrame<RpcRequest> frame, boolean expectCompressed) {
+    EmbeddedChannel encoder = new EmbeddedChannel(new ProtoFrameEncoder());
+    assertTrue(encoder.writeOutbound(frame));
+    ByteBuf encoded = (ByteBuf) encoder.readOutbound();
+    assertEquals(encoded.readableBytes() - 4, encoded.getInt(0));
+    assertEquals(expectCompressed, (encoded.getByte(4) & RpcFrame.COMPRESSED) != 0);
+
+    EmbeddedChannel decoder = new EmbeddedChannel(new ProtoFrameDecoder<RpcRequest>(RpcRequest.getDefaultInstance()));
+    // split a frame into two chunks in order to test the frame reassembly
+    int half = encoded.readableBytes() / 2;
+    assertFalse(decoder.writeInbound(encoded.readSlice(half).retain()));
+    assertTrue(decoder.writeInbound(encoded));
+
+    @SuppressWarnings("unchecked")
+    RpcFrame<RpcRequest> decoded = (RpcFrame<RpcRequest>) decoder.readInbound();
+    assertNotNull(decoded);
+    assertEquals(frame.getHeader(), decoded.getHeader());
+    return decoded;
+  }
+
+  @Test
+  public void testFrameWithoutPayload() throws Exception {
+    RpcRequest header = RpcRequest.newBuilder().setId(1).setMethodName("getNull").build();
+    RpcFrame<RpcRequest> decoded = encodeAndDecode(new RpcFrame<RpcRequest>(header, null, 0), false);
+    assertFalse(decoded.hasPayload());
+    assertNull(decoded.parsePayload(EchoMessage.getDefaultInstance()));
+  }
+
+  @Test
+  public void testFrameWithPayload() throws Exception {
+    RpcRequest header = RpcRequest.newBuilder().setId(2).setMethodName("echo").build();
+    EchoMessage message = EchoMessage.newBuilder().setMessage("TestProtoFrameCodec").build();
+
+    RpcFrame<RpcRequest> decoded = encodeAndDecode(new RpcFrame<RpcRequest>(header, message, 1024), false);
+    assertTrue(decoded.hasPayload());
+    assertEquals(message, decoded.parsePayload(EchoMessage.getDefaultInstance()));
+    assertFalse(decoded.hasPayload());
+  }
+
+  @Test
+  public void testCompressedPayload() throws Exception {
+    RpcRequest header = RpcRequest.newBuilder().setId(3).setMethodName("echo").build();
+    EchoMessage message = EchoMessage.newBuilder().setMessage(StringUtils.repeat("tajo", 100000)).build();
+
+    RpcFrame<RpcRequest> decoded = encodeAndDecode(new RpcFrame<RpcRequest>(header, message, 1024), true);
+    assertEquals(message, decoded.parsePayload(EchoMessage.getDefaultInstance()));
+  }
+}
@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.ws.rs.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An output stream which sends the written bytes as chunks of a HTTP response.
+ *
+ * The written bytes are cut into chunks and handed over to {@link ChunkedWriteHandler} through a bounded queue.
+ * The handler takes a chunk only when the channel is writable, and a writer blocks while the queue is full.
+ * So, a slow client slows down the writer instead of making the response be buffered in memory.
+ * It must not be written in the event loop of the channel.
+ */
+public class NettyChunkedOutputStream extends OutputStream {
+  public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+  public static final int DEFAULT_MAX_PENDING_CHUNKS = 16;
+
+  private static final long OFFER_TIMEOUT_MS = 100;
+
+  private final Channel channel;
+  private final int chunkSize;
+  private final BlockingQueue<ByteBuf> queue;
+  private final Input input = new Input();
+
+  private ByteBuf current;
+  private volatile boolean closed = false;
+  private volatile boolean aborted = false;
+
+  public NettyChunkedOutputStream(Channel channel) {
+    this(channel, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_PENDING_CHUNKS);
+  }
+
+  public NettyChunkedOutputStream(Channel channel, int chunkSize, int maxPendingChunks) {
+    this.channel = channel;
+    this.chunkSize = chunkSize;
+    this.queue = new LinkedBlockingQueue<ByteBuf>(maxPendingChunks);
+  }
+
+  /**
+   * @return The input of chunks, which should be written to the channel once.
+   */
+  public ChunkedInput<ByteBuf> getChunkedInput() {
+    return input;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    if (current == null) {
+      current = PooledByteBufAllocator.DEFAULT.buffer(chunkSize);
+    }
+    current.writeByte(b);
+    if (!current.isWritable()) {
+      flushChunk();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    while (len > 0) {
+      if (current == null) {
+        current = PooledByteBufAllocator.DEFAULT.buffer(chunkSize);
+      }
+      int length = Math.min(len, chunkSize - current.writerIndex());
+      current.writeBytes(b, off, length);
+      off += length;
+      len -= length;
+      if (current.writerIndex() >= chunkSize) {
+        flushChunk();
+      }
+    }
+  }
+
+  /**
+   * Sends the written bytes as a chunk even though it is smaller than the chunk size.
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    flushChunk();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      if (!aborted) {
+        flushChunk();
+      }
+    } finally {
+      closed = true;
+      releaseCurrent();
+      resumeTransfer();
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream is already closed.");
+    }
+    if (aborted) {
+      throw new IOException("Connection is closed by the peer.");
+    }
+  }
+
+  private void flushChunk() throws IOException {
+    if (current == null || !current.isReadable()) {
+      return;
+    }
+
+    ByteBuf chunk = current;
+    current = null;
+    try {
+      while (!queue.offer(chunk, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        if (aborted || !channel.isActive()) {
+          chunk.release();
+          aborted = true;
+          throw new IOException("Connection is closed by the peer.");
+        }
+        // the handler may wait for a new chunk
+        resumeTransfer();
+      }
+    } catch (InterruptedException e) {
+      chunk.release();
+      throw new InterruptedIOException(e.getMessage());
+    }
+    if (aborted) {
+      // the handler does not take chunks any more
+      releaseQueue();
+    } else {
+      resumeTransfer();
+    }
+  }
+
+  private void resumeTransfer() {
+    ChunkedWriteHandler handler = channel.pipeline().get(ChunkedWriteHandler.class);
+    if (handler != null) {
+      handler.resumeTransfer();
+    }
+  }
+
+  private void releaseCurrent() {
+    if (current != null) {
+      current.release();
+      current = null;
+    }
+  }
+
+  private void releaseQueue() {
+    ByteBuf chunk;
+    while ((chunk = queue.poll()) != null) {
+      chunk.release();
+    }
+  }
+
+  private class Input implements ChunkedInput<ByteBuf> {
+
+    @Override
+    public boolean isEndOfInput() throws Exception {
+      return (closed || aborted) && queue.isEmpty();
+    }
+
+    @Override
+    public void close() throws Exception {
+      // called by the handler when all chunks are written or the channel is closed
+      if (!closed) {
+        aborted = true;
+      }
+      releaseQueue();
+    }
+
+    @Override
+    public ByteBuf readChunk(ChannelHandlerContext ctx) throws Exception {
+      return queue.poll();
+    }
+  }
+}
@@ -23,6 +23,8 @@ import io.netty.channel.*;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
 import io.netty.util.CharsetUtil;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.GenericFutureListener;
@@ -39,18 +41,33 @@ import org.glassfish.jersey.server.spi.ContainerResponseWriter;
 import javax.ws.rs.core.Application;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.SecurityContext;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.Principal;
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Jersy Container implementation on Netty
+ *
+ * Requests are handled in a separate thread pool rather than in the event loops, so that a resource can write
+ * a chunked response which is larger than memory. Such a response is sent through {@link NettyChunkedOutputStream}
+ * if the resource sets the header 'Transfer-Encoding: chunked'. Otherwise, a response is buffered and sent at once.
+ *
+ * The number of handler threads is given by the property {@link #HANDLER_THREAD_NUM} of the resource config.
+ * Requests of a channel are handled one by one, so that responses of pipelined requests are sent in order.
  */
 @Sharable
 public class NettyRestHandlerContainer extends ChannelDuplexHandler implements Container {
@@ -61,6 +78,14 @@ public class NettyRestHandlerContainer extends ChannelDuplexHandler implements C
 
   private ApplicationHandler applicationHandler;
   private ContainerLifecycleListener lifecycleListener;
+  private final ThreadPoolExecutor requestExecutor;
+
+  /** The property name of the number of threads handling requests */
+  public static final String HANDLER_THREAD_NUM = "tajo.ws.rs.netty.handler-thread-num";
+  public static final int DEFAULT_HANDLER_THREAD_NUM = Runtime.getRuntime().availableProcessors() * 2;
+
+  private static final AttributeKey<RequestQueue> REQUEST_QUEUE =
+      AttributeKey.valueOf(NettyRestHandlerContainer.class.getName() + ".REQUEST_QUEUE");
 
   NettyRestHandlerContainer(Application application) {
     this(new ApplicationHandler(application));
@@ -73,6 +98,44 @@ public class NettyRestHandlerContainer extends ChannelDuplexHandler implements C
   NettyRestHandlerContainer(ApplicationHandler appHandler) {
     applicationHandler = appHandler;
     lifecycleListener = ConfigHelper.getContainerLifecycleListener(applicationHandler);
+
+    int handlerNum = getHandlerThreadNum(applicationHandler.getConfiguration());
+    // each channel has at most one request in the queue, so the queue is bounded by the number of connections
+    requestExecutor = new ThreadPoolExecutor(handlerNum, handlerNum, 60L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+      private final AtomicInteger sequence = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "NettyRestHandler #" + sequence.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    requestExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  private static int getHandlerThreadNum(ResourceConfig configuration) {
+    Object value = configuration.getProperty(HANDLER_THREAD_NUM);
+    int handlerNum;
+    if (value instanceof Number) {
+      handlerNum = ((Number) value).intValue();
+    } else if (value != null) {
+      handlerNum = Integer.parseInt(value.toString());
+    } else {
+      handlerNum = DEFAULT_HANDLER_THREAD_NUM;
+    }
+    if (handlerNum <= 0) {
+      throw new IllegalArgumentException(HANDLER_THREAD_NUM + " should be positive: " + handlerNum);
+    }
+    return handlerNum;
+  }
+
+  /**
+   * @return the maximum number of threads handling requests
+   */
+  public int getHandlerThreadNum() {
+    return requestExecutor.getMaximumPoolSize();
   }
 
   @Override
@@ -134,7 +197,104 @@ public class NettyRestHandlerContainer extends ChannelDuplexHandler implements C
     return baseUri;
   }
 
-  protected void messageReceived(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
+  /**
+   * Stops the threads handling requests.
+   */
+  public void shutdown() {
+    requestExecutor.shutdownNow();
+  }
+
+  protected void messageReceived(final ChannelHandlerContext ctx, final FullHttpRequest request) throws Exception {
+    Attribute<RequestQueue> attr = ctx.attr(REQUEST_QUEUE);
+    RequestQueue queue = attr.get();
+    if (queue == null) {
+      queue = new RequestQueue(ctx);
+      attr.set(queue);
+    }
+    request.retain();
+    queue.add(request);
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    RequestQueue queue = ctx.attr(REQUEST_QUEUE).get();
+    if (queue != null) {
+      queue.clear();
+    }
+    super.channelInactive(ctx);
+  }
+
+  /**
+   * Requests of a channel which are handled one by one in the request executor.
+   */
+  private class RequestQueue implements Runnable {
+    private final ChannelHandlerContext ctx;
+    private final Queue<FullHttpRequest> requests = new ArrayDeque<FullHttpRequest>();
+    private boolean running;
+
+    RequestQueue(ChannelHandlerContext ctx) {
+      this.ctx = ctx;
+    }
+
+    synchronized void add(FullHttpRequest request) {
+      requests.add(request);
+      if (!running) {
+        running = true;
+        schedule();
+      }
+    }
+
+    synchronized void clear() {
+      FullHttpRequest request;
+      while ((request = requests.poll()) != null) {
+        request.release();
+      }
+    }
+
+    private void schedule() {
+      try {
+        requestExecutor.execute(this);
+      } catch (RejectedExecutionException e) {
+        running = false;
+        clear();
+        ctx.close();
+      }
+    }
+
+    @Override
+    public void run() {
+      FullHttpRequest request;
+      synchronized (this) {
+        request = requests.poll();
+      }
+
+      if (request != null) {
+        try {
+          // a response closes the connection, so the following requests of a closed channel are dropped
+          if (ctx.channel().isActive()) {
+            handleRequest(ctx, request);
+          }
+        } catch (Throwable t) {
+          LOG.error(t.getMessage(), t);
+          if (ctx.channel().isActive()) {
+            ctx.close();
+          }
+        } finally {
+          request.release();
+        }
+      }
+
+      synchronized (this) {
+        if (requests.isEmpty()) {
+          running = false;
+        } else {
+          schedule();
+        }
+      }
+    }
+  }
+
+  private void handleRequest(ChannelHandlerContext ctx, FullHttpRequest request) {
     URI baseUri = getBaseUri(ctx, request);
     URI requestUri = baseUri.resolve(request.getUri());
     ByteBuf responseContent = PooledByteBufAllocator.DEFAULT.buffer();
@@ -211,6 +371,10 @@ public class NettyRestHandlerContainer extends ChannelDuplexHandler implements C
     private final FullHttpResponse response;
     private final AtomicBoolean closed;
 
+    // only for a chunked response
+    private NettyChunkedOutputStream chunkedOutput;
+    private ChannelFuture chunkedFuture;
+
     public NettyRestResponseWriter(ChannelHandlerContext ctx, FullHttpResponse response) {
       this.ctx = ctx;
       this.response = response;
@@ -220,8 +384,17 @@ public class NettyRestHandlerContainer extends ChannelDuplexHandler implements C
     @Override
     public void commit() {
       if (closed.compareAndSet(false, true)) {
-        ctx.write(response);
-        sendLastHttpContent();
+        if (chunkedOutput != null) {
+          try {
+            chunkedOutput.close();
+          } catch (IOException e) {
+            LOG.warn(e.getMessage(), e);
+          }
+          chunkedFuture.addListener(ChannelFutureListener.CLOSE);
+        } else {
+          ctx.write(response);
+          sendLastHttpContent();
+        }
       }
     }
 
@@ -233,7 +406,12 @@ public class NettyRestHandlerContainer extends ChannelDuplexHandler implements C
     @Override
     public void failure(Throwable error) {
       try {
-        sendError(HttpResponseStatus.INTERNAL_SERVER_ERROR, error);
+        if (chunkedOutput != null) {
+          // the status is already sent, so the response is cut off without the last chunk
+          LOG.error(error.getMessage(), error);
+        } else {
+          sendError(HttpResponseStatus.INTERNAL_SERVER_ERROR, error);
+        }
       } finally {
         if (ctx.channel().isActive()) {
           ctx.close();
@@ -282,6 +460,17 @@ public class NettyRestHandlerContainer extends ChannelDuplexHandler implements C
       int status = context.getStatus();
 
       response.setStatus(HttpResponseStatus.valueOf(status));
+
+      if (contentLength < 0 && HttpHeaders.isTransferEncodingChunked(response)) {
+        HttpResponse chunkedResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, response.getStatus());
+        chunkedResponse.headers().set(nettyHeaders);
+        response.release();
+        ctx.writeAndFlush(chunkedResponse);
+
+        chunkedOutput = new NettyChunkedOutputStream(ctx.channel());
+        chunkedFuture = ctx.writeAndFlush(new HttpChunkedInput(chunkedOutput.getChunkedInput()));
+        return chunkedOutput;
+      }
       return new ByteBufOutputStream(response.content());
     }
 
@@ -64,4 +64,13 @@ public class NettyRestServer extends NettyServerBase {
     super.start();
   }
 
+  @Override
+  public void shutdown(boolean waitUntilThreadsStop) {
+    super.shutdown(waitUntilThreadsStop);
+
+    if (handler instanceof NettyRestHandlerContainer) {
+      ((NettyRestHandlerContainer) handler).shutdown();
+    }
+  }
+
 }
@@ -22,6 +22,7 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInboundHandler;
 import org.apache.tajo.ws.rs.netty.testapp1.TestApplication1;
 import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ResourceConfig;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -53,6 +54,19 @@ public class NettyRestHandlerContainerProviderTest {
     assertNotNull(container);
   }
 
+  @Test
+  public void testHandlerThreadNum() throws Exception {
+    NettyRestHandlerContainer container = provider.createContainer(NettyRestHandlerContainer.class, applicationHandler);
+    assertEquals(NettyRestHandlerContainer.DEFAULT_HANDLER_THREAD_NUM, container.getHandlerThreadNum());
+    container.shutdown();
+
+    ResourceConfig resourceConfig = ResourceConfig.forApplication(new TestApplication1())
+        .property(NettyRestHandlerContainer.HANDLER_THREAD_NUM, 3);
+    container = provider.createContainer(NettyRestHandlerContainer.class, new ApplicationHandler(resourceConfig));
+    assertEquals(3, container.getHandlerThreadNum());
+    container.shutdown();
+  }
+
   @Test
   public void testNullCreation() throws Exception {
     String stringValue = provider.createContainer(String.class, applicationHandler);
@@ -98,70 +98,59 @@ public class MemoryUtil {
   public static long calculateMemorySize(Tuple tuple) {
     long total = ClassSize.OBJECT;
     for (Datum datum : tuple.getValues()) {
-      switch (datum.type()) {
+      total += calculateMemorySize(datum);
+    }
+    return total;
+  }
 
-      case NULL_TYPE:
-        total += NULL_DATUM;
-        break;
+  public static long calculateMemorySize(Datum datum) {
+    switch (datum.type()) {
 
-      case BOOLEAN:
-        total += BOOL_DATUM;
-        break;
+    case NULL_TYPE:
+      return NULL_DATUM;
 
-      case BIT:
-        total += BIT_DATUM;
-        break;
+    case BOOLEAN:
+      return BOOL_DATUM;
 
-      case CHAR:
-        total += CHAR_DATUM + datum.size();
-        break;
+    case BIT:
+      return BIT_DATUM;
 
-      case INT1:
-      case INT2:
-        total += INT2_DATUM;
-        break;
+    case CHAR:
+      return CHAR_DATUM + datum.size();
 
-      case INT4:
-        total += INT4_DATUM;
-        break;
+    case INT1:
+    case INT2:
+      return INT2_DATUM;
 
-      case INT8:
-        total += INT8_DATUM;
-        break;
+    case INT4:
+      return INT4_DATUM;
 
-      case FLOAT4:
-        total += FLOAT4_DATUM;
-        break;
+    case INT8:
+      return INT8_DATUM;
 
-      case FLOAT8:
-        total += FLOAT4_DATUM;
-        break;
+    case FLOAT4:
+      return FLOAT4_DATUM;
 
-      case TEXT:
-        total += TEXT_DATUM + datum.size();
-        break;
+    case FLOAT8:
+      return FLOAT4_DATUM;
 
-      case BLOB:
-        total += BLOB_DATUM + datum.size();
-        break;
+    case TEXT:
+      return TEXT_DATUM + datum.size();
 
-      case DATE:
-        total += DATE_DATUM;
-        break;
+    case BLOB:
+      return BLOB_DATUM + datum.size();
 
-      case TIME:
-        total += TIME_DATUM;
-        break;
+    case DATE:
+      return DATE_DATUM;
 
-      case TIMESTAMP:
-        total += TIMESTAMP_DATUM;
-        break;
+    case TIME:
+      return TIME_DATUM;
 
-      default:
-        break;
-      }
-    }
+    case TIMESTAMP:
+      return TIMESTAMP_DATUM;
 
-    return total;
+    default:
+      return 0;
+    }
   }
 }
@@ -59,6 +59,36 @@ public class RowStoreUtil {
     return new RowStoreDecoder(schema);
   }
 
+  /**
+   * @return True if the values of all columns can be encoded by {@link RowStoreEncoder} and decoded back.
+   */
+  public static boolean isSupported(Schema schema) {
+    for (Column column : schema.getColumns()) {
+      switch (column.getDataType().getType()) {
+      case NULL_TYPE:
+      case BOOLEAN:
+      case BIT:
+      case CHAR:
+      case INT2:
+      case INT4:
+      case INT8:
+      case FLOAT4:
+      case FLOAT8:
+      case TEXT:
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+      case INTERVAL:
+      case BLOB:
+      case INET4:
+        break;
+      default:
+        return false;
+      }
+    }
+    return true;
+  }
+
   public static class RowStoreDecoder {
 
     private Schema schema;
@@ -99,8 +129,9 @@ public class RowStoreUtil {
             break;
 
           case CHAR:
-            byte c = bb.get();
-            tuple.put(i, DatumFactory.createChar(c));
+            byte [] _char = new byte[bb.getInt()];
+            bb.get(_char);
+            tuple.put(i, DatumFactory.createChar(_char));
             break;
 
           case INT2:
@@ -204,7 +235,9 @@ public class RowStoreUtil {
           bb.put(tuple.get(i).asByte());
           break;
         case CHAR:
-          bb.put(tuple.get(i).asByte());
+          byte[] _char = tuple.get(i).asByteArray();
+          bb.putInt(_char.length);
+          bb.put(_char);
           break;
         case INT2:
           bb.putShort(tuple.get(i).asInt2());
@@ -281,7 +314,6 @@ public class RowStoreUtil {
         switch (col.getDataType().getType()) {
         case BOOLEAN:
         case BIT:
-        case CHAR:
           size += 1;
           break;
         case INT2:
@@ -301,6 +333,7 @@ public class RowStoreUtil {
         case INTERVAL:
           size += 12;
           break;
+        case CHAR:
         case TEXT:
         case BLOB:
           size += (4 + tuple.get(i).asByteArray().length);
@@ -0,0 +1,254 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage.columnar;
+
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.storage.MemoryUtil;
+import org.apache.tajo.util.ClassSize;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The values of a column kept in memory. A column is encoded by {@link Builder} in one of {@link Encoding}s.
+ * A column is immutable, and it is read through a {@link Cursor}, so it can be read by many threads at once.
+ */
+public abstract class ColumnVector {
+
+  public enum Encoding {
+    /** each value is kept as it is */
+    PLAIN,
+    /** distinct values are kept once, and each row keeps the code of its value */
+    DICTIONARY,
+    /** dictionary codes are kept as runs of the same code */
+    RLE
+  }
+
+  /** the maximum number of distinct values of a dictionary-encoded column */
+  public static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+  protected final int size;
+
+  ColumnVector(int size) {
+    this.size = size;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public abstract Encoding getEncoding();
+
+  /**
+   * @return The estimated bytes of memory which this column takes
+   */
+  public abstract long getEstimatedSize();
+
+  /**
+   * @return A new cursor positioned at the first row
+   */
+  public abstract Cursor newCursor();
+
+  /**
+   * Reads the values of a column in the row order. It is not thread-safe.
+   */
+  public interface Cursor {
+    /**
+     * @return The value of the next row. It must not be called more than the number of rows.
+     */
+    Datum next();
+  }
+
+  /**
+   * Collects the values of a column, and chooses the encoding which takes the least memory.
+   */
+  public static class Builder {
+    private final List<Datum> values = new ArrayList<Datum>();
+
+    public void add(Datum datum) {
+      values.add(datum);
+    }
+
+    public int size() {
+      return values.size();
+    }
+
+    public ColumnVector build() {
+      int rowNum = values.size();
+      Map<Datum, Integer> dictionary = new HashMap<Datum, Integer>();
+      List<Datum> distinctValues = new ArrayList<Datum>();
+      int [] codes = new int[rowNum];
+      int runNum = 0;
+
+      for (int i = 0; i < rowNum; i++) {
+        Datum datum = values.get(i);
+        Integer code = dictionary.get(datum);
+        if (code == null) {
+          if (distinctValues.size() >= MAX_DICTIONARY_SIZE || distinctValues.size() > rowNum / 2) {
+            return new PlainVector(values.toArray(new Datum[rowNum]));
+          }
+          code = distinctValues.size();
+          dictionary.put(datum, code);
+          distinctValues.add(datum);
+        }
+        codes[i] = code;
+        if (i == 0 || codes[i - 1] != code) {
+          runNum++;
+        }
+      }
+
+      Datum [] dictionaryValues = distinctValues.toArray(new Datum[distinctValues.size()]);
+      // a run takes two ints, so runs should be less than half of rows
+      if (runNum < rowNum / 2) {
+        int [] runCodes = new int[runNum];
+        int [] runEnds = new int[runNum];
+        int run = -1;
+        for (int i = 0; i < rowNum; i++) {
+          if (i == 0 || codes[i - 1] != codes[i]) {
+            run++;
+            runCodes[run] = codes[i];
+          }
+          runEnds[run] = i + 1;
+        }
+        return new RunLengthVector(rowNum, dictionaryValues, runCodes, runEnds);
+      } else {
+        return new DictionaryVector(dictionaryValues, codes);
+      }
+    }
+  }
+
+  private static long estimateValues(Datum [] values) {
+    long total = ClassSize.ARRAY + (long) ClassSize.REFERENCE * values.length;
+    for (Datum datum : values) {
+      total += MemoryUtil.calculateMemorySize(datum);
+    }
+    return total;
+  }
+
+  private static long estimateInts(int length) {
+    return ClassSize.ARRAY + 4L * length;
+  }
+
+  private static class PlainVector extends ColumnVector {
+    private final Datum [] values;
+
+    PlainVector(Datum [] values) {
+      super(values.length);
+      this.values = values;
+    }
+
+    @Override
+    public Encoding getEncoding() {
+      return Encoding.PLAIN;
+    }
+
+    @Override
+    public long getEstimatedSize() {
+      return estimateValues(values);
+    }
+
+    @Override
+    public Cursor newCursor() {
+      return new Cursor() {
+        int row = 0;
+
+        @Override
+        public Datum next() {
+          return values[row++];
+        }
+      };
+    }
+  }
+
+  private static class DictionaryVector extends ColumnVector {
+    private final Datum [] dictionary;
+    private final int [] codes;
+
+    DictionaryVector(Datum [] dictionary, int [] codes) {
+      super(codes.length);
+      this.dictionary = dictionary;
+      this.codes = codes;
+    }
+
+    @Override
+    public Encoding getEncoding() {
+      return Encoding.DICTIONARY;
+    }
+
+    @Override
+    public long getEstimatedSize() {
+      return estimateValues(dictionary) + estimateInts(codes.length);
+    }
+
+    @Override
+    public Cursor newCursor() {
+      return new Cursor() {
+        int row = 0;
+
+        @Override
+        public Datum next() {
+          return dictionary[codes[row++]];
+        }
+      };
+    }
+  }
+
+  private static class RunLengthVector extends ColumnVector {
+    private final Datum [] dictionary;
+    private final int [] runCodes;
+    /** the exclusive end row of each run */
+    private final int [] runEnds;
+
+    RunLengthVector(int size, Datum [] dictionary, int [] runCodes, int [] runEnds) {
+      super(size);
+      this.dictionary = dictionary;
+      this.runCodes = runCodes;
+      this.runEnds = runEnds;
+    }
+
+    @Override
+    public Encoding getEncoding() {
+      return Encoding.RLE;
+    }
+
+    @Override
+    public long getEstimatedSize() {
+      return estimateValues(dictionary) + estimateInts(runCodes.length) + estimateInts(runEnds.length);
+    }
+
+    @Override
+    public Cursor newCursor() {
+      return new Cursor() {
+        int row = 0;
+        int run = 0;
+
+        @Override
+        public Datum next() {
+          if (row++ == runEnds[run]) {
+            run++;
+          }
+          return dictionary[runCodes[run]];
+        }
+      };
+    }
+  }
+}
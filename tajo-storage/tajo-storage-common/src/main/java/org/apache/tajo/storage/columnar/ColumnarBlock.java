@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage.columnar;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.storage.MemoryUtil;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * Rows of a fragment kept in memory in the columnar layout.
+ */
+public class ColumnarBlock {
+  private final Schema schema;
+  private final int rowNum;
+  private final ColumnVector [] columns;
+  private final long estimatedSize;
+
+  private ColumnarBlock(Schema schema, int rowNum, ColumnVector [] columns) {
+    this.schema = schema;
+    this.rowNum = rowNum;
+    this.columns = columns;
+
+    long size = 0;
+    for (ColumnVector column : columns) {
+      size += column.getEstimatedSize();
+    }
+    this.estimatedSize = size;
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  public int getRowNum() {
+    return rowNum;
+  }
+
+  public ColumnVector getColumn(int columnId) {
+    return columns[columnId];
+  }
+
+  /**
+   * @return The estimated bytes of memory which this block takes
+   */
+  public long getEstimatedSize() {
+    return estimatedSize;
+  }
+
+  public static class Builder {
+    private final Schema schema;
+    private final ColumnVector.Builder [] columns;
+    private int rowNum;
+    private long rawSize;
+
+    public Builder(Schema schema) {
+      this.schema = schema;
+      this.columns = new ColumnVector.Builder[schema.size()];
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = new ColumnVector.Builder();
+      }
+    }
+
+    public void add(Tuple tuple) {
+      for (int i = 0; i < columns.length; i++) {
+        columns[i].add(tuple.get(i));
+      }
+      rowNum++;
+      rawSize += MemoryUtil.calculateMemorySize(tuple);
+    }
+
+    public int getRowNum() {
+      return rowNum;
+    }
+
+    /**
+     * @return The estimated bytes of the rows before they are encoded
+     */
+    public long getRawSize() {
+      return rawSize;
+    }
+
+    public ColumnarBlock build() {
+      ColumnVector [] vectors = new ColumnVector[columns.length];
+      for (int i = 0; i < columns.length; i++) {
+        vectors[i] = columns[i].build();
+      }
+      return new ColumnarBlock(schema, rowNum, vectors);
+    }
+  }
+}
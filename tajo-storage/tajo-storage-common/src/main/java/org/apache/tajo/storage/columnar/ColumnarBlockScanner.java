@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage.columnar;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A scanner reading a {@link ColumnarBlock} in memory. Only the target columns are decoded.
+ */
+public class ColumnarBlockScanner implements Scanner {
+  private final ColumnarBlock block;
+  private final Schema schema;
+  private int [] targetIds;
+  private ColumnVector.Cursor [] cursors;
+  private int row;
+  private TableStats tableStats;
+
+  public ColumnarBlockScanner(ColumnarBlock block, Schema target) {
+    this.block = block;
+    this.schema = block.getSchema();
+    setTarget(target == null ? schema.toArray() : target.toArray());
+  }
+
+  @Override
+  public void init() throws IOException {
+    reset();
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    if (row >= block.getRowNum()) {
+      return null;
+    }
+
+    // columns out of the targets are null
+    Datum [] values = new Datum[schema.size()];
+    Arrays.fill(values, NullDatum.get());
+    for (int i = 0; i < targetIds.length; i++) {
+      values[targetIds[i]] = cursors[i].next();
+    }
+    Tuple tuple = new VTuple(values);
+    row++;
+    tableStats.setNumRows(row);
+    return tuple;
+  }
+
+  @Override
+  public void reset() throws IOException {
+    resetCursors();
+  }
+
+  private void resetCursors() {
+    cursors = new ColumnVector.Cursor[targetIds.length];
+    for (int i = 0; i < targetIds.length; i++) {
+      cursors[i] = block.getColumn(targetIds[i]).newCursor();
+    }
+    row = 0;
+    tableStats = new TableStats();
+    tableStats.setNumBytes(block.getEstimatedSize());
+  }
+
+  @Override
+  public void close() throws IOException {
+    cursors = null;
+  }
+
+  @Override
+  public boolean isProjectable() {
+    return true;
+  }
+
+  @Override
+  public void setTarget(Column[] targets) {
+    targetIds = new int[targets.length];
+    for (int i = 0; i < targets.length; i++) {
+      targetIds[i] = schema.getColumnId(targets[i].getQualifiedName());
+    }
+    resetCursors();
+  }
+
+  @Override
+  public boolean isSelectable() {
+    return false;
+  }
+
+  @Override
+  public void setSearchCondition(Object expr) {
+  }
+
+  @Override
+  public boolean isSplittable() {
+    return false;
+  }
+
+  @Override
+  public float getProgress() {
+    return block.getRowNum() == 0 ? 1.0f : (float) row / block.getRowNum();
+  }
+
+  @Override
+  public TableStats getInputStats() {
+    return tableStats;
+  }
+
+  @Override
+  public Schema getSchema() {
+    return schema;
+  }
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage.columnar;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.columnar.ColumnVector.Encoding;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestColumnarBlock {
+
+  private static ColumnVector build(List<Datum> values) {
+    ColumnVector.Builder builder = new ColumnVector.Builder();
+    for (Datum datum : values) {
+      builder.add(datum);
+    }
+    return builder.build();
+  }
+
+  private static void assertValues(List<Datum> expected, ColumnVector column) {
+    assertEquals(expected.size(), column.size());
+    ColumnVector.Cursor cursor = column.newCursor();
+    for (Datum datum : expected) {
+      assertEquals(datum, cursor.next());
+    }
+  }
+
+  @Test
+  public void testEncodings() {
+    List<Datum> unique = new ArrayList<Datum>();
+    List<Datum> repeated = new ArrayList<Datum>();
+    List<Datum> sorted = new ArrayList<Datum>();
+    for (int i = 0; i < 1000; i++) {
+      unique.add(DatumFactory.createInt8(i));
+      repeated.add(i % 7 == 0 ? NullDatum.get() : DatumFactory.createText("value" + (i % 5)));
+      sorted.add(DatumFactory.createInt4(i / 100));
+    }
+
+    ColumnVector plain = build(unique);
+    assertEquals(Encoding.PLAIN, plain.getEncoding());
+    assertValues(unique, plain);
+
+    ColumnVector dictionary = build(repeated);
+    assertEquals(Encoding.DICTIONARY, dictionary.getEncoding());
+    assertValues(repeated, dictionary);
+    assertTrue(dictionary.getEstimatedSize() < plain.getEstimatedSize());
+
+    ColumnVector rle = build(sorted);
+    assertEquals(Encoding.RLE, rle.getEncoding());
+    assertValues(sorted, rle);
+    assertTrue(rle.getEstimatedSize() < dictionary.getEstimatedSize());
+
+    assertEquals(0, build(new ArrayList<Datum>()).size());
+  }
+
+  @Test
+  public void testScanner() throws Exception {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    schema.addColumn("score", Type.FLOAT8);
+
+    ColumnarBlock.Builder builder = new ColumnarBlock.Builder(schema);
+    for (int i = 0; i < 100; i++) {
+      builder.add(new VTuple(new Datum[] {
+          DatumFactory.createInt4(i), DatumFactory.createText("name" + (i % 3)), DatumFactory.createFloat8(i / 10)}));
+    }
+    ColumnarBlock block = builder.build();
+    assertEquals(100, block.getRowNum());
+
+    Schema target = new Schema(new Column[] {schema.getColumn(2), schema.getColumn(0)});
+    ColumnarBlockScanner scanner = new ColumnarBlockScanner(block, target);
+    scanner.init();
+
+    for (int round = 0; round < 2; round++) {
+      Tuple tuple;
+      int i = 0;
+      while ((tuple = scanner.next()) != null) {
+        assertEquals(i, tuple.getInt4(0));
+        assertTrue(tuple.isNull(1));
+        assertEquals(i / 10, tuple.getFloat8(2), 0.0);
+        i++;
+      }
+      assertEquals(100, i);
+      assertEquals(100, scanner.getInputStats().getNumRows().longValue());
+      assertEquals(1.0f, scanner.getProgress(), 0.0f);
+      scanner.reset();
+    }
+    scanner.close();
+  }
+}
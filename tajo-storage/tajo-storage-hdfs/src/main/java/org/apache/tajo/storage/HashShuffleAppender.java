@@ -59,6 +59,11 @@ public class HashShuffleAppender implements Appender {
 
   private ExecutionBlockId ebId;
 
+  private static final int MAX_HOT_KEYS = 16;
+
+  //<key hash, row num> of heavy-hitter shuffle keys reported by tasks
+  private Map<Integer, Long> hotKeyRows = new HashMap<Integer, Long>();
+
   public HashShuffleAppender(ExecutionBlockId ebId, int partId, int pageSize, FileAppender appender) {
     this.ebId = ebId;
     this.partId = partId;
@@ -206,4 +211,37 @@ public class HashShuffleAppender implements Appender {
   public void taskFinished(TaskAttemptId taskId) {
     taskTupleIndexes.remove(taskId);
   }
+
+  /**
+   * Accumulates the number of rows of a heavy-hitter shuffle key written by a task.
+   * Only the MAX_HOT_KEYS most frequent keys are kept for each partition.
+   * @param keyHash the hash code of shuffle keys
+   * @param numRows the number of rows
+   */
+  public void addHotKeyRows(int keyHash, long numRows) {
+    synchronized(appender) {
+      Long rows = hotKeyRows.get(keyHash);
+      hotKeyRows.put(keyHash, rows == null ? numRows : rows + numRows);
+
+      if (hotKeyRows.size() > MAX_HOT_KEYS) {
+        Map.Entry<Integer, Long> minEntry = null;
+        for (Map.Entry<Integer, Long> eachEntry : hotKeyRows.entrySet()) {
+          if (minEntry == null || eachEntry.getValue() < minEntry.getValue()) {
+            minEntry = eachEntry;
+          }
+        }
+        hotKeyRows.remove(minEntry.getKey());
+      }
+    }
+  }
+
+  public Map<Integer, Long> getHotKeyRows() {
+    synchronized(appender) {
+      return new HashMap<Integer, Long>(hotKeyRows);
+    }
+  }
+
+  public int getTotalRows() {
+    return totalRows;
+  }
 }
@@ -35,6 +35,7 @@ import org.apache.tajo.util.Pair;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -144,6 +145,8 @@ public class HashShuffleAppenderManager {
             new HashShuffleIntermediate(eachMeta.partId, eachMeta.appender.getOffset(),
                 eachMeta.appender.getPages(),
                 eachMeta.appender.getMergedTupleIndexes());
+        intermediate.setNumRows(eachMeta.appender.getTotalRows());
+        intermediate.setHotKeyRows(eachMeta.appender.getHotKeyRows());
         intermediateEntries.add(intermediate);
       } catch (IOException e) {
         LOG.error(e.getMessage(), e);
@@ -181,6 +184,11 @@ public class HashShuffleAppenderManager {
     //[<page start offset, length>]
     private List<Pair<Long, Integer>> pages = new ArrayList<Pair<Long, Integer>>();
 
+    private long numRows;
+
+    //<key hash, row num> of heavy-hitter shuffle keys
+    private Map<Integer, Long> hotKeyRows = new HashMap<Integer, Long>();
+
     public HashShuffleIntermediate(int partId, long volume,
                                    List<Pair<Long, Integer>> pages,
                                    Collection<Pair<Long, Pair<Integer, Integer>>> failureTskTupleIndexes) {
@@ -205,6 +213,22 @@ public class HashShuffleAppenderManager {
     public List<Pair<Long, Integer>> getPages() {
       return pages;
     }
+
+    public long getNumRows() {
+      return numRows;
+    }
+
+    public void setNumRows(long numRows) {
+      this.numRows = numRows;
+    }
+
+    public Map<Integer, Long> getHotKeyRows() {
+      return hotKeyRows;
+    }
+
+    public void setHotKeyRows(Map<Integer, Long> hotKeyRows) {
+      this.hotKeyRows = hotKeyRows;
+    }
   }
 
   static class PartitionAppenderMeta {
@@ -36,12 +36,14 @@ import org.apache.tajo.datum.ProtobufDatumFactory;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.BitArray;
+import org.apache.tajo.util.UnsafeUtil;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 
 public class RawFile {
@@ -49,6 +51,10 @@ public class RawFile {
   public static final String READ_BUFFER_SIZE = "tajo.storage.raw.io.read-buffer.bytes";
   public static final String WRITE_BUFFER_SIZE = "tajo.storage.raw.io.write-buffer.bytes";
   public static final int DEFAULT_BUFFER_SIZE = 128 * StorageUnit.KB;
+  public static final String MMAP_ENABLED = "tajo.storage.raw.io.mmap.enabled";
+  public static final boolean DEFAULT_MMAP_ENABLED = true;
+  public static final String MMAP_WINDOW_SIZE = "tajo.storage.raw.io.mmap.window.bytes";
+  public static final int DEFAULT_MMAP_WINDOW_SIZE = 64 * StorageUnit.MB;
 
   public static class RawFileScanner extends FileScanner implements SeekableScanner {
     private FileChannel channel;
@@ -70,6 +76,10 @@ public class RawFile {
     private long filePosition;
     private boolean forceFillBuffer;
 
+    // If true, the file is read through memory-mapped windows instead of being copied into a read buffer.
+    private boolean memoryMapped;
+    private int mapWindowSize;
+
     public RawFileScanner(Configuration conf, Schema schema, TableMeta meta, Fragment fragment) throws IOException {
       super(conf, schema, meta, fragment);
     }
@@ -95,8 +105,13 @@ public class RawFile {
             + ", fragment length :" + fragment.getLength());
       }
 
-      buf = BufferPool.directBuffer(conf.getInt(READ_BUFFER_SIZE, DEFAULT_BUFFER_SIZE));
-      buffer = buf.nioBuffer(0, buf.capacity());
+      memoryMapped = conf.getBoolean(MMAP_ENABLED, DEFAULT_MMAP_ENABLED);
+      if (memoryMapped) {
+        mapWindowSize = conf.getInt(MMAP_WINDOW_SIZE, DEFAULT_MMAP_WINDOW_SIZE);
+      } else {
+        buf = BufferPool.directBuffer(conf.getInt(READ_BUFFER_SIZE, DEFAULT_BUFFER_SIZE));
+        buffer = buf.nioBuffer(0, buf.capacity());
+      }
 
       columnTypes = new DataType[schema.size()];
       for (int i = 0; i < schema.size(); i++) {
@@ -108,7 +123,7 @@ public class RawFile {
       headerSize = RECORD_SIZE + 2 + nullFlags.bytesLength(); // The middle 2 bytes is for NullFlagSize
 
       // initial set position
-      if (fragment.getStartKey() > 0) {
+      if (!memoryMapped && fragment.getStartKey() > 0) {
         channel.position(fragment.getStartKey());
       }
 
@@ -124,6 +139,10 @@ public class RawFile {
     @Override
     public void seek(long offset) throws IOException {
       eos = false;
+      if (memoryMapped) {
+        seekMappedBuffer(offset);
+        return;
+      }
       filePosition = channel.position();
 
       // do not fill the buffer if the offset is already included in the buffer.
@@ -142,7 +161,62 @@ public class RawFile {
       }
     }
 
+    private void seekMappedBuffer(long offset) throws IOException {
+      // do not remap if the offset is already included in the mapped window.
+      if (!forceFillBuffer && filePosition > offset && offset >= filePosition - buffer.limit()) {
+        buffer.position((int) (offset - (filePosition - buffer.limit())));
+      } else {
+        if (offset < startOffset || offset > startOffset + fragment.getLength()) {
+          throw new IndexOutOfBoundsException(String.format("range(%d, %d), offset: %d",
+              startOffset, startOffset + fragment.getLength(), offset));
+        }
+        filePosition = offset;
+        forceFillBuffer = true;
+        fillBuffer();
+      }
+    }
+
+    /**
+     * It maps a window of the file starting from the offset. The previous window is unmapped.
+     *
+     * @param offset the file offset where the window starts
+     * @param minLength the minimum length of the window. It is used when a record is larger than the window size.
+     * @return false if there is no more data to be read
+     */
+    private boolean mapBuffer(long offset, int minLength) throws IOException {
+      unmapBuffer();
+
+      long fileSize = channel.size();
+      if (offset >= Math.min(fileSize, endOffset)) {
+        forceFillBuffer = true;
+        eos = true;
+        return false;
+      }
+
+      long length = Math.min(fileSize - offset, Math.max(mapWindowSize, minLength));
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+      forceFillBuffer = false;
+
+      // only bytes beyond the previous window are newly read
+      totalReadBytes += offset + length - Math.max(offset, Math.min(filePosition, offset + length));
+      filePosition = offset + length;
+      return true;
+    }
+
+    private void unmapBuffer() {
+      // A direct read buffer is also a MappedByteBuffer, so only a buffer of the memory-mapped mode is freed.
+      if (memoryMapped && buffer instanceof MappedByteBuffer) {
+        // Decoded values never refer to the mapped memory, so the window can be released eagerly.
+        UnsafeUtil.free(buffer);
+        buffer = null;
+      }
+    }
+
     private boolean fillBuffer() throws IOException {
+      if (memoryMapped) {
+        return mapBuffer(getNextOffset(), headerSize);
+      }
+
       if(!forceFillBuffer) buffer.compact();
 
       int bytesRead = channel.read(buffer);
@@ -261,11 +335,18 @@ public class RawFile {
       buffer.limit(bufferLimit);
       if (buffer.remaining() < (recordSize - headerSize)) {
 
-        //if the buffer reaches the writable size, the buffer increase the record size
-        reSizeBuffer(recordSize);
+        if (memoryMapped) {
+          // remap a window which includes the whole contents of this record
+          if (!mapBuffer(getNextOffset(), recordSize - headerSize)) {
+            return null;
+          }
+        } else {
+          //if the buffer reaches the writable size, the buffer increase the record size
+          reSizeBuffer(recordSize);
 
-        if (!fillBuffer()) {
-          return null;
+          if (!fillBuffer()) {
+            return null;
+          }
         }
       }
 
@@ -395,7 +476,11 @@ public class RawFile {
     @Override
     public void reset() throws IOException {
       // reset the buffer
-      buffer.clear();
+      if (memoryMapped) {
+        unmapBuffer();
+      } else {
+        buffer.clear();
+      }
       forceFillBuffer = true;
       filePosition = fragment.getStartKey();
       channel.position(filePosition);
@@ -404,6 +489,9 @@ public class RawFile {
 
     @Override
     public void close() throws IOException {
+      if (memoryMapped) {
+        unmapBuffer();
+      }
       if(buf != null){
         buffer.clear();
         buffer = null;
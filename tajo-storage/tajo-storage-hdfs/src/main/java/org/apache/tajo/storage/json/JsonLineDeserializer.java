@@ -20,28 +20,68 @@ package org.apache.tajo.storage.json;
 
 
 import io.netty.buffer.ByteBuf;
-import net.minidev.json.JSONObject;
-import net.minidev.json.parser.JSONParser;
-import net.minidev.json.parser.ParseException;
 import org.apache.commons.net.util.Base64;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.SchemaUtil;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.common.exception.NotImplementedException;
+import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.datum.TextDatum;
+import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.text.TextLineDeserializer;
 import org.apache.tajo.storage.text.TextLineParsingError;
 
 import java.io.IOException;
+import java.util.Arrays;
 
+/**
+ * It reads a JSON object per line in a single pass. Only the fields of target columns are materialized, and the
+ * other values are skipped without allocation. Numbers and booleans are parsed directly from the line bytes.
+ *
+ * A column is mapped to the top-level field of the same name by default. A nested field can be mapped to a column
+ * by the table property {@link StorageConstants#JSON_FIELD_PATH_PREFIX} + column name, whose value is a dotted path.
+ */
 public class JsonLineDeserializer extends TextLineDeserializer {
-  private JSONParser parser;
+  private static final byte [] TRUE = "true".getBytes();
+  private static final byte [] FALSE = "false".getBytes();
+  private static final byte [] NULL = "null".getBytes();
+
+  /** powers of ten which are exactly representable in double */
+  private static final double [] POWERS_OF_TEN = new double[23];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  private enum ValueKind {
+    STRING, NUMBER, BOOLEAN, RAW
+  }
+
   private Type[] types;
-  private String[] columnNames;
+  private FieldNode root;
+
+  // the line being parsed
+  private byte [] line;
+  private int lineStart;
+  private int pos;
+  private int end;
+  /** holds a line if the line buffer is not backed by an array */
+  private byte [] lineBuffer = new byte[0];
+
+  // the last read value
+  private ValueKind valueKind;
+  private byte [] valueBytes;
+  private int valueOffset;
+  private int valueLength;
+  /** holds a string value having escaped characters */
+  private byte [] stringBuffer = new byte[64];
 
   public JsonLineDeserializer(Schema schema, TableMeta meta, int[] targetColumnIndexes) {
     super(schema, meta, targetColumnIndexes);
@@ -50,159 +90,624 @@ public class JsonLineDeserializer extends TextLineDeserializer {
   @Override
   public void init() {
     types = SchemaUtil.toTypes(schema);
-    columnNames = SchemaUtil.toSimpleNames(schema);
+    String [] columnNames = SchemaUtil.toSimpleNames(schema);
 
-    parser = new JSONParser(JSONParser.MODE_JSON_SIMPLE | JSONParser.IGNORE_CONTROL_CHAR);
+    root = new FieldNode(null);
+    for (int actualIdx : targetColumnIndexes) {
+      String path = meta.getOption(StorageConstants.JSON_FIELD_PATH_PREFIX + columnNames[actualIdx],
+          columnNames[actualIdx]);
+      FieldNode node = root;
+      for (String name : path.split("\\.")) {
+        node = node.getOrAddChild(name.getBytes(TextDatum.DEFAULT_CHARSET));
+      }
+      node.addColumn(actualIdx);
+    }
   }
 
   @Override
   public void deserialize(ByteBuf buf, Tuple output) throws IOException, TextLineParsingError {
-    byte[] line = new byte[buf.readableBytes()];
-    buf.readBytes(line);
+    int length = buf.readableBytes();
+    if (buf.hasArray()) {
+      line = buf.array();
+      lineStart = buf.arrayOffset() + buf.readerIndex();
+    } else {
+      if (lineBuffer.length < length) {
+        lineBuffer = new byte[Math.max(length, lineBuffer.length * 2)];
+      }
+      buf.getBytes(buf.readerIndex(), lineBuffer, 0, length);
+      line = lineBuffer;
+      lineStart = 0;
+    }
+    pos = lineStart;
+    end = lineStart + length;
+
+    for (int actualIdx : targetColumnIndexes) {
+      output.put(actualIdx, NullDatum.get());
+    }
+
+    skipWhitespaces();
+    expect('{');
+    readObject(root, output);
+    skipWhitespaces();
+    if (pos < end) {
+      throw error("Unexpected character after the object");
+    }
+  }
+
+  /**
+   * Reads the members of an object. The position must be after '{'.
+   */
+  private void readObject(FieldNode node, Tuple output) throws IOException, TextLineParsingError {
+    skipWhitespaces();
+    if (peek() == '}') {
+      pos++;
+      return;
+    }
+
+    while (true) {
+      FieldNode child = readKey(node);
+      skipWhitespaces();
+      expect(':');
+      skipWhitespaces();
+
+      if (child == null) {
+        skipValue();
+      } else {
+        readValue(child, output);
+      }
+
+      skipWhitespaces();
+      byte c = next();
+      if (c == '}') {
+        return;
+      } else if (c != ',') {
+        throw error("Expected ',' or '}'");
+      }
+      skipWhitespaces();
+    }
+  }
+
+  /**
+   * Reads a member name, and returns the child node matched with it.
+   */
+  private FieldNode readKey(FieldNode node) throws TextLineParsingError {
+    if (peek() != '"') {
+      throw error("Expected a member name");
+    }
+    readString();
+    return node.findChild(valueBytes, valueOffset, valueLength);
+  }
+
+  private void readValue(FieldNode node, Tuple output) throws IOException, TextLineParsingError {
+    byte c = peek();
+    if (c == '{' && node.hasChildren()) {
+      int start = pos;
+      pos++;
+      readObject(node, output);
+      if (node.hasColumns()) {
+        setRawValue(start);
+        putValue(node, output);
+      }
+      return;
+    }
+
+    if (!node.hasColumns()) {
+      skipValue();
+      return;
+    }
+
+    switch (c) {
+    case '"':
+      readString();
+      break;
+    case 't':
+      expectLiteral(TRUE);
+      setValue(ValueKind.BOOLEAN, TRUE, 0, TRUE.length);
+      break;
+    case 'f':
+      expectLiteral(FALSE);
+      setValue(ValueKind.BOOLEAN, FALSE, 0, FALSE.length);
+      break;
+    case 'n':
+      expectLiteral(NULL);
+      for (int i = 0; i < node.columnNum; i++) {
+        output.put(node.columns[i], NullDatum.get());
+      }
+      return;
+    case '{':
+    case '[':
+      int start = pos;
+      skipValue();
+      setRawValue(start);
+      break;
+    default:
+      int numberStart = pos;
+      skipLiteral();
+      setValue(ValueKind.NUMBER, line, numberStart, pos - numberStart);
+    }
+    putValue(node, output);
+  }
+
+  private void putValue(FieldNode node, Tuple output) throws IOException, TextLineParsingError {
+    for (int i = 0; i < node.columnNum; i++) {
+      int actualIdx = node.columns[i];
+      output.put(actualIdx, toDatum(types[actualIdx]));
+    }
+  }
+
+  private Datum toDatum(Type type) throws IOException, TextLineParsingError {
+    switch (type) {
+    case BOOLEAN:
+      return DatumFactory.createBool(valueEquals(TRUE));
+    case CHAR:
+      return DatumFactory.createChar(copyValue());
+    case INT1:
+    case INT2:
+      return DatumFactory.createInt2((short) parseLongValue());
+    case INT4:
+      return DatumFactory.createInt4((int) parseLongValue());
+    case INT8:
+      return DatumFactory.createInt8(parseLongValue());
+    case FLOAT4:
+      return DatumFactory.createFloat4((float) parseDoubleValue());
+    case FLOAT8:
+      return DatumFactory.createFloat8(parseDoubleValue());
+    case TEXT:
+      return DatumFactory.createText(copyValue());
+    case TIMESTAMP:
+      return DatumFactory.createTimestamp(valueToString());
+    case TIME:
+      return DatumFactory.createTime(valueToString());
+    case DATE:
+      return DatumFactory.createDate(valueToString());
+    case BIT:
+    case BINARY:
+    case VARBINARY:
+    case BLOB:
+      return DatumFactory.createBlob(Base64.decodeBase64(copyValue()));
+    case INET4:
+      return DatumFactory.createInet4(valueToString());
+    case NULL_TYPE:
+      return NullDatum.get();
+    default:
+      throw new NotImplementedException(type.name() + " is not supported.");
+    }
+  }
 
-    JSONObject object;
+  private void setValue(ValueKind kind, byte [] bytes, int offset, int length) {
+    valueKind = kind;
+    valueBytes = bytes;
+    valueOffset = offset;
+    valueLength = length;
+  }
+
+  /**
+   * An object or array value is given as its JSON text.
+   */
+  private void setRawValue(int start) {
+    setValue(ValueKind.RAW, line, start, pos - start);
+  }
+
+  private boolean valueEquals(byte [] bytes) {
+    if (valueLength != bytes.length) {
+      return false;
+    }
+    for (int i = 0; i < valueLength; i++) {
+      if (valueBytes[valueOffset + i] != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private byte [] copyValue() {
+    return Arrays.copyOfRange(valueBytes, valueOffset, valueOffset + valueLength);
+  }
+
+  private String valueToString() {
+    return new String(valueBytes, valueOffset, valueLength, TextDatum.DEFAULT_CHARSET);
+  }
+
+  private long parseLongValue() throws TextLineParsingError {
+    checkNumeric();
+    int i = valueOffset;
+    int limit = valueOffset + valueLength;
+    boolean negative = false;
+    if (i < limit && (valueBytes[i] == '-' || valueBytes[i] == '+')) {
+      negative = valueBytes[i] == '-';
+      i++;
+    }
+
+    // up to 18 digits cannot overflow
+    if (i == limit || limit - i > 18) {
+      return parseNumberSlowly().longValue();
+    }
+    long value = 0;
+    for (; i < limit; i++) {
+      int digit = valueBytes[i] - '0';
+      if (digit < 0 || digit > 9) {
+        return parseNumberSlowly().longValue();
+      }
+      value = value * 10 + digit;
+    }
+    return negative ? -value : value;
+  }
+
+  private double parseDoubleValue() throws TextLineParsingError {
+    checkNumeric();
+    int i = valueOffset;
+    int limit = valueOffset + valueLength;
+    boolean negative = false;
+    if (i < limit && (valueBytes[i] == '-' || valueBytes[i] == '+')) {
+      negative = valueBytes[i] == '-';
+      i++;
+    }
+
+    // A decimal number of up to 15 digits without exponent is exactly computed from two exact doubles,
+    // a mantissa and a power of ten. Otherwise, it is parsed by Double.parseDouble().
+    long mantissa = 0;
+    int digits = 0;
+    int scale = 0;
+    boolean fraction = false;
+    for (; i < limit; i++) {
+      byte c = valueBytes[i];
+      if (c >= '0' && c <= '9') {
+        if (++digits > 15) {
+          return parseNumberSlowly().doubleValue();
+        }
+        mantissa = mantissa * 10 + (c - '0');
+        if (fraction) {
+          scale++;
+        }
+      } else if (c == '.' && !fraction) {
+        fraction = true;
+      } else {
+        return parseNumberSlowly().doubleValue();
+      }
+    }
+    if (digits == 0) {
+      return parseNumberSlowly().doubleValue();
+    }
+
+    double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+    return negative ? -value : value;
+  }
+
+  private void checkNumeric() throws TextLineParsingError {
+    if (valueKind != ValueKind.NUMBER && valueKind != ValueKind.STRING) {
+      throw error("Expected a number value");
+    }
+  }
+
+  private Number parseNumberSlowly() throws TextLineParsingError {
+    String str = valueToString().trim();
     try {
-      object = (JSONObject) parser.parse(line);
-    } catch (ParseException pe) {
-      throw new TextLineParsingError(new String(line, TextDatum.DEFAULT_CHARSET), pe);
-    } catch (ArrayIndexOutOfBoundsException ae) {
-      // truncated value
-      throw new TextLineParsingError(new String(line, TextDatum.DEFAULT_CHARSET), ae);
+      return Long.parseLong(str);
+    } catch (NumberFormatException e) {
+      try {
+        return Double.parseDouble(str);
+      } catch (NumberFormatException nfe) {
+        throw new TextLineParsingError(lineToString(), nfe);
+      }
+    }
+  }
+
+  /**
+   * Reads a string. The position must be at the opening quote. If the string has no escaped character,
+   * the value refers to the line bytes. Otherwise, the value is decoded into the string buffer.
+   */
+  private void readString() throws TextLineParsingError {
+    pos++;
+    int start = pos;
+    while (true) {
+      byte c = next();
+      if (c == '"') {
+        setValue(ValueKind.STRING, line, start, pos - 1 - start);
+        return;
+      } else if (c == '\\') {
+        pos--;
+        readEscapedString(start);
+        return;
+      }
     }
+  }
 
-    for (int i = 0; i < targetColumnIndexes.length; i++) {
-      int actualIdx = targetColumnIndexes[i];
-      String fieldName = columnNames[actualIdx];
+  private void readEscapedString(int start) throws TextLineParsingError {
+    int length = pos - start;
+    ensureStringBuffer(length);
+    System.arraycopy(line, start, stringBuffer, 0, length);
 
-      if (!object.containsKey(fieldName)) {
-        output.put(actualIdx, NullDatum.get());
+    while (true) {
+      byte c = next();
+      if (c == '"') {
+        break;
+      }
+      ensureStringBuffer(length + 4);
+
+      if (c != '\\') {
+        stringBuffer[length++] = c;
         continue;
       }
 
-      switch (types[actualIdx]) {
-        case BOOLEAN:
-          String boolStr = object.getAsString(fieldName);
-          if (boolStr != null) {
-            output.put(actualIdx, DatumFactory.createBool(boolStr.equals("true")));
-          } else {
-            output.put(actualIdx, NullDatum.get());
-          }
-          break;
-        case CHAR:
-          String charStr = object.getAsString(fieldName);
-          if (charStr != null) {
-            output.put(actualIdx, DatumFactory.createChar(charStr));
-          } else {
-            output.put(actualIdx, NullDatum.get());
-          }
-          break;
-        case INT1:
-        case INT2:
-          Number int2Num = object.getAsNumber(fieldName);
-          if (int2Num != null) {
-            output.put(actualIdx, DatumFactory.createInt2(int2Num.shortValue()));
+      c = next();
+      switch (c) {
+      case 'b': stringBuffer[length++] = '\b'; break;
+      case 'f': stringBuffer[length++] = '\f'; break;
+      case 'n': stringBuffer[length++] = '\n'; break;
+      case 'r': stringBuffer[length++] = '\r'; break;
+      case 't': stringBuffer[length++] = '\t'; break;
+      case 'u':
+        int codePoint = readHex4();
+        boolean pairEscaped = pos + 1 < end && line[pos] == '\\' && line[pos + 1] == 'u';
+        if (Character.isHighSurrogate((char) codePoint) && pairEscaped) {
+          pos += 2;
+          int low = readHex4();
+          if (Character.isLowSurrogate((char) low)) {
+            codePoint = Character.toCodePoint((char) codePoint, (char) low);
           } else {
-            output.put(actualIdx, NullDatum.get());
-          }
-          break;
-        case INT4:
-          Number int4Num = object.getAsNumber(fieldName);
-          if (int4Num != null) {
-            output.put(actualIdx, DatumFactory.createInt4(int4Num.intValue()));
-          } else {
-            output.put(actualIdx, NullDatum.get());
-          }
-          break;
-        case INT8:
-          Number int8Num = object.getAsNumber(fieldName);
-          if (int8Num != null) {
-            output.put(actualIdx, DatumFactory.createInt8(int8Num.longValue()));
-          } else {
-            output.put(actualIdx, NullDatum.get());
-          }
-          break;
-        case FLOAT4:
-          Number float4Num = object.getAsNumber(fieldName);
-          if (float4Num != null) {
-            output.put(actualIdx, DatumFactory.createFloat4(float4Num.floatValue()));
-          } else {
-            output.put(actualIdx, NullDatum.get());
-          }
-          break;
-        case FLOAT8:
-          Number float8Num = object.getAsNumber(fieldName);
-          if (float8Num != null) {
-            output.put(actualIdx, DatumFactory.createFloat8(float8Num.doubleValue()));
-          } else {
-            output.put(actualIdx, NullDatum.get());
-          }
-          break;
-        case TEXT:
-          String textStr = object.getAsString(fieldName);
-          if (textStr != null) {
-            output.put(actualIdx, DatumFactory.createText(textStr));
-          } else {
-            output.put(actualIdx, NullDatum.get());
-          }
-          break;
-        case TIMESTAMP:
-          String timestampStr = object.getAsString(fieldName);
-          if (timestampStr != null) {
-            output.put(actualIdx, DatumFactory.createTimestamp(timestampStr));
-          } else {
-            output.put(actualIdx, NullDatum.get());
-          }
-          break;
-        case TIME:
-          String timeStr = object.getAsString(fieldName);
-          if (timeStr != null) {
-            output.put(actualIdx, DatumFactory.createTime(timeStr));
-          } else {
-            output.put(actualIdx, NullDatum.get());
-          }
-          break;
-        case DATE:
-          String dateStr = object.getAsString(fieldName);
-          if (dateStr != null) {
-            output.put(actualIdx, DatumFactory.createDate(dateStr));
-          } else {
-            output.put(actualIdx, NullDatum.get());
-          }
-          break;
-        case BIT:
-        case BINARY:
-        case VARBINARY:
-        case BLOB: {
-          Object jsonObject = object.getAsString(fieldName);
-
-          if (jsonObject == null) {
-            output.put(actualIdx, NullDatum.get());
-            break;
+            length = encodeUtf8('?', length);
+            codePoint = low;
           }
+        }
+        if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+          // an unpaired surrogate
+          codePoint = '?';
+        }
+        length = encodeUtf8(codePoint, length);
+        break;
+      default:
+        // '"', '\\', '/' and the other characters are given as they are
+        stringBuffer[length++] = c;
+      }
+    }
+    setValue(ValueKind.STRING, stringBuffer, 0, length);
+  }
+
+  private int readHex4() throws TextLineParsingError {
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      int digit = Character.digit(next(), 16);
+      if (digit < 0) {
+        throw error("Invalid unicode escape");
+      }
+      value = value << 4 | digit;
+    }
+    return value;
+  }
+
+  private int encodeUtf8(int codePoint, int offset) {
+    ensureStringBuffer(offset + 4);
+    if (codePoint < 0x80) {
+      stringBuffer[offset++] = (byte) codePoint;
+    } else if (codePoint < 0x800) {
+      stringBuffer[offset++] = (byte) (0xC0 | codePoint >> 6);
+      stringBuffer[offset++] = (byte) (0x80 | codePoint & 0x3F);
+    } else if (codePoint < 0x10000) {
+      stringBuffer[offset++] = (byte) (0xE0 | codePoint >> 12);
+      stringBuffer[offset++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+      stringBuffer[offset++] = (byte) (0x80 | codePoint & 0x3F);
+    } else {
+      stringBuffer[offset++] = (byte) (0xF0 | codePoint >> 18);
+      stringBuffer[offset++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+      stringBuffer[offset++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+      stringBuffer[offset++] = (byte) (0x80 | codePoint & 0x3F);
+    }
+    return offset;
+  }
+
+  private void ensureStringBuffer(int length) {
+    if (stringBuffer.length < length) {
+      stringBuffer = Arrays.copyOf(stringBuffer, Math.max(length, stringBuffer.length * 2));
+    }
+  }
 
-          output.put(actualIdx, DatumFactory.createBlob(Base64.decodeBase64((String) jsonObject)));
-          break;
+  /**
+   * Skips a value without decoding it. Nested values are skipped by counting brackets outside of strings,
+   * so they are not fully validated.
+   */
+  private void skipValue() throws TextLineParsingError {
+    byte c = peek();
+    if (c == '"') {
+      skipString();
+    } else if (c == '{' || c == '[') {
+      int depth = 0;
+      do {
+        c = next();
+        if (c == '"') {
+          pos--;
+          skipString();
+        } else if (c == '{' || c == '[') {
+          depth++;
+        } else if (c == '}' || c == ']') {
+          depth--;
         }
-        case INET4:
-          String inetStr = object.getAsString(fieldName);
-          if (inetStr != null) {
-            output.put(actualIdx, DatumFactory.createInet4(inetStr));
-          } else {
-            output.put(actualIdx, NullDatum.get());
-          }
-          break;
+      } while (depth > 0);
+    } else {
+      skipLiteral();
+    }
+  }
+
+  private void skipString() throws TextLineParsingError {
+    pos++;
+    while (true) {
+      byte c = next();
+      if (c == '"') {
+        return;
+      } else if (c == '\\') {
+        next();
+      }
+    }
+  }
 
-        case NULL_TYPE:
-          output.put(actualIdx, NullDatum.get());
-          break;
+  /**
+   * Skips a number or a literal like true, false, and null.
+   */
+  private void skipLiteral() throws TextLineParsingError {
+    int start = pos;
+    while (pos < end) {
+      byte c = line[pos];
+      if (c == ',' || c == '}' || c == ']' || isWhitespace(c)) {
+        break;
+      }
+      pos++;
+    }
+    if (pos == start) {
+      throw error("Expected a value");
+    }
+  }
 
-        default:
-          throw new NotImplementedException(types[actualIdx].name() + " is not supported.");
+  private void expectLiteral(byte [] literal) throws TextLineParsingError {
+    for (byte c : literal) {
+      if (next() != c) {
+        throw error("Invalid literal");
       }
     }
   }
 
+  private void expect(char expected) throws TextLineParsingError {
+    if (next() != expected) {
+      throw error("Expected '" + expected + "'");
+    }
+  }
+
+  private byte peek() throws TextLineParsingError {
+    if (pos >= end) {
+      throw error("Unexpected end of line");
+    }
+    return line[pos];
+  }
+
+  private byte next() throws TextLineParsingError {
+    if (pos >= end) {
+      throw error("Unexpected end of line");
+    }
+    return line[pos++];
+  }
+
+  private void skipWhitespaces() {
+    while (pos < end && isWhitespace(line[pos])) {
+      pos++;
+    }
+  }
+
+  private static boolean isWhitespace(byte c) {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+  }
+
+  private String lineToString() {
+    return new String(line, lineStart, end - lineStart, TextDatum.DEFAULT_CHARSET);
+  }
+
+  private TextLineParsingError error(String message) {
+    return new TextLineParsingError(lineToString(),
+        new IllegalArgumentException(message + " at position " + (pos - lineStart)));
+  }
+
   @Override
   public void release() {
+    line = null;
+    valueBytes = null;
+  }
+
+  /**
+   * A node of the tree of projected field paths. A node has the columns which read its value,
+   * and the child nodes which are the members read from its object value.
+   */
+  private static class FieldNode {
+    private final byte [] name;
+    private final int hash;
+
+    private int [] columns = new int[0];
+    private int columnNum;
+
+    private FieldNode [] children = new FieldNode[0];
+    /** open addressing table of child indexes by name hash. It is used when there are many children. */
+    private int [] childTable;
+
+    FieldNode(byte [] name) {
+      this.name = name;
+      this.hash = name == null ? 0 : hash(name, 0, name.length);
+    }
+
+    boolean hasColumns() {
+      return columnNum > 0;
+    }
+
+    boolean hasChildren() {
+      return children.length > 0;
+    }
+
+    void addColumn(int actualIdx) {
+      columns = Arrays.copyOf(columns, columnNum + 1);
+      columns[columnNum++] = actualIdx;
+    }
+
+    FieldNode getOrAddChild(byte [] childName) {
+      FieldNode child = findChild(childName, 0, childName.length);
+      if (child == null) {
+        child = new FieldNode(childName);
+        children = Arrays.copyOf(children, children.length + 1);
+        children[children.length - 1] = child;
+        buildChildTable();
+      }
+      return child;
+    }
+
+    private void buildChildTable() {
+      if (children.length <= 8) {
+        childTable = null;
+        return;
+      }
+      childTable = new int[Integer.highestOneBit(children.length * 4)];
+      Arrays.fill(childTable, -1);
+      for (int i = 0; i < children.length; i++) {
+        int slot = children[i].hash & (childTable.length - 1);
+        while (childTable[slot] >= 0) {
+          slot = (slot + 1) & (childTable.length - 1);
+        }
+        childTable[slot] = i;
+      }
+    }
+
+    FieldNode findChild(byte [] bytes, int offset, int length) {
+      if (childTable == null) {
+        for (FieldNode child : children) {
+          if (child.nameEquals(bytes, offset, length)) {
+            return child;
+          }
+        }
+        return null;
+      }
+
+      int slot = hash(bytes, offset, length) & (childTable.length - 1);
+      while (childTable[slot] >= 0) {
+        FieldNode child = children[childTable[slot]];
+        if (child.nameEquals(bytes, offset, length)) {
+          return child;
+        }
+        slot = (slot + 1) & (childTable.length - 1);
+      }
+      return null;
+    }
+
+    private boolean nameEquals(byte [] bytes, int offset, int length) {
+      if (name.length != length) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (name[i] != bytes[offset + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static int hash(byte [] bytes, int offset, int length) {
+      int h = 0;
+      for (int i = 0; i < length; i++) {
+        h = 31 * h + bytes[offset + i];
+      }
+      return h ^ (h >>> 16);
+    }
   }
 }
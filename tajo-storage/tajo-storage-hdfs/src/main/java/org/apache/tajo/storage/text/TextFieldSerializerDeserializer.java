@@ -32,6 +32,10 @@ import org.apache.tajo.storage.FieldSerializerDeserializer;
 import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.util.Bytes;
 import org.apache.tajo.util.NumberUtil;
+import org.apache.tajo.util.datetime.ByteDateTimeParser;
+import org.apache.tajo.util.datetime.DateTimeFormat;
+import org.apache.tajo.util.datetime.DateTimeUtil;
+import org.apache.tajo.util.datetime.TimeMeta;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -42,14 +46,29 @@ public class TextFieldSerializerDeserializer implements FieldSerializerDeseriali
   private static final byte[] trueBytes = "true".getBytes(Bytes.UTF8_CHARSET);
   private static final byte[] falseBytes = "false".getBytes(Bytes.UTF8_CHARSET);
   private static ProtobufJsonFormat protobufJsonFormat = ProtobufJsonFormat.getInstance();
+  private static final int FLOAT_MAX_EXACT_MANTISSA = 1 << 24;
+  private static final float[] FLOAT_POWERS_OF_TEN = {
+      1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
   private final CharsetDecoder decoder = CharsetUtil.getDecoder(CharsetUtil.UTF_8);
 
   private final boolean hasTimezone;
   private final TimeZone timezone;
 
+  // the formats of date and timestamp fields, and the compiled ones if they are fixed-width
+  private final String dateFormat;
+  private final String timestampFormat;
+  private final ByteDateTimeParser dateParser;
+  private final ByteDateTimeParser timestampParser;
+  private final TimeMeta timeMeta = new TimeMeta();
+
   public TextFieldSerializerDeserializer(TableMeta meta) {
     hasTimezone = meta.containsOption(StorageConstants.TIMEZONE);
     timezone = TimeZone.getTimeZone(meta.getOption(StorageConstants.TIMEZONE, TajoConstants.DEFAULT_SYSTEM_TIMEZONE));
+
+    dateFormat = meta.getOption(StorageConstants.TEXT_DATE_FORMAT, null);
+    timestampFormat = meta.getOption(StorageConstants.TEXT_TIMESTAMP_FORMAT, null);
+    dateParser = dateFormat == null ? null : ByteDateTimeParser.compile(dateFormat);
+    timestampParser = timestampFormat == null ? null : ByteDateTimeParser.compile(timestampFormat);
   }
 
   private static boolean isNull(ByteBuf val, ByteBuf nullBytes) {
@@ -100,12 +119,20 @@ public class TextFieldSerializerDeserializer implements FieldSerializerDeseriali
       case FLOAT4:
       case FLOAT8:
       case INET4:
-      case DATE:
       case INTERVAL:
         bytes = datum.asTextBytes();
         length = bytes.length;
         out.write(bytes);
         break;
+      case DATE:
+        if (dateFormat != null) {
+          bytes = DateTimeFormat.to_char(((DateDatum) datum).toTimeMeta(), dateFormat).getBytes(Bytes.UTF8_CHARSET);
+        } else {
+          bytes = datum.asTextBytes();
+        }
+        length = bytes.length;
+        out.write(bytes);
+        break;
       case TIME:
         if (hasTimezone) {
           bytes = ((TimeDatum) datum).asChars(timezone, true).getBytes(Bytes.UTF8_CHARSET);
@@ -116,7 +143,13 @@ public class TextFieldSerializerDeserializer implements FieldSerializerDeseriali
         out.write(bytes);
         break;
       case TIMESTAMP:
-        if (hasTimezone) {
+        if (timestampFormat != null) {
+          TimeMeta tm = ((TimestampDatum) datum).toTimeMeta();
+          if (hasTimezone) {
+            DateTimeUtil.toUserTimezone(tm, timezone);
+          }
+          bytes = DateTimeFormat.to_char(tm, timestampFormat).getBytes(Bytes.UTF8_CHARSET);
+        } else if (hasTimezone) {
           bytes = ((TimestampDatum) datum).asChars(timezone, true).getBytes(Bytes.UTF8_CHARSET);
         } else {
           bytes = datum.asTextBytes();
@@ -163,12 +196,10 @@ public class TextFieldSerializerDeserializer implements FieldSerializerDeseriali
           datum = DatumFactory.createBool(bool == 't' || bool == 'T');
           break;
         case BIT:
-          datum = DatumFactory.createBit(Byte.parseByte(
-              decoder.decode(buf.nioBuffer(buf.readerIndex(), buf.readableBytes())).toString()));
+          datum = DatumFactory.createBit(parseByte(buf));
           break;
         case CHAR:
-          datum = DatumFactory.createChar(
-              decoder.decode(buf.nioBuffer(buf.readerIndex(), buf.readableBytes())).toString().trim());
+          datum = DatumFactory.createChar(trimBytes(buf));
           break;
         case INT1:
         case INT2:
@@ -181,8 +212,7 @@ public class TextFieldSerializerDeserializer implements FieldSerializerDeseriali
           datum = DatumFactory.createInt8(NumberUtil.parseLong(buf));
           break;
         case FLOAT4:
-          datum = DatumFactory.createFloat4(
-              decoder.decode(buf.nioBuffer(buf.readerIndex(), buf.readableBytes())).toString());
+          datum = DatumFactory.createFloat4(parseFloat(buf));
           break;
         case FLOAT8:
           datum = DatumFactory.createFloat8(NumberUtil.parseDouble(buf));
@@ -194,30 +224,25 @@ public class TextFieldSerializerDeserializer implements FieldSerializerDeseriali
           break;
         }
         case DATE:
-          datum = DatumFactory.createDate(
-              decoder.decode(buf.nioBuffer(buf.readerIndex(), buf.readableBytes())).toString());
+          datum = parseDate(buf);
           break;
         case TIME:
           if (hasTimezone) {
-            datum = DatumFactory.createTime(
-                decoder.decode(buf.nioBuffer(buf.readerIndex(), buf.readableBytes())).toString(), timezone);
+            datum = DatumFactory.createTime(decodeString(buf), timezone);
+          } else if (ByteDateTimeParser.parseIsoTime(buf, timeMeta)) {
+            datum = DatumFactory.createTime(DateTimeUtil.toTime(timeMeta));
           } else {
-            datum = DatumFactory.createTime(
-                decoder.decode(buf.nioBuffer(buf.readerIndex(), buf.readableBytes())).toString());
+            datum = DatumFactory.createTime(decodeString(buf));
           }
           break;
         case TIMESTAMP:
-          if (hasTimezone) {
-            datum = DatumFactory.createTimestamp(
-                decoder.decode(buf.nioBuffer(buf.readerIndex(), buf.readableBytes())).toString(), timezone);
-          } else {
-            datum = DatumFactory.createTimestamp(
-                decoder.decode(buf.nioBuffer(buf.readerIndex(), buf.readableBytes())).toString());
-          }
+          datum = parseTimestamp(buf);
           break;
         case INTERVAL:
-          datum = DatumFactory.createInterval(
-              decoder.decode(buf.nioBuffer(buf.readerIndex(), buf.readableBytes())).toString());
+          datum = ByteDateTimeParser.parseInterval(buf);
+          if (datum == null) {
+            datum = DatumFactory.createInterval(decodeString(buf));
+          }
           break;
         case PROTOBUF: {
           ProtobufDatumFactory factory = ProtobufDatumFactory.get(col.getDataType());
@@ -234,8 +259,7 @@ public class TextFieldSerializerDeserializer implements FieldSerializerDeseriali
           break;
         }
         case INET4:
-          datum = DatumFactory.createInet4(
-              decoder.decode(buf.nioBuffer(buf.readerIndex(), buf.readableBytes())).toString());
+          datum = DatumFactory.createInet4(decodeString(buf));
           break;
         case BLOB: {
           byte[] bytes = new byte[buf.readableBytes()];
@@ -250,4 +274,124 @@ public class TextFieldSerializerDeserializer implements FieldSerializerDeseriali
     }
     return datum;
   }
+
+  private String decodeString(ByteBuf buf) throws IOException {
+    return decoder.decode(buf.nioBuffer(buf.readerIndex(), buf.readableBytes())).toString();
+  }
+
+  /**
+   * It parses a date directly from bytes if it is in the given format or in ISO-8601 form.
+   * Otherwise, it decodes the date into a string and parses it in the general way.
+   */
+  private Datum parseDate(ByteBuf buf) throws IOException {
+    if (dateFormat == null) {
+      if (ByteDateTimeParser.parseIsoDate(buf, timeMeta)) {
+        return DatumFactory.createDate(timeMeta.years, timeMeta.monthOfYear, timeMeta.dayOfMonth);
+      }
+      return DatumFactory.createDate(decodeString(buf));
+    } else {
+      if (dateParser != null && dateParser.parse(buf, timeMeta)) {
+        return DatumFactory.createDate(timeMeta.years, timeMeta.monthOfYear, timeMeta.dayOfMonth);
+      }
+      return new DateDatum(DateTimeFormat.parseDateTime(decodeString(buf), dateFormat));
+    }
+  }
+
+  private Datum parseTimestamp(ByteBuf buf) throws IOException {
+    boolean parsed;
+    if (timestampFormat == null) {
+      parsed = ByteDateTimeParser.parseIsoTimestamp(buf, timeMeta);
+    } else {
+      parsed = timestampParser != null && timestampParser.parse(buf, timeMeta);
+    }
+
+    if (parsed) {
+      long timestamp = DateTimeUtil.toJulianTimestamp(timeMeta);
+      if (hasTimezone) {
+        // the same as DateTimeUtil.toUTCTimezone()
+        timestamp -= timezone.getRawOffset() * 1000L;
+      }
+      return DatumFactory.createTimestamp(timestamp);
+    }
+
+    if (timestampFormat == null) {
+      if (hasTimezone) {
+        return DatumFactory.createTimestamp(decodeString(buf), timezone);
+      } else {
+        return DatumFactory.createTimestamp(decodeString(buf));
+      }
+    } else {
+      TimeMeta tm = DateTimeFormat.parseDateTime(decodeString(buf), timestampFormat);
+      if (hasTimezone) {
+        DateTimeUtil.toUTCTimezone(tm, timezone);
+      }
+      return DatumFactory.createTimestamp(DateTimeUtil.toJulianTimestamp(tm));
+    }
+  }
+
+  /**
+   * A decimal with a mantissa up to 2^24 and up to 10 fraction digits is exactly computed by a float division,
+   * because both operands are exactly representable in float. Other values are parsed by Float.parseFloat().
+   */
+  private float parseFloat(ByteBuf buf) throws IOException {
+    int index = buf.readerIndex();
+    int end = buf.writerIndex();
+    boolean negative = false;
+    if (index < end && (buf.getByte(index) == '-' || buf.getByte(index) == '+')) {
+      negative = buf.getByte(index) == '-';
+      index++;
+    }
+
+    int mantissa = 0;
+    int digits = 0;
+    int scale = -1;
+    for (; index < end; index++) {
+      byte b = buf.getByte(index);
+      if (b >= '0' && b <= '9') {
+        mantissa = mantissa * 10 + (b - '0');
+        digits++;
+        if (mantissa > FLOAT_MAX_EXACT_MANTISSA) {
+          break;
+        }
+        if (scale >= 0) {
+          scale++;
+        }
+      } else if (b == '.' && scale < 0) {
+        scale = 0;
+      } else {
+        break;
+      }
+    }
+
+    if (index == end && digits > 0 && scale < FLOAT_POWERS_OF_TEN.length) {
+      float value = scale > 0 ? mantissa / FLOAT_POWERS_OF_TEN[scale] : mantissa;
+      return negative ? -value : value;
+    }
+    return Float.parseFloat(decodeString(buf));
+  }
+
+  private static byte parseByte(ByteBuf buf) {
+    int value = NumberUtil.parseInt(buf);
+    if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+      throw new NumberFormatException("Value out of range. Value:" + value);
+    }
+    return (byte) value;
+  }
+
+  /**
+   * @return The bytes without leading and trailing whitespaces, like String.trim()
+   */
+  private static byte[] trimBytes(ByteBuf buf) {
+    int start = buf.readerIndex();
+    int end = buf.writerIndex();
+    while (start < end && (buf.getByte(start) & 0xff) <= ' ') {
+      start++;
+    }
+    while (start < end && (buf.getByte(end - 1) & 0xff) <= ' ') {
+      end--;
+    }
+    byte[] bytes = new byte[end - start];
+    buf.getBytes(start, bytes);
+    return bytes;
+  }
 }
@@ -33,6 +33,7 @@ import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.util.datetime.DateTimeUtil;
 import org.junit.Test;
 
 import java.io.File;
@@ -177,4 +178,70 @@ public class TestDelimitedTextFile {
       scanner.close();
     }
   }
+
+  @Test
+  public void testDateTimeFields() throws IOException {
+    Schema dateTimeSchema = new Schema();
+    dateTimeSchema.addColumn("col1", Type.DATE);
+    dateTimeSchema.addColumn("col2", Type.TIMESTAMP);
+    dateTimeSchema.addColumn("col3", Type.TIME);
+    dateTimeSchema.addColumn("col4", Type.FLOAT4);
+    dateTimeSchema.addColumn("col5", Type.CHAR, 7);
+
+    Tuple expected = new VTuple(5);
+    expected.put(new Datum[] {
+        DatumFactory.createDate(2014, 5, 6),
+        DatumFactory.createTimestamp(DateTimeUtil.toJulianTimestamp(2014, 5, 6, 7, 8, 9, 500000)),
+        DatumFactory.createTime(DateTimeUtil.toTime(7, 8, 9, 0)),
+        DatumFactory.createFloat4(3.25f),
+        DatumFactory.createChar("tajo")
+    });
+
+    TajoConf conf = new TajoConf();
+    TableMeta meta = CatalogUtil.newTableMeta(CatalogProtos.StoreType.TEXTFILE);
+    // the first line is in ISO-8601 form, and the second line is parsed by the general parsers
+    FileFragment fragment = getFileFragment("testDateTime.txt");
+    Scanner scanner = StorageManager.getFileStorageManager(conf).getScanner(meta, dateTimeSchema, fragment);
+    scanner.init();
+
+    Tuple tuple;
+    int i = 0;
+    while ((tuple = scanner.next()) != null) {
+      assertEquals(expected, tuple);
+      i++;
+    }
+    assertEquals(2, i);
+    scanner.close();
+  }
+
+  @Test
+  public void testDateTimeFormats() throws IOException {
+    Schema dateTimeSchema = new Schema();
+    dateTimeSchema.addColumn("col1", Type.DATE);
+    dateTimeSchema.addColumn("col2", Type.TIMESTAMP);
+
+    Tuple expected = new VTuple(2);
+    expected.put(new Datum[] {
+        DatumFactory.createDate(2014, 5, 6),
+        DatumFactory.createTimestamp(DateTimeUtil.toJulianTimestamp(2014, 5, 6, 7, 8, 9, 0))
+    });
+
+    TajoConf conf = new TajoConf();
+    TableMeta meta = CatalogUtil.newTableMeta(CatalogProtos.StoreType.TEXTFILE);
+    meta.putOption(StorageConstants.TEXT_DATE_FORMAT, "YYYYMMDD");
+    meta.putOption(StorageConstants.TEXT_TIMESTAMP_FORMAT, "YYYYMMDDHH24MISS");
+    // the date of the second line is not fixed-width, so it is parsed by to_timestamp()
+    FileFragment fragment = getFileFragment("testDateTimeFormat.txt");
+    Scanner scanner = StorageManager.getFileStorageManager(conf).getScanner(meta, dateTimeSchema, fragment);
+    scanner.init();
+
+    Tuple tuple;
+    int i = 0;
+    while ((tuple = scanner.next()) != null) {
+      assertEquals(expected, tuple);
+      i++;
+    }
+    assertEquals(2, i);
+    scanner.close();
+  }
 }
@@ -812,6 +812,123 @@ public class TestStorages {
     }
   }
 
+  @Test
+  public void testRawFileMemoryMappedScanner() throws IOException {
+    if (storeType != StoreType.RAW) {
+      return;
+    }
+
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("comment", Type.TEXT);
+
+    TableMeta meta = CatalogUtil.newTableMeta(storeType);
+    Path tablePath = new Path(testDir, "MemoryMapped.data");
+    FileStorageManager sm = (FileStorageManager)StorageManager.getFileStorageManager(conf);
+    FileAppender appender = (FileAppender) sm.getAppender(meta, schema, tablePath);
+    appender.init();
+
+    int tupleNum = 1000;
+    List<Long> offsets = Lists.newArrayList();
+    StringBuilder comment = new StringBuilder();
+    for (int i = 0; i < tupleNum; i++) {
+      offsets.add(appender.getOffset());
+      // some records are larger than the map window
+      comment.setLength(0);
+      for (int j = 0; j < i % 300; j++) {
+        comment.append((char) ('a' + j % 26));
+      }
+      VTuple vTuple = new VTuple(2);
+      vTuple.put(0, DatumFactory.createInt4(i));
+      vTuple.put(1, DatumFactory.createText(comment.toString()));
+      appender.addTuple(vTuple);
+    }
+    appender.close();
+
+    FileStatus status = fs.getFileStatus(tablePath);
+    FileFragment fragment = new FileFragment("table", tablePath, 0, status.getLen());
+
+    TajoConf mmapConf = new TajoConf(conf);
+    mmapConf.setBoolean(RawFile.MMAP_ENABLED, true);
+    mmapConf.setInt(RawFile.MMAP_WINDOW_SIZE, 256);
+    TajoConf channelConf = new TajoConf(conf);
+    channelConf.setBoolean(RawFile.MMAP_ENABLED, false);
+
+    RawFile.RawFileScanner mmapScanner = new RawFile.RawFileScanner(mmapConf, schema, meta, fragment);
+    RawFile.RawFileScanner channelScanner = new RawFile.RawFileScanner(channelConf, schema, meta, fragment);
+    mmapScanner.init();
+    channelScanner.init();
+
+    int tupleCnt = 0;
+    Tuple expected;
+    while ((expected = channelScanner.next()) != null) {
+      Tuple retrieved = mmapScanner.next();
+      assertEquals(expected, retrieved);
+      assertEquals(tupleCnt, retrieved.getInt4(0));
+      tupleCnt++;
+    }
+    assertEquals(tupleNum, tupleCnt);
+    assertTrue(mmapScanner.next() == null);
+
+    // seek within and across map windows
+    for (int i : new int[] {999, 3, 4, 500, 0}) {
+      mmapScanner.seek(offsets.get(i));
+      assertEquals(offsets.get(i).longValue(), mmapScanner.getNextOffset());
+      assertEquals(i, mmapScanner.next().getInt4(0));
+    }
+
+    mmapScanner.reset();
+    assertEquals(0, mmapScanner.next().getInt4(0));
+
+    mmapScanner.close();
+    channelScanner.close();
+  }
+
+  @Test
+  public void testRawFileCloseWithoutMemoryMap() throws IOException {
+    if (storeType != StoreType.RAW) {
+      return;
+    }
+
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+
+    TableMeta meta = CatalogUtil.newTableMeta(storeType);
+    Path tablePath = new Path(testDir, "CloseWithoutMemoryMap.data");
+    FileStorageManager sm = (FileStorageManager)StorageManager.getFileStorageManager(conf);
+    FileAppender appender = (FileAppender) sm.getAppender(meta, schema, tablePath);
+    appender.init();
+    for (int i = 0; i < 100; i++) {
+      VTuple vTuple = new VTuple(1);
+      vTuple.put(0, DatumFactory.createInt4(i));
+      appender.addTuple(vTuple);
+    }
+    appender.close();
+
+    FileStatus status = fs.getFileStatus(tablePath);
+    FileFragment fragment = new FileFragment("table", tablePath, 0, status.getLen());
+    TajoConf channelConf = new TajoConf(conf);
+    channelConf.setBoolean(RawFile.MMAP_ENABLED, false);
+
+    // closed in the middle of the file
+    RawFile.RawFileScanner scanner = new RawFile.RawFileScanner(channelConf, schema, meta, fragment);
+    scanner.init();
+    assertEquals(0, scanner.next().getInt4(0));
+    scanner.close();
+
+    // closed after a reset
+    scanner = new RawFile.RawFileScanner(channelConf, schema, meta, fragment);
+    scanner.init();
+    int tupleCnt = 0;
+    while (scanner.next() != null) {
+      tupleCnt++;
+    }
+    assertEquals(100, tupleCnt);
+    scanner.reset();
+    assertEquals(0, scanner.next().getInt4(0));
+    scanner.close();
+  }
+
   @Test
   public void testSeekableScanner() throws IOException {
     if (!seekable) {
@@ -22,6 +22,7 @@ import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.proto.CatalogProtos;
@@ -31,6 +32,7 @@ import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.StorageManager;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
@@ -98,4 +100,49 @@ public class TestJsonSerDe {
 
     assertEquals(baseTuple, tuple);
   }
+
+  @Test
+  public void testNestedFieldProjection() throws IOException {
+    TajoConf conf = new TajoConf();
+
+    Schema nestedSchema = new Schema();
+    nestedSchema.addColumn("id", TajoDataTypes.Type.INT8);
+    nestedSchema.addColumn("name", TajoDataTypes.Type.TEXT);
+    nestedSchema.addColumn("user_id", TajoDataTypes.Type.INT4);
+    nestedSchema.addColumn("score", TajoDataTypes.Type.FLOAT8);
+
+    TableMeta meta = CatalogUtil.newTableMeta(CatalogProtos.StoreType.JSON);
+    meta.putOption(StorageConstants.JSON_FIELD_PATH_PREFIX + "user_id", "payload.user.id");
+    meta.putOption(StorageConstants.JSON_FIELD_PATH_PREFIX + "score", "payload.score");
+
+    Path tablePath = new Path(getResourcePath("dataset", "TestJsonSerDe"), "testNestedFields.json");
+    FileSystem fs = FileSystem.getLocal(conf);
+    FileStatus status = fs.getFileStatus(tablePath);
+    FileFragment fragment = new FileFragment("table", tablePath, 0, status.getLen());
+    Scanner scanner =  StorageManager.getFileStorageManager(conf).getScanner(meta, nestedSchema, fragment);
+    scanner.setTarget(new Column[] {nestedSchema.getColumn("id"), nestedSchema.getColumn("name"),
+        nestedSchema.getColumn("user_id"), nestedSchema.getColumn("score")});
+    scanner.init();
+
+    Tuple tuple = scanner.next();
+    assertEquals(1L, tuple.getInt8(0));
+    assertEquals("a\"b\u00e9", tuple.getText(1));
+    assertEquals(10, tuple.getInt4(2));
+    assertEquals(0.5d, tuple.getFloat8(3), 0);
+
+    tuple = scanner.next();
+    assertEquals(2L, tuple.getInt8(0));
+    assertTrue(tuple.isNull(1));
+    assertTrue(tuple.isNull(2));
+    assertTrue(tuple.isNull(3));
+
+    tuple = scanner.next();
+    assertEquals(3L, tuple.getInt8(0));
+    assertTrue(tuple.isNull(1));
+    assertTrue(tuple.isNull(2));
+    assertEquals(-125d, tuple.getFloat8(3), 0);
+
+    assertNull(scanner.next());
+    scanner.close();
+  }
 }